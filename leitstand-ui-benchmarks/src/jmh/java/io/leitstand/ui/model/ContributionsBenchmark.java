@@ -0,0 +1,135 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static io.leitstand.ui.model.Contribution.loadContribution;
+import static io.leitstand.ui.model.ModuleDescriptor.newModuleDescriptor;
+import static io.leitstand.ui.model.ModuleMenu.newModuleMenu;
+import static io.leitstand.ui.model.ModuleMenuItem.newModuleMenuItem;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the extension lookup for all modules at startup with and without the {@link ContributionIndex}.
+ * <p>
+ * The <code>scan</code> benchmark replicates the former lookup that scanned all contributions for every module.
+ * The <code>index</code> benchmark builds the contribution index and looks up the extensions of every module.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+public class ContributionsBenchmark {
+
+	private static final int MODULES = 50;
+
+	@Param({"10","100","1000"})
+	private int contributions;
+
+	private List<Contribution> contribs;
+	private List<ModuleDescriptor> modules;
+
+	@Setup
+	public void loadContributions() throws IOException {
+		Path dir = Files.createTempDirectory("contrib");
+		contribs = new ArrayList<>();
+		for(int i=0; i < contributions; i++) {
+			Path file = dir.resolve(format("contrib-%d.yaml",i));
+			Files.write(file, contribution(i).getBytes(UTF_8));
+			contribs.add(loadContribution(file.toUri().toURL()).build());
+		}
+		modules = new ArrayList<>();
+		for(int i=0; i < MODULES; i++) {
+			modules.add(newModuleDescriptor()
+						.withName("module-"+i)
+						.withMenus(newModuleMenu()
+								   .withName("main")
+								   .withItems(newModuleMenuItem()
+										   	  .withName("item")
+										   	  .withView("item.html")))
+						.build());
+		}
+	}
+
+	private static String contribution(int i) {
+		return format("name: contrib-%1$d%n"+
+					  "provider: leitstand.io%n"+
+					  "controller: controller.js%n"+
+					  "extensions:%n"+
+					  "- extend:%n"+
+					  "    module: module-%2$d%n"+
+					  "    menu: main%n"+
+					  "    after: item%n"+
+					  "  items:%n"+
+					  "  - item: item-%1$d%n"+
+					  "    view: item-%1$d.html%n"+
+					  "- extend:%n"+
+					  "    module: module-%2$d%n"+
+					  "    after: main%n"+
+					  "  menus:%n"+
+					  "  - menu: menu-%1$d%n"+
+					  "    items:%n"+
+					  "    - item: menu-item-%1$d%n"+
+					  "      view: menu-item-%1$d.html%n",
+					  i,
+					  i % MODULES);
+	}
+
+	@Benchmark
+	public void scan(Blackhole blackhole) {
+		for(ModuleDescriptor module : modules) {
+			List<Extension> extensions = new LinkedList<>();
+			for(Contribution contrib : contribs) {
+				if(contrib.contributesTo(module)) {
+					for(Extension extension : contrib.getExtensions()) {
+						if(extension.isExtensionFor(module)) {
+							extensions.add(extension);
+						}
+					}
+				}
+			}
+			blackhole.consume(extensions);
+		}
+	}
+
+	@Benchmark
+	public void index(Blackhole blackhole) {
+		ContributionIndex index = ContributionIndex.index(contribs);
+		for(ModuleDescriptor module : modules) {
+			blackhole.consume(index.getContributors(module.getModule()));
+			blackhole.consume(index.getExtensions(module.getModule()));
+		}
+	}
+
+}
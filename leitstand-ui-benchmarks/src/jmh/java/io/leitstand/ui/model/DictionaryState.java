@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static io.leitstand.ui.service.DictionaryEntry.newDictionaryEntry;
+import static io.leitstand.ui.service.DictionaryId.randomDictionaryId;
+import static io.leitstand.ui.service.DictionaryName.dictionaryName;
+
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.leitstand.ui.service.DictionaryEntry;
+import io.leitstand.ui.service.DictionarySettings;
+
+/**
+ * A dictionary and its settings with the configured number of entries.
+ */
+@State(Scope.Benchmark)
+public class DictionaryState {
+
+	@Param({"10","100","1000"})
+	private int entries;
+
+	Dictionary dictionary;
+	DictionarySettings settings;
+
+	@Setup
+	public void createDictionary() {
+		SortedSet<DictionaryEntry> values = new TreeSet<>();
+		for(int i=0; i < entries; i++) {
+			values.add(newDictionaryEntry()
+					   .withValue("value-"+i)
+					   .withLabel("Value "+i)
+					   .withDefaultValue(i == 0)
+					   .build());
+		}
+		dictionary = new Dictionary(randomDictionaryId(),
+									dictionaryName("benchmark"));
+		dictionary.setDescription("Benchmark dictionary");
+		dictionary.setEntries(values);
+		settings = DefaultDictionaryService.settingsOf(dictionary);
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static io.leitstand.ui.model.ModuleMenuItem.newModuleMenuItem;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the {@link ExtensionSorter} for menus of different sizes.
+ * <p>
+ * Half of the menu items are contributed. 
+ * Every contributed item refers to a random preceding item by either an <code>after</code> or a <code>before</code> constraint.
+ * A fixed seed makes all runs comparable.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+public class ExtensionSorterBenchmark {
+
+	@Param({"10","100","1000"})
+	private int items;
+
+	private List<ModuleMenuItem> menu;
+	private Map<ModuleMenuItem,List<ExtensionPoint>> points;
+
+	@Setup
+	public void createMenu() {
+		Random random = new Random(42);
+		menu = new ArrayList<>(items);
+		points = new LinkedHashMap<>();
+		for(int i=0; i < items; i++) {
+			ModuleMenuItem item = newModuleMenuItem()
+								  .withName("item-"+i)
+								  .withView("item-"+i+".html")
+								  .build();
+			menu.add(item);
+			if(i >= items/2) {
+				String ref = "item-"+random.nextInt(i);
+				ExtensionPoint point = random.nextBoolean() ? new ExtensionPoint().after(ref) : new ExtensionPoint().before(ref);
+				points.put(item, asList(point));
+			}
+		}
+	}
+
+	@Benchmark
+	public List<ModuleMenuItem> sort() {
+		return new ExtensionSorter<>(points, menu).sort();
+	}
+
+}
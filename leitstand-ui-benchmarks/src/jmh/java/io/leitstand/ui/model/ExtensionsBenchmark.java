@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static io.leitstand.ui.model.Contribution.loadContribution;
+import static io.leitstand.ui.model.Fixtures.contributionYaml;
+import static io.leitstand.ui.model.Fixtures.moduleYaml;
+import static io.leitstand.ui.model.Fixtures.write;
+import static io.leitstand.ui.model.ModuleDescriptor.readModuleDescriptor;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.stream.Collectors.toList;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures how contributions are applied to a module descriptor and to a module menu.
+ * <p>
+ * Extensions modify the module descriptor. Every benchmark therefore extends a copy of the module descriptor. 
+ * The <code>copyModuleDescriptor</code> benchmark measures the copy overhead.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+public class ExtensionsBenchmark {
+
+	@Param({"10","100","1000"})
+	private int contributions;
+
+	private ModuleDescriptor template;
+	private ModuleMenu menu;
+	private List<Extension> moduleExtensions;
+	private List<Extension> menuExtensions;
+
+	@Setup
+	public void loadDescriptors() throws IOException {
+		Path dir = Files.createTempDirectory("extensions");
+		template = readModuleDescriptor(write(dir, "module.yaml", moduleYaml("inventory", 5, 10))).build();
+		menu = template.getMenus().get(0);
+		List<Contribution> contribs = new ArrayList<>();
+		for(int i=0; i < contributions; i++) {
+			contribs.add(loadContribution(write(dir,
+												format("contrib-%d.yaml",i),
+												contributionYaml(i, "inventory", 5)))
+						 .build());
+		}
+		moduleExtensions = ContributionIndex.index(contribs).getExtensions("inventory");
+		menuExtensions = moduleExtensions.stream()
+										 .filter(Extension::isModuleMenuExtension)
+										 .filter(e -> menu.getName().equals(e.getExtensionPoint().getMenu()))
+										 .collect(toList());
+	}
+
+	@Benchmark
+	public ModuleDescriptor copyModuleDescriptor() {
+		return template.copy();
+	}
+
+	@Benchmark
+	public ModuleDescriptor addModuleExtensions() {
+		ModuleDescriptor module = template.copy();
+		module.addExtensions(moduleExtensions);
+		return module;
+	}
+
+	@Benchmark
+	public ModuleMenu addMenuExtensions() {
+		ModuleMenu copy = new ModuleMenu(menu);
+		copy.addExtensions(menuExtensions);
+		return copy;
+	}
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Creates the YAML descriptors processed by the benchmarks.
+ */
+final class Fixtures {
+
+	/**
+	 * Returns a module descriptor with the specified number of menus and items per menu.
+	 * @param module the module name
+	 * @param menus the number of menus
+	 * @param items the number of items per menu
+	 * @return the module descriptor YAML document
+	 */
+	static String moduleYaml(String module, int menus, int items) {
+		StringBuilder yaml = new StringBuilder();
+		yaml.append(format("module: %s%n",module));
+		yaml.append(format("menus:%n"));
+		for(int m=0; m < menus; m++) {
+			yaml.append(format("- menu: menu-%d%n",m))
+				.append(format("  label: Menu %d%n",m))
+				.append(format("  title: Menu %d of module %s%n",m,module))
+				.append(format("  scopesAllowed:%n  - ivt%n  - ivt.read%n"))
+				.append(format("  query:%n    group: \"{{group_id}}\"%n"))
+				.append(format("  items:%n"));
+			for(int i=0; i < items; i++) {
+				yaml.append(format("  - item: item-%d-%d%n",m,i))
+					.append(format("    label: Item %d%n",i))
+					.append(format("    title: Item %d of menu %d%n",i,m))
+					.append(format("    view: item-%d-%d.html%n",m,i));
+			}
+		}
+		return yaml.toString();
+	}
+
+	/**
+	 * Returns a contribution that adds a menu with the specified number of items to the specified module
+	 * and an item to the first menu of the module.
+	 * @param i the contribution number
+	 * @param module the name of the extended module
+	 * @param items the number of items of the contributed menu
+	 * @return the contribution YAML document
+	 */
+	static String contributionYaml(int i, String module, int items) {
+		StringBuilder yaml = new StringBuilder();
+		yaml.append(format("name: contrib-%d%n",i))
+			.append(format("provider: leitstand.io%n"))
+			.append(format("controller: controller.js%n"))
+			.append(format("extensions:%n"))
+			.append(format("- extend:%n"))
+			.append(format("    module: %s%n",module))
+			.append(format("    menu: menu-0%n"))
+			.append(format("    after: item-0-0%n"))
+			.append(format("  items:%n"))
+			.append(format("  - item: contrib-item-%d%n",i))
+			.append(format("    view: contrib-item-%d.html%n",i))
+			.append(format("- extend:%n"))
+			.append(format("    module: %s%n",module))
+			.append(format("    after: menu-0%n"))
+			.append(format("  menus:%n"))
+			.append(format("  - menu: contrib-menu-%d%n",i))
+			.append(format("    items:%n"));
+		for(int j=0; j < items; j++) {
+			yaml.append(format("    - item: contrib-menu-item-%d-%d%n",i,j))
+				.append(format("      view: contrib-menu-item-%d-%d.html%n",i,j));
+		}
+		return yaml.toString();
+	}
+
+	/**
+	 * Writes the YAML document to the specified directory.
+	 * @param dir the target directory
+	 * @param name the file name
+	 * @param yaml the YAML document
+	 * @return the URL of the written file
+	 * @throws IOException if the file cannot be written
+	 */
+	static URL write(Path dir, String name, String yaml) throws IOException {
+		Path file = dir.resolve(name);
+		Files.write(file, yaml.getBytes(UTF_8));
+		return file.toUri().toURL();
+	}
+
+	private Fixtures() {
+		// No instances allowed
+	}
+}
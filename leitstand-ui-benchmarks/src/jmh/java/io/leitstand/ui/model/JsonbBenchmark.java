@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static io.leitstand.ui.jsonb.JsonPayload.toJsonPayload;
+import static io.leitstand.ui.model.Contribution.loadContribution;
+import static io.leitstand.ui.model.Fixtures.contributionYaml;
+import static io.leitstand.ui.model.Fixtures.moduleYaml;
+import static io.leitstand.ui.model.Fixtures.write;
+import static io.leitstand.ui.model.ModuleDescriptor.readModuleDescriptor;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static javax.json.bind.config.PropertyNamingStrategy.LOWER_CASE_WITH_UNDERSCORES;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+import javax.json.bind.JsonbConfig;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.leitstand.ui.jsonb.JsonPayload;
+/**
+ * Measures the JSON-B serialization of a module descriptor extended by 10 contributions and of dictionary settings with 10, 100 and 1000 entries.
+ * <p>
+ * The <code>createModuleDescriptorPayload</code> benchmark additionally includes the content hash computation 
+ * and the compression of the pre-serialized module descriptor.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+public class JsonbBenchmark {
+
+	private Jsonb jsonb;
+	private ModuleDescriptor descriptor;
+
+	@Setup
+	public void createDescriptor() throws IOException {
+		jsonb = JsonbBuilder.create(new JsonbConfig()
+									.withPropertyNamingStrategy(LOWER_CASE_WITH_UNDERSCORES));
+		Path dir = Files.createTempDirectory("jsonb");
+		descriptor = readModuleDescriptor(write(dir, "module.yaml", moduleYaml("inventory", 5, 10))).build();
+		List<Contribution> contribs = new ArrayList<>();
+		for(int i=0; i < 10; i++) {
+			contribs.add(loadContribution(write(dir,
+												format("contrib-%d.yaml",i),
+												contributionYaml(i, "inventory", 5)))
+						 .build());
+		}
+		descriptor.addExtensions(ContributionIndex.index(contribs).getExtensions("inventory"));
+	}
+
+	@Benchmark
+	public String serializeModuleDescriptor() {
+		return jsonb.toJson(descriptor);
+	}
+
+	@Benchmark
+	public JsonPayload createModuleDescriptorPayload() {
+		return toJsonPayload(descriptor);
+	}
+
+	@Benchmark
+	public String serializeDictionarySettings(DictionaryState state) {
+		return jsonb.toJson(state.settings);
+	}
+
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static io.leitstand.ui.service.TagInfo.newTagInfo;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import javax.enterprise.event.Event;
+import javax.enterprise.event.NotificationOptions;
+import javax.enterprise.util.TypeLiteral;
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import io.leitstand.commons.db.DatabaseService;
+import io.leitstand.ui.service.TagInfo;
+
+/**
+ * Measures the latency and the number of statements of {@link DefaultTagService#storeTags(Set)} 
+ * for 10, 100 and 1000 tags and different batch sizes.
+ * A batch size of <code>1</code> issues one statement per tag.
+ * <p>
+ * The benchmark requires a PostgreSQL database, 
+ * because the tags are written by <code>INSERT ... ON CONFLICT</code> statements.
+ * The database is set by the <code>benchmark.jdbc.url</code>, <code>benchmark.jdbc.user</code> 
+ * and <code>benchmark.jdbc.password</code> system properties.
+ * The number of calls and the number of executed statements are reported as {@link StatementCounters}.
+ * Divide the statements by the calls to get the statements per call.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MILLISECONDS)
+public class TagServiceBenchmark {
+
+	private static final String URL = System.getProperty("benchmark.jdbc.url", "jdbc:postgresql://localhost:5432/leitstand");
+	private static final String USER = System.getProperty("benchmark.jdbc.user", "leitstand");
+	private static final String PASSWORD = System.getProperty("benchmark.jdbc.password", "leitstand");
+	
+	@Param({"10","100","1000"})
+	private int tags;
+	
+	@Param({"1","100","500"})
+	private int batchSize;
+	
+	private Set<TagInfo> tagSet;
+	private DefaultTagService service;
+	private final AtomicLong statements = new AtomicLong();
+	
+	/**
+	 * Counts the calls and the statements of an iteration.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class StatementCounters {
+		
+		public long calls;
+		public long statements;
+		
+		@Setup(Level.Iteration)
+		public void reset() {
+			calls = 0;
+			statements = 0;
+		}
+	}
+	
+	@Setup(Level.Trial)
+	public void createTagService() throws SQLException {
+		execute(stmt -> {
+			try {
+				stmt.execute("CREATE SCHEMA IF NOT EXISTS leitstand");
+				stmt.execute("CREATE TABLE IF NOT EXISTS leitstand.tag (name VARCHAR PRIMARY KEY, color VARCHAR, tsmodified TIMESTAMP)");
+			} catch (SQLException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		tagSet = new LinkedHashSet<>();
+		for(int i=0; i < tags; i++) {
+			tagSet.add(newTagInfo()
+					   .withName("benchmark-"+i)
+					   .withColor(i % 2 == 0 ? "red" : "green")
+					   .build());
+		}
+		DatabaseService db = new DatabaseService(countingDataSource());
+		InvalidationChannel channel = new InMemoryInvalidationChannel();
+		service = new DefaultTagService(db,
+										channel,
+										new TagCatalog(db, channel),
+										new TagChanges(),
+										batchSize);
+	}
+	
+	@TearDown(Level.Trial)
+	public void removeTags() throws SQLException {
+		execute(stmt -> {
+			try {
+				stmt.execute("DELETE FROM leitstand.tag WHERE name LIKE 'benchmark-%'");
+			} catch (SQLException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+	}
+	
+	@Benchmark
+	public void storeTags(StatementCounters counters) {
+		long before = statements.get();
+		service.storeTags(tagSet);
+		counters.statements += statements.get() - before;
+		counters.calls++;
+	}
+	
+	/**
+	 * Discards all tag changed events, because the benchmark does not read the tags.
+	 */
+	private static final class TagChanges implements Event<TagChangedEvent> {
+
+		@Override
+		public void fire(TagChangedEvent event) {
+			// Nothing to drop
+		}
+
+		@Override
+		public <U extends TagChangedEvent> CompletionStage<U> fireAsync(U event) {
+			return completedFuture(event);
+		}
+
+		@Override
+		public <U extends TagChangedEvent> CompletionStage<U> fireAsync(U event, NotificationOptions options) {
+			return completedFuture(event);
+		}
+
+		@Override
+		public Event<TagChangedEvent> select(Annotation... qualifiers) {
+			return this;
+		}
+
+		@Override
+		public <U extends TagChangedEvent> Event<U> select(Class<U> subtype, Annotation... qualifiers) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public <U extends TagChangedEvent> Event<U> select(TypeLiteral<U> subtype, Annotation... qualifiers) {
+			throw new UnsupportedOperationException();
+		}
+	}
+	
+	private static void execute(Consumer<Statement> statement) throws SQLException {
+		try(Connection connection = DriverManager.getConnection(URL, USER, PASSWORD);
+			Statement stmt = connection.createStatement()){
+			statement.accept(stmt);
+		}
+	}
+	
+	/**
+	 * Returns a data source that counts the statements prepared on its connections.
+	 * @return the counting data source
+	 */
+	private DataSource countingDataSource() {
+		InvocationHandler dataSource = (proxy, method, args) -> {
+			if("getConnection".equals(method.getName())) {
+				return countingConnection(DriverManager.getConnection(URL, USER, PASSWORD));
+			}
+			throw new UnsupportedOperationException(method.getName());
+		};
+		return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), 
+												   new Class<?>[] {DataSource.class}, 
+												   dataSource);
+	}
+	
+	private Connection countingConnection(Connection connection) {
+		InvocationHandler counter = (proxy, method, args) -> {
+			if(method.getName().startsWith("prepare") || "createStatement".equals(method.getName())) {
+				statements.incrementAndGet();
+			}
+			try {
+				return method.invoke(connection, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		};
+		return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), 
+												   new Class<?>[] {Connection.class}, 
+												   counter);
+	}
+	
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static io.leitstand.ui.model.Contribution.loadContribution;
+import static io.leitstand.ui.model.Fixtures.contributionYaml;
+import static io.leitstand.ui.model.Fixtures.moduleYaml;
+import static io.leitstand.ui.model.Fixtures.write;
+import static io.leitstand.ui.model.ModuleDescriptor.readModuleDescriptor;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the YAML parsing of a module descriptor with 5 menus of 10 items each
+ * and of a contribution that adds a menu with 10 items and a single menu item.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+public class YamlBenchmark {
+
+	private URL module;
+	private URL contribution;
+
+	@Setup
+	public void writeDescriptors() throws IOException {
+		Path dir = Files.createTempDirectory("yaml");
+		module = write(dir, "module.yaml", moduleYaml("inventory", 5, 10));
+		contribution = write(dir, "menu.yaml", contributionYaml(0, "inventory", 10));
+	}
+
+	@Benchmark
+	public ModuleDescriptor parseModuleDescriptor() throws IOException {
+		return readModuleDescriptor(module).build();
+	}
+
+	@Benchmark
+	public Contribution parseContribution() throws IOException {
+		return loadContribution(contribution).build();
+	}
+
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.jsonb;
+
+import static java.lang.Float.parseFloat;
+import static java.lang.String.format;
+import static java.util.logging.Level.FINE;
+import static java.util.zip.Deflater.BEST_COMPRESSION;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content encodings supported for pre-serialized {@link JsonPayload}s.
+ * <p>
+ * Payloads are encoded once when they are created.
+ * <code>gzip</code> is always available.
+ * <code>br</code> (Brotli) is only available if the <em>brotli4j</em> codec is on the classpath.
+ * </p>
+ */
+public enum ContentEncoding {
+
+	/** Brotli encoding. Available if brotli4j is on the classpath.*/
+	BROTLI("br"){
+		@Override
+		boolean isAvailable() {
+			return Brotli.COMPRESS != null;
+		}
+
+		@Override
+		byte[] encode(byte[] data) throws IOException {
+			try {
+				return (byte[]) Brotli.COMPRESS.invoke(null, data);
+			} catch (Exception e) {
+				throw new IOException(e);
+			}
+		}
+	},
+
+	/** GZIP encoding.*/
+	GZIP("gzip"){
+		@Override
+		boolean isAvailable() {
+			return true;
+		}
+
+		@Override
+		byte[] encode(byte[] data) throws IOException {
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length);
+			try (GZIPOutputStream gzip = new GZIPOutputStream(buffer) {{
+				// Payloads are compressed only once. Spend the extra CPU cycles to get the smallest output.
+				def.setLevel(BEST_COMPRESSION);
+			}}){
+				gzip.write(data);
+			}
+			return buffer.toByteArray();
+		}
+	},
+
+	/** No encoding.*/
+	IDENTITY("identity"){
+		@Override
+		boolean isAvailable() {
+			return true;
+		}
+
+		@Override
+		byte[] encode(byte[] data) {
+			return data;
+		}
+	};
+
+	private static final Logger LOG = Logger.getLogger(ContentEncoding.class.getName());
+
+	/**
+	 * Looks up the optional brotli4j codec.
+	 */
+	private static final class Brotli {
+
+		private static final Method COMPRESS = lookupCodec();
+
+		private static Method lookupCodec() {
+			try {
+				Class.forName("com.aayushatharva.brotli4j.Brotli4jLoader")
+					 .getMethod("ensureAvailability")
+					 .invoke(null);
+				return Class.forName("com.aayushatharva.brotli4j.encoder.Encoder")
+							.getMethod("compress", byte[].class);
+			} catch (Throwable e) {
+				LOG.log(FINE, e, () -> format("Brotli codec not available: %s", e.getMessage()));
+				return null;
+			}
+		}
+
+	}
+
+	private final String token;
+
+	private ContentEncoding(String token) {
+		this.token = token;
+	}
+
+	/**
+	 * Returns the content coding token as used in the <code>Accept-Encoding</code> and <code>Content-Encoding</code> HTTP headers.
+	 * @return the content coding token.
+	 */
+	public String getToken() {
+		return token;
+	}
+
+	abstract boolean isAvailable();
+
+	abstract byte[] encode(byte[] data) throws IOException;
+
+	/**
+	 * Selects the best content encoding out of the available encodings for the specified <code>Accept-Encoding</code> header.
+	 * The encoding with the highest quality value is selected.
+	 * Brotli is preferred over gzip and gzip is preferred over identity if multiple encodings have the same quality value.
+	 * @param acceptEncoding the <code>Accept-Encoding</code> header value
+	 * @param available the available encodings
+	 * @return the selected encoding or {@link #IDENTITY} if none of the available encodings is accepted.
+	 */
+	static ContentEncoding negotiate(String acceptEncoding, Collection<ContentEncoding> available) {
+		if(acceptEncoding == null || acceptEncoding.isEmpty()) {
+			return IDENTITY;
+		}
+		ContentEncoding selected = IDENTITY;
+		float selectedQuality = 0;
+		// Enum order reflects the preference order.
+		for(ContentEncoding encoding : values()) {
+			if(encoding == IDENTITY || !available.contains(encoding)) {
+				continue;
+			}
+			float quality = quality(acceptEncoding, encoding.token);
+			if(quality > selectedQuality) {
+				selected = encoding;
+				selectedQuality = quality;
+			}
+		}
+		return selected;
+	}
+
+	private static float quality(String acceptEncoding, String token) {
+		float wildcard = 0;
+		for(String coding : acceptEncoding.split(",")) {
+			String[] params = coding.split(";");
+			String name = params[0].trim();
+			float quality = 1;
+			for(int i=1; i < params.length; i++) {
+				String param = params[i].trim();
+				if(param.startsWith("q=")) {
+					try {
+						quality = parseFloat(param.substring(2));
+					} catch (NumberFormatException e) {
+						quality = 0;
+					}
+				}
+			}
+			if(name.equalsIgnoreCase(token)) {
+				return quality;
+			}
+			if("*".equals(name)) {
+				wildcard = quality;
+			}
+		}
+		return wildcard;
+	}
+
+}
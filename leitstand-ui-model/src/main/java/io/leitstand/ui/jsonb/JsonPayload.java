@@ -0,0 +1,227 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.jsonb;
+
+import static io.leitstand.ui.jsonb.ContentEncoding.IDENTITY;
+import static io.leitstand.ui.jsonb.ContentEncoding.negotiate;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.copyOf;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.logging.Level.WARNING;
+import static javax.json.bind.config.PropertyNamingStrategy.LOWER_CASE_WITH_UNDERSCORES;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+import javax.json.bind.JsonbConfig;
+
+/**
+ * An immutable, pre-serialized JSON document.
+ * <p>
+ * A <code>JsonPayload</code> stores the UTF-8 encoded JSON representation of an immutable object
+ * along with a strong SHA-256 content hash.
+ * The content hash is used as entity tag to answer conditional requests without
+ * serializing the object again.
+ * </p>
+ * <p>
+ * The payload is also compressed once with every available {@link ContentEncoding}.
+ * {@link #encodedFor(String)} selects the best pre-compressed representation for the 
+ * <code>Accept-Encoding</code> header sent by the client.
+ * An encoding is omitted if it does not reduce the payload size.
+ * </p>
+ */
+public final class JsonPayload {
+
+	private static final Logger LOG = Logger.getLogger(JsonPayload.class.getName());
+	
+	/**
+	 * An encoded representation of a <code>JsonPayload</code>.
+	 */
+	public static final class Encoded {
+		
+		private final ContentEncoding encoding;
+		private final byte[] data;
+		private final String etag;
+		
+		private Encoded(ContentEncoding encoding, byte[] data, String etag) {
+			this.encoding = encoding;
+			this.data = data;
+			this.etag = etag;
+		}
+		
+		/**
+		 * Returns the content encoding of this representation.
+		 * @return the content encoding
+		 */
+		public ContentEncoding getEncoding() {
+			return encoding;
+		}
+		
+		/**
+		 * Returns the strong entity tag of this representation.
+		 * Every encoding has a distinct entity tag.
+		 * @return the entity tag value
+		 */
+		public String getEtag() {
+			return etag;
+		}
+		
+		/**
+		 * Returns the size of this representation in bytes.
+		 * @return the size of this representation in bytes.
+		 */
+		public int getLength() {
+			return data.length;
+		}
+		
+		/**
+		 * Writes this representation to the specified stream.
+		 * @param out the output stream
+		 * @throws IOException if the representation cannot be written to the stream
+		 */
+		public void writeTo(OutputStream out) throws IOException {
+			out.write(data);
+		}
+	}
+
+	private static class JsonbHolder {
+		// Lazy initialization defers the JSON-B provider lookup until a payload gets serialized.
+		private static final Jsonb JSONB = JsonbBuilder.create(new JsonbConfig()
+															   .withPropertyNamingStrategy(LOWER_CASE_WITH_UNDERSCORES));
+	}
+
+	/**
+	 * Serializes the specified object to JSON.
+	 * @param object the object to be serialized
+	 * @return the pre-serialized JSON payload
+	 */
+	public static JsonPayload toJsonPayload(Object object) {
+		return jsonPayload(JsonbHolder.JSONB.toJson(object).getBytes(UTF_8));
+	}
+
+	/**
+	 * Creates a payload from a UTF-8 encoded JSON document.
+	 * @param json the UTF-8 encoded JSON document
+	 * @return the JSON payload
+	 */
+	public static JsonPayload jsonPayload(byte[] json) {
+		return new JsonPayload(copyOf(json,json.length));
+	}
+
+	private final byte[] json;
+	private final String etag;
+	private final Map<ContentEncoding,Encoded> encodings;
+
+	private JsonPayload(byte[] json) {
+		this.json = json;
+		this.etag = sha256(json);
+		Map<ContentEncoding,Encoded> encodings = new EnumMap<>(ContentEncoding.class);
+		encodings.put(IDENTITY, new Encoded(IDENTITY,json,etag));
+		for(ContentEncoding encoding : ContentEncoding.values()) {
+			if(encoding == IDENTITY || !encoding.isAvailable()) {
+				continue;
+			}
+			try {
+				byte[] encoded = encoding.encode(json);
+				if(encoded.length < json.length) {
+					encodings.put(encoding, new Encoded(encoding,
+														encoded,
+														etag+"-"+encoding.getToken()));
+				}
+			} catch (IOException e) {
+				LOG.log(WARNING, e, () -> format("Cannot apply %s encoding: %s", 
+												 encoding.getToken(), 
+												 e.getMessage()));
+			}
+		}
+		this.encodings = unmodifiableMap(encodings);
+	}
+	
+	/**
+	 * Returns the best representation of this payload for the specified <code>Accept-Encoding</code> header.
+	 * Returns the unencoded representation if the client does not accept any of the available encodings.
+	 * @param acceptEncoding the <code>Accept-Encoding</code> header value.
+	 * @return the representation to be sent to the client.
+	 */
+	public Encoded encodedFor(String acceptEncoding) {
+		return encodings.get(negotiate(acceptEncoding, encodings.keySet()));
+	}
+
+	/**
+	 * Returns the strong entity tag of this payload.
+	 * The entity tag is the base64url encoded SHA-256 hash of the JSON document.
+	 * @return the entity tag value
+	 */
+	public String getEtag() {
+		return etag;
+	}
+
+	/**
+	 * Returns the length of the UTF-8 encoded JSON document in bytes.
+	 * @return the payload size in bytes
+	 */
+	public int getLength() {
+		return json.length;
+	}
+
+	/**
+	 * Returns a copy of the UTF-8 encoded JSON document.
+	 * @return the UTF-8 encoded JSON document
+	 */
+	public byte[] getBytes() {
+		return copyOf(json,json.length);
+	}
+
+	/**
+	 * Writes the UTF-8 encoded JSON document to the specified stream.
+	 * @param out the output stream
+	 * @throws IOException if the document cannot be written to the stream
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		out.write(json);
+	}
+
+	/**
+	 * Returns the JSON document.
+	 * @return the JSON document.
+	 */
+	@Override
+	public String toString() {
+		return new String(json,UTF_8);
+	}
+
+	static String sha256(byte[] data) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			return Base64.getUrlEncoder()
+						 .withoutPadding()
+						 .encodeToString(digest.digest(data));
+		} catch (NoSuchAlgorithmException e) {
+			// SHA-256 support is mandatory for every Java platform.
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
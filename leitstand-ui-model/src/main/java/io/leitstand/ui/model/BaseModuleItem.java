@@ -24,8 +24,11 @@ import static java.util.Collections.unmodifiableMap;
 import static java.util.Collections.unmodifiableSet;
 import static java.util.stream.Collectors.toList;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -36,7 +39,9 @@ import java.util.TreeSet;
 /**
  * Common module menu-related settings.
  */
-public abstract class BaseModuleItem implements Named {
+public abstract class BaseModuleItem implements Named, Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * Base class for builders of <code>BaseModuleItem</code> extensions.
@@ -171,6 +176,26 @@ public abstract class BaseModuleItem implements Named {
 	private Set<String> scopesAllowed;
 	private Map<String,Object> config;
 	
+	protected BaseModuleItem() {
+		// Tool constructor
+	}
+	
+	/**
+	 * Creates a copy of the specified item.
+	 * Mutable collections are copied to keep the copy independent from the original item.
+	 * @param item the item to be copied
+	 */
+	protected BaseModuleItem(BaseModuleItem item) {
+		this.label = item.label;
+		this.category = item.category;
+		this.title = item.title;
+		this.query = item.query != null ? new LinkedHashMap<>(item.query) : null;
+		this.requires = item.requires;
+		this.viewModel = item.viewModel;
+		this.scopesAllowed = item.scopesAllowed != null ? new LinkedHashSet<>(item.scopesAllowed) : null;
+		this.config = item.config != null ? new LinkedHashMap<>(item.config) : null;
+	}
+	
 	/**
 	 * Returns the menu item label to be displayed in the UI.
 	 * @return the menu item label
@@ -229,7 +254,25 @@ public abstract class BaseModuleItem implements Named {
 		}
 		return unmodifiableSet(scopesAllowed);
 	}
-	
+
+	/**
+	 * Tests whether one of the specified scopes is allowed to access this item.
+	 * An item without allowed scopes can be accessed by every authenticated user.
+	 * @param scopes the scopes to be tested
+	 * @return <code>true</code> if this item can be accessed with the specified scopes, <code>false</code> otherwise.
+	 */
+	boolean isAccessibleWith(Set<String> scopes) {
+		if(scopesAllowed == null || scopesAllowed.isEmpty()) {
+			return true;
+		}
+		for(String scope : scopesAllowed) {
+			if(scopes.contains(scope)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	/**
 	 * Returns the view model property matchers that must be satisfied to display this menu item.
 	 * @return the view model property matchers.
@@ -1,18 +1,20 @@
 
 package io.leitstand.ui.model;
 
-import static io.leitstand.commons.etc.FileProcessor.yaml;
 import static io.leitstand.commons.model.BuilderUtil.assertNotInvalidated;
 import static io.leitstand.commons.model.ObjectUtil.asSet;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.unmodifiableList;
 import static java.util.Collections.unmodifiableMap;
 import static java.util.Collections.unmodifiableSet;
+import static java.util.stream.Collectors.toSet;
 
 import java.io.IOException;
+import java.io.Serializable;
 import java.net.URL;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
@@ -20,7 +22,9 @@ import java.util.TreeSet;
 import javax.enterprise.inject.Typed;
 
 @Typed
-public class Contribution {
+public class Contribution implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 	
 	public static Builder newContribution() {
 		return new Builder();
@@ -28,46 +32,58 @@ public class Contribution {
 	
 	public static Builder loadContribution(URL url) throws IOException{
 		Builder builder = new Builder();
-		builder.contrib = yaml(Contribution.class).process(url);
+		builder.contrib = DescriptorSnapshot.read(url, Contribution.class, builder::setDigest);
 		return builder;
 	}
 	
 	
 	public static class Builder {
 		private Contribution contrib = new Contribution();
+		// Digest of the YAML file. Discarded when the contribution gets modified.
+		private byte[] digest;
+		
+		private void setDigest(byte[] digest) {
+			this.digest = digest;
+		}
 		
 		public Builder withBaseUri(String baseUri) {
 			assertNotInvalidated(getClass(), contrib);
+			digest = null;
 			contrib.baseUri = baseUri;
 			return this;
 		}
 
 		public Builder withController(String controller) {
 			assertNotInvalidated(getClass(), contrib);
+			digest = null;
 			contrib.controller = controller;
 			return this;
 		}
 		
 		public Builder withProvider(String provider) {
 			assertNotInvalidated(getClass(), contrib);
+			digest = null;
 			contrib.provider = provider;
 			return this;
 		}
 		
 		public Builder withName(String name) {
 			assertNotInvalidated(getClass(), contrib);
+			digest = null;
 			contrib.name = name;
 			return this;
 		}
 		
 		public Builder withDescription(String description) {
 			assertNotInvalidated(getClass(), contrib);
+			digest = null;
 			contrib.description = description;
 			return this;
 		}
 		
 		public Builder withCategory(String category) {
 			assertNotInvalidated(getClass(), contrib);
+			digest = null;
 			contrib.category = category;
 			return this;
 		}
@@ -78,12 +94,14 @@ public class Contribution {
 		
 		public Builder withScopesAllowed(Set<String> scopes) {
 			assertNotInvalidated(getClass(), contrib);
+			digest = null;
 			contrib.scopesAllowed = new TreeSet<>(scopes);
 			return this;
 		}
 		
 		public Builder withConfig(Map<String,Object> config) {
 			assertNotInvalidated(getClass(), contrib);
+			digest = null;
 			contrib.config = new TreeMap<>(config);
 			return this;
 		}
@@ -91,6 +109,7 @@ public class Contribution {
 		public Contribution build() {
 			try {
 				assertNotInvalidated(getClass(),contrib);
+				contrib.digest = digest;
 				return applyDefaults(contrib);
 			} finally {
 				this.contrib = null;
@@ -133,6 +152,20 @@ public class Contribution {
 	
 	private List<Extension> extensions = emptyList();
 	
+	private transient byte[] digest;
+	
+	/**
+	 * Returns the SHA-256 digest of the YAML file this contribution was read from.
+	 * @return the YAML file digest or <code>null</code> if the contribution was not read from a YAML file or has been modified.
+	 */
+	byte[] getDigest() {
+		return digest;
+	}
+	
+	void setDigest(byte[] digest) {
+		this.digest = digest;
+	}
+	
 	public List<Extension> getExtensions() {
 		return unmodifiableList(extensions);
 	}
@@ -179,6 +212,19 @@ public class Contribution {
  		return extensions.stream().anyMatch(e -> e.isExtensionFor(module));
  	}
  	
+ 	/**
+ 	 * Returns the names of all modules extended by this contribution.
+ 	 * @return the names of all extended modules.
+ 	 */
+ 	Set<String> getExtendedModules() {
+ 		return extensions.stream()
+ 						 .map(Extension::getExtensionPoint)
+ 						 .filter(Objects::nonNull)
+ 						 .map(ExtensionPoint::getModule)
+ 						 .filter(Objects::nonNull)
+ 						 .collect(toSet());
+ 	}
+ 	
  	public String getBaseUri() {
 		return baseUri;
 	}
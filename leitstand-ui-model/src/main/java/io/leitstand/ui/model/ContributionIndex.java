@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableMap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable index of all contributions.
+ * <p>
+ * The index maps a module name to the contributions extending the module and to the extensions for this module.
+ * It also lists all main menu extensions.
+ * The index is built once for all contributions to avoid scanning all contributions for every module.
+ * All lists preserve the contribution order and the order of the extensions within a contribution.
+ * </p>
+ */
+final class ContributionIndex {
+
+	/**
+	 * Creates an index for the specified contributions.
+	 * @param contributions the contributions to be indexed
+	 * @return the contribution index
+	 */
+	static ContributionIndex index(List<Contribution> contributions) {
+		Map<String,Set<Contribution>> contributors = new HashMap<>();
+		Map<String,List<Extension>> extensions = new HashMap<>();
+		List<Extension> mainMenu = new ArrayList<>();
+		for(Contribution contrib : contributions) {
+			boolean newModule = contrib.isNewModule();
+			for(Extension extension : contrib.getExtensions()) {
+				ExtensionPoint point = extension.getExtensionPoint();
+				if(point != null && point.getModule() != null) {
+					contributors.computeIfAbsent(point.getModule(), m -> new LinkedHashSet<>())
+								.add(contrib);
+					extensions.computeIfAbsent(point.getModule(), m -> new ArrayList<>())
+							  .add(extension);
+				}
+				if(newModule && extension.isMainMenuItem()) {
+					mainMenu.add(extension);
+				}
+			}
+		}
+		Map<String,List<Contribution>> contributorLists = new HashMap<>();
+		for(Map.Entry<String,Set<Contribution>> entry : contributors.entrySet()) {
+			contributorLists.put(entry.getKey(),
+								 unmodifiableList(new ArrayList<>(entry.getValue())));
+		}
+		Map<String,List<Extension>> extensionLists = new HashMap<>();
+		for(Map.Entry<String,List<Extension>> entry : extensions.entrySet()) {
+			extensionLists.put(entry.getKey(),
+							   unmodifiableList(entry.getValue()));
+		}
+		return new ContributionIndex(unmodifiableMap(contributorLists),
+									 unmodifiableMap(extensionLists),
+									 unmodifiableList(mainMenu));
+	}
+
+	private final Map<String,List<Contribution>> contributors;
+	private final Map<String,List<Extension>> extensions;
+	private final List<Extension> mainMenu;
+
+	private ContributionIndex(Map<String,List<Contribution>> contributors,
+							  Map<String,List<Extension>> extensions,
+							  List<Extension> mainMenu) {
+		this.contributors = contributors;
+		this.extensions = extensions;
+		this.mainMenu = mainMenu;
+	}
+
+	/**
+	 * Returns all contributions that extend the specified module.
+	 * @param module the module name
+	 * @return the contributions extending the module or an empty list if no contribution extends the module.
+	 */
+	List<Contribution> getContributors(String module){
+		return contributors.getOrDefault(module, emptyList());
+	}
+
+	/**
+	 * Returns all extensions for the specified module.
+	 * @param module the module name
+	 * @return the extensions for the module or an empty list if no extension exists.
+	 */
+	List<Extension> getExtensions(String module){
+		return extensions.getOrDefault(module, emptyList());
+	}
+
+	/**
+	 * Returns all main menu extensions.
+	 * @return all main menu extensions.
+	 */
+	List<Extension> getMainMenuExtensions(){
+		return mainMenu;
+	}
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static java.lang.String.format;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.logging.Level.FINE;
+import static java.util.logging.Level.WARNING;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedThreadFactory;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Event;
+import javax.inject.Inject;
+
+import io.leitstand.commons.StartupListener;
+
+/**
+ * Watches the <code>ui/contrib</code> directory for added, modified and removed contributions.
+ * <p>
+ * The watcher collects all file system events until no further event was reported for a short quiet period,
+ * in order to process the installation of an add-on consisting of multiple files at once.
+ * The watcher reloads the modified {@link Contributions}, rebuilds the affected module descriptors by means of
+ * the {@link ModuleDescriptorService} and eventually rebuilds the main menu by means of the {@link MainMenuService}.
+ * All descriptors are rebuilt on the watcher thread, i.e. off the request path.
+ * A {@link ModulesReloadedEvent} announces the rebuilt modules.
+ * </p>
+ */
+@ApplicationScoped
+public class ContributionWatcher implements StartupListener {
+
+	private static final Logger LOG = Logger.getLogger(ContributionWatcher.class.getName());
+
+	static final long QUIET_PERIOD_MILLIS = 500;
+
+	@Inject
+	private Contributions contributions;
+
+	@Inject
+	private ModuleDescriptorService modules;
+
+	@Inject
+	private MainMenuService mainMenu;
+	
+	@Inject
+	private Event<ModulesReloadedEvent> reloaded;
+
+	@Resource
+	private ManagedThreadFactory threadFactory;
+
+	private WatchService watcher;
+	private Thread thread;
+
+	@Override
+	public void onStartup() {
+		File dir = contributions.getContributionsDirectory();
+		if(dir == null || !dir.isDirectory()) {
+			LOG.fine(() -> format("Contributions directory %s does not exist. Hot reload of contributions disabled.",dir));
+			return;
+		}
+		try {
+			Path path = dir.toPath();
+			watcher = path.getFileSystem().newWatchService();
+			path.register(watcher, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+		} catch (IOException e) {
+			LOG.log(WARNING, e, () -> format("Cannot watch contributions directory %s: %s. Hot reload of contributions disabled.",
+											 dir,
+											 e.getMessage()));
+			return;
+		}
+		thread = threadFactory.newThread(this::watch);
+		thread.setName("leitstand-ui-contributions-watcher");
+		thread.start();
+		LOG.info(() -> format("Watching contributions directory %s",dir));
+	}
+
+	void watch() {
+		try {
+			while(!Thread.currentThread().isInterrupted()) {
+				Set<String> fileNames = new TreeSet<>();
+				WatchKey key = watcher.take();
+				while(key != null) {
+					for(WatchEvent<?> event : key.pollEvents()) {
+						if(event.kind() == OVERFLOW) {
+							// Events were lost. Reload all known and all existing contributions.
+							fileNames.addAll(contributions.getContributionFileNames());
+							File[] files = contributions.getContributionsDirectory().listFiles();
+							if(files != null) {
+								for(File file : files) {
+									fileNames.add(file.getName());
+								}
+							}
+							continue;
+						}
+						fileNames.add(((Path)event.context()).getFileName().toString());
+					}
+					if(!key.reset()) {
+						LOG.warning("Contributions directory is not accessible anymore. Hot reload of contributions disabled.");
+						return;
+					}
+					// Wait for subsequent events to process bulk modifications at once.
+					key = watcher.poll(QUIET_PERIOD_MILLIS, MILLISECONDS);
+				}
+				reload(fileNames);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ClosedWatchServiceException e) {
+			LOG.fine("Contributions watcher closed.");
+		}
+	}
+
+	void reload(Set<String> fileNames) {
+		try {
+			Set<String> moduleNames = contributions.reloadContributions(fileNames);
+			modules.reloadModules(moduleNames);
+			mainMenu.reloadMainMenu();
+			reloaded.fire(new ModulesReloadedEvent(moduleNames));
+			LOG.info(() -> format("Reloaded contributions %s and rebuilt modules %s",
+								  fileNames,
+								  moduleNames));
+		} catch (RuntimeException e) {
+			// Keep the watcher alive and retain the current module descriptors.
+			LOG.log(WARNING, e, () -> format("Cannot reload contributions %s: %s",
+											 fileNames,
+											 e.getMessage()));
+		}
+	}
+
+	@PreDestroy
+	protected void stopWatcher() {
+		if(watcher != null) {
+			try {
+				watcher.close();
+			} catch (IOException e) {
+				LOG.log(FINE, e, () -> format("Cannot close contributions watcher: %s",e.getMessage()));
+			}
+		}
+		if(thread != null) {
+			thread.interrupt();
+		}
+	}
+
+}
@@ -1,85 +1,244 @@
 package io.leitstand.ui.model;
 
 import static io.leitstand.commons.etc.FileProcessor.yaml;
+import static io.leitstand.ui.model.DescriptorSnapshot.sha256;
 import static io.leitstand.ui.model.ModuleApplication.newModuleApplication;
-import static java.util.Collections.unmodifiableList;
+import static io.leitstand.ui.model.ParallelLoader.loadAll;
+import static java.lang.String.format;
+import static java.nio.file.Files.readAllBytes;
+import static java.util.Collections.sort;
+import static java.util.logging.Level.WARNING;
 import static java.util.stream.Collectors.toList;
 
-import java.util.LinkedList;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.logging.Logger;
 
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedThreadFactory;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
 
 import io.leitstand.commons.StartupListener;
 import io.leitstand.commons.etc.Environment;
+import io.leitstand.commons.etc.FileProcessor;
 
+/**
+ * Provides all built-in and all external contributions.
+ * <p>
+ * External contributions are loaded from the <code>ui/contrib</code> configuration directory.
+ * The contribution files are listed by the {@link Environment} and parsed in parallel by the {@link ParallelLoader}. 
+ * The file names are only used to merge the contributions in a deterministic order and to map reloaded files to loaded contributions.
+ * {@link #reloadContributions(Collection)} reloads added, modified or removed contribution files at runtime.
+ * The contributions are published as immutable {@link ContributionIndex}, i.e. a reload never affects running module descriptor computations
+ * and the extensions of a module are looked up without scanning all contributions.
+ * </p>
+ * @see ContributionWatcher
+ */
 @ApplicationScoped
 public class Contributions implements StartupListener{
-	
-	private List<Contribution> contributions;
-	
-	@Inject
+
+	private static final Logger LOG = Logger.getLogger(Contributions.class.getName());
+
+	static final String CONTRIBUTIONS_DIR = "ui/contrib";
+
+	private volatile ContributionIndex index;
+
+	private List<Contribution> builtin;
+
+	// External contributions by file name. Sorted by file name to get a deterministic contribution order.
+	private Map<String,Contribution> external;
+
 	private Instance<Contribution> builtinContributions;
-		
-	@Inject
+
 	private Environment env;
-	
+
+	@Resource
+	ManagedThreadFactory threadFactory;
+
+	protected Contributions() {
+		// CDI
+	}
+
+	@Inject
+	protected Contributions(Instance<Contribution> builtinContributions,
+							Environment env) {
+		this.builtinContributions = builtinContributions;
+		this.env = env;
+	}
+
 	@Override
-	public void onStartup() {
-		
-		this.contributions = new LinkedList<>();
-	
+	public synchronized void onStartup() {
+
 		// Load internal contributions
-		this.contributions.addAll(builtinContributions.stream().collect(toList()));
-		
-			
+		this.builtin = builtinContributions.stream().collect(toList());
+
 		// Load external contributions from file system.
-		this.contributions.addAll(env.loadConfigs("ui/contrib", 
-											 	  f -> f.canRead() && f.isFile(), 
-											 	  yaml(Contribution.class))
-									 .stream()
-									 .map(Contribution::applyDefaults)
-									 .collect(toList()));
-		
+		// The environment lists the contribution files. The files are parsed in parallel and merged in file name order.
+		// The contributions are recorded by file name to map the files reported by the watcher to the loaded contributions.
+		this.external = new TreeMap<>();
+		List<File> files = new ArrayList<>(env.loadConfigs(CONTRIBUTIONS_DIR, 
+														   Contributions::isContributionFile, 
+														   new ContributionFiles()));
+		sort(files);
+		List<Contribution> contribs = loadAll(threadFactory, files, this::loadContribution);
+		for(int i=0; i < files.size(); i++) {
+			Contribution contrib = contribs.get(i);
+			if(contrib != null) {
+				external.put(files.get(i).getName(), contrib);
+			}
+		}
+
+		publish();
 	}
 
-	public List<Extension> findExtensions(ModuleDescriptor module){
-		List<Extension> extensions = new LinkedList<>();
-		
-		for(Contribution contrib : contributions) {
-			if(contrib.contributesTo(module)) {
-				// Register contributed menus and items
-				for(Extension extension : contrib.getExtensions()) {
-					if(extension.isExtensionFor(module)) {
-						extensions.add(extension);
-					}
+	/**
+	 * Returns the directory that contains the external contributions.
+	 * @return the external contributions directory.
+	 */
+	File getContributionsDirectory() {
+		return env.getConfigFile(CONTRIBUTIONS_DIR);
+	}
+
+	/**
+	 * Reloads the specified contribution files and returns the names of all modules affected by the modified contributions.
+	 * A contribution is removed if the file does not exist anymore.
+	 * @param fileNames the names of the added, modified or removed contribution files.
+	 * @return the names of all modules extended by the previous or the reloaded contributions.
+	 */
+	public synchronized Set<String> reloadContributions(Collection<String> fileNames) {
+		Set<String> modules = new TreeSet<>();
+		for(String fileName : fileNames) {
+			Contribution removed = external.remove(fileName);
+			if(removed != null) {
+				modules.addAll(removed.getExtendedModules());
+			}
+			File file = new File(getContributionsDirectory(),fileName);
+			if(isContributionFile(file)) {
+				Contribution added = loadContribution(file);
+				if(added != null) {
+					external.put(fileName, added);
+					modules.addAll(added.getExtendedModules());
 				}
-				// Register bootstrapper
-				ModuleApplication app = newModuleApplication()
-										.withApplicationName(contrib.getName())
-										.withDefer(true)
-										.withController(contrib.getBaseUri()+"/"+contrib.getController())
-										.build();
-				
-				module.addApplication(app);
 			}
 		}
-		return unmodifiableList(extensions);
+		publish();
+		return modules;
 	}
 
-	public List<Extension> findExtensions() {
-		List<Extension> extensions = new LinkedList<>();
-		for(Contribution contrib : contributions) {
-			if(contrib.isNewModule()) {
-				extensions.addAll(contrib.getExtensions()
-										 .stream()
-										 .filter(Extension::isMainMenuItem)
-										 .collect(toList()));
-			}
+	/**
+	 * Returns the file names of all loaded external contributions.
+	 * @return the file names of all loaded external contributions.
+	 */
+	synchronized Set<String> getContributionFileNames() {
+		return new TreeSet<>(external.keySet());
+	}
+
+	/**
+	 * Tests whether the specified file is a readable contribution file.
+	 * @param file the file
+	 * @return <code>true</code> if the file is a contribution file.
+	 */
+	static boolean isContributionFile(File file) {
+		return file.canRead() && file.isFile();
+	}
+
+	private Contribution loadContribution(File file) {
+		try {
+			byte[] yaml = readAllBytes(file.toPath());
+			Contribution contrib = yaml(Contribution.class).process(new ByteArrayInputStream(yaml));
+			// Record the digest to match precompiled module descriptors resolved from the same contribution.
+			contrib.setDigest(sha256(yaml));
+			return Contribution.applyDefaults(contrib);
+		} catch (IOException | RuntimeException e) {
+			LOG.log(WARNING, e, () -> format("Cannot load contribution %s: %s",
+											 file.getName(),
+											 e.getMessage()));
+			return null;
+		}
+	}
+
+	/**
+	 * Collects the contribution files listed by the environment. 
+	 * The files are parsed by the {@link ParallelLoader} afterwards.
+	 */
+	private static final class ContributionFiles implements FileProcessor<File> {
+
+		@Override
+		public File process(File file) {
+			return file;
+		}
+
+		@Override
+		public File process(InputStream in) {
+			// Contribution files are always listed from the contributions directory.
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	private void publish() {
+		List<Contribution> snapshot = new ArrayList<>(builtin);
+		snapshot.addAll(external.values());
+		this.index = ContributionIndex.index(snapshot);
+	}
+
+	/**
+	 * Returns all extensions for the specified module and registers the application of each contribution 
+	 * that extends the module.
+	 * @param module the module descriptor
+	 * @return the extensions for the specified module.
+	 */
+	public List<Extension> findExtensions(ModuleDescriptor module){
+		// Read the index once to process a consistent snapshot.
+		return findExtensions(this.index, module);
+	}
+
+	/**
+	 * Returns all extensions of the specified contribution index for the specified module and registers the application
+	 * of each contribution that extends the module.
+	 * @param contributions the contribution index
+	 * @param module the module descriptor
+	 * @return the extensions for the specified module.
+	 */
+	static List<Extension> findExtensions(ContributionIndex contributions, ModuleDescriptor module){
+		for(Contribution contrib : contributions.getContributors(module.getModule())) {
+			// Register bootstrapper
+			ModuleApplication app = newModuleApplication()
+									.withApplicationName(contrib.getName())
+									.withDefer(true)
+									.withController(contrib.getBaseUri()+"/"+contrib.getController())
+									.build();
+
+			module.addApplication(app);
 		}
-		return extensions;
+		return contributions.getExtensions(module.getModule());
 	}
-	
+
+	/**
+	 * Returns all contributions that extend the specified module.
+	 * @param module the module name
+	 * @return the contributions extending the module in contribution order.
+	 */
+	List<Contribution> getContributors(String module){
+		return index.getContributors(module);
+	}
+
+	/**
+	 * Returns all main menu extensions.
+	 * @return all main menu extensions.
+	 */
+	public List<Extension> findExtensions() {
+		return index.getMainMenuExtensions();
+	}
+
 }
@@ -4,56 +4,105 @@
 package io.leitstand.ui.model;
 
 import static io.leitstand.commons.messages.MessageFactory.createMessage;
+import static io.leitstand.commons.model.ObjectUtil.isDifferent;
+import static io.leitstand.ui.model.Dictionary.findDictionariesById;
+import static io.leitstand.ui.model.Dictionary.findDictionariesByName;
 import static io.leitstand.ui.model.Dictionary.findDictionariesByNamePattern;
+import static io.leitstand.ui.model.Dictionary.findDictionariesByNamePrefix;
+import static io.leitstand.ui.model.Dictionary.findDictionariesByNameSubstring;
 import static io.leitstand.ui.model.Dictionary.findDictionaryById;
 import static io.leitstand.ui.model.Dictionary.findDictionaryByName;
+import static io.leitstand.ui.model.DictionaryEntryDiff.append;
+import static io.leitstand.ui.model.DictionaryEntryDiff.mergeEntries;
+import static io.leitstand.ui.model.DictionaryEntryDiff.replace;
+import static io.leitstand.ui.model.DictionaryEntryUpdate.removeEntry;
+import static io.leitstand.ui.model.DictionaryEntryUpdate.storeEntry;
+import static io.leitstand.ui.model.DictionaryExport.exportAllDictionaries;
+import static io.leitstand.ui.model.InvalidationChannel.DICTIONARIES;
+import static io.leitstand.ui.service.DictionaryFilterMode.REGEX;
 import static io.leitstand.ui.service.DictionaryInfo.newDictionaryInfo;
 import static io.leitstand.ui.service.DictionarySettings.newDictionarySettings;
+import static io.leitstand.ui.service.DictionaryVersion.newDictionaryVersion;
 import static io.leitstand.ui.service.ReasonCode.LUI0001E_DICTIONARY_NOT_FOUND;
 import static io.leitstand.ui.service.ReasonCode.LUI0002I_DICTIONARY_STORED;
 import static io.leitstand.ui.service.ReasonCode.LUI0003I_DICTIONARY_REMOVED;
+import static io.leitstand.ui.service.ReasonCode.LUI0005I_DICTIONARY_ENTRY_STORED;
+import static io.leitstand.ui.service.ReasonCode.LUI0006I_DICTIONARY_ENTRY_REMOVED;
 import static java.lang.String.format;
 import static java.util.stream.Collectors.toList;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Logger;
 
+import javax.enterprise.event.Event;
 import javax.inject.Inject;
 
 import io.leitstand.commons.EntityNotFoundException;
 import io.leitstand.commons.messages.Messages;
+import io.leitstand.commons.model.Query;
 import io.leitstand.commons.model.Repository;
 import io.leitstand.commons.model.Service;
 import io.leitstand.model.Leitstand;
+import io.leitstand.ui.service.DictionaryCacheStatistics;
+import io.leitstand.ui.service.DictionaryEntries;
+import io.leitstand.ui.service.DictionaryEntry;
+import io.leitstand.ui.service.DictionaryExportHandler;
+import io.leitstand.ui.service.DictionaryFilterMode;
 import io.leitstand.ui.service.DictionaryId;
 import io.leitstand.ui.service.DictionaryInfo;
 import io.leitstand.ui.service.DictionaryName;
 import io.leitstand.ui.service.DictionaryService;
 import io.leitstand.ui.service.DictionarySettings;
+import io.leitstand.ui.service.DictionaryVersion;
 
 @Service
 public class DefaultDictionaryService implements DictionaryService{
 	
 	private static final Logger LOG = Logger.getLogger(DefaultDictionaryService.class.getName());
 	
+	private static final String REGEX_METACHARACTERS = "\\^$.|?*+()[]{}";
+	
 	private Repository repository;
 	
 	private Messages messages;
 	
+	private DictionaryCache cache;
+	
+	private Event<DictionaryChangedEvent> changes;
+	
+	private InvalidationChannel channel;
+	
 	protected DefaultDictionaryService() {
 		// CDI
 	}
 	
 	@Inject
 	protected DefaultDictionaryService(@Leitstand Repository repository,
-									   Messages messages) {
+									   Messages messages,
+									   DictionaryCache cache,
+									   Event<DictionaryChangedEvent> changes,
+									   InvalidationChannel channel) {
 		this.repository = repository;
 		this.messages = messages;
+		this.cache = cache;
+		this.changes = changes;
+		this.channel = channel;
 	}
 	
 	@Override
 	public List<DictionaryInfo> getDictionaries(String filter) {
-		return repository.execute(findDictionariesByNamePattern(filter))
+		return getDictionaries(filter, REGEX);
+	}
+	
+	@Override
+	public List<DictionaryInfo> getDictionaries(String filter, DictionaryFilterMode mode) {
+		return repository.execute(findDictionaries(filter, mode))
 						 .stream()
 						 .map( dict -> newDictionaryInfo()
 									   .withDictionaryId(dict.getDictionaryId())
@@ -64,8 +113,56 @@ public class DefaultDictionaryService implements DictionaryService{
 	
 	}
 
+	private static Query<List<Dictionary>> findDictionaries(String filter, DictionaryFilterMode mode) {
+		switch(mode) {
+			case PREFIX: 
+				return findDictionariesByNamePrefix(filter);
+			case REGEX:
+				if(isLiteral(filter)) {
+					// An unanchored regular expression without metacharacters matches the same names as a substring.
+					return findDictionariesByNameSubstring(filter);
+				}
+				// Regular expressions cannot be served from an index.
+				return findDictionariesByNamePattern(filter);
+			case SUBSTRING:
+			default:
+				return findDictionariesByNameSubstring(filter);
+		}
+	}
+
+	static boolean isLiteral(String pattern) {
+		if(pattern == null || pattern.isEmpty()) {
+			return false;
+		}
+		for(int i=0; i < pattern.length(); i++) {
+			if(REGEX_METACHARACTERS.indexOf(pattern.charAt(i)) >= 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	@Override
 	public DictionarySettings getDictionary(DictionaryId id) {
+		return cache.getDictionary(id, this::loadDictionary);
+	}
+	
+	@Override
+	public DictionaryVersion getDictionaryVersion(DictionaryId id) {
+		// Conditional requests are answered from the cached version without a database query.
+		return cache.getVersion(id, this::loadVersion);
+	}
+	
+	private DictionaryVersion loadVersion(DictionaryId id) {
+		// The dictionary entries are not loaded, because only the version is accessed.
+		return versionOf(findDictionary(id));
+	}
+	
+	private DictionarySettings loadDictionary(DictionaryId id) {
+		return settingsOf(findDictionary(id));
+	}
+	
+	private Dictionary findDictionary(DictionaryId id) {
 		Dictionary dict = repository.execute(findDictionaryById(id));
 		if(dict == null) {
 			LOG.fine(() -> format("%s: Dictionary %s does not exist", 
@@ -75,11 +172,30 @@ public class DefaultDictionaryService implements DictionaryService{
 											  id);
 			
 		}
-		return settingsOf(dict);
+		return dict;
 	}
 
 	@Override
 	public DictionarySettings getDictionary(DictionaryName name) {
+		return cache.getDictionary(name, this::loadDictionary);
+	}
+	
+	@Override
+	public DictionaryVersion getDictionaryVersion(DictionaryName name) {
+		// Conditional requests are answered from the cached version without a database query.
+		return cache.getVersion(name, this::loadVersion);
+	}
+	
+	private DictionaryVersion loadVersion(DictionaryName name) {
+		// The dictionary entries are not loaded, because only the version is accessed.
+		return versionOf(findDictionary(name));
+	}
+	
+	private DictionarySettings loadDictionary(DictionaryName name) {
+		return settingsOf(findDictionary(name));
+	}
+	
+	private Dictionary findDictionary(DictionaryName name) {
 		Dictionary dict = repository.execute(findDictionaryByName(name));
 		if(dict == null) {
 			LOG.fine(() -> format("%s: Dictionary %s does not exist", 
@@ -89,15 +205,63 @@ public class DefaultDictionaryService implements DictionaryService{
 											  name);
 			
 		}
-		return settingsOf(dict);
+		return dict;
+	}
+	
+	@Override
+	public DictionaryEntries getDictionaryEntries(DictionaryId id, String prefix, int offset, int limit) {
+		return cache.getEntryIndex(getDictionary(id))
+					.find(prefix, offset, limit);
+	}
+	
+	@Override
+	public DictionaryEntries getDictionaryEntries(DictionaryName name, String prefix, int offset, int limit) {
+		return cache.getEntryIndex(getDictionary(name))
+					.find(prefix, offset, limit);
+	}
+	
+	@Override
+	public List<DictionarySettings> getDictionaries(Collection<DictionaryId> ids, Collection<DictionaryName> names) {
+		// A dictionary requested by ID and name is returned once.
+		Map<DictionaryId,DictionarySettings> dictionaries = new LinkedHashMap<>();
+		for(DictionarySettings settings : cache.getDictionariesById(ids, this::loadDictionariesById)) {
+			dictionaries.putIfAbsent(settings.getDictionaryId(), settings);
+		}
+		for(DictionarySettings settings : cache.getDictionariesByName(names, this::loadDictionariesByName)) {
+			dictionaries.putIfAbsent(settings.getDictionaryId(), settings);
+		}
+		return new ArrayList<>(dictionaries.values());
 	}
 	
-	private static DictionarySettings settingsOf(Dictionary dict) {
+	private List<DictionarySettings> loadDictionariesById(Set<DictionaryId> ids) {
+		return repository.execute(findDictionariesById(ids))
+						 .stream()
+						 .map(DefaultDictionaryService::settingsOf)
+						 .collect(toList());
+	}
+	
+	private List<DictionarySettings> loadDictionariesByName(Set<DictionaryName> names) {
+		return repository.execute(findDictionariesByName(names))
+						 .stream()
+						 .map(DefaultDictionaryService::settingsOf)
+						 .collect(toList());
+	}
+	
+	static DictionaryVersion versionOf(Dictionary dict) {
+		return newDictionaryVersion()
+			   .withDictionaryId(dict.getDictionaryId())
+			   .withModCount(dict.getModCount())
+			   .withDateModified(dict.getDateModified())
+			   .build();
+	}
+	
+	static DictionarySettings settingsOf(Dictionary dict) {
 		return newDictionarySettings()
 			   .withDictionaryId(dict.getDictionaryId())
 			   .withDictionaryName(dict.getDictionaryName())
 			   .withDescription(dict.getDescription())
 			   .withEntries(dict.getEntries())
+			   .withVersion(versionOf(dict))
 			   .build();
 	}
 
@@ -107,12 +271,22 @@ public class DefaultDictionaryService implements DictionaryService{
 		Dictionary dict = repository.execute(findDictionaryById(settings.getDictionaryId()));
 		if(dict == null) {
 			dict = new Dictionary(settings.getDictionaryId(), settings.getDictionaryName());
+			dict.setEntries(settings.getEntries());
 			repository.add(dict);
 			created = true;
 		}
+		// Evict the cached dictionary under its previous and its new name.
+		invalidate(new DictionaryChangedEvent(settings.getDictionaryId(),
+												dict.getDictionaryName(),
+												settings.getDictionaryName()));
+		// Increment the dictionary version explicitly if the entries are the only modification.
+		boolean touch = !isDifferent(dict.getDictionaryName(), settings.getDictionaryName()) 
+						&& !isDifferent(dict.getDescription(), settings.getDescription());
 		dict.setDictionaryName(settings.getDictionaryName());
 		dict.setDescription(settings.getDescription());
-		dict.setEntries(settings.getEntries());
+		if(!created) {
+			storeEntries(dict, settings, touch);
+		}
 		messages.add(createMessage(LUI0002I_DICTIONARY_STORED, 
 								   settings.getDictionaryId(), 
 								   settings.getDictionaryName()));
@@ -123,6 +297,98 @@ public class DefaultDictionaryService implements DictionaryService{
 		return created;
 	}
 
+	private void storeEntries(Dictionary dict, DictionarySettings settings, boolean touch) {
+		// Write the changed entries only instead of replacing all entries of the dictionary.
+		// The changes are computed from the entries read under the dictionary lock.
+		int rows = repository.execute(mergeEntries(dict, settings.getEntries(), touch));
+		LOG.fine(() -> format("Dictionary %s (%s) entries stored: %d entry rows written",
+							  settings.getDictionaryName(),
+							  settings.getDictionaryId(),
+							  rows));
+	}
+
+	@Override
+	public void importDictionary(DictionarySettings settings) {
+		Dictionary dict = repository.execute(findDictionaryById(settings.getDictionaryId()));
+		if(dict == null) {
+			dict = new Dictionary(settings.getDictionaryId(), settings.getDictionaryName());
+			repository.add(dict);
+		}
+		invalidate(new DictionaryChangedEvent(settings.getDictionaryId(),
+											  dict.getDictionaryName(),
+											  settings.getDictionaryName()));
+		dict.setDictionaryName(settings.getDictionaryName());
+		dict.setDescription(settings.getDescription());
+		// The pending dictionary changes are flushed before the entries are replaced.
+		int rows = repository.execute(replace(settings.getEntries()).apply(dict, true));
+		LOG.fine(() -> format("Dictionary %s (%s) imported: %d entry rows written",
+							  settings.getDictionaryName(),
+							  settings.getDictionaryId(),
+							  rows));
+	}
+	
+	@Override
+	public void importDictionaryEntries(DictionaryId id, List<DictionaryEntry> entries) {
+		if(entries.isEmpty()) {
+			return;
+		}
+		Dictionary dict = findDictionary(id);
+		int rows = repository.execute(append(entries).apply(dict, true));
+		invalidate(new DictionaryChangedEvent(dict.getDictionaryId(),
+											  dict.getDictionaryName()));
+		LOG.fine(() -> format("Dictionary %s (%s) imported: %d entries added",
+							  dict.getDictionaryName(),
+							  dict.getDictionaryId(),
+							  rows));
+	}
+	
+	@Override
+	public void exportDictionaries(DictionaryExportHandler handler) {
+		int dictionaries = repository.execute(exportAllDictionaries(handler));
+		LOG.fine(() -> format("%d dictionaries exported", dictionaries));
+	}
+
+	@Override
+	public void storeDictionaryEntry(DictionaryId id, Integer modCount, DictionaryEntry entry) {
+		Dictionary dict = findDictionary(id);
+		repository.execute(storeEntry(dict, modCount, entry));
+		invalidate(new DictionaryChangedEvent(dict.getDictionaryId(),
+											  dict.getDictionaryName()));
+		messages.add(createMessage(LUI0005I_DICTIONARY_ENTRY_STORED, 
+								   dict.getDictionaryId(), 
+								   dict.getDictionaryName(),
+								   entry.getValue()));
+		LOG.fine(() -> format("%s: Entry %s of dictionary %s (%s) stored", 
+							  LUI0005I_DICTIONARY_ENTRY_STORED.getReasonCode(),
+							  entry.getValue(),
+							  dict.getDictionaryName(),
+							  dict.getDictionaryId()));
+	}
+	
+	@Override
+	public void removeDictionaryEntry(DictionaryId id, Integer modCount, String value) {
+		Dictionary dict = findDictionary(id);
+		int rows = repository.execute(removeEntry(dict, modCount, value));
+		if(rows > 0) {
+			invalidate(new DictionaryChangedEvent(dict.getDictionaryId(),
+												  dict.getDictionaryName()));
+			messages.add(createMessage(LUI0006I_DICTIONARY_ENTRY_REMOVED, 
+									   dict.getDictionaryId(), 
+									   dict.getDictionaryName(),
+									   value));
+			LOG.fine(() -> format("%s: Entry %s of dictionary %s (%s) removed", 
+								  LUI0006I_DICTIONARY_ENTRY_REMOVED.getReasonCode(),
+								  value,
+								  dict.getDictionaryName(),
+								  dict.getDictionaryId()));
+		}
+	}
+
+	@Override
+	public DictionaryCacheStatistics getCacheStatistics() {
+		return cache.getStatistics();
+	}
+
 	@Override
 	public void removeDictionary(DictionaryId id) {
 		Dictionary dict = repository.execute(findDictionaryById(id));
@@ -135,6 +401,8 @@ public class DefaultDictionaryService implements DictionaryService{
 									   dict.getDictionaryId(), 
 									   dict.getDictionaryName()));
 			repository.remove(dict);
+			invalidate(new DictionaryChangedEvent(dict.getDictionaryId(),
+													dict.getDictionaryName()));
 		}
 	}
 
@@ -150,7 +418,20 @@ public class DefaultDictionaryService implements DictionaryService{
 									   dict.getDictionaryId(), 
 									   dict.getDictionaryName()));
 			repository.remove(dict);
+			invalidate(new DictionaryChangedEvent(dict.getDictionaryId(),
+													dict.getDictionaryName()));
 		}		
 	}
+	
+	private void invalidate(DictionaryChangedEvent event) {
+		// Evict the local cache after commit and notify all other nodes.
+		changes.fire(event);
+		Set<String> keys = new LinkedHashSet<>();
+		keys.add(event.getDictionaryId().getValue());
+		for(DictionaryName name : event.getDictionaryNames()) {
+			keys.add(name.getValue());
+		}
+		channel.publish(DICTIONARIES, keys);
+	}
 
 }
@@ -1,14 +1,24 @@
 package io.leitstand.ui.model;
 
 import static io.leitstand.commons.db.DatabaseService.prepare;
+import static io.leitstand.ui.model.InvalidationChannel.TAGS;
 import static io.leitstand.ui.service.ReasonCode.LUI0010I_TAG_NOT_FOUND;
 import static io.leitstand.ui.service.TagInfo.newTagInfo;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
-import java.util.TreeSet;
 
+import javax.enterprise.event.Event;
 import javax.inject.Inject;
 
 import io.leitstand.commons.EntityNotFoundException;
@@ -25,28 +35,66 @@ import io.leitstand.ui.service.TagService;
 @Service
 public class DefaultTagService implements TagService{
 
+	/**
+	 * System property to set the maximum number of tags written by a single upsert statement.
+	 */
+	static final String BATCH_SIZE = "leitstand.ui.tags.batchsize";
+	
+	static final int DEFAULT_BATCH_SIZE = 500;
+	
+	/** 
+	 * The maximum batch size. PostgreSQL limits the number of parameters of a statement to 32767.
+	 */
+	static final int MAX_BATCH_SIZE = 10000;
+	
+	/**
+	 * Returns the configured batch size. 
+	 * @return the configured batch size.
+	 */
+	static int batchSize() {
+		return Integer.getInteger(BATCH_SIZE, DEFAULT_BATCH_SIZE);
+	}
+	
 	private DatabaseService db;
+	private InvalidationChannel channel;
+	private TagCatalog catalog;
+	private Event<TagChangedEvent> changes;
+	private int batchSize;
 	
 	protected DefaultTagService() {
 		// CDI
 	}
 	
 	@Inject
-	protected DefaultTagService(@Leitstand DatabaseService db) {
+	protected DefaultTagService(@Leitstand DatabaseService db,
+								InvalidationChannel channel,
+								TagCatalog catalog,
+								Event<TagChangedEvent> changes) {
+		this(db, channel, catalog, changes, batchSize());
+	}
+	
+	DefaultTagService(DatabaseService db,
+					  InvalidationChannel channel,
+					  TagCatalog catalog,
+					  Event<TagChangedEvent> changes,
+					  int batchSize) {
 		this.db = db;
+		this.channel = channel;
+		this.catalog = catalog;
+		this.changes = changes;
+		// The batch size is at least 1 and at most MAX_BATCH_SIZE.
+		this.batchSize = max(1, min(MAX_BATCH_SIZE, batchSize));
 	}
 
 	/**
 	 * {@inheritDoc}
+	 * <p>
+	 * The tags are read from the {@link TagCatalog}.
+	 * </p>
 	 */
 	@Override
 	public SortedSet<TagInfo> getTags() {
-		return new TreeSet<>(
-				db.executeQuery(prepare("SELECT name,color FROM leitstand.tag"), 
-								rs -> newTagInfo()
-									  .withName(rs.getString(1))
-									  .withColor(rs.getString(2))
-									  .build()));
+		return catalog.getTags();
 	}
 
 	/**
@@ -54,16 +102,8 @@ public class DefaultTagService implements TagService{
 	 */
 	@Override
 	public void storeTag(TagInfo tag) {
-		Date now = new Date();
-		db.executeUpdate(prepare("INSERT INTO leitstand.tag (name,color,tsmodified) "+
-								 "VALUES (?,?,?) "+
-								 "ON CONFLICT (name) "+
-								 "DO UPDATE "+
-								 "SET color=?", 
-								 tag.getName(), 
-								 tag.getColor(),
-								 now,
-								 tag.getColor()));	
+		upsertTags(singletonList(tag));
+		invalidate(singleton(tag.getName()));
 	}
 	
 	/**
@@ -87,12 +127,48 @@ public class DefaultTagService implements TagService{
 
 	/**
 	 * {@inheritDoc}
+	 * <p>
+	 * The tags are written by multi-row upserts. The number of tags per upsert is limited by 
+	 * the <code>{@value #BATCH_SIZE}</code> system property and defaults to <code>{@value #DEFAULT_BATCH_SIZE}</code>.
+	 * A tag that occurs more than once in the set is written with the color of its last occurrence,
+	 * because a single upsert statement cannot modify the same row twice.
+	 * </p>
 	 */
 	@Override
 	public void storeTags(Set<TagInfo> tags) {
+		Map<String,TagInfo> byName = new LinkedHashMap<>();
 		for (TagInfo tag : tags) {
-			storeTag(tag);
+			byName.put(tag.getName(), tag);
+		}
+		List<TagInfo> batch = new ArrayList<>(min(batchSize, byName.size()));
+		for (TagInfo tag : byName.values()) {
+			batch.add(tag);
+			if (batch.size() == batchSize) {
+				upsertTags(batch);
+				batch.clear();
+			}
 		}
+		if (!batch.isEmpty()) {
+			upsertTags(batch);
+		}
+		invalidate(new LinkedHashSet<>(byName.keySet()));
+	}
+	
+	private void upsertTags(List<TagInfo> tags) {
+		Date now = new Date();
+		StringBuilder sql = new StringBuilder("INSERT INTO leitstand.tag (name,color,tsmodified) VALUES ");
+		List<Object> params = new ArrayList<>(3 * tags.size());
+		for (TagInfo tag : tags) {
+			if (!params.isEmpty()) {
+				sql.append(',');
+			}
+			sql.append("(?,?,?)");
+			params.add(tag.getName());
+			params.add(tag.getColor());
+			params.add(now);
+		}
+		sql.append(" ON CONFLICT (name) DO UPDATE SET color=EXCLUDED.color");
+		db.executeUpdate(prepare(sql.toString(), params.toArray()));
 	}
 
 	/**
@@ -102,6 +178,13 @@ public class DefaultTagService implements TagService{
 	public void removeTag(String name) {
 		db.executeUpdate(prepare("DELETE FROM leitstand.tag WHERE name=?",
 				 		 		 name));
+		invalidate(singleton(name));
+	}
+	
+	private void invalidate(Set<String> names) {
+		// Drop the local tag catalog after commit and notify all other nodes.
+		changes.fire(new TagChangedEvent(names));
+		channel.publish(TAGS, names);
 	}
 	
 }
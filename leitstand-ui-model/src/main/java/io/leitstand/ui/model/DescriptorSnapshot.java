@@ -0,0 +1,435 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static io.leitstand.commons.etc.FileProcessor.yaml;
+import static io.leitstand.ui.model.ReasonCode.UIM0007W_CANNOT_READ_DESCRIPTOR_SNAPSHOT;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.logging.Level.FINE;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * A binary snapshot of precompiled module descriptor and contribution YAML files.
+ * <p>
+ * The {@link DescriptorSnapshotCompiler} parses all module descriptors and contributions of an artifact at build time
+ * and writes the parsed descriptors to <code>{@value #SNAPSHOT}</code>.
+ * Each snapshot entry is keyed by the resource path of the YAML file and stores the SHA-256 digest of the YAML file
+ * to detect stale entries.
+ * In addition, the snapshot stores the resolved module descriptors, i.e. the module descriptors with all extensions of the artifact's 
+ * contributions sorted and merged and all defaults applied.
+ * A resolved module descriptor is keyed by <code>{@value #RESOLVED}</code> and the module name and stores the 
+ * digest of the module descriptor YAML file and the YAML files of all contributions extending the module.
+ * The snapshot header stores a fingerprint of the serialized form of all descriptor classes.
+ * A snapshot compiled for a different descriptor model is rejected as a whole.
+ * </p>
+ * <p>
+ * {@link #read(URL, Class, Consumer)} looks up the snapshot of the artifact containing the YAML file.
+ * A YAML file packaged in a JAR file cannot be modified after the snapshot has been compiled.
+ * Hence the precompiled descriptor is returned without reading the YAML file.
+ * A YAML file of an exploded artifact is read and hashed and the precompiled descriptor is returned if the digests match.
+ * The YAML file is parsed if the snapshot or the entry does not exist or if the entry is stale.
+ * A snapshot is read once per artifact.
+ * </p>
+ * <p>
+ * {@link #readResolved(ModuleDescriptor, List)} returns the resolved module descriptor if the module descriptor and the current 
+ * contributors have been read from the same YAML files the snapshot was resolved from.
+ * Hence a module descriptor is only precompiled if all contributions extending the module are shipped with the module.
+ * Snapshots are only read from artifacts. External contributions are always parsed.
+ * </p>
+ */
+final class DescriptorSnapshot {
+	
+	private static final Logger LOG = Logger.getLogger(DescriptorSnapshot.class.getName());
+	
+	static final String SNAPSHOT = "META-INF/leitstand/ui-descriptors.snapshot";
+	
+	static final String RESOLVED = "resolved:";
+	
+	private static final int MAGIC = 0x4C535549; // LSUI
+	private static final int VERSION = 3;
+	private static final String META_INF = "META-INF/";
+	private static final String JAR_PROTOCOL = "jar:";
+	private static final String JAR_SEPARATOR = "!/";
+	
+	// Fingerprint of the serialized form of all descriptor classes.
+	static final byte[] MODEL = modelFingerprint(ModuleDescriptor.class,
+												 ModuleMenu.class,
+												 ModuleMenuItem.class,
+												 ModuleApplication.class,
+												 ViewModelProperty.class,
+												 Contribution.class,
+												 Extension.class,
+												 ExtensionPoint.class,
+												 MainMenuItem.class);
+	
+	private static final DescriptorSnapshot EMPTY = new DescriptorSnapshot(emptyMap());
+	
+	// Snapshots by artifact root.
+	private static final ConcurrentMap<String,DescriptorSnapshot> SNAPSHOTS = new ConcurrentHashMap<>();
+	
+	/**
+	 * A precompiled descriptor.
+	 */
+	static final class Entry {
+		private final byte[] digest;
+		private final byte[] descriptor;
+		
+		Entry(byte[] digest, byte[] descriptor){
+			this.digest = digest;
+			this.descriptor = descriptor;
+		}
+	}
+	
+	/**
+	 * Reads a descriptor from the specified YAML file. 
+	 * Returns the precompiled descriptor if the snapshot contains an up-to-date entry for this YAML file.
+	 * @param url the YAML file URL
+	 * @param type the descriptor type
+	 * @param digest the consumer of the SHA-256 digest of the YAML file
+	 * @return the descriptor
+	 * @throws IOException if the YAML file cannot be read
+	 */
+	static <T extends Serializable> T read(URL url, Class<T> type, Consumer<byte[]> digest) throws IOException {
+		String location = url.toExternalForm();
+		int root = rootLength(location);
+		if(root < 0) {
+			return read(readAll(url.openStream()), EMPTY, location, type, digest);
+		}
+		DescriptorSnapshot snapshot = SNAPSHOTS.computeIfAbsent(location.substring(0, root), 
+																r -> loadSnapshot(r+SNAPSHOT));
+		String name = location.substring(root);
+		if(location.startsWith(JAR_PROTOCOL)) {
+			// The snapshot was compiled from the same JAR file. Neither read nor hash the YAML file.
+			T descriptor = snapshot.lookup(name, null, type);
+			if(descriptor != null) {
+				digest.accept(snapshot.entries.get(name).digest);
+				return descriptor;
+			}
+		}
+		return read(readAll(url.openStream()), snapshot, name, type, digest);
+	}
+	
+	private static <T extends Serializable> T read(byte[] yaml, 
+												   DescriptorSnapshot snapshot, 
+												   String name, 
+												   Class<T> type,
+												   Consumer<byte[]> digest) throws IOException {
+		byte[] yamlDigest = sha256(yaml);
+		digest.accept(yamlDigest);
+		T descriptor = snapshot.lookup(name, yamlDigest, type);
+		if(descriptor != null) {
+			return descriptor;
+		}
+		return yaml(type).process(new ByteArrayInputStream(yaml));
+	}
+	
+	/**
+	 * Returns a new instance of the precompiled resolved module descriptor or <code>null</code> if no snapshot 
+	 * contains a resolved module descriptor for the specified template and contributors.
+	 * @param template the module descriptor template
+	 * @param contributors the contributions extending the module in contribution order
+	 * @return the resolved module descriptor or <code>null</code> if no up-to-date resolved module descriptor exists.
+	 */
+	static ModuleDescriptor readResolved(ModuleDescriptor template, List<Contribution> contributors) {
+		byte[] digest = resolvedDigest(template, contributors);
+		if(digest == null) {
+			return null;
+		}
+		String name = RESOLVED+template.getModule();
+		for(DescriptorSnapshot snapshot : SNAPSHOTS.values()) {
+			ModuleDescriptor module = snapshot.lookup(name, digest, ModuleDescriptor.class);
+			if(module != null) {
+				return module;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Computes the digest of the inputs of a resolved module descriptor.
+	 * The digest covers the YAML file digests of the module descriptor template and all contributors in contribution order.
+	 * @param template the module descriptor template
+	 * @param contributors the contributions extending the module in contribution order
+	 * @return the digest or <code>null</code> if the template or a contribution was not read from a YAML file.
+	 */
+	static byte[] resolvedDigest(ModuleDescriptor template, List<Contribution> contributors) {
+		if(template.getDigest() == null) {
+			return null;
+		}
+		MessageDigest digest = sha256();
+		digest.update(template.getDigest());
+		for(Contribution contrib : contributors) {
+			if(contrib.getDigest() == null) {
+				return null;
+			}
+			digest.update(contrib.getDigest());
+		}
+		return digest.digest();
+	}
+	
+	/**
+	 * Returns the length of the artifact root of the specified resource location or <code>-1</code> if the
+	 * resource location is not located in an artifact.
+	 */
+	static int rootLength(String location) {
+		int jar = location.indexOf(JAR_SEPARATOR);
+		if(jar > 0) {
+			return jar + JAR_SEPARATOR.length();
+		}
+		return location.indexOf(META_INF);
+	}
+	
+	private static DescriptorSnapshot loadSnapshot(String location) {
+		try (InputStream in = new URL(location).openStream()){
+			return readSnapshot(in);
+		} catch (FileNotFoundException e) {
+			LOG.log(FINE, () -> format("No descriptor snapshot available at %s",location));
+			return EMPTY;
+		} catch (IOException | RuntimeException e) {
+			LOG.warning(() -> format("%s: %s",
+									 UIM0007W_CANNOT_READ_DESCRIPTOR_SNAPSHOT.getReasonCode(),
+									 UIM0007W_CANNOT_READ_DESCRIPTOR_SNAPSHOT.getMessage(location,e.getMessage())));
+			return EMPTY;
+		}
+	}
+	
+	/**
+	 * Computes the fingerprint of the serialized form of the specified classes and their serializable superclasses.
+	 * The fingerprint covers the class names, the serial version UIDs and the names and types of all serialized fields.
+	 * @param classes the descriptor classes
+	 * @return the SHA-256 digest of the serialized form.
+	 */
+	static byte[] modelFingerprint(Class<?>... classes) {
+		StringBuilder model = new StringBuilder();
+		for(Class<?> type : classes) {
+			for(Class<?> c = type; c != null; c = c.getSuperclass()) {
+				ObjectStreamClass desc = ObjectStreamClass.lookup(c);
+				if(desc == null) {
+					break;
+				}
+				model.append(desc.getName())
+					 .append(' ')
+					 .append(desc.getSerialVersionUID());
+				for(ObjectStreamField field : desc.getFields()) {
+					model.append(' ')
+						 .append(field.getName())
+						 .append(':')
+						 .append(field.getTypeCode());
+					if(field.getTypeString() != null) {
+						model.append(field.getTypeString());
+					}
+				}
+				model.append('\n');
+			}
+		}
+		return sha256(model.toString().getBytes(UTF_8));
+	}
+	
+	/**
+	 * Reads a snapshot from the specified input stream.
+	 * @param in the input stream
+	 * @return the read snapshot
+	 * @throws IOException if the snapshot cannot be read or has an unsupported format.
+	 */
+	static DescriptorSnapshot readSnapshot(InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(in);
+		if(data.readInt() != MAGIC) {
+			throw new IOException("Not a descriptor snapshot");
+		}
+		int version = data.readInt();
+		if(version != VERSION) {
+			throw new IOException(format("Unsupported snapshot version %d",version));
+		}
+		byte[] model = new byte[data.readInt()];
+		data.readFully(model);
+		if(!Arrays.equals(model, MODEL)) {
+			throw new IOException("Snapshot was compiled for a different descriptor model");
+		}
+		int size = data.readInt();
+		Map<String,Entry> entries = new TreeMap<>();
+		for(int i=0; i < size; i++) {
+			String name = data.readUTF();
+			byte[] digest = new byte[data.readInt()];
+			data.readFully(digest);
+			byte[] descriptor = new byte[data.readInt()];
+			data.readFully(descriptor);
+			entries.put(name, new Entry(digest,descriptor));
+		}
+		return new DescriptorSnapshot(unmodifiableMap(entries));
+	}
+	
+	/**
+	 * Writes a snapshot to the specified output stream.
+	 * @param entries the snapshot entries by resource path
+	 * @param out the output stream
+	 * @throws IOException if the snapshot cannot be written
+	 */
+	static void writeSnapshot(Map<String,Entry> entries, OutputStream out) throws IOException {
+		writeSnapshot(entries, MODEL, out);
+	}
+	
+	static void writeSnapshot(Map<String,Entry> entries, byte[] model, OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeInt(VERSION);
+		data.writeInt(model.length);
+		data.write(model);
+		data.writeInt(entries.size());
+		for(Map.Entry<String,Entry> entry : new TreeMap<>(entries).entrySet()) {
+			data.writeUTF(entry.getKey());
+			data.writeInt(entry.getValue().digest.length);
+			data.write(entry.getValue().digest);
+			data.writeInt(entry.getValue().descriptor.length);
+			data.write(entry.getValue().descriptor);
+		}
+		data.flush();
+	}
+	
+	/**
+	 * Creates a snapshot entry for a parsed descriptor.
+	 * @param yaml the YAML file the descriptor was parsed from
+	 * @param descriptor the parsed descriptor
+	 * @return the snapshot entry
+	 * @throws IOException if the descriptor cannot be serialized
+	 */
+	static Entry entry(byte[] yaml, Serializable descriptor) throws IOException {
+		return resolvedEntry(sha256(yaml), descriptor);
+	}
+	
+	/**
+	 * Creates a snapshot entry for a resolved module descriptor.
+	 * @param digest the digest of the inputs of the resolved module descriptor
+	 * @param descriptor the resolved module descriptor
+	 * @return the snapshot entry
+	 * @throws IOException if the descriptor cannot be serialized
+	 * @see #resolvedDigest(ModuleDescriptor, List)
+	 */
+	static Entry resolvedEntry(byte[] digest, Serializable descriptor) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)){
+			out.writeObject(descriptor);
+		}
+		return new Entry(digest,bytes.toByteArray());
+	}
+	
+	private final Map<String,Entry> entries;
+	
+	private DescriptorSnapshot(Map<String,Entry> entries) {
+		this.entries = entries;
+	}
+	
+	/**
+	 * Returns a new instance of the precompiled descriptor or <code>null</code> if the snapshot does not contain 
+	 * an up-to-date descriptor for the specified resource.
+	 * @param name the resource path of the YAML file
+	 * @param digest the SHA-256 digest of the YAML file or <code>null</code> if the YAML file cannot be stale.
+	 * @param type the descriptor type
+	 * @return the precompiled descriptor or <code>null</code> if no up-to-date descriptor exists.
+	 */
+	<T> T lookup(String name, byte[] digest, Class<T> type) {
+		Entry entry = entries.get(name);
+		if(entry == null || (digest != null && !Arrays.equals(entry.digest, digest))) {
+			return null;
+		}
+		try (ObjectInputStream in = new SnapshotInputStream(entry.descriptor)){
+			return type.cast(in.readObject());
+		} catch (IOException | ClassNotFoundException | ClassCastException e) {
+			LOG.warning(() -> format("%s: %s",
+									 UIM0007W_CANNOT_READ_DESCRIPTOR_SNAPSHOT.getReasonCode(),
+									 UIM0007W_CANNOT_READ_DESCRIPTOR_SNAPSHOT.getMessage(name,e.getMessage())));
+			return null;
+		}
+	}
+	
+	int size() {
+		return entries.size();
+	}
+	
+	static byte[] sha256(byte[] data) {
+		return sha256().digest(data);
+	}
+	
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// SHA-256 is supported by every JRE
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	static byte[] readAll(InputStream in) throws IOException {
+		try (InputStream source = in){
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			for(int n = source.read(buffer); n >= 0; n = source.read(buffer)) {
+				out.write(buffer,0,n);
+			}
+			return out.toByteArray();
+		}
+	}
+	
+	/**
+	 * Deserializes descriptors and rejects all classes except the descriptor classes and the JDK collections.
+	 */
+	private static final class SnapshotInputStream extends ObjectInputStream {
+		
+		SnapshotInputStream(byte[] descriptor) throws IOException {
+			super(new ByteArrayInputStream(descriptor));
+		}
+		
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+			String name = desc.getName().replaceFirst("^\\[+L?", "");
+			if(name.length() > 1 
+			   && !name.startsWith("io.leitstand.")
+			   && !name.startsWith("java.util.")
+			   && !name.startsWith("java.lang.")) {
+				throw new InvalidClassException(desc.getName(), "Class not allowed in descriptor snapshot");
+			}
+			return super.resolveClass(desc);
+		}
+	}
+	
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static io.leitstand.commons.etc.FileProcessor.yaml;
+import static io.leitstand.ui.model.Contribution.applyDefaults;
+import static io.leitstand.ui.model.Contributions.findExtensions;
+import static io.leitstand.ui.model.DescriptorSnapshot.RESOLVED;
+import static io.leitstand.ui.model.DescriptorSnapshot.entry;
+import static io.leitstand.ui.model.DescriptorSnapshot.resolvedDigest;
+import static io.leitstand.ui.model.DescriptorSnapshot.resolvedEntry;
+import static io.leitstand.ui.model.DescriptorSnapshot.sha256;
+import static io.leitstand.ui.model.DescriptorSnapshot.writeSnapshot;
+import static io.leitstand.ui.model.ModuleDescriptorService.resolve;
+import static java.lang.String.format;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compiles the module descriptor and contribution YAML files of an artifact into a {@link DescriptorSnapshot}.
+ * <p>
+ * The compiler expects the resources directory of the artifact, the snapshot file and optionally 
+ * a glob pattern for module descriptors and a glob pattern for contributions as arguments.
+ * The module descriptor pattern defaults to <code>{@value #MODULES}</code>, 
+ * the contribution pattern defaults to <code>{@value #CONTRIBUTIONS}</code>.
+ * The compiler also resolves every module descriptor against the contributions of the artifact the same way the 
+ * {@link ModuleDescriptorService} does at runtime and stores the resolved module descriptors in the snapshot.
+ * The compiler fails if a YAML file cannot be parsed or a module descriptor lacks the module name or menus.
+ * No snapshot is written if the artifact neither contains module descriptors nor contributions.
+ * </p>
+ */
+public final class DescriptorSnapshotCompiler {
+
+	static final String MODULES = "**/module.yaml";
+	static final String CONTRIBUTIONS = "**/menu.yaml";
+
+	/**
+	 * Compiles the descriptor snapshot.
+	 * @param args the resources directory, the snapshot file and optional module descriptor and contribution patterns.
+	 * @throws IOException if a YAML file cannot be parsed or the snapshot cannot be written.
+	 */
+	public static void main(String[] args) throws IOException {
+		if(args.length < 2) {
+			System.err.println("Usage: DescriptorSnapshotCompiler <resources-dir> <snapshot-file> [<module-pattern> [<contribution-pattern>]]");
+			System.exit(1);
+		}
+		Path resources = Paths.get(args[0]);
+		Path snapshot = Paths.get(args[1]);
+		String modules = args.length > 2 ? args[2] : MODULES;
+		String contributions = args.length > 3 ? args[3] : CONTRIBUTIONS;
+		int entries = compile(resources, snapshot, modules, contributions);
+		if(entries > 0) {
+			System.out.println(format("Compiled %d descriptors into %s",entries,snapshot));
+		}
+	}
+
+	/**
+	 * Compiles all module descriptors and contributions of the specified resources directory into the specified snapshot file.
+	 * @param resources the resources directory
+	 * @param snapshot the snapshot file
+	 * @param modules the glob pattern for module descriptors
+	 * @param contributions the glob pattern for contributions
+	 * @return the number of compiled descriptors
+	 * @throws IOException if a YAML file cannot be parsed or the snapshot cannot be written.
+	 */
+	static int compile(Path resources, Path snapshot, String modules, String contributions) throws IOException {
+		Files.deleteIfExists(snapshot);
+		if(!Files.isDirectory(resources)) {
+			return 0;
+		}
+		PathMatcher moduleMatcher = FileSystems.getDefault().getPathMatcher("glob:"+modules);
+		PathMatcher contribMatcher = FileSystems.getDefault().getPathMatcher("glob:"+contributions);
+		List<Path> files;
+		try (Stream<Path> walk = Files.walk(resources)){
+			files = walk.filter(Files::isRegularFile)
+						.collect(Collectors.toList());
+		}
+
+		// The parsed descriptors are serialized before they get resolved.
+		Map<String,DescriptorSnapshot.Entry> entries = new TreeMap<>();
+		// Module descriptor templates and contributions in resource path order to resolve the module descriptors.
+		Map<String,ModuleDescriptor> templates = new TreeMap<>();
+		Map<String,Contribution> contribs = new TreeMap<>();
+		for(Path file : files) {
+			Path path = resources.relativize(file);
+			// Resource paths always use slashes.
+			String name = path.toString().replace(file.getFileSystem().getSeparator(), "/");
+			if(moduleMatcher.matches(path)) {
+				byte[] yaml = Files.readAllBytes(file);
+				ModuleDescriptor module = yaml(ModuleDescriptor.class).process(new ByteArrayInputStream(yaml));
+				if(module == null || module.getModule() == null || module.getMenus().isEmpty()) {
+					throw new IOException(format("%s: Module descriptor without module name or menus",name));
+				}
+				entries.put(name, entry(yaml,module));
+				module.setDigest(sha256(yaml));
+				templates.put(name, module);
+			} else if(contribMatcher.matches(path)) {
+				byte[] yaml = Files.readAllBytes(file);
+				Contribution contrib = yaml(Contribution.class).process(new ByteArrayInputStream(yaml));
+				if(contrib == null) {
+					throw new IOException(format("%s: Empty contribution",name));
+				}
+				entries.put(name, entry(yaml,contrib));
+				contrib.setDigest(sha256(yaml));
+				contribs.put(name, applyDefaults(contrib));
+			}
+		}
+		ContributionIndex index = ContributionIndex.index(new ArrayList<>(contribs.values()));
+		for(ModuleDescriptor template : templates.values()) {
+			List<Contribution> contributors = index.getContributors(template.getModule());
+			ModuleDescriptor resolved = resolve(template, module -> findExtensions(index, module));
+			entries.put(RESOLVED+template.getModule(), 
+						resolvedEntry(resolvedDigest(template, contributors), resolved));
+		}
+		if(entries.isEmpty()) {
+			return 0;
+		}
+		Files.createDirectories(snapshot.toAbsolutePath().getParent());
+		try (OutputStream out = Files.newOutputStream(snapshot)){
+			writeSnapshot(entries, out);
+		}
+		return entries.size();
+	}
+
+	private DescriptorSnapshotCompiler() {
+		// No instances allowed
+	}
+
+}
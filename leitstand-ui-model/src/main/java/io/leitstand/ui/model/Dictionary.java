@@ -5,8 +5,10 @@ package io.leitstand.ui.model;
 
 import static io.leitstand.ui.service.DictionaryId.dictionaryId;
 import static java.util.Collections.unmodifiableSortedSet;
+import static java.util.stream.Collectors.toList;
 
 import java.util.List;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
@@ -27,11 +29,18 @@ import io.leitstand.ui.service.DictionaryId;
 import io.leitstand.ui.service.DictionaryName;
 
 @Entity
-@Table(schema="leitstand", name="dictionary")
+@Table(schema="leitstand", 
+	   name="dictionary")
 @NamedQuery(name="Dictionary.findByName",
 			query="SELECT d FROM Dictionary d WHERE d.name=:name")
 @NamedQuery(name="Dictionary.findById",
 			query="SELECT d FROM Dictionary d WHERE d.uuid=:uuid")
+@NamedQuery(name="Dictionary.findByNames",
+			query="SELECT DISTINCT d FROM Dictionary d LEFT JOIN FETCH d.entries WHERE d.name IN :names")
+@NamedQuery(name="Dictionary.findByIds",
+			query="SELECT DISTINCT d FROM Dictionary d LEFT JOIN FETCH d.entries WHERE d.uuid IN :uuids")
+@NamedQuery(name="Dictionary.findByNameLike",
+			query="SELECT d FROM Dictionary d WHERE d.name LIKE :pattern ESCAPE '\\' ORDER BY d.name")
 @NamedQuery(name="Dictionary.findByNamePattern",
 			query="SELECT d FROM Dictionary d WHERE CAST(d.name as text) REGEXP :pattern ORDER BY d.name")
 
@@ -39,12 +48,49 @@ public class Dictionary extends VersionableEntity {
 
 	private static final long serialVersionUID = 1L;
 
+	public static Query<List<Dictionary>> findDictionariesByNamePrefix(String prefix){
+		return findDictionariesByNameLike(escapeLike(prefix)+"%");
+	}
+	
+	public static Query<List<Dictionary>> findDictionariesByNameSubstring(String substring){
+		return findDictionariesByNameLike("%"+escapeLike(substring)+"%");
+	}
+	
+	private static Query<List<Dictionary>> findDictionariesByNameLike(String pattern){
+		return em -> em.createNamedQuery("Dictionary.findByNameLike",Dictionary.class)
+					   .setParameter("pattern", pattern)
+					   .getResultList();
+	}
+	
+	static String escapeLike(String s) {
+		if(s == null) {
+			return "";
+		}
+		return s.replace("\\", "\\\\")
+				.replace("%", "\\%")
+				.replace("_", "\\_");
+	}
+	
 	public static Query<List<Dictionary>> findDictionariesByNamePattern(String pattern){
 		return em -> em.createNamedQuery("Dictionary.findByNamePattern",Dictionary.class)
 					   .setParameter("pattern", pattern)
 					   .getResultList();
 	}
 	
+	public static Query<List<Dictionary>> findDictionariesByName(Set<DictionaryName> names){
+		return em -> em.createNamedQuery("Dictionary.findByNames",Dictionary.class)
+					   .setParameter("names", names)
+					   .getResultList();
+	}
+	
+	public static Query<List<Dictionary>> findDictionariesById(Set<DictionaryId> ids){
+		return em -> em.createNamedQuery("Dictionary.findByIds",Dictionary.class)
+					   .setParameter("uuids", ids.stream()
+							   					 .map(DictionaryId::getValue)
+							   					 .collect(toList()))
+					   .getResultList();
+	}
+	
 	public static Query<Dictionary> findDictionaryByName(DictionaryName name){
 		return em -> em.createNamedQuery("Dictionary.findByName",Dictionary.class)
 					   .setParameter("name", name)
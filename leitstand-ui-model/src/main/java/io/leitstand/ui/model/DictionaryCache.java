@@ -0,0 +1,370 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static io.leitstand.ui.model.InvalidationChannel.DICTIONARIES;
+import static io.leitstand.ui.service.DictionaryCacheStatistics.newDictionaryCacheStatistics;
+import static java.util.Collections.newSetFromMap;
+import static javax.enterprise.event.TransactionPhase.AFTER_SUCCESS;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+
+import io.leitstand.ui.service.DictionaryCacheStatistics;
+import io.leitstand.ui.service.DictionaryId;
+import io.leitstand.ui.service.DictionaryName;
+import io.leitstand.ui.service.DictionarySettings;
+import io.leitstand.ui.service.DictionaryVersion;
+
+/**
+ * A read-through cache of immutable {@link DictionarySettings}, indexed by dictionary ID and dictionary name.
+ * <p>
+ * A cache miss loads the dictionary from the database and caches it under its ID and its name.
+ * A {@link DictionaryChangedEvent} evicts the dictionary after the transaction that modified the dictionary has committed.
+ * A dictionary loaded concurrently to an eviction is returned but not cached, 
+ * because it might reflect the state before the modification.
+ * </p>
+ * <p>
+ * The cache subscribes to the {@link InvalidationChannel#DICTIONARIES} topic 
+ * to evict dictionaries modified on other UI nodes.
+ * </p>
+ * <p>
+ * The cache also holds the {@link DictionaryEntryIndex} of cached dictionaries to search the dictionary entries
+ * and the {@link DictionaryVersion} of dictionaries to answer conditional requests without a database query.
+ * A dictionary version is evicted along with the dictionary.
+ * The cache records the number of hits, misses and evicted dictionaries.
+ * </p>
+ */
+@ApplicationScoped
+public class DictionaryCache {
+
+	private final ConcurrentMap<DictionaryId,DictionarySettings> byId = new ConcurrentHashMap<>();
+	private final ConcurrentMap<DictionaryName,DictionarySettings> byName = new ConcurrentHashMap<>();
+	private final ConcurrentMap<DictionaryId,DictionaryEntryIndex> entryIndexes = new ConcurrentHashMap<>();
+	private final ConcurrentMap<DictionaryId,DictionaryVersion> versionsById = new ConcurrentHashMap<>();
+	private final ConcurrentMap<DictionaryName,DictionaryVersion> versionsByName = new ConcurrentHashMap<>();
+	
+	// Incremented on every eviction to detect loads that raced with an eviction.
+	private long generation;
+	
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	
+	private InvalidationChannel channel;
+	
+	protected DictionaryCache() {
+		// CDI
+	}
+	
+	@Inject
+	protected DictionaryCache(InvalidationChannel channel) {
+		this.channel = channel;
+	}
+	
+	@PostConstruct
+	protected void subscribe() {
+		if(channel != null) {
+			channel.subscribe(DICTIONARIES, this::evictKeys);
+		}
+	}
+	
+	/**
+	 * Returns the cached dictionary with the specified ID or loads the dictionary if it is not cached.
+	 * @param id the dictionary ID
+	 * @param loader the function to load a dictionary from the database
+	 * @return the dictionary settings.
+	 */
+	DictionarySettings getDictionary(DictionaryId id, Function<DictionaryId,DictionarySettings> loader) {
+		return readThrough(byId, id, loader);
+	}
+	
+	/**
+	 * Returns the cached dictionary with the specified name or loads the dictionary if it is not cached.
+	 * @param name the dictionary name
+	 * @param loader the function to load a dictionary from the database
+	 * @return the dictionary settings.
+	 */
+	DictionarySettings getDictionary(DictionaryName name, Function<DictionaryName,DictionarySettings> loader) {
+		return readThrough(byName, name, loader);
+	}
+	
+	/**
+	 * Returns the cached dictionaries with the specified IDs and loads all dictionaries that are not cached at once.
+	 * @param ids the dictionary IDs
+	 * @param loader the function to load several dictionaries from the database
+	 * @return the dictionary settings in the order of the specified IDs. Unknown dictionaries are omitted.
+	 */
+	List<DictionarySettings> getDictionariesById(Collection<DictionaryId> ids, 
+												 Function<Set<DictionaryId>,List<DictionarySettings>> loader) {
+		return readThrough(byId, ids, loader, DictionarySettings::getDictionaryId);
+	}
+
+	/**
+	 * Returns the cached dictionaries with the specified names and loads all dictionaries that are not cached at once.
+	 * @param names the dictionary names
+	 * @param loader the function to load several dictionaries from the database
+	 * @return the dictionary settings in the order of the specified names. Unknown dictionaries are omitted.
+	 */
+	List<DictionarySettings> getDictionariesByName(Collection<DictionaryName> names, 
+												   Function<Set<DictionaryName>,List<DictionarySettings>> loader) {
+		return readThrough(byName, names, loader, DictionarySettings::getDictionaryName);
+	}
+	
+	private <K> List<DictionarySettings> readThrough(ConcurrentMap<K,DictionarySettings> index,
+													 Collection<K> keys,
+													 Function<Set<K>,List<DictionarySettings>> loader,
+													 Function<DictionarySettings,K> keyOf){
+		Map<K,DictionarySettings> found = new LinkedHashMap<>();
+		Set<K> missing = new LinkedHashSet<>();
+		for(K key : keys) {
+			DictionarySettings settings = index.get(key);
+			if(settings != null) {
+				hits.increment();
+				found.put(key, settings);
+			} else if(missing.add(key)) {
+				misses.increment();
+			}
+		}
+		if(!missing.isEmpty()) {
+			long loadGeneration = generation();
+			for(DictionarySettings settings : loader.apply(missing)) {
+				cache(loadGeneration, settings);
+				found.put(keyOf.apply(settings), settings);
+			}
+		}
+		List<DictionarySettings> dictionaries = new ArrayList<>(found.size());
+		for(K key : keys) {
+			DictionarySettings settings = found.remove(key);
+			if(settings != null) {
+				dictionaries.add(settings);
+			}
+		}
+		return dictionaries;
+	}
+	
+	private <K> DictionarySettings readThrough(ConcurrentMap<K,DictionarySettings> index, 
+											   K key, 
+											   Function<K,DictionarySettings> loader) {
+		DictionarySettings settings = index.get(key);
+		if(settings != null) {
+			hits.increment();
+			return settings;
+		}
+		misses.increment();
+		long loadGeneration = generation();
+		settings = loader.apply(key);
+		if(settings != null) {
+			cache(loadGeneration, settings);
+		}
+		return settings;
+	}
+	
+	/**
+	 * Returns the cached version of the dictionary with the specified ID or loads the version if it is not cached.
+	 * @param id the dictionary ID
+	 * @param loader the function to load a dictionary version from the database
+	 * @return the dictionary version.
+	 */
+	DictionaryVersion getVersion(DictionaryId id, Function<DictionaryId,DictionaryVersion> loader) {
+		return readThroughVersion(versionsById, id, loader);
+	}
+	
+	/**
+	 * Returns the cached version of the dictionary with the specified name or loads the version if it is not cached.
+	 * @param name the dictionary name
+	 * @param loader the function to load a dictionary version from the database
+	 * @return the dictionary version.
+	 */
+	DictionaryVersion getVersion(DictionaryName name, Function<DictionaryName,DictionaryVersion> loader) {
+		return readThroughVersion(versionsByName, name, loader);
+	}
+	
+	private <K> DictionaryVersion readThroughVersion(ConcurrentMap<K,DictionaryVersion> index, 
+													 K key, 
+													 Function<K,DictionaryVersion> loader) {
+		DictionaryVersion version = index.get(key);
+		if(version != null) {
+			hits.increment();
+			return version;
+		}
+		misses.increment();
+		long loadGeneration = generation();
+		version = loader.apply(key);
+		if(version != null) {
+			cacheVersion(loadGeneration, index, key, version);
+		}
+		return version;
+	}
+	
+	/**
+	 * Returns the entry index of the specified dictionary.
+	 * The index is created on first access and evicted along with the dictionary.
+	 * @param settings the dictionary
+	 * @return the entry index of the dictionary.
+	 */
+	DictionaryEntryIndex getEntryIndex(DictionarySettings settings) {
+		DictionaryEntryIndex index = entryIndexes.get(settings.getDictionaryId());
+		if(index != null && index.getDictionary() == settings) {
+			return index;
+		}
+		index = DictionaryEntryIndex.index(settings);
+		if(byId.get(settings.getDictionaryId()) == settings) {
+			// Only index cached dictionaries.
+			entryIndexes.put(settings.getDictionaryId(), index);
+		}
+		return index;
+	}
+	
+	private synchronized long generation() {
+		return generation;
+	}
+	
+	private synchronized <K> void cacheVersion(long loadGeneration, 
+											   ConcurrentMap<K,DictionaryVersion> index, 
+											   K key, 
+											   DictionaryVersion version) {
+		if(loadGeneration == generation) {
+			index.put(key, version);
+		}
+	}
+	
+	private synchronized void cache(long loadGeneration, DictionarySettings settings) {
+		if(loadGeneration == generation) {
+			byId.put(settings.getDictionaryId(), settings);
+			byName.put(settings.getDictionaryName(), settings);
+		}
+	}
+	
+	/**
+	 * Evicts the modified dictionary after the transaction has committed successfully.
+	 * The dictionary is evicted immediately if no transaction is active.
+	 * @param event the dictionary changed event
+	 */
+	void onDictionaryChanged(@Observes(during=AFTER_SUCCESS) DictionaryChangedEvent event) {
+		evict(event);
+	}
+	
+	/**
+	 * Evicts the dictionary conveyed by the specified event.
+	 * @param event the dictionary changed event
+	 */
+	synchronized void evict(DictionaryChangedEvent event) {
+		generation++;
+		Set<DictionarySettings> evicted = newSetFromMap(new IdentityHashMap<>());
+		entryIndexes.remove(event.getDictionaryId());
+		DictionarySettings settings = byId.remove(event.getDictionaryId());
+		if(settings != null) {
+			evicted.add(settings);
+			// Remove the name of the cached dictionary
+			byName.remove(settings.getDictionaryName(), settings);
+		}
+		for(DictionaryName name : event.getDictionaryNames()) {
+			settings = byName.remove(name);
+			if(settings != null) {
+				evicted.add(settings);
+				byId.remove(settings.getDictionaryId(), settings);
+			}
+		}
+		Set<DictionaryId> ids = new HashSet<>();
+		ids.add(event.getDictionaryId());
+		evict(evicted, ids, event.getDictionaryNames());
+	}
+	
+	/**
+	 * Evicts the dictionaries invalidated on another UI node.
+	 * Every key is evicted as dictionary ID and as dictionary name.
+	 * An empty key set evicts all dictionaries.
+	 * @param keys the dictionary IDs and names
+	 */
+	synchronized void evictKeys(Set<String> keys) {
+		generation++;
+		if(keys.isEmpty()) {
+			evictions.add(byId.size());
+			byId.clear();
+			byName.clear();
+			entryIndexes.clear();
+			versionsById.clear();
+			versionsByName.clear();
+			return;
+		}
+		Set<DictionarySettings> evicted = newSetFromMap(new IdentityHashMap<>());
+		Set<DictionaryId> ids = new HashSet<>();
+		Set<DictionaryName> names = new HashSet<>();
+		for(String key : keys) {
+			ids.add(new DictionaryId(key));
+			names.add(new DictionaryName(key));
+			DictionarySettings settings = byId.remove(new DictionaryId(key));
+			if(settings != null) {
+				evicted.add(settings);
+				byName.remove(settings.getDictionaryName(), settings);
+			}
+			settings = byName.remove(new DictionaryName(key));
+			if(settings != null) {
+				evicted.add(settings);
+				byId.remove(settings.getDictionaryId(), settings);
+			}
+		}
+		evict(evicted, ids, names);
+	}
+	
+	private void evict(Set<DictionarySettings> evicted, Set<DictionaryId> ids, Set<DictionaryName> names) {
+		for(DictionarySettings settings : evicted) {
+			entryIndexes.remove(settings.getDictionaryId());
+			ids.add(settings.getDictionaryId());
+		}
+		evictions.add(evicted.size());
+		for(DictionaryName name : names) {
+			DictionaryVersion version = versionsByName.remove(name);
+			if(version != null) {
+				ids.add(version.getDictionaryId());
+			}
+		}
+		versionsById.keySet().removeAll(ids);
+		// Evict the versions cached under another name of an evicted dictionary.
+		versionsByName.values().removeIf(version -> ids.contains(version.getDictionaryId()));
+	}
+	
+	/**
+	 * Returns the cache statistics.
+	 * @return the cache statistics.
+	 */
+	public DictionaryCacheStatistics getStatistics() {
+		return newDictionaryCacheStatistics()
+			   .withSize(byId.size())
+			   .withHits(hits.sum())
+			   .withMisses(misses.sum())
+			   .withEvictions(evictions.sum())
+			   .build();
+	}
+	
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.unmodifiableSet;
+
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import io.leitstand.ui.service.DictionaryId;
+import io.leitstand.ui.service.DictionaryName;
+
+/**
+ * Signals that a dictionary was stored or removed.
+ * <p>
+ * The event conveys the dictionary ID and all names under which the dictionary might be cached, 
+ * i.e. the previous and the current name if a dictionary was renamed.
+ * </p>
+ * @see DictionaryCache
+ */
+public final class DictionaryChangedEvent {
+
+	private final DictionaryId dictionaryId;
+	private final Set<DictionaryName> dictionaryNames;
+	
+	/**
+	 * Creates a <code>DictionaryChangedEvent</code>.
+	 * @param dictionaryId the dictionary ID
+	 * @param dictionaryNames the previous and the current dictionary name
+	 */
+	public DictionaryChangedEvent(DictionaryId dictionaryId, DictionaryName... dictionaryNames) {
+		this.dictionaryId = dictionaryId;
+		Set<DictionaryName> names = new LinkedHashSet<>(asList(dictionaryNames));
+		names.removeIf(Objects::isNull);
+		this.dictionaryNames = unmodifiableSet(names);
+	}
+	
+	/**
+	 * Returns the ID of the modified dictionary.
+	 * @return the dictionary ID.
+	 */
+	public DictionaryId getDictionaryId() {
+		return dictionaryId;
+	}
+	
+	/**
+	 * Returns the previous and the current name of the modified dictionary.
+	 * @return the dictionary names.
+	 */
+	public Set<DictionaryName> getDictionaryNames() {
+		return dictionaryNames;
+	}
+	
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static io.leitstand.ui.model.DictionaryEntryUpdate.lock;
+import static io.leitstand.ui.service.DictionaryEntry.newDictionaryEntry;
+import static java.lang.Boolean.TRUE;
+import static java.sql.Statement.SUCCESS_NO_INFO;
+import static java.util.Collections.unmodifiableList;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.persistence.PersistenceException;
+
+import io.leitstand.commons.jpa.BooleanConverter;
+import io.leitstand.commons.model.Update;
+import io.leitstand.ui.service.DictionaryEntry;
+
+/**
+ * The changes to be applied to the persisted entries of a dictionary.
+ * <p>
+ * The diff matches the persisted and the new entries by their value and 
+ * computes the entries to be inserted, updated and removed.
+ * The diff replaces all entries if either the persisted or the new entries
+ * contain an ambiguous or missing value.
+ * </p>
+ * <p>
+ * The changes are written by batched JDBC statements on the connection of the current transaction,
+ * because the JPA provider replaces the complete entries collection whenever a single entry changes.
+ * </p>
+ */
+final class DictionaryEntryDiff {
+	
+	static final int BATCH_SIZE = 500;
+	
+	private static final String DELETE_ALL = "DELETE FROM leitstand.dictionary_entry WHERE dictionary_id=?";
+	static final String DELETE = "DELETE FROM leitstand.dictionary_entry WHERE dictionary_id=? AND value=?";
+	static final String UPDATE = "UPDATE leitstand.dictionary_entry SET label=?, \"default\"=? WHERE dictionary_id=? AND value=?";
+	static final String INSERT = "INSERT INTO leitstand.dictionary_entry (dictionary_id,value,label,\"default\") VALUES (?,?,?,?)";
+	static final String TOUCH = "UPDATE leitstand.dictionary SET modcount=modcount+1, tsmodified=? WHERE id=?";
+	static final String SELECT = "SELECT value, label, \"default\" FROM leitstand.dictionary_entry WHERE dictionary_id=?";
+	
+	@FunctionalInterface
+	private interface Binder {
+		void bind(PreparedStatement stmt, DictionaryEntry entry) throws SQLException;
+	}
+
+	/**
+	 * Computes the changes to turn the persisted entries into the new entries.
+	 * @param persisted the persisted entries
+	 * @param entries the new entries
+	 * @return the changes to be applied
+	 */
+	static DictionaryEntryDiff diff(Collection<DictionaryEntry> persisted, 
+									Collection<DictionaryEntry> entries) {
+		Map<String,DictionaryEntry> current = byValue(persisted);
+		Map<String,DictionaryEntry> target = byValue(entries);
+		if(current == null || target == null) {
+			// Entries cannot be matched by value. Replace all entries.
+			return new DictionaryEntryDiff(true,
+										   new ArrayList<>(entries),
+										   new ArrayList<>(),
+										   new ArrayList<>(persisted));
+		}
+		List<DictionaryEntry> inserted = new ArrayList<>();
+		List<DictionaryEntry> updated = new ArrayList<>();
+		List<DictionaryEntry> removed = new ArrayList<>();
+		for(DictionaryEntry entry : target.values()) {
+			DictionaryEntry previous = current.remove(entry.getValue());
+			if(previous == null) {
+				inserted.add(entry);
+			} else if(isModified(previous, entry)) {
+				updated.add(entry);
+			}
+		}
+		removed.addAll(current.values());
+		return new DictionaryEntryDiff(false, inserted, updated, removed);
+	}
+	
+	/**
+	 * Returns the changes to replace all persisted entries by the given entries.
+	 * @param entries the new entries
+	 * @return the changes to be applied
+	 */
+	static DictionaryEntryDiff replace(Collection<DictionaryEntry> entries) {
+		return new DictionaryEntryDiff(true, 
+									   new ArrayList<>(entries), 
+									   new ArrayList<>(), 
+									   new ArrayList<>());
+	}
+	
+	/**
+	 * Returns the changes to add the given entries to the persisted entries.
+	 * The persisted entries are not verified, i.e. the caller is responsible for not adding an existing value twice.
+	 * @param entries the entries to be added
+	 * @return the changes to be applied
+	 */
+	static DictionaryEntryDiff append(Collection<DictionaryEntry> entries) {
+		return new DictionaryEntryDiff(false, 
+									   new ArrayList<>(entries), 
+									   new ArrayList<>(), 
+									   new ArrayList<>());
+	}
+	
+	/**
+	 * Returns an update to turn the persisted entries of the given dictionary into the new entries.
+	 * <p>
+	 * The update locks the dictionary row and reads the persisted entries under the lock before it computes the changes.
+	 * Concurrent modifications of the same dictionary are thereby serialized 
+	 * and the changes are computed from the entries committed by a preceding modification 
+	 * rather than from the entries loaded by the JPA provider.
+	 * </p>
+	 * @param dict the dictionary
+	 * @param entries the new entries
+	 * @param touch whether to increment the dictionary version
+	 * @return the update to write the changes.
+	 * @see #apply(Dictionary, boolean)
+	 */
+	static Update mergeEntries(Dictionary dict, 
+							   Collection<DictionaryEntry> entries, 
+							   boolean touch) {
+		return em -> {
+			try {
+				em.flush();
+				Connection connection = em.unwrap(Connection.class);
+				lock(connection, dict, null);
+				DictionaryEntryDiff diff = diff(readEntries(connection, dict.getId()), entries);
+				if(diff.isEmpty()) {
+					return 0;
+				}
+				int rows = diff.apply(connection, dict.getId(), touch);
+				em.detach(dict);
+				em.getEntityManagerFactory().getCache().evict(Dictionary.class, dict.getId());
+				return rows;
+			} catch (SQLException e) {
+				throw new PersistenceException(e);
+			}
+		};
+	}
+	
+	private static List<DictionaryEntry> readEntries(Connection connection, long dictionary) throws SQLException {
+		BooleanConverter converter = new BooleanConverter();
+		List<DictionaryEntry> entries = new ArrayList<>();
+		try(PreparedStatement stmt = connection.prepareStatement(SELECT)){
+			stmt.setLong(1, dictionary);
+			try(ResultSet rs = stmt.executeQuery()){
+				while(rs.next()) {
+					entries.add(newDictionaryEntry()
+								.withValue(rs.getString(1))
+								.withLabel(rs.getString(2))
+								.withDefaultValue(TRUE.equals(converter.convertToEntityAttribute(rs.getString(3))))
+								.build());
+				}
+			}
+		}
+		return entries;
+	}
+	
+	private static Map<String,DictionaryEntry> byValue(Collection<DictionaryEntry> entries){
+		Map<String,DictionaryEntry> index = new LinkedHashMap<>();
+		for(DictionaryEntry entry : entries) {
+			if(entry.getValue() == null || index.putIfAbsent(entry.getValue(), entry) != null) {
+				return null;
+			}
+		}
+		return index;
+	}
+	
+	private static boolean isModified(DictionaryEntry previous, DictionaryEntry entry) {
+		return !Objects.equals(previous.getLabel(), entry.getLabel()) 
+			   || previous.isDefaultValue() != entry.isDefaultValue();
+	}
+
+	private final boolean replaceAll;
+	private final List<DictionaryEntry> inserted;
+	private final List<DictionaryEntry> updated;
+	private final List<DictionaryEntry> removed;
+	private final BooleanConverter converter = new BooleanConverter();
+	
+	private DictionaryEntryDiff(boolean replaceAll,
+								List<DictionaryEntry> inserted,
+								List<DictionaryEntry> updated,
+								List<DictionaryEntry> removed) {
+		this.replaceAll = replaceAll;
+		this.inserted = inserted;
+		this.updated = updated;
+		this.removed = removed;
+	}
+	
+	/**
+	 * Returns whether all persisted entries are replaced by the new entries.
+	 * @return <code>true</code> if all entries are replaced, <code>false</code> if only the changed entries are written.
+	 */
+	boolean isReplaceAll() {
+		return replaceAll;
+	}
+	
+	/**
+	 * Returns whether the persisted entries are up to date.
+	 * @return <code>true</code> if no entry has to be written.
+	 */
+	boolean isEmpty() {
+		return inserted.isEmpty() && updated.isEmpty() && removed.isEmpty();
+	}
+	
+	List<DictionaryEntry> getInserted() {
+		return unmodifiableList(inserted);
+	}
+	
+	List<DictionaryEntry> getUpdated() {
+		return unmodifiableList(updated);
+	}
+	
+	List<DictionaryEntry> getRemoved() {
+		return unmodifiableList(removed);
+	}
+	
+	/**
+	 * Returns an update to write the changes to the entries of the given dictionary.
+	 * The update also increments the dictionary version if requested, 
+	 * i.e. if no other dictionary attribute has changed and hence the JPA provider does not increment the version.
+	 * The update flushes all pending changes of the dictionary before the entries are written.
+	 * Afterwards the dictionary is detached and evicted from the shared JPA cache, 
+	 * because the loaded entries are outdated.
+	 * @param dict the dictionary
+	 * @param touch whether to increment the dictionary version
+	 * @return the update to write the changes.
+	 */
+	Update apply(Dictionary dict, boolean touch) {
+		return em -> {
+			try {
+				em.flush();
+				int rows = apply(em.unwrap(Connection.class), dict.getId(), touch);
+				em.detach(dict);
+				em.getEntityManagerFactory().getCache().evict(Dictionary.class, dict.getId());
+				return rows;
+			} catch (SQLException e) {
+				throw new PersistenceException(e);
+			}
+		};
+	}
+	
+	int apply(Connection connection, long dictionary, boolean touch) throws SQLException {
+		int rows = 0;
+		if(replaceAll) {
+			try(PreparedStatement stmt = connection.prepareStatement(DELETE_ALL)){
+				stmt.setLong(1, dictionary);
+				rows += stmt.executeUpdate();
+			}
+		} else {
+			rows += batch(connection, DELETE, removed, (stmt,entry) -> {
+				stmt.setLong(1, dictionary);
+				stmt.setString(2, entry.getValue());
+			});
+			rows += batch(connection, UPDATE, updated, (stmt,entry) -> {
+				stmt.setString(1, entry.getLabel());
+				stmt.setObject(2, converter.convertToDatabaseColumn(entry.isDefaultValue()));
+				stmt.setLong(3, dictionary);
+				stmt.setString(4, entry.getValue());
+			});
+		}
+		rows += batch(connection, INSERT, inserted, (stmt,entry) -> {
+			stmt.setLong(1, dictionary);
+			stmt.setString(2, entry.getValue());
+			stmt.setString(3, entry.getLabel());
+			stmt.setObject(4, converter.convertToDatabaseColumn(entry.isDefaultValue()));
+		});
+		if(touch && rows > 0) {
+			try(PreparedStatement stmt = connection.prepareStatement(TOUCH)){
+				stmt.setTimestamp(1, new Timestamp(new Date().getTime()));
+				stmt.setLong(2, dictionary);
+				stmt.executeUpdate();
+			}
+		}
+		return rows;
+	}
+	
+	private static int batch(Connection connection, 
+							 String sql, 
+							 List<DictionaryEntry> entries, 
+							 Binder binder) throws SQLException {
+		if(entries.isEmpty()) {
+			return 0;
+		}
+		int rows = 0;
+		try(PreparedStatement stmt = connection.prepareStatement(sql)){
+			for(int i=0; i < entries.size(); i++) {
+				binder.bind(stmt, entries.get(i));
+				stmt.addBatch();
+				if((i+1) % BATCH_SIZE == 0 || i+1 == entries.size()) {
+					rows += count(stmt.executeBatch());
+				}
+			}
+		}
+		return rows;
+	}
+	
+	private static int count(int[] counts) {
+		int rows = 0;
+		for(int count : counts) {
+			// Drivers may not report the number of affected rows.
+			rows += count == SUCCESS_NO_INFO ? 1 : count;
+		}
+		return rows;
+	}
+	
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static io.leitstand.ui.service.DictionaryEntries.newDictionaryEntries;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Arrays.asList;
+import static java.util.Arrays.sort;
+import static java.util.Comparator.comparing;
+import static java.util.Locale.ROOT;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import io.leitstand.ui.service.DictionaryEntries;
+import io.leitstand.ui.service.DictionaryEntry;
+import io.leitstand.ui.service.DictionarySettings;
+
+/**
+ * An immutable index to page through and search the entries of a dictionary.
+ * <p>
+ * The index holds the dictionary entries in their natural order 
+ * and two permutations of the entries sorted by their lower-case label and value respectively.
+ * A prefix query locates the matching labels and values by binary search,
+ * i.e. in <code>O(log n + m)</code> where <code>n</code> is the number of entries 
+ * and <code>m</code> the number of matching entries.
+ * The matching entries are returned in their natural order.
+ * </p>
+ * @see DictionaryCache#getEntryIndex(DictionarySettings)
+ */
+final class DictionaryEntryIndex {
+	
+	private static final class Permutation {
+		private final String[] keys;
+		private final int[] positions;
+		
+		Permutation(DictionaryEntry[] entries, Function<DictionaryEntry,String> key) {
+			Integer[] order = new Integer[entries.length];
+			String[] normalized = new String[entries.length];
+			for(int i=0; i < entries.length; i++) {
+				order[i] = i;
+				normalized[i] = normalize(key.apply(entries[i]));
+			}
+			sort(order, comparing(i -> normalized[i]));
+			keys = new String[entries.length];
+			positions = new int[entries.length];
+			for(int i=0; i < entries.length; i++) {
+				keys[i] = normalized[order[i]];
+				positions[i] = order[i];
+			}
+		}
+		
+		int lowerBound(String prefix) {
+			return bound(prefix, false);
+		}
+		
+		int upperBound(String prefix) {
+			return bound(prefix, true);
+		}
+		
+		private int bound(String prefix, boolean upper) {
+			int lo = 0;
+			int hi = keys.length;
+			while(lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				int c = compareToPrefix(keys[mid], prefix);
+				if(c < 0 || (upper && c == 0)) {
+					lo = mid + 1;
+				} else {
+					hi = mid;
+				}
+			}
+			return lo;
+		}
+	}
+	
+	/**
+	 * Creates an index for the entries of the specified dictionary.
+	 * @param settings the dictionary
+	 * @return the entry index of the dictionary.
+	 */
+	static DictionaryEntryIndex index(DictionarySettings settings) {
+		return new DictionaryEntryIndex(settings);
+	}
+	
+	private final DictionarySettings settings;
+	private final DictionaryEntry[] entries;
+	private final Permutation labels;
+	private final Permutation values;
+	
+	private DictionaryEntryIndex(DictionarySettings settings) {
+		this.settings = settings;
+		this.entries = settings.getEntries().toArray(new DictionaryEntry[0]);
+		this.labels = new Permutation(entries, DictionaryEntry::getLabel);
+		this.values = new Permutation(entries, DictionaryEntry::getValue);
+	}
+	
+	/**
+	 * Returns the indexed dictionary.
+	 * @return the indexed dictionary.
+	 */
+	DictionarySettings getDictionary() {
+		return settings;
+	}
+	
+	/**
+	 * Returns the entries whose label or value starts with the specified prefix, ignoring case.
+	 * @param prefix the label or value prefix or <code>null</code> to page through all entries
+	 * @param offset the offset of the first returned entry
+	 * @param limit the maximum number of returned entries
+	 * @return the requested page of matching entries.
+	 */
+	DictionaryEntries find(String prefix, int offset, int limit) {
+		offset = max(0, offset);
+		limit = max(0, limit);
+		DictionaryEntries.Builder page = newDictionaryEntries()
+										 .withDictionaryId(settings.getDictionaryId())
+										 .withDictionaryName(settings.getDictionaryName())
+										 .withQuery(prefix)
+										 .withOffset(offset);
+		if(prefix == null || prefix.isEmpty()) {
+			int from = min(offset, entries.length);
+			int to = (int) min((long) from + limit, entries.length);
+			return page.withTotal(entries.length)
+					   .withEntries(asList(entries).subList(from, to))
+					   .build();
+		}
+		
+		String normalized = normalize(prefix);
+		int labelsFrom = labels.lowerBound(normalized);
+		int labelsTo = labels.upperBound(normalized);
+		int valuesFrom = values.lowerBound(normalized);
+		int valuesTo = values.upperBound(normalized);
+		
+		// Merge the matching labels and values and remove entries matching by label and value.
+		int[] matches = new int[(labelsTo - labelsFrom) + (valuesTo - valuesFrom)];
+		int n = 0;
+		for(int i=labelsFrom; i < labelsTo; i++) {
+			matches[n++] = labels.positions[i];
+		}
+		for(int i=valuesFrom; i < valuesTo; i++) {
+			matches[n++] = values.positions[i];
+		}
+		sort(matches);
+		int total = 0;
+		for(int i=0; i < n; i++) {
+			if(i == 0 || matches[i] != matches[i-1]) {
+				matches[total++] = matches[i];
+			}
+		}
+		
+		List<DictionaryEntry> found = new ArrayList<>(min(limit, max(0, total - offset)));
+		for(int i=offset; i < total && found.size() < limit; i++) {
+			found.add(entries[matches[i]]);
+		}
+		return page.withTotal(total)
+				   .withEntries(found)
+				   .build();
+	}
+	
+	private static String normalize(String key) {
+		return key != null ? key.toLowerCase(ROOT) : "";
+	}
+	
+	static int compareToPrefix(String key, String prefix) {
+		// Compare the leading characters of the key with the prefix. 
+		// A key shorter than the prefix precedes the prefix if it is a prefix of the prefix.
+		return key.substring(0, min(key.length(), prefix.length())).compareTo(prefix);
+	}
+	
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static io.leitstand.ui.model.DictionaryEntryDiff.DELETE;
+import static io.leitstand.ui.model.DictionaryEntryDiff.INSERT;
+import static io.leitstand.ui.model.DictionaryEntryDiff.TOUCH;
+import static io.leitstand.ui.model.DictionaryEntryDiff.UPDATE;
+import static io.leitstand.ui.service.ReasonCode.LUI0001E_DICTIONARY_NOT_FOUND;
+import static io.leitstand.ui.service.ReasonCode.LUI0004E_DICTIONARY_MODIFIED;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Date;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+
+import io.leitstand.commons.ConflictException;
+import io.leitstand.commons.EntityNotFoundException;
+import io.leitstand.commons.jpa.BooleanConverter;
+import io.leitstand.commons.model.Update;
+import io.leitstand.ui.service.DictionaryEntry;
+
+/**
+ * Adds, updates or removes a single entry of a dictionary.
+ * <p>
+ * The update locks the dictionary row and verifies the expected dictionary version, if specified,
+ * before the entry row is written.
+ * The dictionary version is incremented if an entry row was modified.
+ * Concurrent modifications of the same dictionary are thereby serialized
+ * and a modification based on an outdated dictionary version is rejected.
+ * </p>
+ */
+final class DictionaryEntryUpdate implements Update {
+
+	static final String LOCK = "SELECT modcount FROM leitstand.dictionary WHERE id=? FOR UPDATE";
+	
+	/**
+	 * Creates an update to add the specified entry or to update the label and default flag 
+	 * of the existing entry with the same value.
+	 * @param dict the dictionary
+	 * @param modCount the expected dictionary version or <code>null</code> to ignore the dictionary version.
+	 * @param entry the dictionary entry
+	 * @return the update to store the dictionary entry.
+	 */
+	static DictionaryEntryUpdate storeEntry(Dictionary dict, Integer modCount, DictionaryEntry entry) {
+		return new DictionaryEntryUpdate(dict, modCount, entry, null);
+	}
+	
+	/**
+	 * Creates an update to remove the entry with the specified value.
+	 * @param dict the dictionary
+	 * @param modCount the expected dictionary version or <code>null</code> to ignore the dictionary version.
+	 * @param value the value of the entry to be removed
+	 * @return the update to remove the dictionary entry.
+	 */
+	static DictionaryEntryUpdate removeEntry(Dictionary dict, Integer modCount, String value) {
+		return new DictionaryEntryUpdate(dict, modCount, null, value);
+	}
+	
+	private final Dictionary dict;
+	private final Integer modCount;
+	private final DictionaryEntry entry;
+	private final String removed;
+	private final BooleanConverter converter = new BooleanConverter();
+	
+	private DictionaryEntryUpdate(Dictionary dict, 
+								  Integer modCount, 
+								  DictionaryEntry entry, 
+								  String removed) {
+		this.dict = dict;
+		this.modCount = modCount;
+		this.entry = entry;
+		this.removed = removed;
+	}
+	
+	/**
+	 * Writes the entry and returns the number of modified entry rows.
+	 * @param em the entity manager of the current transaction
+	 * @return the number of modified entry rows.
+	 * @throws EntityNotFoundException if the dictionary does not exist anymore.
+	 * @throws ConflictException if the dictionary version differs from the expected version.
+	 */
+	@Override
+	public int execute(EntityManager em) {
+		try {
+			int rows = execute(em.unwrap(Connection.class));
+			if(rows > 0) {
+				// The loaded entries and the version are outdated.
+				em.detach(dict);
+				em.getEntityManagerFactory().getCache().evict(Dictionary.class, dict.getId());
+			}
+			return rows;
+		} catch (SQLException e) {
+			throw new PersistenceException(e);
+		}
+	}
+	
+	int execute(Connection connection) throws SQLException {
+		long id = dict.getId();
+		lock(connection, dict, modCount);
+		int rows = entry != null ? store(connection, id) : remove(connection, id);
+		if(rows > 0) {
+			try(PreparedStatement stmt = connection.prepareStatement(TOUCH)){
+				stmt.setTimestamp(1, new Timestamp(new Date().getTime()));
+				stmt.setLong(2, id);
+				stmt.executeUpdate();
+			}
+		}
+		return rows;
+	}
+	
+	/**
+	 * Locks the dictionary row until the current transaction ends and verifies the expected dictionary version, if specified.
+	 * @param connection the connection of the current transaction
+	 * @param dict the dictionary
+	 * @param modCount the expected dictionary version or <code>null</code> to ignore the dictionary version.
+	 * @return the current dictionary version.
+	 * @throws SQLException if the dictionary row cannot be locked.
+	 * @throws EntityNotFoundException if the dictionary does not exist anymore.
+	 * @throws ConflictException if the dictionary version differs from the expected version.
+	 */
+	static int lock(Connection connection, Dictionary dict, Integer modCount) throws SQLException {
+		try(PreparedStatement stmt = connection.prepareStatement(LOCK)){
+			stmt.setLong(1, dict.getId());
+			try(ResultSet rs = stmt.executeQuery()){
+				if(!rs.next()) {
+					throw new EntityNotFoundException(LUI0001E_DICTIONARY_NOT_FOUND, 
+													  dict.getDictionaryId());
+				}
+				int current = rs.getInt(1);
+				if(modCount != null && modCount != current) {
+					throw new ConflictException(LUI0004E_DICTIONARY_MODIFIED, 
+												dict.getDictionaryId(), 
+												dict.getDictionaryName(),
+												modCount,
+												current);
+				}
+				return current;
+			}
+		}
+	}
+	
+	private int store(Connection connection, long id) throws SQLException {
+		try(PreparedStatement stmt = connection.prepareStatement(UPDATE)){
+			stmt.setString(1, entry.getLabel());
+			stmt.setObject(2, converter.convertToDatabaseColumn(entry.isDefaultValue()));
+			stmt.setLong(3, id);
+			stmt.setString(4, entry.getValue());
+			int rows = stmt.executeUpdate();
+			if(rows > 0) {
+				return rows;
+			}
+		}
+		try(PreparedStatement stmt = connection.prepareStatement(INSERT)){
+			stmt.setLong(1, id);
+			stmt.setString(2, entry.getValue());
+			stmt.setString(3, entry.getLabel());
+			stmt.setObject(4, converter.convertToDatabaseColumn(entry.isDefaultValue()));
+			return stmt.executeUpdate();
+		}
+	}
+	
+	private int remove(Connection connection, long id) throws SQLException {
+		try(PreparedStatement stmt = connection.prepareStatement(DELETE)){
+			stmt.setLong(1, id);
+			stmt.setString(2, removed);
+			return stmt.executeUpdate();
+		}
+	}
+	
+}
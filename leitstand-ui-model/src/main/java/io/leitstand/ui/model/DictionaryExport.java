@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static io.leitstand.ui.service.DictionaryEntry.newDictionaryEntry;
+import static io.leitstand.ui.service.DictionaryId.dictionaryId;
+import static io.leitstand.ui.service.DictionaryInfo.newDictionaryInfo;
+import static io.leitstand.ui.service.DictionaryName.dictionaryName;
+import static java.lang.Boolean.TRUE;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+
+import io.leitstand.commons.jpa.BooleanConverter;
+import io.leitstand.commons.model.Query;
+import io.leitstand.ui.service.DictionaryExportHandler;
+
+/**
+ * Reads all dictionaries and their entries by a single query and passes them to a {@link DictionaryExportHandler}.
+ * <p>
+ * The rows are read by a JDBC cursor on the connection of the current transaction.
+ * The fetch size bounds the number of rows held in memory, 
+ * provided that the driver supports cursors inside a transaction.
+ * </p>
+ */
+final class DictionaryExport implements Query<Integer>{
+
+	static final int FETCH_SIZE = 1000;
+	
+	static final String SELECT = "SELECT d.id, d.uuid, d.name, d.description, e.value, e.label, e.\"default\" "+
+								 "FROM leitstand.dictionary d "+
+								 "LEFT JOIN leitstand.dictionary_entry e ON e.dictionary_id=d.id "+
+								 "ORDER BY d.name, d.id, e.value";
+	
+	/**
+	 * Creates a query to export all dictionaries to the given handler.
+	 * @param handler the export handler
+	 * @return the query to export all dictionaries.
+	 */
+	static DictionaryExport exportAllDictionaries(DictionaryExportHandler handler) {
+		return new DictionaryExport(handler);
+	}
+	
+	private final DictionaryExportHandler handler;
+	private final BooleanConverter converter = new BooleanConverter();
+	
+	private DictionaryExport(DictionaryExportHandler handler) {
+		this.handler = handler;
+	}
+	
+	/**
+	 * Exports all dictionaries and returns the number of exported dictionaries.
+	 * @param em the entity manager of the current transaction
+	 * @return the number of exported dictionaries.
+	 */
+	@Override
+	public Integer execute(EntityManager em) {
+		try {
+			return execute(em.unwrap(Connection.class));
+		} catch (SQLException e) {
+			throw new PersistenceException(e);
+		}
+	}
+	
+	int execute(Connection connection) throws SQLException {
+		int dictionaries = 0;
+		try(PreparedStatement stmt = connection.prepareStatement(SELECT)){
+			stmt.setFetchSize(FETCH_SIZE);
+			try(ResultSet rs = stmt.executeQuery()){
+				Long current = null;
+				while(rs.next()) {
+					long id = rs.getLong(1);
+					if(current == null || current != id) {
+						current = id;
+						dictionaries++;
+						handler.dictionary(newDictionaryInfo()
+										   .withDictionaryId(dictionaryId(rs.getString(2)))
+										   .withDictionaryName(dictionaryName(rs.getString(3)))
+										   .withDescription(rs.getString(4))
+										   .build());
+					}
+					String value = rs.getString(5);
+					if(value == null) {
+						// Dictionary without entries.
+						continue;
+					}
+					handler.entry(newDictionaryEntry()
+								  .withValue(value)
+								  .withLabel(rs.getString(6))
+								  .withDefaultValue(TRUE.equals(converter.convertToEntityAttribute(rs.getString(7))))
+								  .build());
+				}
+			}
+		}
+		return dictionaries;
+	}
+	
+}
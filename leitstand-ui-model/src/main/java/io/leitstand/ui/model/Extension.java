@@ -3,9 +3,13 @@ package io.leitstand.ui.model;
 import static java.lang.String.format;
 import static java.util.Collections.emptyList;
 
+import java.io.Serializable;
 import java.util.List;
 
-class Extension {
+class Extension implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
 	private ExtensionPoint extend;
 	private List<ModuleMenu> menus = emptyList();
 	private List<ModuleMenuItem> items = emptyList();
@@ -2,7 +2,11 @@ package io.leitstand.ui.model;
 
 import static java.lang.String.format;
 
-class ExtensionPoint {
+import java.io.Serializable;
+
+class ExtensionPoint implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	private String module;
 	private String menu;
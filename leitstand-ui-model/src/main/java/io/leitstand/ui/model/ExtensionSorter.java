@@ -1,80 +1,243 @@
 package io.leitstand.ui.model;
 
-import java.util.LinkedList;
+import static io.leitstand.ui.model.ReasonCode.UIM0005W_EXTENSION_CONSTRAINT_CYCLE;
+import static io.leitstand.ui.model.ReasonCode.UIM0006W_EXTENSION_CONSTRAINT_UNRESOLVED;
+import static io.leitstand.ui.model.ReasonCode.UIM0008W_EXTENSION_CONSTRAINT_IGNORED;
+import static java.lang.String.format;
+import static java.util.Arrays.fill;
+import static java.util.Collections.unmodifiableList;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.logging.Logger;
+
+import io.leitstand.commons.Reason;
 
+/**
+ * Arranges menus and menu items according to the <code>after</code> and <code>before</code> constraints of their extension points.
+ * <p>
+ * An item with an <code>after</code> constraint is placed directly after the referenced item.
+ * An item with a <code>before</code> constraint is placed directly before the referenced item.
+ * A <code>before</code> constraint precedes over an <code>after</code> constraint.
+ * An item is linked to a single item, hence only the first resolvable constraint of an item is honored
+ * and all further constraints referring to other items are ignored.
+ * Items without resolvable constraint retain their original order.
+ * Items referring to the same item are arranged in their original order.
+ * </p>
+ * <p>
+ * The sorter indexes all items by name and links every constrained item to the referenced item.
+ * The resulting forest is traversed once, which sorts all items in <code>O(n + e)</code>,
+ * where <code>n</code> is the number of items and <code>e</code> the number of constraints.
+ * Constraints referring to unknown items are ignored.
+ * A constraint cycle is broken by ignoring the constraints of the first item of the cycle.
+ * Unresolved, ignored and cyclic constraints are reported as diagnostics.
+ * </p>
+ * @param <T> the item type
+ */
 class ExtensionSorter<T extends Named> {
 
+	private static final Logger LOG = Logger.getLogger(ExtensionSorter.class.getName());
+
+	private static final int NONE = -1;
+
 	private Map<T,List<ExtensionPoint>> points;
 	private List<T> items;
-	
+	private List<String> diagnostics = new ArrayList<>();
+
 	ExtensionSorter(Map<T,List<ExtensionPoint>> points, List<T> items){
 		this.points = points;
-		this.items = new LinkedList<>(items);
+		this.items = new ArrayList<>(items);
 	}
-	
+
 	List<T> sort() {
-		boolean swap = true;
-		
-		// Re-arrange menu items until no more items were swapped or the complete menu was processed.
-		// The second check breaks reference loops in menu constraints.
-		for(int i=1, n=items.size(); i < n && swap; i++) {
-		    swap = false;
-		    for(Map.Entry<T,List<ExtensionPoint>> constraint : points.entrySet()) {
-		        T item = constraint.getKey();
-		        for(ExtensionPoint point : constraint.getValue()) {
-    		        int pos = items.indexOf(item);
-    		        // Move item to satisfy after constraint
-    		        int ref = indexOf(point.getAfter());
-    		        if(ref  >= 0 && pos !=  ref + 1) {
-    		            moveTo( pos, ref + 1);
-    		            swap = true;
-    		        }
-		        }
-		    }
+		int n = items.size();
+
+		// Index all items by name. The first item wins if a name is ambiguous.
+		Map<String,Integer> names = new HashMap<>();
+		for(int i=0; i < n; i++) {
+			String name = items.get(i).getName();
+			if(name != null) {
+				names.putIfAbsent(name, i);
+			}
+		}
+
+		// Link every constrained item to the referenced item.
+		int[] parent = new int[n];
+		boolean[] before = new boolean[n];
+		fill(parent,NONE);
+		for(int i=0; i < n; i++) {
+			List<ExtensionPoint> constraints = points.get(items.get(i));
+			if(constraints != null) {
+				resolve(i, constraints, names, parent, before);
+			}
 		}
-		
-	    swap = true;
-	    for(int i=1, n=items.size(); i < n && swap; i++) {
-	        swap = false;
-	        for(Map.Entry<T,List<ExtensionPoint>> constraint : points.entrySet()) {
-	            T item = constraint.getKey();
-	            for(ExtensionPoint point : constraint.getValue()) {
-	                // Move item to satisfy before constraint.
-	                // Before constraints precede over after constraints.
-	                int pos = items.indexOf(item);
-	                int ref = indexOf(point.getBefore());
-	                if(ref >= 0 && pos != ref - 1) {
-	                    moveTo(pos, ref);
-	                    swap = true;
-	                }
-	            }
-	        }
-	    }
-
-		return items;
+
+		breakCycles(parent);
+
+		// Build the child lists in original order.
+		int[] firstBefore = new int[n];
+		int[] lastBefore  = new int[n];
+		int[] firstAfter  = new int[n];
+		int[] lastAfter   = new int[n];
+		int[] next        = new int[n];
+		fill(firstBefore,NONE);
+		fill(lastBefore,NONE);
+		fill(firstAfter,NONE);
+		fill(lastAfter,NONE);
+		fill(next,NONE);
+		for(int i=0; i < n; i++) {
+			int p = parent[i];
+			if(p == NONE) {
+				continue;
+			}
+			if(before[i]) {
+				if(firstBefore[p] == NONE) {
+					firstBefore[p] = i;
+				} else {
+					next[lastBefore[p]] = i;
+				}
+				lastBefore[p] = i;
+			} else {
+				if(firstAfter[p] == NONE) {
+					firstAfter[p] = i;
+				} else {
+					next[lastAfter[p]] = i;
+				}
+				lastAfter[p] = i;
+			}
+		}
+
+		// Traverse all trees in the original order of their roots.
+		List<T> sorted = new ArrayList<>(n);
+		Deque<int[]> stack = new ArrayDeque<>();
+		for(int root=0; root < n; root++) {
+			if(parent[root] != NONE) {
+				continue;
+			}
+			stack.push(new int[] {root,0});
+			while(!stack.isEmpty()) {
+				int[] frame = stack.pop();
+				int item = frame[0];
+				if(frame[1] == 0) {
+					// Place all items linked by a before constraint in front of the item.
+					stack.push(new int[] {item,1});
+					pushChildren(stack, firstBefore[item], next);
+				} else {
+					// Place the item followed by all items linked by an after constraint.
+					sorted.add(items.get(item));
+					pushChildren(stack, firstAfter[item], next);
+				}
+			}
+		}
+		return sorted;
 	}
 
-    private void moveTo(int pos, int ref) {
-        T spare = null;
-        // Add a spare itme to preserver the current index values.
-        T item = items.set(pos,spare); 
-        items.add(ref, item);
-        items.remove(spare); // Remove the null placeholder
-    }
-		
-	
-	private int indexOf(String name) {
-		if(name == null) {
-			return -1;
+	/**
+	 * Returns the diagnostics of the last {@link #sort()} invocation.
+	 * @return the reported constraint cycles and unresolved references.
+	 */
+	List<String> getDiagnostics(){
+		return unmodifiableList(diagnostics);
+	}
+
+	private void resolve(int i,
+						 List<ExtensionPoint> constraints,
+						 Map<String,Integer> names,
+						 int[] parent,
+						 boolean[] before) {
+		T item = items.get(i);
+		Integer ref = null;
+		for(ExtensionPoint point : constraints) {
+			if(point.getBefore() == null) {
+				continue;
+			}
+			Integer candidate = names.get(point.getBefore());
+			if(candidate != null && candidate == i) {
+				// An item is always before itself.
+				continue;
+			}
+			if(candidate == null) {
+				report(UIM0006W_EXTENSION_CONSTRAINT_UNRESOLVED, item.getName(), "before", point.getBefore());
+			} else if(ref == null) {
+				ref = candidate;
+				before[i] = true;
+			} else if(!ref.equals(candidate)) {
+				report(UIM0008W_EXTENSION_CONSTRAINT_IGNORED, item.getName(), "before", point.getBefore(), items.get(ref).getName());
+			}
+		}
+		for(ExtensionPoint point : constraints) {
+			if(point.getAfter() == null) {
+				continue;
+			}
+			Integer candidate = names.get(point.getAfter());
+			if(candidate != null && candidate == i) {
+				// An item is always after itself.
+				continue;
+			}
+			if(candidate == null) {
+				report(UIM0006W_EXTENSION_CONSTRAINT_UNRESOLVED, item.getName(), "after", point.getAfter());
+			} else if(ref == null) {
+				ref = candidate;
+			} else if(!ref.equals(candidate)) {
+				report(UIM0008W_EXTENSION_CONSTRAINT_IGNORED, item.getName(), "after", point.getAfter(), items.get(ref).getName());
+			}
 		}
-		for(int i=0; i < items.size(); i++) {
-			if(items.get(i).getName().equals(name)) {
-				return i;
+		if(ref != null) {
+			parent[i] = ref;
+		}
+	}
+
+	private void breakCycles(int[] parent) {
+		int n = parent.length;
+		// 0: not visited, 1: on current path, 2: done
+		int[] state = new int[n];
+		List<Integer> path = new ArrayList<>();
+		for(int i=0; i < n; i++) {
+			path.clear();
+			int j = i;
+			while(j != NONE && state[j] == 0) {
+				state[j] = 1;
+				path.add(j);
+				j = parent[j];
+			}
+			if(j != NONE && state[j] == 1) {
+				// The path runs into a cycle. Break the cycle at its first item.
+				int start = path.indexOf(j);
+				List<String> cycle = new ArrayList<>();
+				int first = j;
+				for(int k=start; k < path.size(); k++) {
+					int member = path.get(k);
+					cycle.add(items.get(member).getName());
+					first = Math.min(first, member);
+				}
+				parent[first] = NONE;
+				report(UIM0005W_EXTENSION_CONSTRAINT_CYCLE, items.get(first).getName(), cycle);
+			}
+			for(int k : path) {
+				state[k] = 2;
 			}
 		}
-		return -1;
 	}
-	
+
+	private static void pushChildren(Deque<int[]> stack, int first, int[] next) {
+		// Push children in reverse order to pop them in original order.
+		Deque<int[]> children = new ArrayDeque<>();
+		for(int child = first; child != NONE; child = next[child]) {
+			children.push(new int[] {child,0});
+		}
+		while(!children.isEmpty()) {
+			stack.push(children.pop());
+		}
+	}
+
+	private void report(Reason reason, Object... args) {
+		String message = format("%s: %s", reason.getReasonCode(), reason.getMessage(args));
+		diagnostics.add(message);
+		LOG.warning(message);
+	}
+
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableSet;
+import static javax.transaction.Status.STATUS_ACTIVE;
+import static javax.transaction.Status.STATUS_COMMITTED;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import javax.annotation.Resource;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Typed;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * An {@link InvalidationChannel} that delivers all invalidations to all subscribers in the same JVM.
+ * <p>
+ * The in-memory channel is the default channel selected by the {@link InvalidationChannelProducer}.
+ * It is meant for single-node deployments and for tests, where several caches share one channel to simulate several UI nodes.
+ * Multi-node deployments select the {@link PostgresInvalidationChannel}.
+ * An invalidation published in an active transaction is delivered after the transaction has committed
+ * and discarded if the transaction is rolled back.
+ * An invalidation published outside a transaction is delivered immediately.
+ * </p>
+ */
+@ApplicationScoped
+@Typed(InMemoryInvalidationChannel.class)
+public class InMemoryInvalidationChannel implements InvalidationChannel {
+
+	private final ConcurrentMap<String,List<Consumer<Set<String>>>> subscribers = new ConcurrentHashMap<>();
+	
+	@Resource
+	private TransactionSynchronizationRegistry transactions;
+	
+	@Override
+	public void publish(String topic, Set<String> keys) {
+		Set<String> invalidated = unmodifiableSet(new LinkedHashSet<>(keys));
+		if(transactions == null || transactions.getTransactionStatus() != STATUS_ACTIVE) {
+			deliver(topic, invalidated);
+			return;
+		}
+		transactions.registerInterposedSynchronization(new Synchronization() {
+			
+			@Override
+			public void beforeCompletion() {
+				// Nothing to do
+			}
+			
+			@Override
+			public void afterCompletion(int status) {
+				if(status == STATUS_COMMITTED) {
+					deliver(topic, invalidated);
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Delivers the invalidated keys to all subscribers of the topic immediately.
+	 * @param topic the topic
+	 * @param keys the invalidated keys
+	 */
+	void deliver(String topic, Set<String> keys) {
+		for(Consumer<Set<String>> subscriber : subscribers.getOrDefault(topic, emptyList())) {
+			subscriber.accept(keys);
+		}
+	}
+
+	@Override
+	public void subscribe(String topic, Consumer<Set<String>> subscriber) {
+		subscribers.computeIfAbsent(topic, t -> new CopyOnWriteArrayList<>())
+				   .add(subscriber);
+	}
+
+}
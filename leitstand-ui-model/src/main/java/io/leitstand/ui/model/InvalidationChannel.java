@@ -0,0 +1,56 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * A channel to invalidate node-local caches on all UI nodes.
+ * <p>
+ * A service publishes the keys of all modified entities to the channel in the transaction that modifies the entities.
+ * The channel delivers the keys to the subscribers of the topic on all other UI nodes 
+ * once the transaction has committed. 
+ * The node that modified the entities evicts its cache entries itself.
+ * An empty key set requests to evict all entries of a topic, 
+ * for example when invalidations might have been lost.
+ * </p>
+ * @see PostgresInvalidationChannel
+ * @see InMemoryInvalidationChannel
+ */
+public interface InvalidationChannel {
+
+	/** Topic of dictionary invalidations. Keys are dictionary IDs and dictionary names. */
+	String DICTIONARIES = "dictionaries";
+	
+	/** Topic of tag invalidations. Keys are tag names. */
+	String TAGS = "tags";
+	
+	/**
+	 * Publishes the keys of modified entities.
+	 * @param topic the topic
+	 * @param keys the keys of the modified entities or an empty set to evict all entries of the topic.
+	 */
+	void publish(String topic, Set<String> keys);
+	
+	/**
+	 * Subscribes to the specified topic.
+	 * @param topic the topic
+	 * @param subscriber the subscriber that evicts the specified keys from a node-local cache.
+	 */
+	void subscribe(String topic, Consumer<Set<String>> subscriber);
+	
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Dependent;
+import javax.enterprise.inject.Instance;
+import javax.enterprise.inject.Produces;
+
+/**
+ * Selects the {@link InvalidationChannel} of this UI node.
+ * <p>
+ * The {@link InMemoryInvalidationChannel} is the default channel.
+ * The {@link PostgresInvalidationChannel} is selected if the <code>{@value #INVALIDATION_CHANNEL}</code> system property
+ * is set to <code>{@value #POSTGRES}</code>.
+ * The PostgreSQL channel starts listening for invalidations of other UI nodes once it has been selected.
+ * </p>
+ */
+@Dependent
+public class InvalidationChannelProducer {
+
+	static final String INVALIDATION_CHANNEL = "leitstand.ui.invalidation.channel";
+	static final String POSTGRES = "postgres";
+
+	@Produces
+	@ApplicationScoped
+	public InvalidationChannel createInvalidationChannel(Instance<InMemoryInvalidationChannel> inMemory,
+														 Instance<PostgresInvalidationChannel> postgres) {
+		if(POSTGRES.equalsIgnoreCase(System.getProperty(INVALIDATION_CHANNEL))) {
+			PostgresInvalidationChannel channel = postgres.get();
+			channel.startListener();
+			return channel;
+		}
+		return inMemory.get();
+	}
+
+}
@@ -23,6 +23,7 @@ import static java.util.Collections.emptySortedSet;
 import static java.util.Collections.unmodifiableMap;
 import static java.util.Collections.unmodifiableSortedSet;
 
+import java.io.Serializable;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
@@ -36,7 +37,9 @@ import io.leitstand.commons.model.ValueObject;
 /**
  * Leitstand main menu item
  */
-public class MainMenuItem extends ValueObject implements Named{
+public class MainMenuItem extends ValueObject implements Named, Serializable{
+
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * Returns a builder to create an immutable main menu item.
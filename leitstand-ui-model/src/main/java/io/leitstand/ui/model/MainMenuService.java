@@ -16,39 +16,73 @@
 package io.leitstand.ui.model;
 
 import static io.leitstand.commons.etc.FileProcessor.yaml;
+import static io.leitstand.ui.jsonb.JsonPayload.toJsonPayload;
 
 import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
 import io.leitstand.commons.etc.Environment;
+import io.leitstand.ui.jsonb.JsonPayload;
 
 /**
  * Loads the {@link MainMenu} from the YAML file specified in the <code>ems.main-menu</code> property or
  * from <code>META-INF/etc/main-menu.yaml</code> if this property is not present.
+ * <p>
+ * The main menu is immutable once loaded. 
+ * The service serializes the main menu items to JSON once and caches the serialized {@link JsonPayload}.
+ * {@link #reloadMainMenu()} replaces the main menu when contributions were modified at runtime.
+ * </p>
  */
 @ApplicationScoped
 public class MainMenuService {
 
-	@Inject
 	private Environment env;
-	@Inject
 	private Contributions extensions;
 	
-	private MainMenu menu;
+	/**
+	 * The main menu and its JSON representation.
+	 */
+	private static final class CachedMenu {
+		private final MainMenu menu;
+		private final JsonPayload payload;
+		
+		CachedMenu(MainMenu menu){
+			this.menu = menu;
+			this.payload = toJsonPayload(menu.getItems());
+		}
+	}
+	
+	private volatile CachedMenu cache;
 	
 	protected MainMenuService() {
 		// CDI constructor
 	}
 	
+	@Inject
+	protected MainMenuService(Environment env,
+							  Contributions extensions) {
+		this.env = env;
+		this.extensions = extensions;
+	}
+	
 	@PostConstruct
 	protected void loadMainMenu() {
 
-		menu = env.loadFile("/META-INF/resources/ui/modules/main-menu.yaml", 
-							yaml(MainMenu.class));		
+		MainMenu menu = env.loadFile("/META-INF/resources/ui/modules/main-menu.yaml", 
+									 yaml(MainMenu.class));		
 		
 		menu.addExtensions(extensions.findExtensions());
+		cache = new CachedMenu(menu);
+	
+	}
 	
+	/**
+	 * Rebuilds the main menu from the current contributions.
+	 * The main menu is built completely before it replaces the current main menu.
+	 */
+	public void reloadMainMenu() {
+		loadMainMenu();
 	}
 	
 	/**
@@ -56,7 +90,15 @@ public class MainMenuService {
 	 * @return the Leitstand main menu.
 	 */
 	public MainMenu getMainMenu() {
-		return menu;
+		return cache.menu;
+	}
+	
+	/**
+	 * Returns the pre-serialized JSON representation of the Leitstand main menu items.
+	 * @return the JSON representation of the main menu items.
+	 */
+	public JsonPayload getMainMenuPayload() {
+		return cache.payload;
 	}
 
 	
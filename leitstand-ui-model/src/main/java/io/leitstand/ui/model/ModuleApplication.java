@@ -17,13 +17,17 @@ package io.leitstand.ui.model;
 
 import static io.leitstand.commons.model.BuilderUtil.assertNotInvalidated;
 
+import java.io.Serializable;
+
 /**
  * Module application descriptor.
  * <p>
  * The module application descriptor sets the name of an application and the application controller file,
  * Moreover, the application descriptor <code>defer</code> flag states whether to load the application eagerly or on demand.
  */
-public class ModuleApplication {
+public class ModuleApplication implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 	
 	public static Builder newModuleApplication() {
 		return new Builder();
@@ -15,7 +15,6 @@
  */
 package io.leitstand.ui.model;
 
-import static io.leitstand.commons.etc.FileProcessor.yaml;
 import static io.leitstand.commons.model.BuilderUtil.assertNotInvalidated;
 import static io.leitstand.commons.model.BuilderUtil.requires;
 import static io.leitstand.commons.model.ObjectUtil.asSet;
@@ -31,15 +30,18 @@ import static java.util.Collections.unmodifiableSet;
 import static java.util.stream.Collectors.toList;
 
 import java.io.IOException;
+import java.io.Serializable;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.SortedSet;
 import java.util.TreeSet;
 
 import javax.json.bind.annotation.JsonbTransient;
@@ -56,7 +58,10 @@ import javax.json.bind.annotation.JsonbTransient;
  * from the <code>module.yaml</code> file in the module directory.
  * </p>
  */
-public class ModuleDescriptor {
+public class ModuleDescriptor implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
 		
 	/**
 	 * Returns a new builder to create an immutable <code>ModuleDescriptor</code> instance.
@@ -66,9 +71,16 @@ public class ModuleDescriptor {
 		return new Builder();
 	}
 	
+	/**
+	 * Reads a module descriptor from the specified YAML file.
+	 * Returns the precompiled module descriptor if a {@link DescriptorSnapshot} exists for the YAML file.
+	 * @param descriptor the YAML file URL
+	 * @return a builder to complete the module descriptor
+	 * @throws IOException if the YAML file cannot be read
+	 */
 	public static Builder readModuleDescriptor(URL descriptor) throws IOException {
 		Builder builder = new Builder();
-		builder.descriptor = yaml(ModuleDescriptor.class).process(descriptor);
+		builder.descriptor = DescriptorSnapshot.read(descriptor, ModuleDescriptor.class, builder::setDigest);
 		return builder;
 	}
 	
@@ -79,6 +91,12 @@ public class ModuleDescriptor {
 		
 		private ModuleDescriptor descriptor = new ModuleDescriptor();
 		private List<Contribution> contributions = emptyList();
+		// Digest of the YAML file. Discarded when the module descriptor gets modified.
+		private byte[] digest;
+		
+		private void setDigest(byte[] digest) {
+			this.digest = digest;
+		}
 		
 		/**
 		 * Sets the module name.
@@ -87,6 +105,7 @@ public class ModuleDescriptor {
 		 */
 		public Builder withName(String name) {
 			assertNotInvalidated(getClass(), descriptor);
+			digest = null;
 			descriptor.module = name;
 			return this;
 		}
@@ -109,6 +128,7 @@ public class ModuleDescriptor {
 		 */
 		public Builder withApplications(Collection<ModuleApplication> applications) {
 			assertNotInvalidated(getClass(), descriptor);
+			digest = null;
 			descriptor.applications = new TreeSet<ModuleApplication>((a,b) -> a.getApplication().compareTo(b.getApplication()));
 			descriptor.applications.addAll(applications);
 			return this;
@@ -120,6 +140,7 @@ public class ModuleDescriptor {
 		
 		public Builder withContributions(List<Contribution> contributions) {
 			assertNotInvalidated(getClass(), descriptor);
+			digest = null;
 			this.contributions = new ArrayList<>(contributions);
 			return this;
 		}
@@ -162,6 +183,7 @@ public class ModuleDescriptor {
 		 * @return a reference to this builder to continue with object creation
 		 */
 		public Builder withScopesAllowed(Set<String> roles) {
+			digest = null;
 			descriptor.scopesAllowed = unmodifiableSet(new TreeSet<>(roles));
 			return this;
 		}
@@ -173,6 +195,7 @@ public class ModuleDescriptor {
 		 */
 		public Builder withNavigation(List<ModuleMenu> menus) {
 			assertNotInvalidated(getClass(), descriptor);
+			digest = null;
 			descriptor.menus = new ArrayList<>(menus);
 			return this;
 		}
@@ -187,6 +210,7 @@ public class ModuleDescriptor {
 				assertNotInvalidated(getClass(), descriptor);
 				requires(getClass(), "name", descriptor.module);
 				requires(getClass(), "navigation", descriptor.menus);
+				descriptor.digest = digest;
 				contributions.stream()
 						     .filter(c -> c.contributesTo(descriptor))
 						     .forEach(c -> {
@@ -213,6 +237,36 @@ public class ModuleDescriptor {
 	@JsonbTransient
 	private Map<ModuleMenu,List<ExtensionPoint>> moduleExtensions = new LinkedHashMap<>();
 	private Set<String> scopesAllowed;
+	private transient byte[] digest;
+
+	protected ModuleDescriptor() {
+		// Tool constructor
+	}
+	
+	private ModuleDescriptor(ModuleDescriptor descriptor) {
+		this.module = descriptor.module;
+		this.scopesAllowed = descriptor.scopesAllowed;
+		this.digest = descriptor.digest;
+		if(descriptor.applications instanceof SortedSet) {
+			this.applications = new TreeSet<>((SortedSet<ModuleApplication>)descriptor.applications);
+		} else if(!descriptor.applications.isEmpty()) {
+			this.applications = new LinkedHashSet<>(descriptor.applications);
+		}
+		Map<ModuleMenu,ModuleMenu> copies = new IdentityHashMap<>();
+		this.menus = new ArrayList<>();
+		for(ModuleMenu menu : descriptor.menus) {
+			ModuleMenu copy = new ModuleMenu(menu);
+			copies.put(menu, copy);
+			this.menus.add(copy);
+		}
+		// Link the existing extension points to the copied menus.
+		for(Map.Entry<ModuleMenu,List<ExtensionPoint>> points : descriptor.moduleExtensions.entrySet()) {
+			ModuleMenu copy = copies.get(points.getKey());
+			if(copy != null) {
+				this.moduleExtensions.put(copy, new LinkedList<>(points.getValue()));
+			}
+		}
+	}
 
 	/**
 	 * Returns the module name.
@@ -253,6 +307,65 @@ public class ModuleDescriptor {
 		return unmodifiableList(menus);
 	}
 
+	/**
+	 * Returns a copy of this module descriptor including copies of all menus and menu items.
+	 * The copy can be extended by contributions without affecting this module descriptor.
+	 * <p>
+	 * The copy is created by an instance method rather than a copy constructor, because 
+	 * the module descriptor can be a CDI client proxy that delegates method calls only.
+	 * </p>
+	 * @return a copy of this module descriptor.
+	 */
+	ModuleDescriptor copy() {
+		return new ModuleDescriptor(this);
+	}
+
+	/**
+	 * Returns the SHA-256 digest of the YAML file this module descriptor was read from.
+	 * @return the YAML file digest or <code>null</code> if the module descriptor was not read from a YAML file or has been modified.
+	 */
+	byte[] getDigest() {
+		return digest;
+	}
+
+	void setDigest(byte[] digest) {
+		this.digest = digest;
+	}
+
+	/**
+	 * Returns all scopes that restrict access to a menu or a menu item of this module.
+	 * @return the scopes that restrict access to menus or menu items in alphabetical order.
+	 */
+	SortedSet<String> getMenuScopes() {
+		SortedSet<String> scopes = new TreeSet<>();
+		for(ModuleMenu menu : menus) {
+			if(menu.getScopesAllowed() != null) {
+				scopes.addAll(menu.getScopesAllowed());
+			}
+			for(ModuleMenuItem item : menu.getItems()) {
+				if(item.getScopesAllowed() != null) {
+					scopes.addAll(item.getScopesAllowed());
+				}
+			}
+		}
+		return scopes;
+	}
+
+	/**
+	 * Returns a copy of this module descriptor that only contains the menus and menu items
+	 * that can be accessed with the specified scopes.
+	 * @param scopes the accessible scopes
+	 * @return the restricted copy of this module descriptor.
+	 */
+	ModuleDescriptor restrictTo(Set<String> scopes) {
+		ModuleDescriptor restricted = copy();
+		restricted.menus.removeIf(menu -> !menu.isAccessibleWith(scopes));
+		for(ModuleMenu menu : restricted.menus) {
+			menu.retainItemsAccessibleWith(scopes);
+		}
+		return restricted;
+	}
+
 	void addExtensions(Extension... extensions) {
 		addExtensions(asList(extensions));
 	}
@@ -263,7 +376,9 @@ public class ModuleDescriptor {
 		for(Extension extension : extensions) {
 			if(extension.isModuleExtension()) {
 				ExtensionPoint point = extension.getExtensionPoint();
-				for(ModuleMenu menu : extension.getMenus()) {
+				for(ModuleMenu contributed : extension.getMenus()) {
+				    // Extend a copy to leave the contribution unchanged when the module descriptor gets rebuilt.
+				    ModuleMenu menu = new ModuleMenu(contributed);
 				    List<ExtensionPoint> points = moduleExtensions.computeIfAbsent(menu, m -> new LinkedList<>());
                     points.add(point);
                     newMenus.add(menu);
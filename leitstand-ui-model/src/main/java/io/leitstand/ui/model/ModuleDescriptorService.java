@@ -15,45 +15,244 @@
  */
 package io.leitstand.ui.model;
 
+import static io.leitstand.ui.jsonb.JsonPayload.jsonPayload;
+import static io.leitstand.ui.jsonb.JsonPayload.toJsonPayload;
+import static io.leitstand.ui.model.ParallelLoader.loadAll;
+import static java.lang.Math.max;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.synchronizedMap;
 import static java.util.regex.Pattern.compile;
+import static javax.json.Json.createValue;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedThreadFactory;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
 
+import io.leitstand.ui.jsonb.JsonPayload;
+
 /**
  * The <code>ModuleDescriptorServices</code> loads a module descriptor from the file system.
  * <p>
  * The module descriptor is provided as a YAML file. The module service parses the YAML file, creates 
  * a {@link ModuleDescriptor</code>, provides some optimizations and eventually caches the created module descriptor.
  * </p>
+ * <p>
+ * A module descriptor is immutable once it has been cached. 
+ * The service therefore serializes every module descriptor to JSON only once and 
+ * caches the serialized {@link JsonPayload} next to the module descriptor.
+ * </p>
+ * <p>
+ * The service merges the contributions into the module descriptors in parallel at startup.
+ * {@link #reloadModules(Collection)} rebuilds module descriptors when contributions were modified at runtime.
+ * </p>
+ * <p>
+ * Menus and menu items can be restricted to certain scopes. 
+ * {@link #getModuleDescriptorPayload(String, Predicate)} returns a module descriptor variant 
+ * that only contains the menus and menu items the caller can access.
+ * The variants are keyed by the sorted set of module scopes granted to the caller, 
+ * such that all callers with the same module scopes share the same variant.
+ * The variants of a module are cached in a least-recently-used cache. 
+ * The cache size is limited by the <code>{@value #VARIANTS}</code> system property 
+ * and defaults to <code>{@value #DEFAULT_VARIANTS}</code> variants per module.
+ * </p>
+ * <p>
+ * {@link #getModuleDescriptorsPayload(Collection, Predicate)} combines the variants of several modules in a single JSON object.
+ * The combined payloads are cached in a least-recently-used cache of the same size.
+ * </p>
  */
 @ApplicationScoped
 public class ModuleDescriptorService {
 
 	private static final Pattern DYNAMIC_MODULE = compile("\\{\\{.*\\}\\}");
 	
-	private ConcurrentMap<String,ModuleDescriptor> cache;
+	/**
+	 * System property to set the maximum number of cached scope-restricted variants per module.
+	 */
+	static final String VARIANTS = "leitstand.ui.modules.variants";
+	
+	static final int DEFAULT_VARIANTS = 32;
+	
+	/**
+	 * Returns the configured maximum number of cached variants per module.
+	 * @return the configured maximum number of cached variants per module.
+	 */
+	static int maxVariants() {
+		return max(1, Integer.getInteger(VARIANTS, DEFAULT_VARIANTS));
+	}
+	
+	/**
+	 * Creates a thread-safe least-recently-used cache.
+	 * @param maxSize the maximum number of cached entries
+	 * @return the least-recently-used cache
+	 */
+	static <K,V> Map<K,V> lruCache(int maxSize){
+		return synchronizedMap(new LinkedHashMap<K,V>(16, 0.75f, true){
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K,V> eldest) {
+				return size() > maxSize;
+			}
+		});
+	}
+	
+	/**
+	 * A cached module descriptor, its JSON representation and the JSON representations of the scope-restricted variants.
+	 */
+	private static final class CachedModule {
+		private final ModuleDescriptor descriptor;
+		private final JsonPayload payload;
+		private final SortedSet<String> scopes;
+		private final Map<String,JsonPayload> variants;
+		
+		CachedModule(ModuleDescriptor descriptor, int maxVariants){
+			this.descriptor = descriptor;
+			this.payload = toJsonPayload(descriptor);
+			this.scopes = descriptor.getMenuScopes();
+			this.variants = lruCache(maxVariants);
+		}
+		
+		boolean isAccessible(Predicate<String> scopeGranted) {
+			Set<String> allowed = descriptor.getScopesAllowed();
+			if(allowed.isEmpty()) {
+				return true;
+			}
+			for(String scope : allowed) {
+				if(scopeGranted.test(scope)) {
+					return true;
+				}
+			}
+			return false;
+		}
+		
+		JsonPayload payloadFor(Predicate<String> scopeGranted) {
+			SortedSet<String> granted = new TreeSet<>();
+			for(String scope : scopes) {
+				if(scopeGranted.test(scope)) {
+					granted.add(scope);
+				}
+			}
+			if(granted.size() == scopes.size()) {
+				// Nothing to remove. 
+				return payload;
+			}
+			// The sorted set of granted scopes is the canonical fingerprint of the variant.
+			String fingerprint = String.join(" ", granted);
+			return variants.computeIfAbsent(fingerprint, 
+											key -> toJsonPayload(descriptor.restrictTo(granted)));
+		}
+	}
+	
+	private ConcurrentMap<String,CachedModule> cache;
+	
+	// Combined module descriptor payloads, keyed by the module names and entity tags of the combined module descriptors.
+	private Map<String,JsonPayload> batches;
+	
+	// Module descriptors without contributions. Templates are copied before contributions get applied.
+	private ConcurrentMap<String,ModuleDescriptor> templates;
 	
-	@Inject
 	private Instance<ModuleDescriptor> modules;
 	
-	@Inject
 	private Contributions contributions;
 	
+	private int maxVariants = maxVariants();
+	
+	@Resource
+	ManagedThreadFactory threadFactory;
+	
+	protected ModuleDescriptorService() {
+		// CDI
+	}
+	
+	@Inject
+	protected ModuleDescriptorService(Instance<ModuleDescriptor> modules,
+									  Contributions contributions) {
+		this.modules = modules;
+		this.contributions = contributions;
+	}
+	
 	@PostConstruct
 	protected void createModuleCache() {
 		cache = new ConcurrentHashMap<>();
+		batches = lruCache(maxVariants);
+		templates = new ConcurrentHashMap<>();
+		// Obtain all module descriptor beans on the container thread.
+		List<ModuleDescriptor> beans = new ArrayList<>();
 		for(ModuleDescriptor module : modules) {
-			module.addExtensions(contributions.findExtensions(module));
-			applyDefaults(module);
-			cache.put(module.getModule(), module);
+			beans.add(module.copy());
+		}
+		// Merge contributions in parallel. The modules are cached in bean order to 
+		// retain the outcome of a sequential load if a module is declared twice.
+		List<CachedModule> created = loadAll(threadFactory, beans, this::createModule);
+		for(int i=0; i < beans.size(); i++) {
+			ModuleDescriptor template = beans.get(i);
+			templates.put(template.getModule(), template);
+			cache.put(template.getModule(), created.get(i));
+		}
+	}
+	
+	/**
+	 * Rebuilds the module descriptors of the specified modules from the current contributions.
+	 * <p>
+	 * Each module descriptor is built completely before it replaces the cached module descriptor.
+	 * Readers either see the previous or the rebuilt module descriptor, but never a partially built module descriptor.
+	 * Unknown modules are ignored.
+	 * </p>
+	 * @param moduleNames the names of the modules to be rebuilt.
+	 */
+	public void reloadModules(Collection<String> moduleNames) {
+		for(String moduleName : moduleNames) {
+			ModuleDescriptor template = templates.get(moduleName);
+			if(template != null) {
+				cache.put(moduleName, createModule(template));
+			}
+		}
+	}
+	
+	private CachedModule createModule(ModuleDescriptor template) {
+		// Load the precompiled module descriptor if the snapshot was resolved from the same template and contributions.
+		ModuleDescriptor module = DescriptorSnapshot.readResolved(template, 
+																  contributions.getContributors(template.getModule()));
+		if(module == null) {
+			module = resolve(template, contributions::findExtensions);
 		}
+		return new CachedModule(module, maxVariants);
+	}
+	
+	/**
+	 * Resolves a module descriptor from the specified template.
+	 * Adds the extensions of all contributions to a copy of the template and applies the module defaults.
+	 * The {@link DescriptorSnapshotCompiler} resolves module descriptors the same way at build time.
+	 * @param template the module descriptor template
+	 * @param extensions the function to look up the extensions of a module and to register the contributing applications.
+	 * @return the resolved module descriptor
+	 */
+	static ModuleDescriptor resolve(ModuleDescriptor template, 
+									Function<ModuleDescriptor,List<Extension>> extensions) {
+		ModuleDescriptor module = template.copy();
+		module.addExtensions(extensions.apply(module));
+		applyDefaults(module);
+		return module;
 	}
 	
 	/**
@@ -62,10 +261,107 @@ public class ModuleDescriptorService {
 	 * @return the module descriptor or <code>null</code> if the module does not exist.
 	 */
 	public ModuleDescriptor getModuleDescriptor(String moduleName) {
-		return cache.get(moduleName);
+		CachedModule module = cache.get(moduleName);
+		if(module == null) {
+			return null;
+		}
+		return module.descriptor;
+	}
+	
+	/**
+	 * Returns the pre-serialized JSON representation of the module descriptor for the specified module
+	 * or <code>null</code> if the specified module does not exist.
+	 * @param moduleName the module name
+	 * @return the JSON representation of the module descriptor or <code>null</code> if the module does not exist.
+	 */
+	public JsonPayload getModuleDescriptorPayload(String moduleName) {
+		CachedModule module = cache.get(moduleName);
+		if(module == null) {
+			return null;
+		}
+		return module.payload;
+	}
+	
+	/**
+	 * Returns the pre-serialized JSON representation of the module descriptor variant 
+	 * that only contains the menus and menu items the caller can access,
+	 * or <code>null</code> if the specified module does not exist or the caller is not allowed to access the module.
+	 * <p>
+	 * The caller is allowed to access a module without module scopes or if at least one of the module scopes is granted.
+	 * The predicate is only tested for the scopes that restrict access to the module, its menus or menu items.
+	 * The complete module descriptor is returned if all menu scopes are granted to the caller.
+	 * </p>
+	 * @param moduleName the module name
+	 * @param scopeGranted tests whether a scope is granted to the caller
+	 * @return the JSON representation of the module descriptor variant or <code>null</code> if the module does not exist
+	 * or is not accessible.
+	 */
+	public JsonPayload getModuleDescriptorPayload(String moduleName, Predicate<String> scopeGranted) {
+		CachedModule module = cache.get(moduleName);
+		if(module == null || !module.isAccessible(scopeGranted)) {
+			return null;
+		}
+		return module.payloadFor(scopeGranted);
+	}
+	
+	/**
+	 * Returns the names of all existing modules in alphabetical order.
+	 * @return the names of all existing modules.
+	 */
+	public SortedSet<String> getModuleNames(){
+		return new TreeSet<>(cache.keySet());
+	}
+	
+	/**
+	 * Returns a pre-serialized JSON object that maps the module name to the module descriptor variant
+	 * for every specified module the caller can access.
+	 * Unknown modules and modules the caller is not allowed to access are omitted.
+	 * @param moduleNames the module names
+	 * @param scopeGranted tests whether a scope is granted to the caller
+	 * @return the JSON representation of all accessible module descriptor variants.
+	 * @see #getModuleDescriptorPayload(String, Predicate)
+	 */
+	public JsonPayload getModuleDescriptorsPayload(Collection<String> moduleNames, Predicate<String> scopeGranted) {
+		Map<String,JsonPayload> variants = new LinkedHashMap<>();
+		StringBuilder key = new StringBuilder();
+		for(String moduleName : new TreeSet<>(moduleNames)) {
+			JsonPayload variant = getModuleDescriptorPayload(moduleName, scopeGranted);
+			if(variant == null) {
+				continue;
+			}
+			variants.put(moduleName, variant);
+			key.append(moduleName)
+			   .append(' ')
+			   .append(variant.getEtag())
+			   .append(' ');
+		}
+		// The key changes whenever one of the combined module descriptors gets reloaded.
+		return batches.computeIfAbsent(key.toString(), k -> combine(variants));
+	}
+	
+	private static JsonPayload combine(Map<String,JsonPayload> variants) {
+		try {
+			ByteArrayOutputStream json = new ByteArrayOutputStream();
+			char delimiter = '{';
+			for(Map.Entry<String,JsonPayload> variant : variants.entrySet()) {
+				json.write(delimiter);
+				json.write(createValue(variant.getKey()).toString().getBytes(UTF_8));
+				json.write(':');
+				variant.getValue().writeTo(json);
+				delimiter = ',';
+			}
+			if(variants.isEmpty()) {
+				json.write('{');
+			}
+			json.write('}');
+			return jsonPayload(json.toByteArray());
+		} catch (IOException e) {
+			// Not expected for in-memory streams.
+			throw new UncheckedIOException(e);
+		}
 	}
 
-	protected void applyDefaults(ModuleDescriptor descriptor) {
+	static void applyDefaults(ModuleDescriptor descriptor) {
 		// Push down menu query settings to all menu items to facilitate 
 		// module descriptor processing in the browser.
 		for(ModuleMenu menu : descriptor.getMenus()) {
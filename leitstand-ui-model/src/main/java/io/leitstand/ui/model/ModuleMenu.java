@@ -23,6 +23,7 @@ import static java.util.Collections.unmodifiableList;
 import static java.util.stream.Collectors.toList;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
@@ -139,6 +140,35 @@ public class ModuleMenu extends BaseModuleItem {
  	private String expand;
  	private String entity;
  	
+	protected ModuleMenu() {
+		// Tool constructor
+	}
+	
+	/**
+	 * Creates a copy of the specified menu including copies of all menu items.
+	 * @param menu the menu to be copied
+	 */
+	ModuleMenu(ModuleMenu menu) {
+		super(menu);
+		this.menu = menu.menu;
+		this.expand = menu.expand;
+		this.entity = menu.entity;
+		Map<ModuleMenuItem,ModuleMenuItem> copies = new IdentityHashMap<>();
+		this.items = new LinkedList<>();
+		for(ModuleMenuItem item : menu.items) {
+			ModuleMenuItem copy = new ModuleMenuItem(item);
+			copies.put(item, copy);
+			this.items.add(copy);
+		}
+		// Link the existing extension points to the copied items.
+		for(Map.Entry<ModuleMenuItem,List<ExtensionPoint>> points : menu.menuExtensions.entrySet()) {
+			ModuleMenuItem copy = copies.get(points.getKey());
+			if(copy != null) {
+				this.menuExtensions.put(copy, new LinkedList<>(points.getValue()));
+			}
+		}
+	}
+ 	
  	/**
  	 * Returns the name of this menu.
  	 * @return the name of this menu.
@@ -155,6 +185,14 @@ public class ModuleMenu extends BaseModuleItem {
 		return unmodifiableList(items);
 	}
 	
+	/**
+	 * Removes all menu items that cannot be accessed with the specified scopes.
+	 * @param scopes the accessible scopes
+	 */
+	void retainItemsAccessibleWith(Set<String> scopes) {
+		items.removeIf(item -> !item.isAccessibleWith(scopes));
+	}
+
 	void addExtensions(Extension... extensions) {
 		addExtensions(asList(extensions));
 	}
@@ -164,7 +202,11 @@ public class ModuleMenu extends BaseModuleItem {
 		for(Extension extension : extensions) {
 			// Create an extension point for each menu item to 
 			// preserve the order of the contributed menu items.
-			List<ModuleMenuItem> items = extension.getItems();
+			// Add copies to leave the contribution unchanged when the module descriptor gets rebuilt.
+			List<ModuleMenuItem> items = extension.getItems()
+												  .stream()
+												  .map(ModuleMenuItem::new)
+												  .collect(toList());
 			if(!items.isEmpty()) {
 			    newItems.addAll(items);
 				ModuleMenuItem item = items.get(0);
@@ -174,7 +216,8 @@ public class ModuleMenu extends BaseModuleItem {
 	            // All additional menu items are linked to the previous item to preserve the configured order
 	            for(int j=0,i=1; i < items.size(); j++,i++) {
 	                item = items.get(i);
-	                itemPoints.add(new ExtensionPoint().after(items.get(j).getName()));
+	                menuExtensions.computeIfAbsent(item, k -> new LinkedList<>())
+	                			  .add(new ExtensionPoint().after(items.get(j).getName()));
 	            }
 			}
 		}
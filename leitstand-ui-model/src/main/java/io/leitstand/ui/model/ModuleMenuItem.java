@@ -105,6 +105,21 @@ public class ModuleMenuItem extends BaseModuleItem {
 	private String view;
 	private String target;
 	
+	protected ModuleMenuItem() {
+		// Tool constructor
+	}
+	
+	/**
+	 * Creates a copy of the specified menu item.
+	 * @param item the menu item to be copied
+	 */
+	ModuleMenuItem(ModuleMenuItem item) {
+		super(item);
+		this.item = item.item;
+		this.view = item.view;
+		this.target = item.target;
+	}
+	
 	/**
 	 * Returns the name of the menu item.
 	 * @return the name of the menu item.
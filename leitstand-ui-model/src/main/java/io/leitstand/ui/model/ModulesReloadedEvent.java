@@ -0,0 +1,48 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static java.util.Collections.unmodifiableSet;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Signals that module descriptors and the main menu were rebuilt, because contributions were modified at runtime.
+ * @see ContributionWatcher
+ */
+public final class ModulesReloadedEvent {
+
+	private final Set<String> moduleNames;
+	
+	/**
+	 * Creates a <code>ModulesReloadedEvent</code>.
+	 * @param moduleNames the names of the rebuilt modules
+	 */
+	public ModulesReloadedEvent(Collection<String> moduleNames) {
+		this.moduleNames = unmodifiableSet(new LinkedHashSet<>(moduleNames));
+	}
+	
+	/**
+	 * Returns the names of the rebuilt modules.
+	 * @return the module names.
+	 */
+	public Set<String> getModuleNames() {
+		return moduleNames;
+	}
+	
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Loads independent resources in parallel on a bounded thread pool.
+ * <p>
+ * The loader applies a load function to every source and returns the results in the order of the sources,
+ * i.e. merging the results yields the same outcome as loading all sources sequentially.
+ * The pool parallelism defaults to the number of available processors and can be limited by the
+ * <code>{@value #PARALLELISM}</code> system property. A parallelism of <code>1</code> disables parallel loading.
+ * The pool exists for a single {@link #loadAll(ThreadFactory, List, Function)} invocation only.
+ * </p>
+ * <p>
+ * The worker threads are created by the specified thread factory, 
+ * which is the container-managed <code>ManagedThreadFactory</code> in the application server.
+ * Managed threads run with the application context of the UI module,
+ * hence YAML and JSON-B providers are resolved in the same way as on the invoking thread.
+ * The sources are loaded on the invoking thread if no thread factory is available.
+ * </p>
+ */
+final class ParallelLoader {
+
+	static final String PARALLELISM = "leitstand.ui.startup.parallelism";
+
+	/**
+	 * Returns the configured parallelism. 
+	 * The parallelism is at least <code>1</code> and at most the number of available processors.
+	 * @return the configured parallelism.
+	 */
+	static int parallelism() {
+		int processors = Runtime.getRuntime().availableProcessors();
+		return max(1, min(processors, Integer.getInteger(PARALLELISM, processors)));
+	}
+
+	/**
+	 * Applies the load function to all sources and returns the results in source order.
+	 * @param threads the factory of the worker threads or <code>null</code> to load all sources on the invoking thread
+	 * @param sources the sources to be loaded
+	 * @param loader the load function
+	 * @return the load results in the order of the sources.
+	 */
+	static <S,R> List<R> loadAll(ThreadFactory threads, List<S> sources, Function<? super S, ? extends R> loader){
+		int parallelism = min(parallelism(), sources.size());
+		if(threads == null || parallelism < 2) {
+			List<R> results = new ArrayList<>(sources.size());
+			for(S source : sources) {
+				results.add(loader.apply(source));
+			}
+			return results;
+		}
+
+		ExecutorService pool = new ThreadPoolExecutor(parallelism,
+													  parallelism,
+													  0,
+													  SECONDS,
+													  new LinkedBlockingQueue<>(),
+													  new LoaderThreadFactory(threads));
+		try {
+			List<Future<? extends R>> tasks = new ArrayList<>(sources.size());
+			for(S source : sources) {
+				tasks.add(pool.submit(() -> loader.apply(source)));
+			}
+			// Join in submission order to merge the results deterministically.
+			List<R> results = new ArrayList<>(sources.size());
+			for(Future<? extends R> task : tasks) {
+				results.add(join(task));
+			}
+			return results;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private static <R> R join(Future<R> task) {
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if(cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if(cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	private static final class LoaderThreadFactory implements ThreadFactory {
+
+		private final ThreadFactory threads;
+		private final AtomicInteger count = new AtomicInteger();
+
+		LoaderThreadFactory(ThreadFactory threads){
+			this.threads = threads;
+		}
+
+		@Override
+		public Thread newThread(Runnable task) {
+			Thread thread = threads.newThread(task);
+			thread.setName("leitstand-ui-loader-"+count.getAndIncrement());
+			return thread;
+		}
+	}
+
+	private ParallelLoader() {
+		// No instances allowed
+	}
+
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static io.leitstand.commons.db.DatabaseService.prepare;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.unmodifiableSet;
+import static java.util.UUID.randomUUID;
+import static java.util.logging.Level.FINE;
+import static java.util.logging.Level.WARNING;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedThreadFactory;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Typed;
+import javax.inject.Inject;
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import io.leitstand.commons.db.DatabaseService;
+import io.leitstand.model.Leitstand;
+
+/**
+ * An {@link InvalidationChannel} based on PostgreSQL <code>LISTEN</code> and <code>NOTIFY</code>.
+ * <p>
+ * An invalidation is published by <code>pg_notify</code> over the <code>@Leitstand</code> {@link DatabaseService},
+ * i.e. in the transaction that modifies the cached entities.
+ * PostgreSQL delivers the notification to all listening UI nodes once the transaction has committed 
+ * and discards the notification if the transaction is rolled back.
+ * </p>
+ * <p>
+ * The PostgreSQL channel is opt-in. 
+ * The {@link InvalidationChannelProducer} selects this channel if the <code>leitstand.ui.invalidation.channel</code> 
+ * system property is set to <code>postgres</code>.
+ * </p>
+ * <p>
+ * Every UI node pins one connection of the <code>java:/jdbc/leitstand</code> pool for the entire listener lifetime 
+ * and waits for notifications on a listener thread.
+ * The pool must be sized to provide this connection in addition to the connections needed to process requests.
+ * The listener runs <code>UNLISTEN *</code> before it returns the connection to the pool.
+ * A node ignores its own notifications, because the modifying node evicts its caches itself.
+ * The listener reconnects if the connection fails and requests all subscribers to evict all entries afterwards,
+ * because notifications might have been lost in the meantime.
+ * </p>
+ * <p>
+ * The PostgreSQL driver API is only accessed by the listener thread.
+ * If the driver classes are not visible to the UI module or the pool does not provide PostgreSQL connections,
+ * the listener stops and the node only evicts the cache entries it modified itself.
+ * </p>
+ * <p>
+ * A notification payload is limited to 8000 bytes. 
+ * An invalidation exceeding this limit is published with an empty key set, i.e. evicts all entries of the topic.
+ * </p>
+ */
+@ApplicationScoped
+@Typed(PostgresInvalidationChannel.class)
+public class PostgresInvalidationChannel implements InvalidationChannel {
+	
+	private static final Logger LOG = Logger.getLogger(PostgresInvalidationChannel.class.getName());
+
+	static final String CHANNEL = "leitstand_ui_cache";
+	static final int MAX_PAYLOAD_BYTES = 7900;
+	static final int POLL_TIMEOUT_MILLIS = 500;
+	static final long MAX_RECONNECT_DELAY_MILLIS = 30000;
+
+	private final String node = randomUUID().toString();
+	private final InMemoryInvalidationChannel subscribers = new InMemoryInvalidationChannel();
+	private final Set<String> topics = ConcurrentHashMap.newKeySet();
+	
+	private DatabaseService db;
+	
+	@Resource(lookup="java:/jdbc/leitstand")
+	private DataSource ds;
+	
+	@Resource
+	private ManagedThreadFactory threadFactory;
+	
+	private volatile boolean running;
+	private Thread thread;
+	
+	protected PostgresInvalidationChannel() {
+		// CDI
+	}
+	
+	@Inject
+	protected PostgresInvalidationChannel(@Leitstand DatabaseService db) {
+		this.db = db;
+	}
+	
+	@Override
+	public void publish(String topic, Set<String> keys) {
+		db.getSingleResult(prepare("SELECT pg_notify(?,?)", 
+								   CHANNEL, 
+								   encode(node, topic, keys)), 
+						   rs -> Boolean.TRUE);
+	}
+
+	@Override
+	public void subscribe(String topic, Consumer<Set<String>> subscriber) {
+		topics.add(topic);
+		subscribers.subscribe(topic, subscriber);
+	}
+	
+	/**
+	 * Starts the listener thread.
+	 */
+	void startListener() {
+		running = true;
+		thread = threadFactory.newThread(this::listen);
+		thread.setName("leitstand-ui-cache-invalidation");
+		thread.start();
+	}
+	
+	void listen() {
+		long delay = 0;
+		boolean lost = false;
+		while(running) {
+			try (Connection connection = ds.getConnection()){
+				try {
+					try (Statement stmt = connection.createStatement()){
+						stmt.execute("LISTEN "+CHANNEL);
+					}
+					LOG.fine(() -> format("Listening for cache invalidations on node %s",node));
+					if(lost) {
+						evictAll();
+					}
+					delay = 0;
+					if(!Notifications.isSupported(connection)) {
+						stopListening("The connection pool does not provide PostgreSQL connections");
+						return;
+					}
+					while(running) {
+						for(String payload : Notifications.poll(connection, POLL_TIMEOUT_MILLIS)) {
+							deliver(payload);
+						}
+					}
+				} finally {
+					unlisten(connection);
+				}
+			} catch (LinkageError e) {
+				stopListening(format("The PostgreSQL driver is not accessible: %s",e));
+				return;
+			} catch (SQLException e) {
+				if(!running) {
+					return;
+				}
+				lost = true;
+				delay = min(MAX_RECONNECT_DELAY_MILLIS, 2 * delay + 1000);
+				long retry = delay;
+				LOG.log(WARNING, e, () -> format("Cache invalidation listener failed: %s. Reconnecting in %d ms.",
+												 e.getMessage(),
+												 retry));
+				try {
+					Thread.sleep(delay);
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+	
+	private void stopListening(String reason) {
+		running = false;
+		LOG.warning(() -> format("%s. Cache invalidations of other UI nodes are not received on node %s.",
+								 reason,
+								 node));
+	}
+	
+	// The connection is returned to the pool and must not keep listening on behalf of the next borrower.
+	private static void unlisten(Connection connection) {
+		try (Statement stmt = connection.createStatement()){
+			stmt.execute("UNLISTEN *");
+		} catch (SQLException e) {
+			LOG.log(FINE, e, () -> format("Cannot stop listening for cache invalidations: %s",
+										  e.getMessage()));
+		}
+	}
+	
+	String getNode() {
+		return node;
+	}
+	
+	void deliver(String payload) {
+		String[] lines = payload.split("\n",-1);
+		if(lines.length < 2 || node.equals(lines[0])) {
+			return;
+		}
+		Set<String> keys = new LinkedHashSet<>();
+		for(int i=2; i < lines.length; i++) {
+			keys.add(lines[i]);
+		}
+		notify(lines[1], keys);
+	}
+	
+	private void evictAll() {
+		for(String topic : topics) {
+			notify(topic, emptySet());
+		}
+	}
+	
+	private void notify(String topic, Set<String> keys) {
+		try {
+			subscribers.deliver(topic, unmodifiableSet(keys));
+		} catch (RuntimeException e) {
+			// Keep the listener alive.
+			LOG.log(WARNING, e, () -> format("Cannot process %s cache invalidation: %s",
+											 topic,
+											 e.getMessage()));
+		}
+	}
+	
+	/**
+	 * Encodes an invalidation as line-separated node ID, topic and keys.
+	 * Falls back to an empty key set if a key contains a line break or the payload exceeds the payload limit.
+	 * @param node the publishing node
+	 * @param topic the topic
+	 * @param keys the invalidated keys
+	 * @return the notification payload
+	 */
+	static String encode(String node, String topic, Set<String> keys) {
+		StringBuilder payload = new StringBuilder();
+		payload.append(node).append('\n').append(topic);
+		String header = payload.toString();
+		for(String key : keys) {
+			if(key.indexOf('\n') >= 0) {
+				return header;
+			}
+			payload.append('\n').append(key);
+		}
+		String encoded = payload.toString();
+		if(encoded.getBytes(UTF_8).length > MAX_PAYLOAD_BYTES) {
+			return header;
+		}
+		return encoded;
+	}
+
+	/**
+	 * Reads notifications from a PostgreSQL connection.
+	 * The PostgreSQL driver API is isolated in this class to link the driver classes only when the listener reads notifications.
+	 */
+	private static final class Notifications {
+		
+		static boolean isSupported(Connection connection) throws SQLException {
+			return connection.isWrapperFor(PGConnection.class);
+		}
+		
+		static List<String> poll(Connection connection, int timeoutMillis) throws SQLException {
+			PGNotification[] notifications = connection.unwrap(PGConnection.class).getNotifications(timeoutMillis);
+			if(notifications == null) {
+				return emptyList();
+			}
+			List<String> payloads = new ArrayList<>(notifications.length);
+			for(PGNotification notification : notifications) {
+				payloads.add(notification.getParameter());
+			}
+			return payloads;
+		}
+		
+	}
+
+	@PreDestroy
+	protected void stopListener() {
+		running = false;
+		if(thread != null) {
+			thread.interrupt();
+			LOG.log(FINE, () -> format("Stopped cache invalidation listener on node %s",node));
+		}
+	}
+	
+}
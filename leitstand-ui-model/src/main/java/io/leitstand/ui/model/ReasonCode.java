@@ -11,7 +11,11 @@ public enum ReasonCode implements Reason {
 	UIM0001E_CANNOT_PROCESS_MODULE_DESCRIPTOR,
 	UIM0002E_CANNOT_PROCESS_MODULE_EXTENSION,
 	UIM0003I_MODULE_DESCRIPTOR_LOADED,
-	UIM0004I_MODULE_EXTENSION_LOADED;
+	UIM0004I_MODULE_EXTENSION_LOADED,
+	UIM0005W_EXTENSION_CONSTRAINT_CYCLE,
+	UIM0006W_EXTENSION_CONSTRAINT_UNRESOLVED,
+	UIM0007W_CANNOT_READ_DESCRIPTOR_SNAPSHOT,
+	UIM0008W_EXTENSION_CONSTRAINT_IGNORED;
 
 	private static final ResourceBundle MESSAGES = ResourceBundle.getBundle("UIModuleDescriptorMessages");
 	
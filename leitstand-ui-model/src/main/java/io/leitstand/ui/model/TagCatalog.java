@@ -0,0 +1,186 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static io.leitstand.commons.db.DatabaseService.prepare;
+import static io.leitstand.ui.jsonb.JsonPayload.toJsonPayload;
+import static io.leitstand.ui.model.InvalidationChannel.TAGS;
+import static io.leitstand.ui.service.TagInfo.newTagInfo;
+import static java.util.Collections.unmodifiableSortedSet;
+import static javax.enterprise.event.TransactionPhase.AFTER_SUCCESS;
+
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+
+import io.leitstand.commons.db.DatabaseService;
+import io.leitstand.model.Leitstand;
+import io.leitstand.ui.jsonb.JsonPayload;
+import io.leitstand.ui.service.TagInfo;
+
+/**
+ * A node-local, read-through cache of all tags.
+ * <p>
+ * The catalog reads all tags once and keeps them as an immutable sorted set 
+ * along with the pre-serialized JSON representation.
+ * The entity tag of the JSON representation is a content hash 
+ * and hence the same on all UI nodes for the same set of tags.
+ * </p>
+ * <p>
+ * Every {@link TagChangedEvent} increments the catalog version and drops the cached tags 
+ * after the transaction that modified the tags has committed.
+ * The catalog subscribes to the {@link InvalidationChannel#TAGS} topic 
+ * to drop the cached tags when tags are modified on other UI nodes.
+ * Tags loaded concurrently to a modification are returned but not cached,
+ * because they might reflect the state before the modification.
+ * </p>
+ */
+@ApplicationScoped
+public class TagCatalog {
+
+	/**
+	 * An immutable version of the tag catalog.
+	 */
+	static final class Snapshot {
+		
+		private final long version;
+		private final SortedSet<TagInfo> tags;
+		private final JsonPayload payload;
+		
+		Snapshot(long version, SortedSet<TagInfo> tags) {
+			this.version = version;
+			this.tags = unmodifiableSortedSet(new TreeSet<>(tags));
+			this.payload = toJsonPayload(this.tags);
+		}
+		
+		long getVersion() {
+			return version;
+		}
+		
+		SortedSet<TagInfo> getTags() {
+			return tags;
+		}
+		
+		JsonPayload getPayload() {
+			return payload;
+		}
+		
+	}
+	
+	private DatabaseService db;
+	private InvalidationChannel channel;
+	private long version;
+	private volatile Snapshot snapshot;
+	
+	protected TagCatalog() {
+		// CDI
+	}
+	
+	@Inject
+	protected TagCatalog(@Leitstand DatabaseService db,
+						 InvalidationChannel channel) {
+		this.db = db;
+		this.channel = channel;
+	}
+	
+	@PostConstruct
+	protected void subscribe() {
+		if(channel != null) {
+			channel.subscribe(TAGS, this::evictKeys);
+		}
+	}
+	
+	/**
+	 * Returns all tags.
+	 * @return an immutable sorted set of all tags.
+	 */
+	public SortedSet<TagInfo> getTags() {
+		return snapshot().getTags();
+	}
+	
+	/**
+	 * Returns the pre-serialized JSON representation of all tags.
+	 * @return the JSON representation of all tags.
+	 */
+	public JsonPayload getTagsPayload() {
+		return snapshot().getPayload();
+	}
+	
+	/**
+	 * Returns the current catalog version. 
+	 * The version is incremented whenever tags are modified.
+	 * @return the current catalog version.
+	 */
+	public synchronized long getVersion() {
+		return version;
+	}
+	
+	Snapshot snapshot() {
+		Snapshot current = snapshot;
+		if(current != null) {
+			return current;
+		}
+		long loadVersion = getVersion();
+		Snapshot loaded = new Snapshot(loadVersion, loadTags());
+		cache(loaded);
+		return loaded;
+	}
+	
+	private SortedSet<TagInfo> loadTags(){
+		return new TreeSet<>(db.executeQuery(prepare("SELECT name,color FROM leitstand.tag"), 
+											 rs -> newTagInfo()
+											 	   .withName(rs.getString(1))
+											 	   .withColor(rs.getString(2))
+											 	   .build()));
+	}
+	
+	private synchronized void cache(Snapshot loaded) {
+		if(loaded.getVersion() == version) {
+			snapshot = loaded;
+		}
+	}
+	
+	/**
+	 * Drops the cached tags after the transaction that modified the tags has committed successfully.
+	 * The tags are dropped immediately if no transaction is active.
+	 * @param event the tag changed event
+	 */
+	void onTagChanged(@Observes(during=AFTER_SUCCESS) TagChangedEvent event) {
+		evict();
+	}
+	
+	/**
+	 * Drops the cached tags because tags were modified on another UI node.
+	 * @param names the names of the modified tags
+	 */
+	void evictKeys(Set<String> names) {
+		evict();
+	}
+	
+	/**
+	 * Increments the catalog version and drops the cached tags.
+	 */
+	synchronized void evict() {
+		version++;
+		snapshot = null;
+	}
+	
+}
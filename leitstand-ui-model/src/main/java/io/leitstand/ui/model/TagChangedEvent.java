@@ -0,0 +1,47 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static java.util.Collections.unmodifiableSet;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Signals that tags were stored or removed.
+ * @see TagCatalog
+ */
+public final class TagChangedEvent {
+
+	private final Set<String> names;
+	
+	/**
+	 * Creates a <code>TagChangedEvent</code>.
+	 * @param names the names of the modified tags
+	 */
+	public TagChangedEvent(Set<String> names) {
+		this.names = unmodifiableSet(new LinkedHashSet<>(names));
+	}
+	
+	/**
+	 * Returns the names of the modified tags.
+	 * @return the tag names.
+	 */
+	public Set<String> getNames() {
+		return names;
+	}
+	
+}
@@ -17,9 +17,13 @@ package io.leitstand.ui.model;
 
 import static io.leitstand.commons.model.BuilderUtil.assertNotInvalidated;
 
+import java.io.Serializable;
+
 import io.leitstand.commons.model.ValueObject;
 
-public class ViewModelProperty extends ValueObject {
+public class ViewModelProperty extends ValueObject implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 	
 	public static class  Builder {
 		
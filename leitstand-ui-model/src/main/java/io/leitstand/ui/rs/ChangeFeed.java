@@ -0,0 +1,157 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.rs;
+
+import static io.leitstand.ui.model.InvalidationChannel.DICTIONARIES;
+import static io.leitstand.ui.model.InvalidationChannel.TAGS;
+import static java.lang.String.format;
+import static java.util.logging.Level.FINE;
+import static javax.enterprise.event.TransactionPhase.AFTER_SUCCESS;
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON_TYPE;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseBroadcaster;
+import javax.ws.rs.sse.SseEventSink;
+
+import io.leitstand.ui.model.DictionaryChangedEvent;
+import io.leitstand.ui.model.InvalidationChannel;
+import io.leitstand.ui.model.ModulesReloadedEvent;
+import io.leitstand.ui.model.TagChangedEvent;
+import io.leitstand.ui.service.DictionaryName;
+
+/**
+ * Pushes change notifications to all connected browsers by means of server-sent events.
+ * <p>
+ * Every event conveys the keys of the modified entities as JSON array and is named after the modified entity type:
+ * </p>
+ * <ul>
+ * 	<li><code>tags</code> conveys the names of the modified tags,</li>
+ * 	<li><code>dictionaries</code> conveys the IDs and names of the modified dictionaries and</li>
+ * 	<li><code>modules</code> conveys the names of the rebuilt module descriptors.</li>
+ * </ul>
+ * <p>
+ * Modifications made on this UI node are pushed after the transaction has committed.
+ * Modifications made on other UI nodes are received from the {@link InvalidationChannel}.
+ * An empty array signals that all entities of the given type might have been modified.
+ * Browsers are expected to refresh all cached entities when they (re-)connect, because events might have been missed.
+ * </p>
+ */
+@ApplicationScoped
+public class ChangeFeed {
+	
+	private static final Logger LOG = Logger.getLogger(ChangeFeed.class.getName());
+
+	static final String MODULES = "modules";
+	
+	private InvalidationChannel channel;
+	private Sse sse;
+	private SseBroadcaster broadcaster;
+	
+	protected ChangeFeed() {
+		// CDI
+	}
+	
+	@Inject
+	protected ChangeFeed(InvalidationChannel channel) {
+		this.channel = channel;
+	}
+	
+	@PostConstruct
+	protected void subscribe() {
+		if(channel != null) {
+			channel.subscribe(TAGS, names -> publish(TAGS, names));
+			channel.subscribe(DICTIONARIES, keys -> publish(DICTIONARIES, keys));
+		}
+	}
+	
+	/**
+	 * Registers a browser to receive change notifications.
+	 * The broadcaster is created when the first browser connects.
+	 * @param sse the server-sent events factory
+	 * @param sink the event sink of the browser
+	 */
+	synchronized void register(Sse sse, SseEventSink sink) {
+		if(broadcaster == null) {
+			this.sse = sse;
+			this.broadcaster = sse.newBroadcaster();
+			broadcaster.onError((failed, e) -> LOG.log(FINE, e, () -> format("Cannot push change notification: %s", 
+																			 e.getMessage())));
+		}
+		broadcaster.register(sink);
+	}
+	
+	void onTagChanged(@Observes(during=AFTER_SUCCESS) TagChangedEvent event) {
+		publish(TAGS, event.getNames());
+	}
+	
+	void onDictionaryChanged(@Observes(during=AFTER_SUCCESS) DictionaryChangedEvent event) {
+		Set<String> keys = new LinkedHashSet<>();
+		keys.add(event.getDictionaryId().getValue());
+		for(DictionaryName name : event.getDictionaryNames()) {
+			keys.add(name.getValue());
+		}
+		publish(DICTIONARIES, keys);
+	}
+	
+	void onModulesReloaded(@Observes ModulesReloadedEvent event) {
+		publish(MODULES, event.getModuleNames());
+	}
+	
+	/**
+	 * Pushes a change notification to all connected browsers.
+	 * Fails silently if no browser has connected yet.
+	 * @param name the event name
+	 * @param keys the keys of the modified entities
+	 */
+	void publish(String name, Set<String> keys) {
+		SseBroadcaster broadcaster;
+		OutboundSseEvent event;
+		synchronized(this) {
+			if(this.broadcaster == null) {
+				return;
+			}
+			broadcaster = this.broadcaster;
+			JsonArrayBuilder data = Json.createArrayBuilder();
+			keys.forEach(data::add);
+			event = sse.newEventBuilder()
+					   .name(name)
+					   .mediaType(APPLICATION_JSON_TYPE)
+					   .data(String.class, data.build().toString())
+					   .build();
+		}
+		broadcaster.broadcast(event);
+	}
+	
+	@PreDestroy
+	protected synchronized void close() {
+		if(broadcaster != null) {
+			broadcaster.close();
+		}
+	}
+	
+}
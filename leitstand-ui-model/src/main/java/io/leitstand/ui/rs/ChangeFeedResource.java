@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.rs;
+
+import static javax.ws.rs.core.MediaType.SERVER_SENT_EVENTS;
+
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
+
+import io.leitstand.commons.rs.Resource;
+
+/**
+ * Streams change notifications for tags, dictionaries and modules as server-sent events.
+ * 
+ * @see ChangeFeed
+ */
+@Resource
+@Path("/ui/changes")
+public class ChangeFeedResource {
+
+	@Inject
+	private ChangeFeed feed;
+	
+	/**
+	 * Registers the client to receive change notifications.
+	 * The connection is kept open until the client disconnects.
+	 * @param sink - the event sink of the client
+	 * @param sse - the server-sent events factory
+	 */
+	@GET
+	@Produces(SERVER_SENT_EVENTS)
+	public void subscribe(@Context SseEventSink sink,
+						  @Context Sse sse) {
+		feed.register(sse, sink);
+	}
+	
+}
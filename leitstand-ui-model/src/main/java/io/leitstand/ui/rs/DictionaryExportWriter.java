@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.rs;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonGeneratorFactory;
+
+import io.leitstand.ui.service.DictionaryEntry;
+import io.leitstand.ui.service.DictionaryExportHandler;
+import io.leitstand.ui.service.DictionaryInfo;
+
+/**
+ * Writes dictionaries and their entries as newline-delimited JSON.
+ * <p>
+ * Every dictionary and every entry is written to a line of its own when it is received, 
+ * in the format read by the {@link DictionaryImportReader}.
+ * The lines are buffered and only the buffer is held in memory.
+ * </p>
+ */
+final class DictionaryExportWriter implements DictionaryExportHandler {
+
+	private final JsonGeneratorFactory generators = Json.createGeneratorFactory(null);
+	private final Writer writer;
+	
+	DictionaryExportWriter(OutputStream out) {
+		this.writer = new BufferedWriter(new OutputStreamWriter(out, UTF_8));
+	}
+	
+	@Override
+	public void dictionary(DictionaryInfo dictionary) {
+		StringWriter line = new StringWriter();
+		JsonGenerator json = generators.createGenerator(line)
+									   .writeStartObject()
+									   .write("dictionary_id", dictionary.getDictionaryId().getValue())
+									   .write("dictionary_name", dictionary.getDictionaryName().getValue());
+		if(dictionary.getDescription() != null) {
+			json.write("description", dictionary.getDescription());
+		}
+		writeLine(line, json);
+	}
+	
+	@Override
+	public void entry(DictionaryEntry entry) {
+		StringWriter line = new StringWriter();
+		writeLine(line, generators.createGenerator(line)
+								  .writeStartObject()
+								  .write("value", entry.getValue())
+								  .write("label", entry.getLabel())
+								  .write("default", entry.isDefaultValue()));
+	}
+	
+	private void writeLine(StringWriter line, JsonGenerator json) {
+		// Every line is generated separately, because a generator writes a single JSON value only.
+		json.writeEnd()
+			.close();
+		try {
+			writer.write(line.toString());
+			writer.write('\n');
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Flushes all buffered lines.
+	 * @throws IOException if the lines cannot be written.
+	 */
+	void flush() throws IOException {
+		writer.flush();
+	}
+	
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.rs;
+
+import static io.leitstand.ui.service.DictionaryEntry.newDictionaryEntry;
+import static io.leitstand.ui.service.DictionaryId.dictionaryId;
+import static io.leitstand.ui.service.DictionaryInfo.newDictionaryInfo;
+import static io.leitstand.ui.service.DictionaryName.dictionaryName;
+import static io.leitstand.ui.service.DictionarySettings.newDictionarySettings;
+import static io.leitstand.ui.service.ReasonCode.LUI0008E_INVALID_DICTIONARY_IMPORT;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createTempFile;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.newBufferedReader;
+import static java.nio.file.Files.newBufferedWriter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.JsonObject;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParserFactory;
+
+import io.leitstand.commons.UnprocessableEntityException;
+import io.leitstand.ui.service.DictionaryEntry;
+import io.leitstand.ui.service.DictionaryInfo;
+import io.leitstand.ui.service.DictionaryService;
+
+/**
+ * Reads dictionaries from a newline-delimited JSON stream and imports them in chunks.
+ * <p>
+ * Every line contains either a dictionary or a dictionary entry. 
+ * A dictionary line has a <code>dictionary_id</code> and a <code>dictionary_name</code> and an optional <code>description</code>.
+ * An entry line has a <code>value</code>, an optional <code>label</code> and an optional <code>default</code> flag.
+ * The entry lines following a dictionary line are the entries of this dictionary.
+ * </p>
+ * <p>
+ * The stream is read twice.
+ * The first pass validates all lines and spools the stream to a temporary file.
+ * No dictionary is modified if the stream contains an invalid line.
+ * The second pass reads the spooled stream line by line and at most one chunk of entries is held in memory.
+ * Every chunk is passed to the {@link DictionaryService} in a call of its own,
+ * i.e. every chunk is written in a transaction of its own.
+ * The first chunk of a dictionary replaces all existing entries, all subsequent chunks add entries.
+ * Hence an import is not atomic. 
+ * If the service fails, all chunks committed before remain and the import has to be repeated.
+ * </p>
+ */
+final class DictionaryImportReader {
+	
+	private final DictionaryService service;
+	private final int chunkSize;
+	private final JsonParserFactory parsers = Json.createParserFactory(null);
+	private boolean validating;
+	private DictionaryInfo dictionary;
+	private boolean stored;
+	private List<DictionaryEntry> entries = new ArrayList<>();
+	private int dictionaries;
+	private int total;
+	private int line;
+	
+	DictionaryImportReader(DictionaryService service, int chunkSize) {
+		this.service = service;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Imports all dictionaries from the specified stream.
+	 * @param in the newline-delimited JSON stream
+	 * @throws IOException if the stream cannot be read.
+	 * @throws UnprocessableEntityException if the stream contains an invalid line.
+	 */
+	void read(InputStream in) throws IOException {
+		Path spool = createTempFile("leitstand-dictionary-import", ".ndjson");
+		try {
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, UTF_8));
+				 BufferedWriter out = newBufferedWriter(spool, UTF_8)){
+				read(reader, out);
+			}
+			try (BufferedReader reader = newBufferedReader(spool, UTF_8)){
+				read(reader, null);
+			}
+		} finally {
+			deleteIfExists(spool);
+		}
+	}
+	
+	/**
+	 * Reads all lines from the specified reader.
+	 * Validates and spools all lines if a spool writer is specified and imports all lines otherwise.
+	 */
+	private void read(BufferedReader reader, BufferedWriter spool) throws IOException {
+		validating = spool != null;
+		dictionary = null;
+		entries = new ArrayList<>();
+		dictionaries = 0;
+		total = 0;
+		line = 0;
+		String record;
+		while((record = reader.readLine()) != null) {
+			line++;
+			if(validating) {
+				spool.write(record);
+				spool.newLine();
+			}
+			if(record.trim().isEmpty()) {
+				continue;
+			}
+			JsonObject json = parse(record);
+			if(json.containsKey("dictionary_name")) {
+				startDictionary(json);
+			} else {
+				addEntry(json);
+			}
+		}
+		flush();
+	}
+	
+	private JsonObject parse(String record) {
+		try(JsonParser parser = parsers.createParser(new StringReader(record))){
+			if(!parser.hasNext() || parser.next() != JsonParser.Event.START_OBJECT) {
+				throw invalid("JSON object expected");
+			}
+			return parser.getObject();
+		} catch (JsonException e) {
+			throw invalid(e.getMessage());
+		}
+	}
+	
+	private void startDictionary(JsonObject json) {
+		flush();
+		String id = json.getString("dictionary_id", null);
+		String name = json.getString("dictionary_name", null);
+		if(id == null || name == null) {
+			throw invalid("dictionary_id and dictionary_name expected");
+		}
+		dictionary = newDictionaryInfo()
+					 .withDictionaryId(dictionaryId(id))
+					 .withDictionaryName(dictionaryName(name))
+					 .withDescription(json.getString("description", null))
+					 .build();
+		stored = false;
+		dictionaries++;
+	}
+	
+	private void addEntry(JsonObject json) {
+		if(dictionary == null) {
+			throw invalid("Dictionary expected before first entry");
+		}
+		String value = json.getString("value", null);
+		if(value == null) {
+			throw invalid("value expected");
+		}
+		entries.add(newDictionaryEntry()
+					.withValue(value)
+					.withLabel(json.getString("label", null))
+					.withDefaultValue(json.getBoolean("default", false))
+					.build());
+		total++;
+		if(entries.size() >= chunkSize) {
+			flush();
+		}
+	}
+	
+	private void flush() {
+		if(dictionary == null || validating) {
+			entries = new ArrayList<>();
+			return;
+		}
+		if(!stored) {
+			service.importDictionary(newDictionarySettings()
+									 .withDictionaryId(dictionary.getDictionaryId())
+									 .withDictionaryName(dictionary.getDictionaryName())
+									 .withDescription(dictionary.getDescription())
+									 .withEntries(new TreeSet<>(entries))
+									 .build());
+			stored = true;
+		} else if(!entries.isEmpty()) {
+			service.importDictionaryEntries(dictionary.getDictionaryId(), entries);
+		}
+		entries = new ArrayList<>();
+	}
+	
+	private UnprocessableEntityException invalid(String reason) {
+		return new UnprocessableEntityException(LUI0008E_INVALID_DICTIONARY_IMPORT, 
+												line, 
+												reason);
+	}
+	
+	/**
+	 * Returns the number of imported dictionaries.
+	 * @return the number of imported dictionaries.
+	 */
+	int getDictionaries() {
+		return dictionaries;
+	}
+	
+	/**
+	 * Returns the number of imported dictionary entries.
+	 * @return the number of imported dictionary entries.
+	 */
+	int getEntries() {
+		return total;
+	}
+	
+}
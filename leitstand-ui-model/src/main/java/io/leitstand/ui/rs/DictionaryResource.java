@@ -5,33 +5,60 @@ package io.leitstand.ui.rs;
 
 import static io.leitstand.commons.model.ObjectUtil.isDifferent;
 import static io.leitstand.commons.model.Patterns.UUID_PATTERN;
+import static io.leitstand.commons.messages.MessageFactory.createMessage;
 import static io.leitstand.commons.rs.ReasonCode.VAL0003E_IMMUTABLE_ATTRIBUTE;
 import static io.leitstand.commons.rs.Responses.created;
 import static io.leitstand.commons.rs.Responses.success;
+import static io.leitstand.ui.service.DictionaryId.dictionaryId;
+import static io.leitstand.ui.service.DictionaryName.dictionaryName;
+import static io.leitstand.ui.service.ReasonCode.LUI0007I_DICTIONARIES_IMPORTED;
+import static java.lang.Math.min;
+import static javax.ws.rs.core.HttpHeaders.IF_MATCH;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+import static javax.ws.rs.core.Response.ok;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.StreamingOutput;
 
 import io.leitstand.commons.UnprocessableEntityException;
 import io.leitstand.commons.messages.Messages;
+import io.leitstand.ui.service.DictionaryCacheStatistics;
+import io.leitstand.ui.service.DictionaryEntries;
+import io.leitstand.ui.service.DictionaryEntry;
+import io.leitstand.ui.service.DictionaryFilterMode;
 import io.leitstand.ui.service.DictionaryId;
 import io.leitstand.ui.service.DictionaryInfo;
 import io.leitstand.ui.service.DictionaryName;
 import io.leitstand.ui.service.DictionaryService;
 import io.leitstand.ui.service.DictionarySettings;
+import io.leitstand.ui.service.DictionaryVersion;
 
 @RequestScoped
 @Path("/ui/dictionarys")
@@ -39,6 +66,15 @@ import io.leitstand.ui.service.DictionarySettings;
 @Produces(APPLICATION_JSON)
 public class DictionaryResource {
 
+	static final int MAX_ENTRIES = 1000;
+	
+	static final String APPLICATION_NDJSON = "application/x-ndjson";
+	
+	/**
+	 * The maximum number of dictionary entries imported in a single transaction.
+	 */
+	static final int IMPORT_CHUNK_SIZE = 5000;
+
 	@Inject
 	private DictionaryService service;
 	
@@ -47,20 +83,139 @@ public class DictionaryResource {
 	
 	
 	@GET
-	public List<DictionaryInfo> getDictionaries(@QueryParam("filter") String filter){
-		return service.getDictionaries(filter);
+	public List<DictionaryInfo> getDictionaries(@QueryParam("filter") String filter,
+												@QueryParam("mode") DictionaryFilterMode mode){
+		if(mode == null) {
+			return service.getDictionaries(filter);
+		}
+		return service.getDictionaries(filter, mode);
+	}
+	
+	@GET
+	@Path("/_statistics")
+	public DictionaryCacheStatistics getCacheStatistics() {
+		return service.getCacheStatistics();
+	}
+	
+	@GET
+	@Path("/_bulk")
+	public List<DictionarySettings> getDictionaries(@QueryParam("dictionary") List<String> dictionaries){
+		// Dictionaries can be referenced by ID or by name.
+		List<DictionaryId> ids = new ArrayList<>();
+		List<DictionaryName> names = new ArrayList<>();
+		for(String dictionary : dictionaries) {
+			if(dictionary.matches(UUID_PATTERN)) {
+				ids.add(dictionaryId(dictionary));
+			} else {
+				names.add(dictionaryName(dictionary));
+			}
+		}
+		return service.getDictionaries(ids, names);
+	}
+	
+	@GET
+	@Path("/_export")
+	@Produces(APPLICATION_NDJSON)
+	public StreamingOutput exportDictionaries() {
+		return out -> {
+			DictionaryExportWriter writer = new DictionaryExportWriter(out);
+			try {
+				service.exportDictionaries(writer);
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+			writer.flush();
+		};
+	}
+	
+	@POST
+	@Path("/_import")
+	@Consumes(APPLICATION_NDJSON)
+	public Response importDictionaries(InputStream in) throws IOException {
+		DictionaryImportReader reader = new DictionaryImportReader(service, IMPORT_CHUNK_SIZE);
+		reader.read(in);
+		messages.add(createMessage(LUI0007I_DICTIONARIES_IMPORTED, 
+								   reader.getDictionaries(), 
+								   reader.getEntries()));
+		return success(messages);
 	}
 	
 	@GET
 	@Path("/{dictionary:"+UUID_PATTERN+"}")
-	public DictionarySettings getDictionary(@PathParam("dictionary") DictionaryId id) {
-		return service.getDictionary(id);
+	public Response getDictionary(@Context Request request,
+								  @PathParam("dictionary") DictionaryId id) {
+		return conditional(request, 
+						   service.getDictionaryVersion(id), 
+						   () -> service.getDictionary(id));
 	}
 	
 	@GET
 	@Path("/{dictionary}")
-	public DictionarySettings getDictionary(@PathParam("dictionary") DictionaryName name) {
-		return service.getDictionary(name);
+	public Response getDictionary(@Context Request request,
+								  @PathParam("dictionary") DictionaryName name) {
+		return conditional(request, 
+						   service.getDictionaryVersion(name), 
+						   () -> service.getDictionary(name));
+	}
+	
+	@GET
+	@Path("/{dictionary:"+UUID_PATTERN+"}/entries")
+	public DictionaryEntries getDictionaryEntries(@PathParam("dictionary") DictionaryId id,
+												  @QueryParam("q") String prefix,
+												  @QueryParam("offset") @DefaultValue("0") int offset,
+												  @QueryParam("limit") @DefaultValue("100") int limit) {
+		return service.getDictionaryEntries(id, prefix, offset, min(limit, MAX_ENTRIES));
+	}
+	
+	@GET
+	@Path("/{dictionary}/entries")
+	public DictionaryEntries getDictionaryEntries(@PathParam("dictionary") DictionaryName name,
+												  @QueryParam("q") String prefix,
+												  @QueryParam("offset") @DefaultValue("0") int offset,
+												  @QueryParam("limit") @DefaultValue("100") int limit) {
+		return service.getDictionaryEntries(name, prefix, offset, min(limit, MAX_ENTRIES));
+	}
+	
+	/**
+	 * Sends the dictionary along with an entity tag and the last-modification date derived from the dictionary version.
+	 * Returns <code>304 Not Modified</code> without reading the dictionary if the client has the current dictionary version.
+	 * Otherwise the entity tag and the last-modification date are derived from the version of the returned dictionary,
+	 * because the dictionary might have been modified after the version was read.
+	 * Browsers are requested to revalidate a cached dictionary on every access.
+	 * @param request the current request
+	 * @param version the current dictionary version
+	 * @param dictionary the supplier to read the dictionary
+	 * @return the response to be sent to the client.
+	 */
+	static Response conditional(Request request, 
+								DictionaryVersion version, 
+								Supplier<DictionarySettings> dictionary) {
+		EntityTag etag = new EntityTag(version.getEtag());
+		Date modified = httpDate(version.getDateModified());
+		CacheControl revalidate = new CacheControl();
+		revalidate.setNoCache(true);
+		ResponseBuilder notModified = modified != null 
+									  ? request.evaluatePreconditions(modified, etag) 
+									  : request.evaluatePreconditions(etag);
+		if(notModified != null) {
+			return notModified.cacheControl(revalidate)
+							  .build();
+		}
+		DictionarySettings settings = dictionary.get();
+		DictionaryVersion sent = settings.getVersion() != null ? settings.getVersion() : version;
+		return ok(settings)
+			   .tag(new EntityTag(sent.getEtag()))
+			   .lastModified(httpDate(sent.getDateModified()))
+			   .cacheControl(revalidate)
+			   .build();
+	}
+	
+	private static Date httpDate(Date date) {
+		if(date == null) {
+			return null;
+		}
+		// HTTP dates have a precision of seconds.
+		return new Date(date.getTime() / 1000 * 1000);
 	}
 
 	@DELETE
@@ -91,6 +246,98 @@ public class DictionaryResource {
 		
 	}
 	
+	@PUT
+	@Path("/{dictionary:"+UUID_PATTERN+"}/entries/{value}")
+	public Response storeDictionaryEntry(@Context Request request,
+										 @HeaderParam(IF_MATCH) String ifMatch,
+										 @PathParam("dictionary") DictionaryId id,
+										 @PathParam("value") String value,
+										 DictionaryEntry entry) {
+		assertEntryValue(value, entry);
+		return modify(request, 
+					  ifMatch, 
+					  service.getDictionaryVersion(id), 
+					  modCount -> service.storeDictionaryEntry(id, modCount, entry));
+	}
+	
+	@PUT
+	@Path("/{dictionary}/entries/{value}")
+	public Response storeDictionaryEntry(@Context Request request,
+										 @HeaderParam(IF_MATCH) String ifMatch,
+										 @PathParam("dictionary") DictionaryName name,
+										 @PathParam("value") String value,
+										 DictionaryEntry entry) {
+		assertEntryValue(value, entry);
+		DictionaryVersion version = service.getDictionaryVersion(name);
+		return modify(request, 
+					  ifMatch, 
+					  version, 
+					  modCount -> service.storeDictionaryEntry(version.getDictionaryId(), modCount, entry));
+	}
+	
+	@DELETE
+	@Path("/{dictionary:"+UUID_PATTERN+"}/entries/{value}")
+	public Response removeDictionaryEntry(@Context Request request,
+										  @HeaderParam(IF_MATCH) String ifMatch,
+										  @PathParam("dictionary") DictionaryId id,
+										  @PathParam("value") String value) {
+		return modify(request, 
+					  ifMatch, 
+					  service.getDictionaryVersion(id), 
+					  modCount -> service.removeDictionaryEntry(id, modCount, value));
+	}
+	
+	@DELETE
+	@Path("/{dictionary}/entries/{value}")
+	public Response removeDictionaryEntry(@Context Request request,
+										  @HeaderParam(IF_MATCH) String ifMatch,
+										  @PathParam("dictionary") DictionaryName name,
+										  @PathParam("value") String value) {
+		DictionaryVersion version = service.getDictionaryVersion(name);
+		return modify(request, 
+					  ifMatch, 
+					  version, 
+					  modCount -> service.removeDictionaryEntry(version.getDictionaryId(), modCount, value));
+	}
+	
+	private static void assertEntryValue(String value, DictionaryEntry entry) {
+		if(isDifferent(value, entry.getValue())) {
+			throw new UnprocessableEntityException(VAL0003E_IMMUTABLE_ATTRIBUTE, 
+												   value,
+												   entry.getValue());
+		}
+	}
+	
+	/**
+	 * Modifies a dictionary entry with optimistic concurrency control.
+	 * <p>
+	 * If the request has an <code>If-Match</code> header, the header is evaluated against the entity tag of the current dictionary version.
+	 * Returns <code>412 Precondition Failed</code> if the entity tag does not match.
+	 * Otherwise the modification is applied if the dictionary is still in the current version.
+	 * The modification is applied regardless of the dictionary version if the request has no <code>If-Match</code> header.
+	 * </p>
+	 * @param request the current request
+	 * @param ifMatch the <code>If-Match</code> header value
+	 * @param version the current dictionary version
+	 * @param modification the modification to be applied, expecting the dictionary version or <code>null</code> to ignore the version.
+	 * @return the response to be sent to the client.
+	 */
+	private Response modify(Request request, 
+							String ifMatch, 
+							DictionaryVersion version, 
+							Consumer<Integer> modification) {
+		Integer modCount = null;
+		if(ifMatch != null) {
+			ResponseBuilder failed = request.evaluatePreconditions(new EntityTag(version.getEtag()));
+			if(failed != null) {
+				return failed.build();
+			}
+			modCount = version.getModCount();
+		}
+		modification.accept(modCount);
+		return success(messages);
+	}
+	
 	@POST
 	public Response storeDictionary(DictionarySettings settings) {
 		boolean created = service.storeDictionary(settings);
@@ -15,19 +15,22 @@
  */
 package io.leitstand.ui.rs;
 
+import static io.leitstand.ui.rs.PayloadResponses.payload;
+import static javax.ws.rs.core.HttpHeaders.ACCEPT_ENCODING;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 
-import java.util.List;
-
 import javax.inject.Inject;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
 
 import io.leitstand.commons.rs.Resource;
 import io.leitstand.ui.model.MainMenu;
-import io.leitstand.ui.model.MainMenuItem;
 import io.leitstand.ui.model.MainMenuService;
 
 /**
@@ -47,12 +50,20 @@ public class MainMenuResource {
 	
 	/**
 	 * Returns the Leitstand main menu.
+	 * <p>
+	 * The main menu is sent pre-serialized and, if accepted by the client, pre-compressed.
+	 * A <code>304 Not Modified</code> response is sent if the <code>If-None-Match</code> request header 
+	 * matches the entity tag of the current main menu.
+	 * </p>
+	 * @param request - the current HTTP request
+	 * @param acceptEncoding - the content encodings accepted by the client
 	 * @return the main menu items.
 	 */
 	@GET
 	@Path("/modules")
-	public List<MainMenuItem> getMainMenu() {
-		return menu.getMainMenu().getItems();
+	public Response getMainMenu(@Context Request request,
+								@HeaderParam(ACCEPT_ENCODING) String acceptEncoding) {
+		return payload(request, acceptEncoding, menu.getMainMenuPayload());
 	}
 
 }
@@ -15,20 +15,30 @@
  */
 package io.leitstand.ui.rs;
 
+import static io.leitstand.ui.rs.PayloadResponses.privatePayload;
+import static javax.ws.rs.core.HttpHeaders.ACCEPT_ENCODING;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
-import static javax.ws.rs.core.Response.ok;
 import static javax.ws.rs.core.Response.status;
 import static javax.ws.rs.core.Response.Status.NOT_FOUND;
 
+import java.util.Collection;
+import java.util.List;
+
 import javax.inject.Inject;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 
 import io.leitstand.commons.rs.Resource;
+import io.leitstand.security.auth.UserContext;
+import io.leitstand.ui.jsonb.JsonPayload;
 import io.leitstand.ui.model.ModuleDescriptor;
 import io.leitstand.ui.model.ModuleDescriptorService;
 
@@ -43,24 +53,71 @@ import io.leitstand.ui.model.ModuleDescriptorService;
 @Produces(APPLICATION_JSON)
 public class ModuleDescriptorResource {
 
+	/**
+	 * Wildcard to request all modules.
+	 */
+	static final String ALL_MODULES = "*";
+
 	@Inject
 	private ModuleDescriptorService service;
 	
+	@Inject
+	private UserContext user;
+	
 	/**
 	 * Returns the {@link ModuleDescriptor} for the specified module.
+	 * <p>
+	 * The module descriptor is sent with a strong entity tag. 
+	 * A <code>304 Not Modified</code> response is sent if the <code>If-None-Match</code> request header
+	 * matches the entity tag of the current module descriptor.
+	 * The module descriptor is sent pre-compressed if the client accepts a supported content encoding.
+	 * Menus and menu items the caller is not allowed to access are removed from the module descriptor.
+	 * A module the caller is not allowed to access is reported as not existing, exactly as the batch request omits it.
+	 * The caller's scopes are read from the {@link UserContext} of the authenticated user.
+	 * Hence the module descriptor is sent as private response.
+	 * </p>
 	 * @param request - the current HTTP request
+	 * @param acceptEncoding - the content encodings accepted by the client
 	 * @param module - the module name
-	 * @return the module descriptor adaptToJsonled in JSON or <code>404 Not Found</code> if the requested module does not exist.
+	 * @return the module descriptor in JSON, <code>304 Not Modified</code> if the browser has the current module descriptor 
+	 * or <code>404 Not Found</code> if the requested module does not exist or is not accessible.
 	 */
 	@GET
 	@Path("/modules/{module}")
-	public Response getModuleDescription(@PathParam("module") String module) {
-		ModuleDescriptor md = service.getModuleDescriptor(module);
+	public Response getModuleDescription(@Context Request request,
+										 @HeaderParam(ACCEPT_ENCODING) String acceptEncoding,
+										 @PathParam("module") String module) {
+		JsonPayload md = service.getModuleDescriptorPayload(module, user.getScopes()::contains);
 		if(md == null) {
 			return status(NOT_FOUND).build();
 		}
-		return ok(md, APPLICATION_JSON).build();
+		return privatePayload(request, acceptEncoding, md);
 		
 	}
 	
+	/**
+	 * Returns the {@link ModuleDescriptor}s of the specified modules in a single JSON object,
+	 * that maps the module name to the module descriptor.
+	 * <p>
+	 * The modules are specified by repeating the <code>module</code> query parameter.
+	 * The <code>*</code> wildcard requests all modules the caller is allowed to access.
+	 * Unknown modules and modules the caller is not allowed to access are omitted.
+	 * The response is sent as private response with a strong entity tag and pre-compressed like a single module descriptor.
+	 * </p>
+	 * @param request - the current HTTP request
+	 * @param acceptEncoding - the content encodings accepted by the client
+	 * @param modules - the module names or <code>*</code> to request all modules
+	 * @return the module descriptors in JSON or <code>304 Not Modified</code> if the browser has the current module descriptors.
+	 */
+	@GET
+	@Path("/modules/_batch")
+	public Response getModuleDescriptions(@Context Request request,
+										  @HeaderParam(ACCEPT_ENCODING) String acceptEncoding,
+										  @QueryParam("module") List<String> modules) {
+		Collection<String> names = modules.contains(ALL_MODULES) ? service.getModuleNames() : modules;
+		return privatePayload(request, 
+							  acceptEncoding, 
+							  service.getModuleDescriptorsPayload(names, user.getScopes()::contains));
+	}
+	
 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.rs;
+
+import static io.leitstand.ui.jsonb.ContentEncoding.IDENTITY;
+import static javax.ws.rs.core.HttpHeaders.ACCEPT_ENCODING;
+import static javax.ws.rs.core.HttpHeaders.AUTHORIZATION;
+import static javax.ws.rs.core.HttpHeaders.CACHE_CONTROL;
+import static javax.ws.rs.core.HttpHeaders.CONTENT_ENCODING;
+import static javax.ws.rs.core.HttpHeaders.CONTENT_LENGTH;
+import static javax.ws.rs.core.HttpHeaders.COOKIE;
+import static javax.ws.rs.core.HttpHeaders.VARY;
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+import static javax.ws.rs.core.Response.ok;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.StreamingOutput;
+
+import io.leitstand.ui.jsonb.JsonPayload;
+
+/**
+ * Utility to send pre-serialized {@link JsonPayload}s.
+ */
+final class PayloadResponses {
+
+	/**
+	 * Creates a response for the specified payload.
+	 * <p>
+	 * Selects the best pre-compressed representation for the client's <code>Accept-Encoding</code> header
+	 * and sends it along with the representation's entity tag.
+	 * Returns <code>304 Not Modified</code> if the <code>If-None-Match</code> header matches the entity tag.
+	 * </p>
+	 * @param request the current request
+	 * @param acceptEncoding the <code>Accept-Encoding</code> header value
+	 * @param payload the payload to be sent
+	 * @return the response to be sent to the client
+	 */
+	static Response payload(Request request,
+							String acceptEncoding,
+							JsonPayload payload) {
+		return payload(request, acceptEncoding, payload, null, ACCEPT_ENCODING);
+	}
+
+	/**
+	 * Creates a response for a payload that depends on the authenticated user.
+	 * <p>
+	 * The response is sent like a {@link #payload(Request, String, JsonPayload)} response, 
+	 * but must only be cached by the browser of the user.
+	 * The response therefore varies by the user credentials in addition to the content encoding.
+	 * </p>
+	 * @param request the current request
+	 * @param acceptEncoding the <code>Accept-Encoding</code> header value
+	 * @param payload the payload to be sent
+	 * @return the response to be sent to the client
+	 */
+	static Response privatePayload(Request request,
+								   String acceptEncoding,
+								   JsonPayload payload) {
+		return payload(request, 
+					   acceptEncoding, 
+					   payload, 
+					   "private", 
+					   ACCEPT_ENCODING+", "+AUTHORIZATION+", "+COOKIE);
+	}
+
+	private static Response payload(Request request,
+									String acceptEncoding,
+									JsonPayload payload,
+									String cacheControl,
+									String vary) {
+		JsonPayload.Encoded encoded = payload.encodedFor(acceptEncoding);
+		EntityTag etag = new EntityTag(encoded.getEtag());
+		ResponseBuilder notModified = request.evaluatePreconditions(etag);
+		if(notModified != null) {
+			return notModified.header(VARY, vary)
+							  .header(CACHE_CONTROL, cacheControl)
+							  .build();
+		}
+		ResponseBuilder response = ok((StreamingOutput) encoded::writeTo, APPLICATION_JSON)
+								   .tag(etag)
+								   .header(VARY, vary)
+								   .header(CACHE_CONTROL, cacheControl)
+								   .header(CONTENT_LENGTH, encoded.getLength());
+		if(encoded.getEncoding() != IDENTITY) {
+			response.header(CONTENT_ENCODING, encoded.getEncoding().getToken());
+		}
+		return response.build();
+	}
+
+	private PayloadResponses() {
+		// No instances allowed
+	}
+
+}
@@ -1,17 +1,24 @@
 package io.leitstand.ui.rs;
 
+import static io.leitstand.ui.rs.PayloadResponses.payload;
+import static javax.ws.rs.core.HttpHeaders.ACCEPT_ENCODING;
+
 import java.util.Set;
-import java.util.SortedSet;
 
 import javax.inject.Inject;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
 
 import io.leitstand.commons.rs.Public;
 import io.leitstand.commons.rs.Resource;
+import io.leitstand.ui.model.TagCatalog;
 import io.leitstand.ui.service.TagInfo;
 import io.leitstand.ui.service.TagService;
 
@@ -21,19 +28,34 @@ public class TagResource {
 
 	private TagService service;
 	
+	private TagCatalog catalog;
+	
 	public TagResource() {
 		// CDI & JAX-RS
 	}
 	
 	@Inject
-	public TagResource(TagService service) {
+	public TagResource(TagService service, TagCatalog catalog) {
 		this.service = service;
+		this.catalog = catalog;
 	}
 
+	/**
+	 * Returns all tags.
+	 * <p>
+	 * The tags are sent pre-serialized from the {@link TagCatalog}.
+	 * A <code>304 Not Modified</code> response is sent if the <code>If-None-Match</code> request header 
+	 * matches the entity tag of the current tag catalog.
+	 * </p>
+	 * @param request - the current HTTP request
+	 * @param acceptEncoding - the content encodings accepted by the client
+	 * @return all tags.
+	 */
 	@Public
 	@GET
-	public SortedSet<TagInfo> getTags(){
-		return service.getTags();
+	public Response getTags(@Context Request request,
+							@HeaderParam(ACCEPT_ENCODING) String acceptEncoding){
+		return payload(request, acceptEncoding, catalog.getTagsPayload());
 	}
 	
 	@Public
@@ -42,6 +42,7 @@ public class UIResources implements ApiResourceProvider{
 		return asSet(MainMenuResource.class,
                      DictionaryResource.class,
                      TagResource.class,
+                     ChangeFeedResource.class,
                      ModuleDescriptorResource.class,
                      LogoutResource.class,
                      JsonMessageBodyWriter.class);
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.service;
+
+import static io.leitstand.commons.model.BuilderUtil.assertNotInvalidated;
+
+import io.leitstand.commons.model.ValueObject;
+
+/**
+ * Statistics of the dictionary cache.
+ * <p>
+ * Reports the number of cached dictionaries, the number of cache hits and misses and the number of 
+ * dictionaries evicted from the cache because they were modified or removed.
+ * </p>
+ */
+public class DictionaryCacheStatistics extends ValueObject {
+
+	/**
+	 * Returns a builder to create an immutable <code>DictionaryCacheStatistics</code> value object.
+	 * @return a builder to create a <code>DictionaryCacheStatistics</code> value object.
+	 */
+	public static Builder newDictionaryCacheStatistics() {
+		return new Builder();
+	}
+	
+	public static class Builder {
+		
+		private DictionaryCacheStatistics stats = new DictionaryCacheStatistics();
+		
+		/**
+		 * Sets the number of cached dictionaries.
+		 * @param size the number of cached dictionaries
+		 * @return a reference to this builder to continue with the object creation
+		 */
+		public Builder withSize(int size) {
+			assertNotInvalidated(getClass(), stats);
+			stats.size = size;
+			return this;
+		}
+		
+		/**
+		 * Sets the number of cache hits.
+		 * @param hits the number of cache hits
+		 * @return a reference to this builder to continue with the object creation
+		 */
+		public Builder withHits(long hits) {
+			assertNotInvalidated(getClass(), stats);
+			stats.hits = hits;
+			return this;
+		}
+		
+		/**
+		 * Sets the number of cache misses.
+		 * @param misses the number of cache misses
+		 * @return a reference to this builder to continue with the object creation
+		 */
+		public Builder withMisses(long misses) {
+			assertNotInvalidated(getClass(), stats);
+			stats.misses = misses;
+			return this;
+		}
+		
+		/**
+		 * Sets the number of evicted dictionaries.
+		 * @param evictions the number of evicted dictionaries
+		 * @return a reference to this builder to continue with the object creation
+		 */
+		public Builder withEvictions(long evictions) {
+			assertNotInvalidated(getClass(), stats);
+			stats.evictions = evictions;
+			return this;
+		}
+		
+		public DictionaryCacheStatistics build() {
+			try {
+				assertNotInvalidated(getClass(), stats);
+				return stats;
+			} finally {
+				this.stats = null;
+			}
+		}
+	}
+	
+	private int size;
+	private long hits;
+	private long misses;
+	private long evictions;
+	
+	/**
+	 * Returns the number of cached dictionaries.
+	 * @return the number of cached dictionaries.
+	 */
+	public int getSize() {
+		return size;
+	}
+	
+	/**
+	 * Returns the number of cache hits.
+	 * @return the number of cache hits.
+	 */
+	public long getHits() {
+		return hits;
+	}
+	
+	/**
+	 * Returns the number of cache misses.
+	 * @return the number of cache misses.
+	 */
+	public long getMisses() {
+		return misses;
+	}
+	
+	/**
+	 * Returns the number of dictionaries evicted from the cache.
+	 * @return the number of evicted dictionaries.
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+	
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.service;
+
+import static io.leitstand.commons.model.BuilderUtil.assertNotInvalidated;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.leitstand.commons.model.ValueObject;
+
+/**
+ * A page of dictionary entries.
+ * <p>
+ * Conveys the entries of a dictionary matching an optional prefix query, 
+ * starting at the specified offset and limited to the specified number of entries.
+ * The total number of matching entries allows a client to request further pages.
+ * </p>
+ */
+public class DictionaryEntries extends ValueObject {
+
+	/**
+	 * Returns a builder to create an immutable <code>DictionaryEntries</code> value object.
+	 * @return a builder to create a <code>DictionaryEntries</code> value object.
+	 */
+	public static Builder newDictionaryEntries() {
+		return new Builder();
+	}
+	
+	public static class Builder {
+		
+		private DictionaryEntries entries = new DictionaryEntries();
+		
+		/**
+		 * Sets the dictionary ID.
+		 * @param dictionaryId the dictionary ID
+		 * @return a reference to this builder to continue with the object creation
+		 */
+		public Builder withDictionaryId(DictionaryId dictionaryId) {
+			assertNotInvalidated(getClass(), entries);
+			entries.dictionaryId = dictionaryId;
+			return this;
+		}
+		
+		/**
+		 * Sets the dictionary name.
+		 * @param dictionaryName the dictionary name
+		 * @return a reference to this builder to continue with the object creation
+		 */
+		public Builder withDictionaryName(DictionaryName dictionaryName) {
+			assertNotInvalidated(getClass(), entries);
+			entries.dictionaryName = dictionaryName;
+			return this;
+		}
+		
+		/**
+		 * Sets the prefix query.
+		 * @param query the label or value prefix
+		 * @return a reference to this builder to continue with the object creation
+		 */
+		public Builder withQuery(String query) {
+			assertNotInvalidated(getClass(), entries);
+			entries.query = query;
+			return this;
+		}
+		
+		/**
+		 * Sets the offset of the first entry.
+		 * @param offset the offset of the first entry
+		 * @return a reference to this builder to continue with the object creation
+		 */
+		public Builder withOffset(int offset) {
+			assertNotInvalidated(getClass(), entries);
+			entries.offset = offset;
+			return this;
+		}
+		
+		/**
+		 * Sets the total number of matching entries.
+		 * @param total the total number of matching entries
+		 * @return a reference to this builder to continue with the object creation
+		 */
+		public Builder withTotal(int total) {
+			assertNotInvalidated(getClass(), entries);
+			entries.total = total;
+			return this;
+		}
+		
+		/**
+		 * Sets the entries of this page.
+		 * @param entries the entries of this page
+		 * @return a reference to this builder to continue with the object creation
+		 */
+		public Builder withEntries(List<DictionaryEntry> entries) {
+			assertNotInvalidated(getClass(), this.entries);
+			this.entries.entries = unmodifiableList(new ArrayList<>(entries));
+			return this;
+		}
+		
+		public DictionaryEntries build() {
+			try {
+				assertNotInvalidated(getClass(), entries);
+				return entries;
+			} finally {
+				this.entries = null;
+			}
+		}
+	}
+	
+	private DictionaryId dictionaryId;
+	private DictionaryName dictionaryName;
+	private String query;
+	private int offset;
+	private int total;
+	private List<DictionaryEntry> entries = emptyList();
+	
+	/**
+	 * Returns the dictionary ID.
+	 * @return the dictionary ID.
+	 */
+	public DictionaryId getDictionaryId() {
+		return dictionaryId;
+	}
+	
+	/**
+	 * Returns the dictionary name.
+	 * @return the dictionary name.
+	 */
+	public DictionaryName getDictionaryName() {
+		return dictionaryName;
+	}
+	
+	/**
+	 * Returns the label or value prefix query.
+	 * @return the prefix query or <code>null</code> if all entries were requested.
+	 */
+	public String getQuery() {
+		return query;
+	}
+	
+	/**
+	 * Returns the offset of the first entry of this page.
+	 * @return the offset of the first entry.
+	 */
+	public int getOffset() {
+		return offset;
+	}
+	
+	/**
+	 * Returns the total number of matching entries.
+	 * @return the total number of matching entries.
+	 */
+	public int getTotal() {
+		return total;
+	}
+	
+	/**
+	 * Returns the entries of this page as immutable list.
+	 * @return the entries of this page.
+	 */
+	public List<DictionaryEntry> getEntries() {
+		return entries;
+	}
+	
+}
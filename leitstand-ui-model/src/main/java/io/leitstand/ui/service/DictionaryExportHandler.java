@@ -0,0 +1,28 @@
+/*
+ * (c) RtBrick, Inc - All rights reserved, 2015 - 2019
+ */
+package io.leitstand.ui.service;
+
+/**
+ * Receives the dictionaries and their entries in the order they are read from the database.
+ * <p>
+ * Each dictionary is followed by its entries, i.e. all entries passed to {@link #entry(DictionaryEntry)} 
+ * belong to the dictionary last passed to {@link #dictionary(DictionaryInfo)}.
+ * </p>
+ * @see DictionaryService#exportDictionaries(DictionaryExportHandler)
+ */
+public interface DictionaryExportHandler {
+
+	/**
+	 * Starts the next dictionary.
+	 * @param dictionary the dictionary
+	 */
+	void dictionary(DictionaryInfo dictionary);
+	
+	/**
+	 * Adds an entry to the current dictionary.
+	 * @param entry the dictionary entry
+	 */
+	void entry(DictionaryEntry entry);
+	
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.service;
+
+import static java.util.Locale.ROOT;
+
+/**
+ * The mode to match a dictionary name filter.
+ * <p>
+ * The prefix and substring modes can be served from an index on the dictionary name.
+ * The regular expression mode requires a full table scan and shall only be used if a 
+ * prefix or substring filter is not sufficient.
+ * A regular expression without metacharacters is matched as substring and can therefore be served from an index as well.
+ * </p>
+ * @see DictionaryService#getDictionaries(String, DictionaryFilterMode)
+ */
+public enum DictionaryFilterMode {
+	
+	/** Matches all dictionaries whose name starts with the filter. */
+	PREFIX,
+	
+	/** Matches all dictionaries whose name contains the filter. */
+	SUBSTRING,
+	
+	/** Matches all dictionaries whose name matches the filter regular expression. This is the default mode. */
+	REGEX;
+	
+	/**
+	 * Returns the filter mode for the specified name, ignoring case.
+	 * @param mode the filter mode name
+	 * @return the filter mode or <code>null</code> if the specified name is <code>null</code> or empty.
+	 */
+	public static DictionaryFilterMode fromString(String mode) {
+		if(mode == null || mode.isEmpty()) {
+			return null;
+		}
+		return valueOf(mode.toUpperCase(ROOT));
+	}
+	
+}
@@ -3,6 +3,7 @@
  */
 package io.leitstand.ui.service;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -17,11 +18,20 @@ public interface DictionaryService {
 	
 	/**
 	 * Returns a list of dictionaries that matches the given filter expression.
+	 * A filter without regular expression metacharacters is matched as substring.
 	 * @param filter regular expression to filter dictionaries by their name
 	 * @return an immutable list of dictionaries or an empty list if no matching dictionaries exists.
 	 */
 	List<DictionaryInfo> getDictionaries(String filter);
 	
+	/**
+	 * Returns a list of dictionaries that matches the given filter in the specified filter mode.
+	 * @param filter the prefix, substring or regular expression to filter dictionaries by their name
+	 * @param mode the filter mode
+	 * @return an immutable list of dictionaries or an empty list if no matching dictionaries exists.
+	 */
+	List<DictionaryInfo> getDictionaries(String filter, DictionaryFilterMode mode);
+	
 	/**
 	 * Returns the dictionary with the specified ID.
 	 * @param id the dictionary id
@@ -36,6 +46,51 @@ public interface DictionaryService {
 	 */
 	DictionarySettings getDictionary(DictionaryName name);
 	
+	/**
+	 * Returns the entries of the dictionary with the specified ID whose label or value starts with the specified prefix.
+	 * The prefix is matched ignoring case.
+	 * @param id the dictionary ID
+	 * @param prefix the label or value prefix or <code>null</code> to page through all entries
+	 * @param offset the offset of the first returned entry
+	 * @param limit the maximum number of returned entries
+	 * @return the requested page of matching dictionary entries.
+	 */
+	DictionaryEntries getDictionaryEntries(DictionaryId id, String prefix, int offset, int limit);
+	
+	/**
+	 * Returns the entries of the dictionary with the specified name whose label or value starts with the specified prefix.
+	 * The prefix is matched ignoring case.
+	 * @param name the dictionary name
+	 * @param prefix the label or value prefix or <code>null</code> to page through all entries
+	 * @param offset the offset of the first returned entry
+	 * @param limit the maximum number of returned entries
+	 * @return the requested page of matching dictionary entries.
+	 */
+	DictionaryEntries getDictionaryEntries(DictionaryName name, String prefix, int offset, int limit);
+	
+	/**
+	 * Returns the version of the dictionary with the specified ID without reading the dictionary entries.
+	 * @param id the dictionary ID
+	 * @return the version of the dictionary with the specified ID.
+	 */
+	DictionaryVersion getDictionaryVersion(DictionaryId id);
+	
+	/**
+	 * Returns the version of the dictionary with the specified name without reading the dictionary entries.
+	 * @param name the dictionary name
+	 * @return the version of the dictionary with the specified name.
+	 */
+	DictionaryVersion getDictionaryVersion(DictionaryName name);
+	
+	/**
+	 * Returns all dictionaries with the specified IDs and names.
+	 * Dictionaries are read from the cache and all dictionaries that are not cached are loaded at once.
+	 * @param ids the dictionary IDs
+	 * @param names the dictionary names
+	 * @return the dictionaries in the order of the specified IDs and names. Unknown dictionaries are omitted.
+	 */
+	List<DictionarySettings> getDictionaries(Collection<DictionaryId> ids, Collection<DictionaryName> names);
+	
 	/**
 	 * Stores the specified dictionary.
 	 * <p>
@@ -45,6 +100,64 @@ public interface DictionaryService {
 	 */
 	boolean storeDictionary(DictionarySettings settings);
 	
+	/**
+	 * Stores an entry of the dictionary with the specified ID.
+	 * <p>
+	 * Adds a new entry or updates the label and the default flag of the existing entry with the same value.
+	 * The dictionary version is incremented.
+	 * @param id the dictionary ID
+	 * @param modCount the expected dictionary version or <code>null</code> to store the entry regardless of the current version.
+	 * @param entry the dictionary entry
+	 * @throws io.leitstand.commons.EntityNotFoundException if the dictionary does not exist.
+	 * @throws io.leitstand.commons.ConflictException if the dictionary version differs from the expected version.
+	 */
+	void storeDictionaryEntry(DictionaryId id, Integer modCount, DictionaryEntry entry);
+	
+	/**
+	 * Removes the entry with the specified value from the dictionary with the specified ID.
+	 * Fails silently if the entry does not exist.
+	 * The dictionary version is incremented if the entry was removed.
+	 * @param id the dictionary ID
+	 * @param modCount the expected dictionary version or <code>null</code> to remove the entry regardless of the current version.
+	 * @param value the value of the entry to be removed
+	 * @throws io.leitstand.commons.EntityNotFoundException if the dictionary does not exist.
+	 * @throws io.leitstand.commons.ConflictException if the dictionary version differs from the expected version.
+	 */
+	void removeDictionaryEntry(DictionaryId id, Integer modCount, String value);
+	
+	/**
+	 * Imports the specified dictionary.
+	 * <p>
+	 * Creates a new dictionary or updates an existing dictionary and replaces all entries of the dictionary 
+	 * by the entries of the given settings.
+	 * Entries are written by batched inserts rather than one entry at a time.
+	 * Large dictionaries can be imported in chunks by passing the first chunk to this method
+	 * and all remaining chunks to {@link #importDictionaryEntries(DictionaryId, List)}.
+	 * @param settings the dictionary settings
+	 */
+	void importDictionary(DictionarySettings settings);
+	
+	/**
+	 * Adds the specified entries to the dictionary with the specified ID.
+	 * <p>
+	 * Entries are written by batched inserts. 
+	 * Existing entries are not verified, i.e. the caller must not add an existing value again.
+	 * The dictionary version is incremented.
+	 * @param id the dictionary ID
+	 * @param entries the entries to be added
+	 * @throws io.leitstand.commons.EntityNotFoundException if the dictionary does not exist.
+	 */
+	void importDictionaryEntries(DictionaryId id, List<DictionaryEntry> entries);
+	
+	/**
+	 * Exports all dictionaries and their entries ordered by the dictionary name.
+	 * <p>
+	 * The dictionaries are read by a single query and passed to the handler while the result set is read,
+	 * i.e. neither the list of dictionaries nor the entries of a dictionary are loaded into memory.
+	 * @param handler the handler to receive the dictionaries and their entries
+	 */
+	void exportDictionaries(DictionaryExportHandler handler);
+	
 	/**
 	 * Removes the dictionary with the specified ID.
 	 * Fails silently if the dictionary does not exist.
@@ -59,4 +172,11 @@ public interface DictionaryService {
 	 */
 	void removeDictionary(DictionaryName name);
 	
+	/**
+	 * Returns the statistics of the dictionary cache.
+	 * Dictionaries are cached on first read and evicted when they are stored or removed.
+	 * @return the dictionary cache statistics.
+	 */
+	DictionaryCacheStatistics getCacheStatistics();
+	
 }
@@ -14,6 +14,8 @@ import java.util.Collections;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
+import javax.json.bind.annotation.JsonbTransient;
+
 /**
  * Dictionary settings.
  * <p>
@@ -58,10 +60,24 @@ public class DictionarySettings extends DictionaryInfo {
 			return this;
 		}
 		
+		/**
+		 * Sets the version of the dictionary the settings were read from.
+		 * @param version the dictionary version
+		 * @return a reference to this builder to continue with the object creation
+		 */
+		public Builder withVersion(DictionaryVersion version) {
+			assertNotInvalidated(getClass(), dictionary);
+			((DictionarySettings)dictionary).version = version;
+			return this;
+		}
+		
 	}
 	
 	private SortedSet<DictionaryEntry> entries;
 	
+	@JsonbTransient
+	private DictionaryVersion version;
+	
 	/**
 	 * Returns the entries of this dictionary as immutable list.
 	 * @return the dictionary entries.
@@ -70,5 +86,14 @@ public class DictionarySettings extends DictionaryInfo {
 		return unmodifiableSortedSet(entries);
 	}
 	
+	/**
+	 * Returns the version of the dictionary these settings were read from.
+	 * The version is not part of the JSON representation.
+	 * @return the dictionary version or <code>null</code> if the settings were not read from a stored dictionary.
+	 */
+	public DictionaryVersion getVersion() {
+		return version;
+	}
+	
 	
 }
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.service;
+
+import static io.leitstand.commons.model.BuilderUtil.assertNotInvalidated;
+import static java.lang.String.format;
+
+import java.util.Date;
+
+import io.leitstand.commons.model.ValueObject;
+
+/**
+ * The version of a dictionary.
+ * <p>
+ * The version consists of the modification count and the last-modification date of a dictionary
+ * and allows to test whether a dictionary was modified without reading the dictionary entries.
+ * </p>
+ */
+public class DictionaryVersion extends ValueObject {
+
+	/**
+	 * Returns a builder to create an immutable <code>DictionaryVersion</code> value object.
+	 * @return a builder to create a <code>DictionaryVersion</code> value object.
+	 */
+	public static Builder newDictionaryVersion() {
+		return new Builder();
+	}
+	
+	public static class Builder {
+		
+		private DictionaryVersion version = new DictionaryVersion();
+		
+		/**
+		 * Sets the dictionary ID.
+		 * @param dictionaryId the dictionary ID
+		 * @return a reference to this builder to continue with the object creation
+		 */
+		public Builder withDictionaryId(DictionaryId dictionaryId) {
+			assertNotInvalidated(getClass(), version);
+			version.dictionaryId = dictionaryId;
+			return this;
+		}
+		
+		/**
+		 * Sets the modification count.
+		 * @param modCount the modification count
+		 * @return a reference to this builder to continue with the object creation
+		 */
+		public Builder withModCount(int modCount) {
+			assertNotInvalidated(getClass(), version);
+			version.modCount = modCount;
+			return this;
+		}
+		
+		/**
+		 * Sets the last-modification date.
+		 * @param dateModified the last-modification date
+		 * @return a reference to this builder to continue with the object creation
+		 */
+		public Builder withDateModified(Date dateModified) {
+			assertNotInvalidated(getClass(), version);
+			version.dateModified = dateModified != null ? new Date(dateModified.getTime()) : null;
+			return this;
+		}
+		
+		public DictionaryVersion build() {
+			try {
+				assertNotInvalidated(getClass(), version);
+				return version;
+			} finally {
+				this.version = null;
+			}
+		}
+	}
+	
+	private DictionaryId dictionaryId;
+	private int modCount;
+	private Date dateModified;
+	
+	/**
+	 * Returns the dictionary ID.
+	 * @return the dictionary ID.
+	 */
+	public DictionaryId getDictionaryId() {
+		return dictionaryId;
+	}
+	
+	/**
+	 * Returns the modification count.
+	 * @return the modification count.
+	 */
+	public int getModCount() {
+		return modCount;
+	}
+	
+	/**
+	 * Returns the last-modification date.
+	 * @return the last-modification date or <code>null</code> if the date is unknown.
+	 */
+	public Date getDateModified() {
+		return dateModified != null ? new Date(dateModified.getTime()) : null;
+	}
+	
+	/**
+	 * Returns the entity tag of this dictionary version.
+	 * The entity tag changes whenever the dictionary is modified.
+	 * @return the entity tag of this dictionary version.
+	 */
+	public String getEtag() {
+		return format("%s-%d", dictionaryId, modCount);
+	}
+	
+}
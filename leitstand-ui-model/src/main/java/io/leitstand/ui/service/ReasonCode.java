@@ -14,6 +14,11 @@ public enum ReasonCode implements Reason{
 	LUI0001E_DICTIONARY_NOT_FOUND,
 	LUI0002I_DICTIONARY_STORED,
 	LUI0003I_DICTIONARY_REMOVED,
+	LUI0004E_DICTIONARY_MODIFIED,
+	LUI0005I_DICTIONARY_ENTRY_STORED,
+	LUI0006I_DICTIONARY_ENTRY_REMOVED,
+	LUI0007I_DICTIONARIES_IMPORTED,
+	LUI0008E_INVALID_DICTIONARY_IMPORT,
 	LUI0010I_TAG_NOT_FOUND;
 
 	private static final ResourceBundle MESSAGES = ResourceBundle.getBundle("UIMessages");
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.web;
+
+import static io.leitstand.ui.web.AssetManifest.VERSION;
+import static io.leitstand.ui.web.AssetManifest.assetManifest;
+import static java.lang.String.format;
+import static javax.servlet.http.HttpServletResponse.SC_NOT_MODIFIED;
+
+import java.io.IOException;
+import java.util.logging.Logger;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Sets the caching headers of static UI resources.
+ * <p>
+ * A resource requested with its current content hash in the <code>v</code> query parameter is immutable
+ * and can be cached for a year.
+ * All other resources listed in the {@link AssetManifest} must be revalidated on every use.
+ * The content hash is sent as strong entity tag to answer revalidation requests
+ * with <code>304 Not Modified</code> unless the resource has been modified.
+ * Requests for other resources are passed on unchanged.
+ * </p>
+ */
+@WebFilter(filterName="Assets", urlPatterns="/ui/*")
+public class AssetFilter implements Filter {
+
+    private static final Logger LOG = Logger.getLogger(AssetFilter.class.getName());
+
+    static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    static final String REVALIDATE = "no-cache";
+
+    private AssetManifest manifest;
+
+    @Override
+    public void init(FilterConfig config) {
+        // Compute the manifest at startup rather than on the first request.
+        manifest = assetManifest(config.getServletContext());
+        LOG.fine(() -> format("Computed content hashes of %d UI resources.", manifest.size()));
+    }
+
+    @Override
+    public void doFilter(ServletRequest req,
+                         ServletResponse resp,
+                         FilterChain chain) throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) req;
+        HttpServletResponse response = (HttpServletResponse) resp;
+        String method = request.getMethod();
+        if(!"GET".equals(method) && !"HEAD".equals(method)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String hash = manifest.getHash(path);
+        if(hash == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String etag = "\""+hash+"\"";
+        if(hash.equals(request.getParameter(VERSION))) {
+            response.setHeader("Cache-Control", IMMUTABLE);
+        } else {
+            response.setHeader("Cache-Control", REVALIDATE);
+            String ifNoneMatch = request.getHeader("If-None-Match");
+            if(ifNoneMatch != null && ifNoneMatch.contains(etag)) {
+                response.setHeader("ETag", etag);
+                response.setStatus(SC_NOT_MODIFIED);
+                return;
+            }
+        }
+        response.setHeader("ETag", etag);
+        chain.doFilter(request, response);
+    }
+
+    @Override
+    public void destroy() {
+        // Nothing to release
+    }
+
+}
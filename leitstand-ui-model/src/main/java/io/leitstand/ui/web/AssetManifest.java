@@ -0,0 +1,165 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.web;
+
+import static io.leitstand.ui.jsonb.JsonPayload.toJsonPayload;
+import static java.lang.String.format;
+import static java.util.Collections.unmodifiableSortedMap;
+import static java.util.logging.Level.WARNING;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+import javax.servlet.ServletContext;
+
+import io.leitstand.ui.jsonb.JsonPayload;
+
+/**
+ * The <code>AssetManifest</code> maps the path of every static UI resource to the content hash of the resource.
+ * <p>
+ * The manifest is computed once from all resources under <code>/ui/</code>,
+ * which includes the <code>META-INF/resources/ui</code> classpath resources of all UI modules.
+ * A resource requested with its content hash in the <code>v</code> query parameter can be cached forever,
+ * because a modified resource has a different content hash and hence a different URL.
+ * </p>
+ * @see AssetFilter
+ */
+public final class AssetManifest {
+
+    private static final Logger LOG = Logger.getLogger(AssetManifest.class.getName());
+
+    static final String ROOT = "/ui/";
+
+    static final String VERSION = "v";
+
+    private static final String ATTRIBUTE = AssetManifest.class.getName();
+
+    // Length of the content hash in characters. 16 base64 characters represent 96 bits.
+    private static final int HASH_LENGTH = 16;
+
+    /**
+     * Returns the asset manifest of the specified servlet context.
+     * The manifest is computed when it is requested the first time.
+     * @param context the servlet context
+     * @return the asset manifest of the servlet context
+     */
+    public static AssetManifest assetManifest(ServletContext context) {
+        synchronized (context) {
+            AssetManifest manifest = (AssetManifest) context.getAttribute(ATTRIBUTE);
+            if(manifest == null) {
+                manifest = new AssetManifest(context);
+                context.setAttribute(ATTRIBUTE, manifest);
+            }
+            return manifest;
+        }
+    }
+
+    private final SortedMap<String,String> hashes;
+    private final JsonPayload payload;
+
+    AssetManifest(ServletContext context) {
+        SortedMap<String,String> hashes = new TreeMap<>();
+        addResources(context, ROOT, hashes);
+        this.hashes = unmodifiableSortedMap(hashes);
+        this.payload = toJsonPayload(this.hashes);
+    }
+
+    private static void addResources(ServletContext context, String dir, SortedMap<String,String> hashes) {
+        Set<String> paths = context.getResourcePaths(dir);
+        if(paths == null) {
+            return;
+        }
+        for(String path : paths) {
+            if(path.endsWith("/")) {
+                addResources(context, path, hashes);
+                continue;
+            }
+            try(InputStream in = context.getResourceAsStream(path)){
+                if(in != null) {
+                    hashes.put(path, hash(in));
+                }
+            } catch (IOException e) {
+                LOG.log(WARNING, e, () -> format("Cannot compute content hash of %s: %s",
+                                                 path,
+                                                 e.getMessage()));
+            }
+        }
+    }
+
+    static String hash(InputStream in) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[8192];
+            for(int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+                digest.update(buffer, 0, n);
+            }
+            return Base64.getUrlEncoder()
+                         .withoutPadding()
+                         .encodeToString(digest.digest())
+                         .substring(0, HASH_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 support is mandatory for every Java platform.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the content hash of the specified resource or <code>null</code> if the resource is unknown.
+     * @param path the resource path
+     * @return the content hash or <code>null</code> if the resource is unknown.
+     */
+    public String getHash(String path) {
+        return hashes.get(path);
+    }
+
+    /**
+     * Returns the fingerprinted URL of the specified resource.
+     * Returns the path unchanged if the resource is unknown.
+     * @param path the resource path
+     * @return the fingerprinted URL of the resource.
+     */
+    public String fingerprint(String path) {
+        String hash = hashes.get(path);
+        if(hash == null) {
+            return path;
+        }
+        return path+"?"+VERSION+"="+hash;
+    }
+
+    /**
+     * Returns the number of resources in this manifest.
+     * @return the number of resources in this manifest.
+     */
+    public int size() {
+        return hashes.size();
+    }
+
+    /**
+     * Returns the JSON representation of this manifest, which maps the resource paths to the content hashes.
+     * @return the JSON representation of this manifest.
+     */
+    public JsonPayload getPayload() {
+        return payload;
+    }
+
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.web;
+
+import static io.leitstand.ui.web.AssetManifest.assetManifest;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.synchronizedMap;
+import static java.util.regex.Matcher.quoteReplacement;
+import static java.util.regex.Pattern.compile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.inject.Inject;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import io.leitstand.security.auth.UserContext;
+import io.leitstand.ui.jsonb.JsonPayload;
+import io.leitstand.ui.model.MainMenuService;
+import io.leitstand.ui.model.ModuleDescriptorService;
+
+/**
+ * Renders the Leitstand page for all Leitstand views.
+ * <p>
+ * The page is rendered from the <code>leitstand.html</code> template.
+ * The main menu and the descriptor of the requested module are inlined in the page
+ * to render the first view without further requests for the main menu and the module descriptor.
+ * The module descriptor only contains the menus and menu items the user is allowed to access,
+ * as determined by the scopes of the authenticated user in the {@link UserContext}.
+ * </p>
+ * <p>
+ * The rendered pages are cached by the entity tags of the inlined main menu and module descriptor.
+ * All users with the same module scopes share a rendered page,
+ * and a page is rendered again when the main menu or the module descriptor was reloaded.
+ * The page is user-specific and therefore sent as private response that must be revalidated.
+ * </p>
+ * <p>
+ * Stylesheets and classic scripts are referenced by their fingerprinted URLs from the {@link AssetManifest}.
+ * JavaScript modules keep their plain URLs, because a module imported by two different URLs is instantiated twice.
+ * The asset manifest is inlined in the page to let the module loader fingerprint the URLs of module templates.
+ * </p>
+ */
+@WebServlet(name="Leitstand", urlPatterns="/ui/views/*")
+public class LeitstandPage extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    static final String TEMPLATE = "/leitstand.html";
+
+    static final int MAX_PAGES = 64;
+
+    static final String PRIVATE_REVALIDATE = "private, "+AssetFilter.REVALIDATE;
+
+    private static final Pattern ASSET_ELEMENT = compile("<(?:script|link)\\b[^>]*>");
+
+    private static final Pattern ASSET_URL = compile("\\b(src|href)=\"(/ui/[^\"?#]+)\"");
+
+    // Rendered pages in least-recently-used order.
+    private final Map<String,byte[]> pages = synchronizedMap(new LinkedHashMap<String,byte[]>(16, 0.75f, true){
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String,byte[]> eldest) {
+            return size() > MAX_PAGES;
+        }
+    });
+
+    @Inject
+    private MainMenuService menu;
+
+    @Inject
+    private ModuleDescriptorService modules;
+
+    @Inject
+    private UserContext user;
+
+    private String template;
+
+    private String assets;
+
+    @Override
+    public void init() throws ServletException {
+        try (InputStream in = getServletContext().getResourceAsStream(TEMPLATE)){
+            if(in == null) {
+                throw new ServletException(TEMPLATE+" does not exist.");
+            }
+            ByteArrayOutputStream html = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            for(int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+                html.write(buffer, 0, n);
+            }
+            AssetManifest manifest = assetManifest(getServletContext());
+            template = fingerprintAssets(new String(html.toByteArray(), UTF_8), manifest);
+            assets = "<script type=\"application/json\" id=\"leitstand-assets\">"+inline(manifest.getPayload())+"</script>\n";
+        } catch (IOException e) {
+            throw new ServletException(e);
+        }
+    }
+
+    @Override
+    public void doGet(HttpServletRequest request,
+                      HttpServletResponse response)
+                      throws IOException {
+
+        JsonPayload mainMenu = menu.getMainMenuPayload();
+        String moduleName = moduleName(request.getPathInfo());
+        JsonPayload module = moduleName != null ? modules.getModuleDescriptorPayload(moduleName, user.getScopes()::contains) : null;
+
+        String key = module != null ? mainMenu.getEtag()+" "+moduleName+" "+module.getEtag() : mainMenu.getEtag();
+        byte[] page = pages.computeIfAbsent(key, k -> render(mainMenu, module));
+
+        // The page refers to the current fingerprinted resources and must therefore be revalidated.
+        // The inlined module descriptor depends on the user scopes, hence the page must not be stored by shared caches.
+        response.setHeader("Cache-Control", PRIVATE_REVALIDATE);
+        response.setContentType("text/html;charset=UTF-8");
+        response.setContentLength(page.length);
+        response.getOutputStream().write(page);
+    }
+
+    /**
+     * Returns the module name of a view path, i.e. the first segment of the path.
+     * @param path the view path
+     * @return the module name or <code>null</code> if the path does not refer to a module.
+     */
+    static String moduleName(String path) {
+        if(path == null || path.length() < 2) {
+            return null;
+        }
+        int slash = path.indexOf('/', 1);
+        return slash < 0 ? path.substring(1) : path.substring(1, slash);
+    }
+
+    /**
+     * Replaces the URLs of all stylesheets and classic scripts by their fingerprinted URLs.
+     * @param html the HTML page
+     * @param manifest the asset manifest
+     * @return the HTML page with fingerprinted URLs
+     */
+    static String fingerprintAssets(String html, AssetManifest manifest) {
+        StringBuffer page = new StringBuffer();
+        Matcher elements = ASSET_ELEMENT.matcher(html);
+        while(elements.find()) {
+            String element = elements.group();
+            if(!element.contains("type=\"module\"")) {
+                StringBuffer fingerprinted = new StringBuffer();
+                Matcher url = ASSET_URL.matcher(element);
+                while(url.find()) {
+                    url.appendReplacement(fingerprinted, 
+                                          quoteReplacement(url.group(1)+"=\""+manifest.fingerprint(url.group(2))+"\""));
+                }
+                url.appendTail(fingerprinted);
+                element = fingerprinted.toString();
+            }
+            elements.appendReplacement(page, quoteReplacement(element));
+        }
+        elements.appendTail(page);
+        return page.toString();
+    }
+
+    private byte[] render(JsonPayload mainMenu, JsonPayload module) {
+        StringBuilder data = new StringBuilder();
+        data.append("<script type=\"application/json\" id=\"leitstand-main-menu\">")
+            .append(inline(mainMenu))
+            .append("</script>\n");
+        if(module != null) {
+            data.append("<script type=\"application/json\" id=\"leitstand-module\">")
+                .append(inline(module))
+                .append("</script>\n");
+        }
+        data.append(assets);
+        int head = template.indexOf("</head>");
+        if(head < 0) {
+            return template.getBytes(UTF_8);
+        }
+        return new StringBuilder(template.length() + data.length())
+               .append(template, 0, head)
+               .append(data)
+               .append(template, head, template.length())
+               .toString()
+               .getBytes(UTF_8);
+    }
+
+    private static String inline(JsonPayload payload) {
+        // Escape all angle brackets to not end the script element prematurely.
+        // Angle brackets only occur in JSON strings, where they can be replaced by a unicode escape sequence.
+        return payload.toString().replace("<", "\\u003c");
+    }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.jsonb;
+
+import static io.leitstand.ui.jsonb.ContentEncoding.GZIP;
+import static io.leitstand.ui.jsonb.ContentEncoding.IDENTITY;
+import static io.leitstand.ui.jsonb.JsonPayload.jsonPayload;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+
+public class JsonPayloadTest {
+
+	private static byte[] json() {
+		StringBuilder json = new StringBuilder("[");
+		for(int i=0; i < 100; i++) {
+			json.append("{\"module\":\"module\"},");
+		}
+		json.append("{}]");
+		return json.toString().getBytes(UTF_8);
+	}
+
+	private static byte[] bytes(JsonPayload.Encoded encoded) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		encoded.writeTo(out);
+		return out.toByteArray();
+	}
+
+	@Test
+	public void select_identity_encoding_if_no_accept_encoding_header_is_present() {
+		JsonPayload payload = jsonPayload(json());
+		assertThat(payload.encodedFor(null).getEncoding(),is(IDENTITY));
+		assertThat(payload.encodedFor(null).getEtag(),is(payload.getEtag()));
+	}
+
+	@Test
+	public void select_gzip_encoding_if_accepted() {
+		JsonPayload payload = jsonPayload(json());
+		assertThat(payload.encodedFor("gzip, deflate").getEncoding(),is(GZIP));
+	}
+
+	@Test
+	public void select_identity_encoding_if_gzip_is_explicitly_refused() {
+		JsonPayload payload = jsonPayload(json());
+		assertThat(payload.encodedFor("gzip;q=0").getEncoding(),is(IDENTITY));
+	}
+
+	@Test
+	public void select_gzip_encoding_for_wildcard_if_brotli_is_not_available() {
+		JsonPayload payload = jsonPayload(json());
+		if(!ContentEncoding.BROTLI.isAvailable()) {
+			assertThat(payload.encodedFor("*").getEncoding(),is(GZIP));
+		}
+	}
+
+	@Test
+	public void gzip_encoding_has_distinct_entity_tag() {
+		JsonPayload payload = jsonPayload(json());
+		JsonPayload.Encoded gzip = payload.encodedFor("gzip");
+		assertThat(gzip.getEtag(),is(not(payload.getEtag())));
+		assertThat(gzip.getEtag(),is(payload.getEtag()+"-gzip"));
+	}
+
+	@Test
+	public void gzip_encoding_is_smaller_and_decompresses_to_original_payload() throws IOException {
+		JsonPayload payload = jsonPayload(json());
+		JsonPayload.Encoded gzip = payload.encodedFor("gzip");
+		assertThat(gzip.getLength() < payload.getLength(),is(true));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try(GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes(gzip)))){
+			byte[] buffer = new byte[1024];
+			for(int n = in.read(buffer); n > 0; n = in.read(buffer)) {
+				out.write(buffer,0,n);
+			}
+		}
+		assertArrayEquals(json(),out.toByteArray());
+	}
+
+	@Test
+	public void omit_encoding_if_it_does_not_reduce_payload_size() {
+		JsonPayload payload = jsonPayload("{}".getBytes(UTF_8));
+		assertThat(payload.encodedFor("gzip").getEncoding(),is(IDENTITY));
+	}
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static io.leitstand.ui.model.Contribution.loadContribution;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ContributionIndexTest {
+
+	private Contribution dns;
+	private Contribution topology;
+	private ContributionIndex index;
+
+	@Before
+	public void indexContributions() throws IOException {
+		dns = loadContribution(getClass().getResource("contrib-dns.yaml")).build();
+		topology = loadContribution(getClass().getResource("contrib-topology.yaml")).build();
+		index = ContributionIndex.index(asList(dns,topology));
+	}
+
+	@Test
+	public void index_contributors_by_module_in_contribution_order() {
+		assertEquals(asList(dns,topology),index.getContributors("inventory"));
+		assertEquals(asList(topology),index.getContributors("admin"));
+	}
+
+	@Test
+	public void index_extensions_by_module_in_contribution_order() {
+		assertEquals(asList(dns.getExtensions().get(1),
+							topology.getExtensions().get(0)),
+					 index.getExtensions("inventory"));
+		assertEquals(asList(topology.getExtensions().get(1)),
+					 index.getExtensions("admin"));
+	}
+
+	@Test
+	public void index_main_menu_extensions() {
+		assertEquals(asList(dns.getExtensions().get(0)),
+					 index.getMainMenuExtensions());
+	}
+
+	@Test
+	public void return_empty_lists_for_unknown_module() {
+		assertTrue(index.getContributors("unknown").isEmpty());
+		assertTrue(index.getExtensions("unknown").isEmpty());
+	}
+
+}
@@ -2,6 +2,7 @@ package io.leitstand.ui.model;
 
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
@@ -298,4 +299,118 @@ public class ContributionSorterTest {
 	}
 
 	
+	@Test
+	public void report_unresolved_constraint() {
+		List<Named> items = items(named("a"),
+								  named("b"),
+								  named("c"));
+		points = new LinkedHashMap<>();
+		points.put(named("c"),asList(new ExtensionPoint().after("unknown")));
+		
+		sorter = new ExtensionSorter<>(points, items);
+		sorter.sort();
+		
+		assertEquals(1,sorter.getDiagnostics().size());
+		assertTrue(sorter.getDiagnostics().get(0).startsWith("UIM0006W"));
+	}
+	
+	@Test
+	public void report_ignored_constraint() {
+		List<Named> items = items(named("a"),
+								  named("b"),
+								  named("c"));
+		points = new LinkedHashMap<>();
+		points.put(named("c"),asList(new ExtensionPoint().after("a"),
+									 new ExtensionPoint().before("b")));
+		
+		sorter = new ExtensionSorter<>(points, items);
+		
+		assertEquals(asList(named("a"),
+							named("c"),
+							named("b")),
+					 sorter.sort());
+		assertEquals(1,sorter.getDiagnostics().size());
+		assertTrue(sorter.getDiagnostics().get(0).startsWith("UIM0008W"));
+	}
+	
+	@Test
+	public void report_constraint_cycle() {
+		List<Named> items = items(named("a"),
+								  named("b"),
+								  named("c"));
+		points = new LinkedHashMap<>();
+		points.put(named("a"),asList(new ExtensionPoint().after("c")));
+		points.put(named("b"),asList(new ExtensionPoint().after("a")));
+		points.put(named("c"),asList(new ExtensionPoint().after("b")));
+		
+		sorter = new ExtensionSorter<>(points, items);
+		sorter.sort();
+		
+		assertEquals(1,sorter.getDiagnostics().size());
+		assertTrue(sorter.getDiagnostics().get(0).startsWith("UIM0005W"));
+	}
+	
+	@Test
+	public void arrange_chained_contributions() {
+		List<Named> items = items(named("a"),
+								  named("b"),
+								  named("e"));
+		//Add contributions
+		items.add(named("d"));
+		items.add(named("c"));
+		points = new LinkedHashMap<>();
+		points.put(named("c"),asList(new ExtensionPoint().after("b")));
+		points.put(named("d"),asList(new ExtensionPoint().after("c")));
+		
+		sorter = new ExtensionSorter<>(points, items);
+		
+		assertEquals(asList(named("a"),
+							named("b"),
+							named("c"),
+							named("d"),
+							named("e")),
+					 sorter.sort());
+		assertTrue(sorter.getDiagnostics().isEmpty());
+	}
+	
+	@Test
+	public void preserve_original_order_of_items_with_same_constraint() {
+		List<Named> items = items(named("a"),
+								  named("b"));
+		//Add contributions
+		items.add(named("c"));
+		items.add(named("d"));
+		points = new LinkedHashMap<>();
+		points.put(named("d"),asList(new ExtensionPoint().after("a")));
+		points.put(named("c"),asList(new ExtensionPoint().after("a")));
+		
+		sorter = new ExtensionSorter<>(points, items);
+		
+		assertEquals(asList(named("a"),
+							named("c"),
+							named("d"),
+							named("b")),
+					 sorter.sort());
+	}
+	
+	@Test
+	public void arrange_long_constraint_chain() {
+		// Every item is placed before its predecessor, i.e. the chain reverses the original order.
+		List<Named> items = new LinkedList<>();
+		List<Named> expected = new LinkedList<>();
+		points = new LinkedHashMap<>();
+		for(int i=0; i < 10000; i++) {
+			Named item = named("item-"+i);
+			items.add(item);
+			expected.add(0,item);
+			if(i > 0) {
+				points.put(item,asList(new ExtensionPoint().before("item-"+(i-1))));
+			}
+		}
+		
+		sorter = new ExtensionSorter<>(points, items);
+		
+		assertEquals(expected,sorter.sort());
+	}
+	
 }
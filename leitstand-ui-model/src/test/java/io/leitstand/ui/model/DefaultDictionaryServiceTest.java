@@ -3,6 +3,9 @@
  */
 package io.leitstand.ui.model;
 
+import static io.leitstand.commons.model.ObjectUtil.asSet;
+import static io.leitstand.ui.model.DefaultDictionaryService.isLiteral;
+import static io.leitstand.ui.model.InvalidationChannel.DICTIONARIES;
 import static io.leitstand.ui.service.DictionaryEntry.newDictionaryEntry;
 import static io.leitstand.ui.service.DictionaryId.randomDictionaryId;
 import static io.leitstand.ui.service.DictionaryName.dictionaryName;
@@ -11,14 +14,20 @@ import static io.leitstand.ui.service.ReasonCode.LUI0001E_DICTIONARY_NOT_FOUND;
 import static io.leitstand.ui.service.ReasonCode.LUI0002I_DICTIONARY_STORED;
 import static io.leitstand.ui.service.ReasonCode.LUI0003I_DICTIONARY_REMOVED;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
+import javax.enterprise.event.Event;
+
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -26,6 +35,7 @@ import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import io.leitstand.commons.EntityNotFoundException;
@@ -33,6 +43,7 @@ import io.leitstand.commons.messages.Message;
 import io.leitstand.commons.messages.Messages;
 import io.leitstand.commons.model.Query;
 import io.leitstand.commons.model.Repository;
+import io.leitstand.commons.model.Update;
 import io.leitstand.testing.ut.LeitstandCoreMatchers;
 import io.leitstand.ui.service.DictionaryService;
 import io.leitstand.ui.service.DictionarySettings;
@@ -49,6 +60,15 @@ public class DefaultDictionaryServiceTest {
 	@Mock
 	private Messages messages;
 	
+	@Spy
+	private DictionaryCache cache = new DictionaryCache();
+	
+	@Mock
+	private Event<DictionaryChangedEvent> changes;
+	
+	@Mock
+	private InvalidationChannel channel;
+	
 	@InjectMocks
 	private  DictionaryService service = new DefaultDictionaryService();
 
@@ -167,9 +187,103 @@ public class DefaultDictionaryServiceTest {
 		
 		verify(dict).setDictionaryName(settings.getDictionaryName());
 		verify(dict).setDescription(settings.getDescription());
-		verify(dict).setEntries(settings.getEntries());
+		verify(dict,never()).setEntries(settings.getEntries());
+		verify(repository).execute(any(Update.class));
 		assertEquals(LUI0002I_DICTIONARY_STORED.getReasonCode(),sentMessage.getValue().getReason());
 	}
 	
+	@Test
+	public void merge_entries_under_dictionary_lock() {
+		
+		DictionarySettings settings = newDictionarySettings()
+								  	  .withDictionaryId(randomDictionaryId())
+								  	  .withDictionaryName(dictionaryName("dictionary"))
+								  	  .withEntries(newDictionaryEntry()
+								  			  	   .withLabel("Option A")
+								  			  	   .withValue("a"))
+								  	  .build();
+
+		Dictionary dict = mock(Dictionary.class);
+		when(dict.getEntries()).thenReturn(settings.getEntries());
+		when(repository.execute(any(Query.class))).thenReturn(dict);
+		
+		service.storeDictionary(settings);
+		
+		// The loaded entries might be outdated. The diff is computed from the entries read under the lock.
+		verify(dict,never()).setEntries(settings.getEntries());
+		verify(repository).execute(any(Update.class));
+	}
+	
+	
+	@Test
+	public void read_dictionary_from_cache() {
+		Dictionary dict = new Dictionary(randomDictionaryId(), dictionaryName("dict"));
+		when(repository.execute(any(Query.class))).thenReturn(dict);
+		
+		DictionarySettings settings = service.getDictionary(dict.getDictionaryId());
+		
+		assertSame(settings, service.getDictionary(dict.getDictionaryId()));
+		assertSame(settings, service.getDictionary(dict.getDictionaryName()));
+		verify(repository,times(1)).execute(any(Query.class));
+		assertEquals(2,service.getCacheStatistics().getHits());
+		assertEquals(1,service.getCacheStatistics().getMisses());
+	}
+	
+	@Test
+	public void evict_stored_dictionary_by_previous_and_new_name() {
+		Dictionary dict = new Dictionary(randomDictionaryId(), dictionaryName("dict"));
+		when(repository.execute(any(Query.class))).thenReturn(dict);
+		ArgumentCaptor<DictionaryChangedEvent> change = ArgumentCaptor.forClass(DictionaryChangedEvent.class);
+		doNothing().when(changes).fire(change.capture());
+		
+		service.storeDictionary(newDictionarySettings()
+								.withDictionaryId(dict.getDictionaryId())
+								.withDictionaryName(dictionaryName("renamed"))
+								.build());
+		
+		assertEquals(dict.getDictionaryId(),change.getValue().getDictionaryId());
+		assertEquals(asSet(dictionaryName("dict"),dictionaryName("renamed")),
+					 change.getValue().getDictionaryNames());
+	}
+	
+	@Test
+	public void evict_removed_dictionary() {
+		Dictionary dict = new Dictionary(randomDictionaryId(), dictionaryName("dict"));
+		when(repository.execute(any(Query.class))).thenReturn(dict);
+		ArgumentCaptor<DictionaryChangedEvent> change = ArgumentCaptor.forClass(DictionaryChangedEvent.class);
+		doNothing().when(changes).fire(change.capture());
+		
+		service.removeDictionary(dict.getDictionaryId());
+		
+		assertEquals(dict.getDictionaryId(),change.getValue().getDictionaryId());
+		assertEquals(asSet(dictionaryName("dict")),
+					 change.getValue().getDictionaryNames());
+	}
+	
+	@Test
+	public void publish_stored_dictionary_to_other_nodes() {
+		Dictionary dict = new Dictionary(randomDictionaryId(), dictionaryName("dict"));
+		when(repository.execute(any(Query.class))).thenReturn(dict);
+		
+		service.storeDictionary(newDictionarySettings()
+								.withDictionaryId(dict.getDictionaryId())
+								.withDictionaryName(dictionaryName("renamed"))
+								.build());
+		
+		verify(channel).publish(DICTIONARIES, 
+								asSet(dict.getDictionaryId().getValue(),
+									  "dict",
+									  "renamed"));
+	}
+	
+	@Test
+	public void match_filter_without_regex_metacharacters_as_substring() {
+		assertTrue(isLiteral("site_codes"));
+		assertFalse(isLiteral("^site"));
+		assertFalse(isLiteral("site.*"));
+		assertFalse(isLiteral("a|b"));
+		assertFalse(isLiteral(""));
+		assertFalse(isLiteral(null));
+	}
 	
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static io.leitstand.commons.model.ObjectUtil.asSet;
+import static io.leitstand.ui.model.InvalidationChannel.TAGS;
+import static io.leitstand.ui.service.TagInfo.newTagInfo;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javax.enterprise.event.Event;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.leitstand.commons.db.DatabaseService;
+import io.leitstand.ui.service.TagInfo;
+
+public class DefaultTagServiceTest {
+
+	private DatabaseService db;
+	private InvalidationChannel channel;
+	private Event<TagChangedEvent> changes;
+	private DefaultTagService service;
+	
+	@Before
+	@SuppressWarnings("unchecked")
+	public void initTestEnvironment() {
+		db = mock(DatabaseService.class);
+		channel = mock(InvalidationChannel.class);
+		changes = mock(Event.class);
+		service = new DefaultTagService(db, channel, new TagCatalog(db, channel), changes, 2);
+	}
+	
+	private static TagInfo tag(String name, String color) {
+		return newTagInfo()
+			   .withName(name)
+			   .withColor(color)
+			   .build();
+	}
+	
+	@Test
+	public void store_tags_in_batches() {
+		Set<TagInfo> tags = new LinkedHashSet<>();
+		tags.add(tag("a","red"));
+		tags.add(tag("b","green"));
+		tags.add(tag("c","blue"));
+		
+		service.storeTags(tags);
+		
+		verify(db,times(2)).executeUpdate(any());
+		verify(channel).publish(TAGS, asSet("a","b","c"));
+		verify(changes).fire(any(TagChangedEvent.class));
+	}
+	
+	@Test
+	public void store_each_tag_once() {
+		Set<TagInfo> tags = new LinkedHashSet<>();
+		tags.add(tag("a","red"));
+		tags.add(tag("a","green"));
+		
+		service.storeTags(tags);
+		
+		verify(db,times(1)).executeUpdate(any());
+		verify(channel).publish(TAGS, asSet("a"));
+	}
+	
+	@Test
+	public void store_single_tag() {
+		service.storeTag(tag("a","red"));
+		
+		verify(db).executeUpdate(any());
+	}
+	
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static io.leitstand.ui.model.Contribution.loadContribution;
+import static io.leitstand.ui.model.DescriptorSnapshot.SNAPSHOT;
+import static io.leitstand.ui.model.DescriptorSnapshot.entry;
+import static io.leitstand.ui.model.DescriptorSnapshot.readResolved;
+import static io.leitstand.ui.model.DescriptorSnapshot.readSnapshot;
+import static io.leitstand.ui.model.DescriptorSnapshot.rootLength;
+import static io.leitstand.ui.model.DescriptorSnapshot.sha256;
+import static io.leitstand.ui.model.DescriptorSnapshot.writeSnapshot;
+import static io.leitstand.ui.model.DescriptorSnapshotCompiler.CONTRIBUTIONS;
+import static io.leitstand.ui.model.DescriptorSnapshotCompiler.MODULES;
+import static io.leitstand.ui.model.DescriptorSnapshotCompiler.compile;
+import static io.leitstand.ui.model.ModuleDescriptor.newModuleDescriptor;
+import static io.leitstand.ui.model.ModuleDescriptor.readModuleDescriptor;
+import static io.leitstand.ui.model.ModuleMenu.newModuleMenu;
+import static io.leitstand.ui.model.ModuleMenuItem.newModuleMenuItem;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DescriptorSnapshotTest {
+	
+	private static final String MODULE_YAML = "META-INF/resources/ui/modules/unittest/module.yaml";
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	private byte[] yaml;
+	private ModuleDescriptor module;
+	
+	@Before
+	public void createModule() {
+		yaml = "module: unittest".getBytes(UTF_8);
+		module = newModuleDescriptor()
+				 .withName("unittest")
+				 .withMenus(newModuleMenu()
+						 	.withName("menu")
+						 	.withItems(newModuleMenuItem()
+						 			   .withName("item")
+						 			   .withView("view.html")))
+				 .build();
+	}
+	
+	private DescriptorSnapshot roundtrip() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		writeSnapshot(singletonMap(MODULE_YAML, entry(yaml,module)), out);
+		return readSnapshot(new ByteArrayInputStream(out.toByteArray()));
+	}
+	
+	@Test
+	public void read_written_snapshot() throws IOException {
+		DescriptorSnapshot snapshot = roundtrip();
+		assertEquals(1,snapshot.size());
+		ModuleDescriptor restored = snapshot.lookup(MODULE_YAML, sha256(yaml), ModuleDescriptor.class);
+		assertEquals("unittest",restored.getModule());
+		assertEquals("menu",restored.getMenus().get(0).getMenu());
+		assertEquals("view.html",restored.getMenus().get(0).getItems().get(0).getView());
+	}
+	
+	@Test
+	public void return_new_instance_for_every_lookup() throws IOException {
+		DescriptorSnapshot snapshot = roundtrip();
+		assertNotSame(snapshot.lookup(MODULE_YAML, sha256(yaml), ModuleDescriptor.class),
+					  snapshot.lookup(MODULE_YAML, sha256(yaml), ModuleDescriptor.class));
+	}
+	
+	@Test
+	public void ignore_stale_entry() throws IOException {
+		DescriptorSnapshot snapshot = roundtrip();
+		assertNull(snapshot.lookup(MODULE_YAML, sha256("module: modified".getBytes(UTF_8)), ModuleDescriptor.class));
+	}
+	
+	@Test
+	public void ignore_unknown_entry() throws IOException {
+		DescriptorSnapshot snapshot = roundtrip();
+		assertNull(snapshot.lookup("META-INF/resources/ui/modules/unknown/module.yaml", sha256(yaml), ModuleDescriptor.class));
+	}
+	
+	@Test(expected=IOException.class)
+	public void reject_snapshot_of_other_descriptor_model() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		writeSnapshot(singletonMap(MODULE_YAML, entry(yaml,module)), new byte[32], out);
+		readSnapshot(new ByteArrayInputStream(out.toByteArray()));
+	}
+	
+	@Test
+	public void read_resolved_module_descriptor_from_artifact() throws IOException {
+		Path root = folder.getRoot().toPath();
+		Path descriptor = root.resolve("META-INF/resources/ui/modules/inventory/module.yaml");
+		Files.createDirectories(descriptor.getParent());
+		Files.write(descriptor, ("module: inventory\n"+
+								 "menus:\n"+
+								 "- menu: element\n"+
+								 "  label: Element\n"+
+								 "  items:\n"+
+								 "  - item: configuration\n"+
+								 "    label: Configuration\n"+
+								 "    view: element-config.html\n").getBytes(UTF_8));
+		Path menu = root.resolve("META-INF/resources/ui/modules/dns/menu.yaml");
+		Files.createDirectories(menu.getParent());
+		Files.write(menu, ("name: dns\n"+
+						   "controller: controller.js\n"+
+						   "extensions:\n"+
+						   "- extend:\n"+
+						   "    module: inventory\n"+
+						   "    menu: element\n"+
+						   "    after: configuration\n"+
+						   "  items:\n"+
+						   "  - item: dns\n"+
+						   "    label: DNS\n"+
+						   "    view: element-dns-records.html\n").getBytes(UTF_8));
+		assertEquals(3,compile(root, root.resolve(SNAPSHOT), MODULES, CONTRIBUTIONS));
+		
+		ModuleDescriptor template = readModuleDescriptor(descriptor.toUri().toURL()).build();
+		Contribution contrib = loadContribution(menu.toUri().toURL()).build();
+		ModuleDescriptor resolved = readResolved(template, asList(contrib));
+		assertEquals("dns",resolved.getApplications().iterator().next().getApplication());
+		assertEquals("configuration",resolved.getMenus().get(0).getItems().get(0).getItem());
+		assertEquals("dns",resolved.getMenus().get(0).getItems().get(1).getItem());
+		
+		// Different or modified contributions are resolved at runtime.
+		assertNull(readResolved(template, emptyList()));
+		assertNull(readResolved(template, asList(loadContribution(menu.toUri().toURL()).withName("modified").build())));
+	}
+	
+	@Test(expected=IOException.class)
+	public void reject_unknown_format() throws IOException {
+		readSnapshot(new ByteArrayInputStream("module: unittest".getBytes(UTF_8)));
+	}
+	
+	@Test
+	public void determine_artifact_root() {
+		String jar = "jar:file:/opt/leitstand/ui.jar!/";
+		assertEquals(jar.length(),rootLength(jar+MODULE_YAML));
+		String dir = "file:/opt/leitstand/classes/";
+		assertEquals(dir.length(),rootLength(dir+MODULE_YAML));
+		assertEquals(-1,rootLength("file:/opt/leitstand/module.yaml"));
+	}
+	
+	@Test
+	public void read_precompiled_module_descriptor_from_artifact() throws IOException {
+		Path root = folder.getRoot().toPath();
+		Path descriptor = root.resolve(MODULE_YAML);
+		Files.createDirectories(descriptor.getParent());
+		Files.write(descriptor, yaml);
+		Path snapshot = root.resolve(SNAPSHOT);
+		Files.createDirectories(snapshot.getParent());
+		try (OutputStream out = Files.newOutputStream(snapshot)){
+			writeSnapshot(singletonMap(MODULE_YAML, entry(yaml,module)), out);
+		}
+		
+		ModuleDescriptor restored = readModuleDescriptor(descriptor.toUri().toURL()).build();
+		assertEquals("unittest",restored.getModule());
+		assertEquals(1,restored.getMenus().size());
+	}
+	
+}
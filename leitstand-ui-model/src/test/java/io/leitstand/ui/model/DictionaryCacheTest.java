@@ -0,0 +1,217 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static io.leitstand.ui.model.InvalidationChannel.DICTIONARIES;
+import static io.leitstand.ui.service.DictionaryId.randomDictionaryId;
+import static io.leitstand.ui.service.DictionaryName.dictionaryName;
+import static io.leitstand.ui.service.DictionarySettings.newDictionarySettings;
+import static io.leitstand.ui.service.DictionaryVersion.newDictionaryVersion;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.leitstand.ui.service.DictionaryCacheStatistics;
+import io.leitstand.ui.service.DictionarySettings;
+import io.leitstand.ui.service.DictionaryVersion;
+
+public class DictionaryCacheTest {
+
+	private DictionaryCache cache;
+	private DictionarySettings settings;
+	private AtomicInteger loads;
+	
+	@Before
+	public void initCache() {
+		cache = new DictionaryCache();
+		settings = newDictionarySettings()
+				   .withDictionaryId(randomDictionaryId())
+				   .withDictionaryName(dictionaryName("dict"))
+				   .build();
+		loads = new AtomicInteger();
+	}
+	
+	private DictionarySettings load(Object key) {
+		loads.incrementAndGet();
+		return settings;
+	}
+	
+	private DictionaryVersion loadVersion(Object key) {
+		loads.incrementAndGet();
+		return newDictionaryVersion()
+			   .withDictionaryId(settings.getDictionaryId())
+			   .withModCount(loads.get())
+			   .build();
+	}
+	
+	@Test
+	public void cache_dictionary_by_id_and_name() {
+		assertSame(settings,cache.getDictionary(settings.getDictionaryId(), this::load));
+		assertSame(settings,cache.getDictionary(settings.getDictionaryId(), this::load));
+		assertSame(settings,cache.getDictionary(settings.getDictionaryName(), this::load));
+		assertEquals(1,loads.get());
+		
+		DictionaryCacheStatistics stats = cache.getStatistics();
+		assertEquals(1,stats.getSize());
+		assertEquals(2,stats.getHits());
+		assertEquals(1,stats.getMisses());
+		assertEquals(0,stats.getEvictions());
+	}
+	
+	@Test
+	public void evict_dictionary_by_id() {
+		cache.getDictionary(settings.getDictionaryName(), this::load);
+		
+		cache.evict(new DictionaryChangedEvent(settings.getDictionaryId()));
+		
+		cache.getDictionary(settings.getDictionaryName(), this::load);
+		assertEquals(2,loads.get());
+		assertEquals(1,cache.getStatistics().getEvictions());
+	}
+	
+	@Test
+	public void evict_dictionary_by_name() {
+		cache.getDictionary(settings.getDictionaryId(), this::load);
+		
+		cache.evict(new DictionaryChangedEvent(randomDictionaryId(), settings.getDictionaryName()));
+		
+		cache.getDictionary(settings.getDictionaryId(), this::load);
+		assertEquals(2,loads.get());
+		assertEquals(1,cache.getStatistics().getEvictions());
+	}
+	
+	@Test
+	public void do_not_cache_dictionary_loaded_concurrently_to_eviction() {
+		cache.getDictionary(settings.getDictionaryId(), id -> {
+			// Simulate a dictionary modification while the dictionary is loaded.
+			cache.evict(new DictionaryChangedEvent(settings.getDictionaryId(), settings.getDictionaryName()));
+			return load(id);
+		});
+		
+		assertEquals(0,cache.getStatistics().getSize());
+		cache.getDictionary(settings.getDictionaryId(), this::load);
+		assertEquals(2,loads.get());
+		assertEquals(1,cache.getStatistics().getSize());
+	}
+	
+	@Test
+	public void evict_dictionary_invalidated_on_other_node() {
+		InvalidationChannel channel = new InMemoryInvalidationChannel();
+		DictionaryCache node1 = new DictionaryCache(channel);
+		DictionaryCache node2 = new DictionaryCache(channel);
+		node1.subscribe();
+		node2.subscribe();
+		node1.getDictionary(settings.getDictionaryId(), this::load);
+		node2.getDictionary(settings.getDictionaryName(), this::load);
+		
+		channel.publish(DICTIONARIES, singleton(settings.getDictionaryName().getValue()));
+		
+		assertEquals(0,node1.getStatistics().getSize());
+		assertEquals(0,node2.getStatistics().getSize());
+		assertEquals(1,node2.getStatistics().getEvictions());
+	}
+	
+	@Test
+	public void evict_all_dictionaries_on_empty_invalidation() {
+		cache.getDictionary(settings.getDictionaryId(), this::load);
+		
+		cache.evictKeys(emptySet());
+		
+		assertEquals(0,cache.getStatistics().getSize());
+		cache.getDictionary(settings.getDictionaryName(), this::load);
+		assertEquals(2,loads.get());
+	}
+	
+	@Test
+	public void load_all_missing_dictionaries_at_once() {
+		DictionarySettings other = newDictionarySettings()
+				   				   .withDictionaryId(randomDictionaryId())
+				   				   .withDictionaryName(dictionaryName("other"))
+				   				   .build();
+		cache.getDictionary(settings.getDictionaryName(), this::load);
+		
+		List<DictionarySettings> dictionaries = cache.getDictionariesByName(asList(dictionaryName("other"),
+																				   dictionaryName("unknown"),
+																				   settings.getDictionaryName()), 
+																			names -> {
+																				assertEquals(2,names.size());
+																				return asList(other);
+																			});
+		
+		assertEquals(asList(other,settings),dictionaries);
+		assertEquals(asList(other),cache.getDictionariesById(asList(other.getDictionaryId()), 
+															 ids -> emptyList()));
+		DictionaryCacheStatistics stats = cache.getStatistics();
+		assertEquals(2,stats.getSize());
+		assertEquals(2,stats.getHits());
+		assertEquals(3,stats.getMisses());
+	}
+	
+	@Test
+	public void cache_dictionary_version_by_id_and_name() {
+		DictionaryVersion version = cache.getVersion(settings.getDictionaryId(), this::loadVersion);
+		assertSame(version,cache.getVersion(settings.getDictionaryId(), this::loadVersion));
+		cache.getVersion(settings.getDictionaryName(), this::loadVersion);
+		cache.getVersion(settings.getDictionaryName(), this::loadVersion);
+		assertEquals(2,loads.get());
+	}
+	
+	@Test
+	public void evict_dictionary_version_by_id() {
+		cache.getVersion(settings.getDictionaryId(), this::loadVersion);
+		cache.getVersion(settings.getDictionaryName(), this::loadVersion);
+		
+		cache.evict(new DictionaryChangedEvent(settings.getDictionaryId()));
+		
+		cache.getVersion(settings.getDictionaryId(), this::loadVersion);
+		cache.getVersion(settings.getDictionaryName(), this::loadVersion);
+		assertEquals(4,loads.get());
+	}
+	
+	@Test
+	public void evict_dictionary_version_by_name() {
+		cache.getVersion(settings.getDictionaryId(), this::loadVersion);
+		cache.getVersion(settings.getDictionaryName(), this::loadVersion);
+		
+		cache.evict(new DictionaryChangedEvent(randomDictionaryId(), settings.getDictionaryName()));
+		
+		cache.getVersion(settings.getDictionaryId(), this::loadVersion);
+		cache.getVersion(settings.getDictionaryName(), this::loadVersion);
+		assertEquals(4,loads.get());
+	}
+	
+	@Test
+	public void evict_dictionary_version_invalidated_on_other_node() {
+		cache.getVersion(settings.getDictionaryId(), this::loadVersion);
+		cache.getVersion(settings.getDictionaryName(), this::loadVersion);
+		
+		cache.evictKeys(singleton(settings.getDictionaryName().getValue()));
+		
+		cache.getVersion(settings.getDictionaryId(), this::loadVersion);
+		cache.getVersion(settings.getDictionaryName(), this::loadVersion);
+		assertEquals(4,loads.get());
+	}
+	
+}
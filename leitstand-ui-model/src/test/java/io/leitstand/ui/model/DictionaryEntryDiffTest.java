@@ -0,0 +1,187 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static io.leitstand.ui.model.DictionaryEntryDiff.BATCH_SIZE;
+import static io.leitstand.ui.model.DictionaryEntryDiff.INSERT;
+import static io.leitstand.ui.model.DictionaryEntryDiff.SELECT;
+import static io.leitstand.ui.model.DictionaryEntryDiff.TOUCH;
+import static io.leitstand.ui.model.DictionaryEntryDiff.UPDATE;
+import static io.leitstand.ui.model.DictionaryEntryDiff.diff;
+import static io.leitstand.ui.model.DictionaryEntryDiff.mergeEntries;
+import static io.leitstand.ui.model.DictionaryEntryUpdate.LOCK;
+import static io.leitstand.ui.service.DictionaryEntry.newDictionaryEntry;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySortedSet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.leitstand.commons.jpa.BooleanConverter;
+import io.leitstand.ui.service.DictionaryEntry;
+
+public class DictionaryEntryDiffTest {
+
+	private Connection connection;
+	private PreparedStatement write;
+	private ResultSet persisted;
+	private EntityManager em;
+	private Dictionary dict;
+	
+	@Before
+	public void initTransaction() throws SQLException {
+		connection = mock(Connection.class);
+		write = mock(PreparedStatement.class);
+		when(connection.prepareStatement(anyString())).thenReturn(write);
+		when(write.executeBatch()).thenReturn(new int[] {1});
+		
+		PreparedStatement lock = mock(PreparedStatement.class);
+		ResultSet version = mock(ResultSet.class);
+		when(connection.prepareStatement(LOCK)).thenReturn(lock);
+		when(lock.executeQuery()).thenReturn(version);
+		when(version.next()).thenReturn(true);
+		
+		PreparedStatement select = mock(PreparedStatement.class);
+		persisted = mock(ResultSet.class);
+		when(connection.prepareStatement(SELECT)).thenReturn(select);
+		when(select.executeQuery()).thenReturn(persisted);
+		// The persisted entries consist of entry a with label A.
+		when(persisted.next()).thenReturn(true,false);
+		when(persisted.getString(1)).thenReturn("a");
+		when(persisted.getString(2)).thenReturn("A");
+		when(persisted.getString(3)).thenReturn(new BooleanConverter().convertToDatabaseColumn(false));
+		
+		em = mock(EntityManager.class);
+		when(em.unwrap(Connection.class)).thenReturn(connection);
+		EntityManagerFactory emf = mock(EntityManagerFactory.class);
+		when(em.getEntityManagerFactory()).thenReturn(emf);
+		when(emf.getCache()).thenReturn(mock(Cache.class));
+		
+		dict = mock(Dictionary.class);
+		when(dict.getId()).thenReturn(1L);
+	}
+
+	private static DictionaryEntry entry(String value, String label) {
+		return newDictionaryEntry()
+			   .withValue(value)
+			   .withLabel(label)
+			   .build();
+	}
+	
+	@Test
+	public void unmodified_entries_result_in_empty_diff() {
+		DictionaryEntryDiff diff = diff(asList(entry("a","A"),entry("b","B")),
+										asList(entry("b","B"),entry("a","A")));
+		assertTrue(diff.isEmpty());
+		assertFalse(diff.isReplaceAll());
+	}
+	
+	@Test
+	public void compute_inserted_updated_and_removed_entries() {
+		DictionaryEntryDiff diff = diff(asList(entry("a","A"),entry("b","B"),entry("c","C")),
+										asList(entry("a","A"),entry("b","Option B"),entry("d","D")));
+		assertFalse(diff.isReplaceAll());
+		assertEquals(asList(entry("d","D")),diff.getInserted());
+		assertEquals(asList(entry("b","Option B")),diff.getUpdated());
+		assertEquals(asList(entry("c","C")),diff.getRemoved());
+	}
+	
+	@Test
+	public void detect_modified_default_flag() {
+		DictionaryEntry entry = newDictionaryEntry()
+								.withValue("a")
+								.withLabel("A")
+								.withDefaultValue(true)
+								.build();
+		DictionaryEntryDiff diff = diff(asList(entry("a","A")),
+										asList(entry));
+		assertEquals(asList(entry),diff.getUpdated());
+	}
+	
+	@Test
+	public void replace_all_entries_if_values_are_ambiguous() {
+		DictionaryEntryDiff diff = diff(asList(entry("a","A")),
+										asList(entry("b","B"),entry("b","Option B")));
+		assertTrue(diff.isReplaceAll());
+		assertEquals(asList(entry("b","B"),entry("b","Option B")),diff.getInserted());
+		assertEquals(asList(entry("a","A")),diff.getRemoved());
+	}
+	
+	@Test
+	public void write_inserted_entries_in_batches() throws SQLException {
+		List<DictionaryEntry> entries = new ArrayList<>();
+		for(int i=0; i < 2*BATCH_SIZE+1; i++) {
+			entries.add(entry("value-"+i,"label-"+i));
+		}
+		Connection connection = mock(Connection.class);
+		PreparedStatement stmt = mock(PreparedStatement.class);
+		when(connection.prepareStatement(anyString())).thenReturn(stmt);
+		when(stmt.executeBatch()).thenReturn(new int[BATCH_SIZE]);
+		
+		diff(emptyList(),entries).apply(connection, 1L, false);
+		
+		verify(connection).prepareStatement(anyString());
+		verify(stmt,times(entries.size())).addBatch();
+		verify(stmt,times(3)).executeBatch();
+		verify(stmt,never()).executeUpdate();
+	}
+	
+	@Test
+	public void do_not_write_entries_unmodified_under_lock() throws SQLException {
+		// The loaded entries are outdated and do not matter.
+		when(dict.getEntries()).thenReturn(emptySortedSet());
+		
+		assertEquals(0, mergeEntries(dict, asList(entry("a","A")), true).execute(em));
+		
+		verify(connection).prepareStatement(LOCK);
+		verify(connection,never()).prepareStatement(INSERT);
+		verify(connection,never()).prepareStatement(TOUCH);
+		verify(em,never()).detach(dict);
+	}
+	
+	@Test
+	public void write_entries_modified_under_lock() throws SQLException {
+		assertEquals(2, mergeEntries(dict, asList(entry("a","Option A"),entry("b","B")), true).execute(em));
+		
+		verify(connection).prepareStatement(LOCK);
+		verify(connection).prepareStatement(UPDATE);
+		verify(connection).prepareStatement(INSERT);
+		verify(connection).prepareStatement(TOUCH);
+		verify(em).detach(dict);
+	}
+	
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static io.leitstand.ui.model.DictionaryEntryIndex.index;
+import static io.leitstand.ui.service.DictionaryEntry.newDictionaryEntry;
+import static io.leitstand.ui.service.DictionaryId.randomDictionaryId;
+import static io.leitstand.ui.service.DictionaryName.dictionaryName;
+import static io.leitstand.ui.service.DictionarySettings.newDictionarySettings;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.leitstand.ui.service.DictionaryEntries;
+import io.leitstand.ui.service.DictionaryEntry;
+
+public class DictionaryEntryIndexTest {
+
+	private DictionaryEntryIndex index;
+	
+	@Before
+	public void indexEntries() {
+		index = index(newDictionarySettings()
+					  .withDictionaryId(randomDictionaryId())
+					  .withDictionaryName(dictionaryName("sites"))
+					  .withEntries(newDictionaryEntry().withValue("BER1").withLabel("Berlin"),
+							  	   newDictionaryEntry().withValue("BER2").withLabel("Bern"),
+							  	   newDictionaryEntry().withValue("FRA1").withLabel("Frankfurt"),
+							  	   newDictionaryEntry().withValue("MUC1").withLabel("Munich"),
+							  	   newDictionaryEntry().withValue("HAM1").withLabel("Hamburg"),
+							  	   newDictionaryEntry().withValue("BR1").withLabel("Bremen"))
+					  .build());
+	}
+	
+	private static List<String> values(DictionaryEntries entries){
+		return entries.getEntries()
+					  .stream()
+					  .map(DictionaryEntry::getValue)
+					  .collect(toList());
+	}
+	
+	@Test
+	public void page_through_all_entries() {
+		DictionaryEntries page = index.find(null, 2, 3);
+		assertEquals(6,page.getTotal());
+		assertEquals(2,page.getOffset());
+		assertEquals(asList("BR1","FRA1","HAM1"),values(page));
+	}
+	
+	@Test
+	public void find_entries_by_label_prefix_ignoring_case() {
+		DictionaryEntries page = index.find("ber", 0, 10);
+		assertEquals(2,page.getTotal());
+		assertEquals(asList("BER1","BER2"),values(page));
+	}
+	
+	@Test
+	public void find_entries_by_label_and_value_prefix_in_natural_order() {
+		DictionaryEntries page = index.find("b", 0, 10);
+		assertEquals(3,page.getTotal());
+		assertEquals(asList("BER1","BER2","BR1"),values(page));
+		
+		page = index.find("m", 0, 10);
+		assertEquals(1,page.getTotal());
+		assertEquals(asList("MUC1"),values(page));
+	}
+	
+	@Test
+	public void page_through_matching_entries() {
+		DictionaryEntries page = index.find("B", 1, 1);
+		assertEquals(3,page.getTotal());
+		assertEquals(asList("BER2"),values(page));
+		
+		assertTrue(index.find("B", 5, 10).getEntries().isEmpty());
+	}
+	
+	@Test
+	public void return_no_entries_for_unknown_prefix() {
+		DictionaryEntries page = index.find("x", 0, 10);
+		assertEquals(0,page.getTotal());
+		assertTrue(page.getEntries().isEmpty());
+	}
+	
+}
@@ -7,27 +7,45 @@ import static io.leitstand.commons.db.DatabaseService.prepare;
 import static io.leitstand.testing.ut.LeitstandCoreMatchers.contains;
 import static io.leitstand.testing.ut.LeitstandCoreMatchers.isEmptyList;
 import static io.leitstand.ui.service.DictionaryEntry.newDictionaryEntry;
+import static io.leitstand.ui.service.DictionaryFilterMode.PREFIX;
+import static io.leitstand.ui.service.DictionaryFilterMode.REGEX;
+import static io.leitstand.ui.service.DictionaryFilterMode.SUBSTRING;
 import static io.leitstand.ui.service.DictionaryId.randomDictionaryId;
 import static io.leitstand.ui.service.DictionaryName.dictionaryName;
 import static io.leitstand.ui.service.DictionarySettings.newDictionarySettings;
+import static io.leitstand.ui.service.ReasonCode.LUI0004E_DICTIONARY_MODIFIED;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import javax.enterprise.event.Event;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import io.leitstand.commons.ConflictException;
 import io.leitstand.commons.messages.Messages;
 import io.leitstand.commons.model.Repository;
+import io.leitstand.ui.service.DictionaryEntry;
+import io.leitstand.ui.service.DictionaryExportHandler;
 import io.leitstand.ui.service.DictionaryId;
 import io.leitstand.ui.service.DictionaryInfo;
+import io.leitstand.ui.service.DictionaryName;
 import io.leitstand.ui.service.DictionaryService;
 import io.leitstand.ui.service.DictionarySettings;
+import io.leitstand.ui.service.DictionaryVersion;
 
 public class DictionaryServiceIT extends LeitstandIT{
 	
@@ -36,9 +54,21 @@ public class DictionaryServiceIT extends LeitstandIT{
 	private DictionaryService service;
 	
 	@Before
+	@SuppressWarnings("unchecked")
 	public void initTestEnvironment() {
 		Repository repository = new Repository(getEntityManager());
-		service = new DefaultDictionaryService(repository, mock(Messages.class));
+		// No transaction observers in this environment. Evict modified dictionaries immediately.
+		DictionaryCache cache = new DictionaryCache();
+		Event<DictionaryChangedEvent> changes = mock(Event.class);
+		doAnswer(invocation -> {
+			cache.evict((DictionaryChangedEvent) invocation.getArguments()[0]);
+			return null;
+		}).when(changes).fire(any(DictionaryChangedEvent.class));
+		service = new DefaultDictionaryService(repository, 
+											   mock(Messages.class),
+											   cache,
+											   changes,
+											   new InMemoryInvalidationChannel());
 	}
 
 	@After
@@ -75,6 +105,34 @@ public class DictionaryServiceIT extends LeitstandIT{
 		
 	}
 	
+	@Test
+	public void read_dictionaries_by_id_and_name() {
+		DictionarySettings first = newDictionarySettings()
+								   .withDictionaryId(randomDictionaryId())
+								   .withDictionaryName(dictionaryName("first"))
+								   .withEntries(newDictionaryEntry()
+										   		.withLabel("Option A")
+										   		.withValue("a"))
+								   .build();
+		DictionarySettings second = newDictionarySettings()
+									.withDictionaryId(randomDictionaryId())
+									.withDictionaryName(dictionaryName("second"))
+									.build();
+		
+		transaction(() -> {
+			service.storeDictionary(first);
+			service.storeDictionary(second);
+		});
+		
+		transaction(() -> {
+			List<DictionarySettings> dictionaries = service.getDictionaries(asList(second.getDictionaryId()),
+																			asList(first.getDictionaryName(),
+																				   second.getDictionaryName(),
+																				   dictionaryName("unknown")));
+			assertEquals(asList(second,first),dictionaries);
+		});
+	}
+	
 	@Test
 	public void update_dictionary() {
 		DictionaryId dictId = randomDictionaryId();
@@ -119,6 +177,127 @@ public class DictionaryServiceIT extends LeitstandIT{
 		});
 	}
 	
+	@Test
+	public void update_dictionary_entries_only() {
+		DictionaryId dictId = randomDictionaryId();
+		
+		transaction(() -> {
+			DictionarySettings dict = newDictionarySettings()
+									  .withDictionaryId(dictId)
+									  .withDictionaryName(dictionaryName("dictionary"))
+									  .withEntries(newDictionaryEntry()
+											  	   .withLabel("Option A")
+											  	   .withValue("a"),
+											  	   newDictionaryEntry()
+											  	   .withLabel("Option B")
+											  	   .withValue("b"))
+									  .build();
+			service.storeDictionary(dict);
+		});
+		
+		DictionaryVersion version = service.getDictionaryVersion(dictId);
+		
+		DictionarySettings dict = newDictionarySettings()
+								  .withDictionaryId(dictId)
+								  .withDictionaryName(dictionaryName("dictionary"))
+								  .withEntries(newDictionaryEntry()
+										  	   .withLabel("Option A")
+										  	   .withValue("a"),
+										  	   newDictionaryEntry()
+										  	   .withLabel("Option B (modified)")
+										  	   .withValue("b"))
+								  .build();
+		
+		transaction(() -> {
+			service.storeDictionary(dict);
+		});
+		
+		transaction(() -> {
+			DictionarySettings reloaded = service.getDictionary(dictId);
+			assertEquals(dict,reloaded);
+			assertNotEquals(version.getEtag(),service.getDictionaryVersion(dictId).getEtag());
+		});
+	}
+	
+	@Test
+	public void add_update_and_remove_single_entries() {
+		DictionaryId dictId = randomDictionaryId();
+		
+		transaction(() -> {
+			DictionarySettings dict = newDictionarySettings()
+									  .withDictionaryId(dictId)
+									  .withDictionaryName(dictionaryName("dictionary"))
+									  .withEntries(newDictionaryEntry()
+											  	   .withLabel("Option A")
+											  	   .withValue("a"),
+											  	   newDictionaryEntry()
+											  	   .withLabel("Option B")
+											  	   .withValue("b"))
+									  .build();
+			service.storeDictionary(dict);
+		});
+		
+		DictionaryVersion version = service.getDictionaryVersion(dictId);
+		
+		transaction(() -> {
+			service.storeDictionaryEntry(dictId, 
+										 version.getModCount(), 
+										 newDictionaryEntry()
+										 .withLabel("Option C")
+										 .withValue("c")
+										 .build());
+			service.storeDictionaryEntry(dictId, 
+										 null, 
+										 newDictionaryEntry()
+										 .withLabel("Option A (modified)")
+										 .withValue("a")
+										 .withDefaultValue(true)
+										 .build());
+			service.removeDictionaryEntry(dictId, null, "b");
+		});
+		
+		transaction(() -> {
+			DictionarySettings reloaded = service.getDictionary(dictId);
+			assertEquals(newDictionarySettings()
+						 .withDictionaryId(dictId)
+						 .withDictionaryName(dictionaryName("dictionary"))
+						 .withEntries(newDictionaryEntry()
+								 	  .withLabel("Option A (modified)")
+								 	  .withValue("a")
+								 	  .withDefaultValue(true),
+								 	  newDictionaryEntry()
+								 	  .withLabel("Option C")
+								 	  .withValue("c"))
+						 .build(),
+						 reloaded);
+			assertEquals(version.getModCount()+3, service.getDictionaryVersion(dictId).getModCount());
+		});
+	}
+	
+	@Test
+	public void reject_entry_modification_of_outdated_dictionary_version() {
+		DictionaryId dictId = randomDictionaryId();
+		
+		transaction(() -> {
+			DictionarySettings dict = newDictionarySettings()
+									  .withDictionaryId(dictId)
+									  .withDictionaryName(dictionaryName("dictionary"))
+									  .build();
+			service.storeDictionary(dict);
+		});
+		
+		DictionaryVersion version = service.getDictionaryVersion(dictId);
+		
+		transaction(() -> {
+			try {
+				service.removeDictionaryEntry(dictId, version.getModCount()+1, "a");
+				fail("ConflictException expected");
+			} catch (ConflictException e) {
+				assertEquals(LUI0004E_DICTIONARY_MODIFIED, e.getReason());
+			}
+		});
+	}
+	
 	@Test
 	public void remove_dictionary_by_id() {
 		DictionarySettings dict = newDictionarySettings()
@@ -182,4 +361,94 @@ public class DictionaryServiceIT extends LeitstandIT{
 		});
 	}
 	
+	@Test
+	public void filter_dictionaries_by_name_prefix_substring_and_pattern() {
+		transaction(() -> {
+			service.storeDictionary(newDictionarySettings()
+									.withDictionaryId(randomDictionaryId())
+									.withDictionaryName(dictionaryName("site_codes"))
+									.build());
+			service.storeDictionary(newDictionarySettings()
+									.withDictionaryId(randomDictionaryId())
+									.withDictionaryName(dictionaryName("vendor_sites"))
+									.build());
+		});
+		
+		transaction(() -> {
+			assertEquals(asList(dictionaryName("site_codes")),
+						 names(service.getDictionaries("site", PREFIX)));
+			assertEquals(asList(dictionaryName("site_codes"),dictionaryName("vendor_sites")),
+						 names(service.getDictionaries("site", SUBSTRING)));
+			assertEquals(asList(dictionaryName("vendor_sites")),
+						 names(service.getDictionaries("^v.*s$", REGEX)));
+			// LIKE wildcards are matched literally
+			assertThat(service.getDictionaries("%", SUBSTRING),isEmptyList());
+			// Regular expressions are the default filter mode
+			assertEquals(asList(dictionaryName("site_codes"),dictionaryName("vendor_sites")),
+						 names(service.getDictionaries("site")));
+			assertEquals(asList(dictionaryName("site_codes")),
+						 names(service.getDictionaries("^site")));
+		});
+	}
+	
+	@Test
+	public void import_dictionary_in_chunks_and_export_all_entries() {
+		DictionaryId id = randomDictionaryId();
+		transaction(() -> {
+			service.importDictionary(newDictionarySettings()
+									 .withDictionaryId(id)
+									 .withDictionaryName(dictionaryName("imported"))
+									 .withEntries(newDictionaryEntry()
+											 	  .withLabel("Option A")
+											 	  .withValue("a"))
+									 .build());
+		});
+		transaction(() -> {
+			service.importDictionaryEntries(id, asList(newDictionaryEntry()
+													   .withLabel("Option B")
+													   .withValue("b")
+													   .withDefaultValue(true)
+													   .build()));
+		});
+		
+		transaction(() -> {
+			assertEquals(2, service.getDictionary(id).getEntries().size());
+			List<DictionaryInfo> dicts = new ArrayList<>();
+			List<DictionaryEntry> entries = new ArrayList<>();
+			service.exportDictionaries(new DictionaryExportHandler() {
+				@Override
+				public void dictionary(DictionaryInfo dictionary) {
+					dicts.add(dictionary);
+				}
+				
+				@Override
+				public void entry(DictionaryEntry entry) {
+					entries.add(entry);
+				}
+			});
+			assertEquals(asList(dictionaryName("imported")), names(dicts));
+			assertEquals(asList("a","b"), entries.stream()
+												 .map(DictionaryEntry::getValue)
+												 .collect(toList()));
+			assertTrue(entries.get(1).isDefaultValue());
+		});
+		
+		// Re-importing the dictionary replaces all entries.
+		transaction(() -> {
+			service.importDictionary(newDictionarySettings()
+									 .withDictionaryId(id)
+									 .withDictionaryName(dictionaryName("imported"))
+									 .build());
+		});
+		transaction(() -> {
+			assertTrue(service.getDictionary(id).getEntries().isEmpty());
+		});
+	}
+	
+	private static List<DictionaryName> names(List<DictionaryInfo> dicts){
+		return dicts.stream()
+					.map(DictionaryInfo::getDictionaryName)
+					.collect(toList());
+	}
+	
 }
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static io.leitstand.commons.model.ObjectUtil.asSet;
+import static io.leitstand.ui.model.InvalidationChannel.TAGS;
+import static javax.transaction.Status.STATUS_ACTIVE;
+import static javax.transaction.Status.STATUS_COMMITTED;
+import static javax.transaction.Status.STATUS_NO_TRANSACTION;
+import static javax.transaction.Status.STATUS_ROLLEDBACK;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class InMemoryInvalidationChannelTest {
+
+	@Mock
+	private TransactionSynchronizationRegistry transactions;
+	
+	@InjectMocks
+	private InMemoryInvalidationChannel channel = new InMemoryInvalidationChannel();
+	
+	private Set<Set<String>> received;
+	
+	@Before
+	public void subscribe() {
+		received = new LinkedHashSet<>();
+		channel.subscribe(TAGS, received::add);
+	}
+	
+	@Test
+	public void deliver_immediately_without_transaction() {
+		when(transactions.getTransactionStatus()).thenReturn(STATUS_NO_TRANSACTION);
+		channel.publish(TAGS, asSet("red"));
+		assertEquals(asSet(asSet("red")), received);
+	}
+	
+	@Test
+	public void deliver_after_commit() {
+		when(transactions.getTransactionStatus()).thenReturn(STATUS_ACTIVE);
+		channel.publish(TAGS, asSet("red"));
+		assertTrue(received.isEmpty());
+		
+		ArgumentCaptor<Synchronization> sync = ArgumentCaptor.forClass(Synchronization.class);
+		verify(transactions).registerInterposedSynchronization(sync.capture());
+		sync.getValue().afterCompletion(STATUS_COMMITTED);
+		assertEquals(asSet(asSet("red")), received);
+	}
+	
+	@Test
+	public void discard_on_rollback() {
+		when(transactions.getTransactionStatus()).thenReturn(STATUS_ACTIVE);
+		channel.publish(TAGS, asSet("red"));
+		
+		ArgumentCaptor<Synchronization> sync = ArgumentCaptor.forClass(Synchronization.class);
+		verify(transactions).registerInterposedSynchronization(sync.capture());
+		sync.getValue().afterCompletion(STATUS_ROLLEDBACK);
+		assertTrue(received.isEmpty());
+	}
+	
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static io.leitstand.ui.model.InvalidationChannelProducer.INVALIDATION_CHANNEL;
+import static io.leitstand.ui.model.InvalidationChannelProducer.POSTGRES;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import javax.enterprise.inject.Instance;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class InvalidationChannelProducerTest {
+
+	@Mock
+	private Instance<InMemoryInvalidationChannel> inMemory;
+
+	@Mock
+	private Instance<PostgresInvalidationChannel> postgres;
+
+	@Mock
+	private PostgresInvalidationChannel postgresChannel;
+
+	private InMemoryInvalidationChannel inMemoryChannel = new InMemoryInvalidationChannel();
+
+	private InvalidationChannelProducer producer = new InvalidationChannelProducer();
+
+	@Before
+	public void initChannels() {
+		when(inMemory.get()).thenReturn(inMemoryChannel);
+		when(postgres.get()).thenReturn(postgresChannel);
+	}
+
+	@After
+	public void clearChannelProperty() {
+		System.clearProperty(INVALIDATION_CHANNEL);
+	}
+
+	@Test
+	public void select_in_memory_channel_by_default() {
+		assertSame(inMemoryChannel, producer.createInvalidationChannel(inMemory, postgres));
+		verify(postgres,never()).get();
+	}
+
+	@Test
+	public void select_and_start_postgres_channel_if_configured() {
+		System.setProperty(INVALIDATION_CHANNEL, POSTGRES);
+		assertSame(postgresChannel, producer.createInvalidationChannel(inMemory, postgres));
+		verify(postgresChannel).startListener();
+	}
+
+}
@@ -15,14 +15,23 @@
  */
 package io.leitstand.ui.model;
 
+import static io.leitstand.ui.jsonb.JsonPayload.jsonPayload;
 import static io.leitstand.ui.model.ModuleDescriptor.newModuleDescriptor;
 import static io.leitstand.ui.model.ModuleMenu.newModuleMenu;
 import static io.leitstand.ui.model.ModuleMenuItem.newModuleMenuItem;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 
 import javax.enterprise.inject.Instance;
 
@@ -33,6 +42,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import io.leitstand.ui.jsonb.JsonPayload;
+
 @RunWith(MockitoJUnitRunner.class)
 public class ModelDescriptorServiceTest {
 
@@ -52,6 +63,173 @@ public class ModelDescriptorServiceTest {
 		service.createModuleCache(); 
 	}
 	
+	@Test
+	public void cache_serialized_module_descriptor() {
+		descriptor = newModuleDescriptor()
+					 .withName("unittest")
+					 .withMenus(newModuleMenu()
+							    .withName("menu")
+							    .withItems(newModuleMenuItem()
+							    		   .withName("item")
+							    		   .withView("view.html")))
+					 .build();
+		List<ModuleDescriptor> modules = Collections.singletonList(descriptor);
+		when(module.iterator()).thenReturn(modules.iterator());
+		service.createModuleCache();
+		
+		String json = service.getModuleDescriptorPayload("unittest").toString();
+		assertTrue(json.contains("\"module\":\"unittest\""));
+		assertTrue(json.contains("\"view\":\"view.html\""));
+		assertEquals(jsonPayload(json.getBytes(UTF_8)).getEtag(),
+					 service.getModuleDescriptorPayload("unittest").getEtag());
+		assertNull(service.getModuleDescriptorPayload("unknown"));
+	}
+	
+	@Test
+	public void reload_module_replaces_cached_module_descriptor() {
+		descriptor = newModuleDescriptor()
+					 .withName("unittest")
+					 .withMenus(newModuleMenu()
+							    .withName("menu")
+							    .withQuery(new HashMap<String,String>() {{
+							    	put("a","a");
+							    }})
+							    .withItems(newModuleMenuItem()
+							    		   .withName("item")
+							    		   .withView("view.html")))
+					 .build();
+		List<ModuleDescriptor> modules = Collections.singletonList(descriptor);
+		when(module.iterator()).thenReturn(modules.iterator());
+		service.createModuleCache();
+		ModuleDescriptor cached = service.getModuleDescriptor("unittest");
+		JsonPayload payload = service.getModuleDescriptorPayload("unittest");
+		
+		service.reloadModules(asList("unittest","unknown"));
+		
+		assertNotSame(cached,service.getModuleDescriptor("unittest"));
+		assertEquals(payload.getEtag(),service.getModuleDescriptorPayload("unittest").getEtag());
+		assertNull(service.getModuleDescriptor("unknown"));
+		// Module descriptor bean remains unchanged
+		assertNull(descriptor.getMenus().get(0).getItems().get(0).getQuery());
+	}
+	
+	@Test
+	public void remove_menus_and_items_the_caller_cannot_access() {
+		descriptor = newModuleDescriptor()
+					 .withName("unittest")
+					 .withMenus(newModuleMenu()
+							    .withName("public")
+							    .withItems(newModuleMenuItem()
+							    		   .withName("view")
+							    		   .withView("view.html"),
+							    		   newModuleMenuItem()
+							    		   .withName("edit")
+							    		   .withView("edit.html")
+							    		   .withScopesAllowed("edit")),
+							    newModuleMenu()
+							    .withName("admin")
+							    .withScopesAllowed("admin")
+							    .withItems(newModuleMenuItem()
+							    		   .withName("settings")
+							    		   .withView("settings.html")))
+					 .build();
+		List<ModuleDescriptor> modules = Collections.singletonList(descriptor);
+		when(module.iterator()).thenReturn(modules.iterator());
+		service.createModuleCache();
+		
+		String json = service.getModuleDescriptorPayload("unittest", "edit"::equals).toString();
+		assertTrue(json.contains("\"view\":\"view.html\""));
+		assertTrue(json.contains("\"view\":\"edit.html\""));
+		assertFalse(json.contains("\"view\":\"settings.html\""));
+		
+		json = service.getModuleDescriptorPayload("unittest", scope -> false).toString();
+		assertTrue(json.contains("\"view\":\"view.html\""));
+		assertFalse(json.contains("\"view\":\"edit.html\""));
+		assertFalse(json.contains("\"view\":\"settings.html\""));
+		
+		// Cached module descriptor remains unchanged.
+		assertEquals(2,service.getModuleDescriptor("unittest").getMenus().size());
+		assertEquals(2,service.getModuleDescriptor("unittest").getMenus().get(0).getItems().size());
+	}
+	
+	@Test
+	public void share_module_descriptor_variants_with_same_module_scopes() {
+		descriptor = newModuleDescriptor()
+					 .withName("unittest")
+					 .withMenus(newModuleMenu()
+							    .withName("admin")
+							    .withScopesAllowed("admin")
+							    .withItems(newModuleMenuItem()
+							    		   .withName("settings")
+							    		   .withView("settings.html")))
+					 .build();
+		List<ModuleDescriptor> modules = Collections.singletonList(descriptor);
+		when(module.iterator()).thenReturn(modules.iterator());
+		service.createModuleCache();
+		
+		// Scopes not referenced by the module do not affect the variant.
+		assertSame(service.getModuleDescriptorPayload("unittest", "ipam"::equals),
+				   service.getModuleDescriptorPayload("unittest", "dns"::equals));
+		// Caller with all module scopes gets the complete module descriptor.
+		assertSame(service.getModuleDescriptorPayload("unittest"),
+				   service.getModuleDescriptorPayload("unittest", "admin"::equals));
+		assertNull(service.getModuleDescriptorPayload("unknown", "admin"::equals));
+	}
+	
+	@Test
+	public void combine_accessible_module_descriptors() {
+		ModuleDescriptor open = newModuleDescriptor()
+								.withName("open")
+								.withMenus(newModuleMenu()
+										   .withName("menu")
+										   .withItems(newModuleMenuItem()
+												   	  .withName("item")
+												   	  .withView("open.html")))
+								.build();
+		ModuleDescriptor admin = newModuleDescriptor()
+								 .withName("admin")
+								 .withScopesAllowed("admin")
+								 .withMenus(newModuleMenu()
+										    .withName("menu")
+										    .withItems(newModuleMenuItem()
+												   	   .withName("item")
+												   	   .withView("admin.html")))
+								 .build();
+		List<ModuleDescriptor> modules = asList(open,admin);
+		when(module.iterator()).thenReturn(modules.iterator());
+		service.createModuleCache();
+		
+		JsonPayload batch = service.getModuleDescriptorsPayload(asList("open","admin","unknown"), "ipam"::equals);
+		assertEquals("{\"open\":"+service.getModuleDescriptorPayload("open")+"}", batch.toString());
+		assertSame(batch, service.getModuleDescriptorsPayload(asList("admin","open"), "dns"::equals));
+		
+		batch = service.getModuleDescriptorsPayload(service.getModuleNames(), "admin"::equals);
+		assertEquals("{\"admin\":"+service.getModuleDescriptorPayload("admin")+
+					 ",\"open\":"+service.getModuleDescriptorPayload("open")+"}", 
+					 batch.toString());
+		assertEquals("{}", service.getModuleDescriptorsPayload(asList("unknown"), "admin"::equals).toString());
+	}
+	
+	@Test
+	public void deny_access_to_module_without_granted_module_scope() {
+		descriptor = newModuleDescriptor()
+					 .withName("admin")
+					 .withScopesAllowed("admin")
+					 .withMenus(newModuleMenu()
+							    .withName("menu")
+							    .withItems(newModuleMenuItem()
+									   	   .withName("item")
+									   	   .withView("admin.html")))
+					 .build();
+		List<ModuleDescriptor> modules = Collections.singletonList(descriptor);
+		when(module.iterator()).thenReturn(modules.iterator());
+		service.createModuleCache();
+		
+		assertNull(service.getModuleDescriptorPayload("admin", "ipam"::equals));
+		assertSame(service.getModuleDescriptorPayload("admin"),
+				   service.getModuleDescriptorPayload("admin", "admin"::equals));
+	}
+	
 	@Test
 	public void propagate_menu_query_to_item_without_query() {
 		descriptor = newModuleDescriptor()
@@ -67,7 +245,7 @@ public class ModelDescriptorServiceTest {
 							   					.withView("noquery")))
 					.build();
 		
-		service.applyDefaults(descriptor);
+		ModuleDescriptorService.applyDefaults(descriptor);
 		ModuleMenu menu = descriptor.getMenus().get(0);
 		assertEquals(menu.getQuery(), menu.getItems().get(0).getQuery());
 	}
@@ -92,7 +270,7 @@ public class ModelDescriptorServiceTest {
 				.build();
 		
 		
-		service.applyDefaults(descriptor);
+		ModuleDescriptorService.applyDefaults(descriptor);
 		ModuleMenuItem item = descriptor.getMenus().get(0).getItems().get(0);
 		assertEquals("A",item.getQuery().get("a"));
 		assertEquals("b",item.getQuery().get("b"));
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static io.leitstand.ui.model.ParallelLoader.PARALLELISM;
+import static io.leitstand.ui.model.ParallelLoader.loadAll;
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class ParallelLoaderTest {
+
+	@After
+	public void clearParallelism() {
+		System.clearProperty(PARALLELISM);
+	}
+	
+	@Test
+	public void return_results_in_source_order() {
+		List<Integer> sources = new ArrayList<>();
+		for(int i=0; i < 1000; i++) {
+			sources.add(i);
+		}
+		List<String> results = loadAll(Thread::new, sources, i -> "result-"+i);
+		assertEquals(1000,results.size());
+		for(int i=0; i < 1000; i++) {
+			assertEquals("result-"+i,results.get(i));
+		}
+	}
+	
+	@Test
+	public void load_on_invoking_thread_if_parallel_loading_is_disabled() {
+		System.setProperty(PARALLELISM, "1");
+		Thread current = Thread.currentThread();
+		List<Integer> sources = new ArrayList<>();
+		for(int i=0; i < 10; i++) {
+			sources.add(i);
+		}
+		for(Thread thread : loadAll(Thread::new, sources, i -> Thread.currentThread())) {
+			assertEquals(current,thread);
+		}
+	}
+	
+	@Test
+	public void parallelism_is_at_least_one() {
+		System.setProperty(PARALLELISM, "0");
+		assertEquals(1,ParallelLoader.parallelism());
+	}
+	
+	@Test
+	public void load_empty_source_list() {
+		assertTrue(loadAll(Thread::new, emptyList(), s -> s).isEmpty());
+	}
+	
+	@Test
+	public void load_on_invoking_thread_without_thread_factory() {
+		Thread current = Thread.currentThread();
+		List<Integer> sources = new ArrayList<>();
+		for(int i=0; i < 10; i++) {
+			sources.add(i);
+		}
+		for(Thread thread : loadAll(null, sources, i -> Thread.currentThread())) {
+			assertEquals(current,thread);
+		}
+	}
+	
+	@Test
+	public void load_on_threads_of_thread_factory() {
+		System.setProperty(PARALLELISM, "2");
+		List<Integer> sources = new ArrayList<>();
+		for(int i=0; i < 10; i++) {
+			sources.add(i);
+		}
+		List<Thread> created = new ArrayList<>();
+		List<Thread> threads = loadAll(task -> {
+										   Thread thread = new Thread(task);
+										   created.add(thread);
+										   return thread;
+									   }, 
+									   sources, 
+									   i -> Thread.currentThread());
+		for(Thread thread : threads) {
+			assertNotEquals(Thread.currentThread(),thread);
+			assertTrue(created.contains(thread));
+		}
+	}
+	
+}
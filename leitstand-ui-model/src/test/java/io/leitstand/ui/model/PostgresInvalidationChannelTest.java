@@ -0,0 +1,66 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static io.leitstand.commons.model.ObjectUtil.asSet;
+import static io.leitstand.ui.model.InvalidationChannel.TAGS;
+import static io.leitstand.ui.model.PostgresInvalidationChannel.MAX_PAYLOAD_BYTES;
+import static io.leitstand.ui.model.PostgresInvalidationChannel.encode;
+import static org.junit.Assert.assertEquals;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class PostgresInvalidationChannelTest {
+
+	@Test
+	public void encode_node_topic_and_keys_as_lines() {
+		assertEquals("node\ntags\nred\ngreen", 
+					 encode("node", TAGS, new LinkedHashSet<>(asSet("red","green"))));
+	}
+	
+	@Test
+	public void evict_all_if_key_contains_line_break() {
+		assertEquals("node\ntags", 
+					 encode("node", TAGS, asSet("red\ngreen")));
+	}
+	
+	@Test
+	public void evict_all_if_payload_exceeds_limit() {
+		Set<String> keys = new LinkedHashSet<>();
+		for(int i=0; i < MAX_PAYLOAD_BYTES / 4; i++) {
+			keys.add("tag-"+i);
+		}
+		assertEquals("node\ntags", 
+					 encode("node", TAGS, keys));
+	}
+	
+	@Test
+	public void ignore_own_invalidations() {
+		PostgresInvalidationChannel channel = new PostgresInvalidationChannel();
+		Set<Set<String>> received = new LinkedHashSet<>();
+		channel.subscribe(TAGS, received::add);
+		
+		channel.deliver("other\ntags\nred");
+		channel.deliver(encode(channel.getNode(), TAGS, asSet("green")));
+		channel.deliver("other\ntags");
+		
+		assertEquals(asSet(asSet("red"),asSet()), received);
+	}
+	
+}
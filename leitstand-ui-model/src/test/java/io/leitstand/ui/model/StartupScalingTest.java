@@ -0,0 +1,231 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static io.leitstand.commons.etc.FileProcessor.yaml;
+import static io.leitstand.ui.model.Contributions.CONTRIBUTIONS_DIR;
+import static io.leitstand.ui.model.ModuleDescriptor.readModuleDescriptor;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import javax.enterprise.inject.Instance;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import io.leitstand.commons.etc.Environment;
+import io.leitstand.commons.etc.FileProcessor;
+
+/**
+ * Boots {@link Contributions}, {@link ModuleDescriptorService} and {@link MainMenuService} 
+ * against {@link SyntheticContributions} and records the build time and the retained heap per configuration.
+ * <p>
+ * The scaling test is excluded from the regular test run. 
+ * Run <code>gradle :leitstand-ui-model:scalingTest</code> to run the scaling test.
+ * The results are logged and appended to the CSV file specified by the <code>scaling.report</code> system property.
+ * </p>
+ */
+@RunWith(Parameterized.class)
+public class StartupScalingTest {
+	
+	private static final Logger LOG = Logger.getLogger(StartupScalingTest.class.getName());
+	
+	private static final String MAIN_MENU = "/META-INF/resources/ui/modules/main-menu.yaml";
+	
+	@Parameters(name="{0} modules, {1} contributions")
+	public static Collection<Object[]> configurations(){
+		Object[][] configurations = new Object[][]{
+			{10,	10},
+			{10,	100},
+			{100,	100},
+			{100,	1000},
+			{500,	5000}
+		};
+		return asList(configurations);
+	}
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	private int modules;
+	private int contributions;
+	private SyntheticContributions fixture;
+	
+	public StartupScalingTest(int modules, int contributions) {
+		this.modules = modules;
+		this.contributions = contributions;
+	}
+	
+	@Before
+	public void generateFixture() throws IOException {
+		fixture = SyntheticContributions.generate(folder.getRoot().toPath(), modules, contributions);
+	}
+	
+	@Test
+	@SuppressWarnings("unchecked")
+	public void boot_ui_model() throws Exception {
+		Environment env = mock(Environment.class);
+		when(env.getConfigFile(CONTRIBUTIONS_DIR)).thenReturn(fixture.getContributionsDirectory().toFile());
+		when(env.loadConfigs(eq(CONTRIBUTIONS_DIR), any(FileFilter.class), any(FileProcessor.class)))
+			.thenAnswer(invocation -> {
+				FileFilter filter = (FileFilter) invocation.getArguments()[1];
+				FileProcessor<?> processor = (FileProcessor<?>) invocation.getArguments()[2];
+				List<Object> configs = new ArrayList<>();
+				for(File file : fixture.getContributionsDirectory().toFile().listFiles(filter)) {
+					configs.add(processor.process(file));
+				}
+				return configs;
+			});
+		when(env.loadFile(eq(MAIN_MENU), any(FileProcessor.class)))
+			.thenAnswer(invocation -> yaml(MainMenu.class).process(fixture.getMainMenuFile().toFile()));
+		Instance<Contribution> builtin = mock(Instance.class);
+		when(builtin.stream()).thenAnswer(invocation -> Stream.empty());
+		Instance<ModuleDescriptor> descriptors = mock(Instance.class);
+
+		long heap = usedHeap();
+		long start = System.nanoTime();
+
+		// Parse the contribution files in parallel and count the loader threads.
+		AtomicInteger parsingThreads = new AtomicInteger();
+		Contributions contribs = new Contributions(builtin,env);
+		contribs.threadFactory = task -> {
+			parsingThreads.incrementAndGet();
+			return new Thread(task);
+		};
+		contribs.onStartup();
+		long contributionsLoaded = System.nanoTime();
+
+		List<ModuleDescriptor> moduleDescriptors = new ArrayList<>();
+		for(URL url : fixture.getModuleDescriptors()) {
+			moduleDescriptors.add(readModuleDescriptor(url).build());
+		}
+		when(descriptors.iterator()).thenReturn(moduleDescriptors.iterator());
+		ModuleDescriptorService moduleService = new ModuleDescriptorService(descriptors,contribs);
+		moduleService.threadFactory = Thread::new;
+		moduleService.createModuleCache();
+		long modulesLoaded = System.nanoTime();
+		
+		MainMenuService mainMenuService = new MainMenuService(env,contribs);
+		mainMenuService.loadMainMenu();
+		long mainMenuLoaded = System.nanoTime();
+		
+		long retained = usedHeap() - heap;
+		
+		record(millis(contributionsLoaded - start),
+			   millis(modulesLoaded - contributionsLoaded),
+			   millis(mainMenuLoaded - modulesLoaded),
+			   millis(mainMenuLoaded - start),
+			   retained);
+		
+		// Verify that the contributions were parsed in parallel and that no contribution got lost.
+		if(ParallelLoader.parallelism() > 1) {
+			assertTrue(parsingThreads.get() > 1);
+		}
+		assertEquals(contributions,contribs.getContributionFileNames().size());
+		int items = 0;
+		for(ModuleDescriptor module : moduleDescriptors) {
+			ModuleDescriptor cached = moduleService.getModuleDescriptor(module.getModule());
+			assertNotNull(cached);
+			assertNotNull(moduleService.getModuleDescriptorPayload(module.getModule()));
+			for(ModuleMenu menu : cached.getMenus()) {
+				items += menu.getItems().size();
+			}
+		}
+		assertEquals(fixture.getMenuItems(),items);
+		assertEquals(fixture.getMainMenuItems(),mainMenuService.getMainMenu().getItems().size());
+	}
+	
+	private void record(long contributionsMillis, 
+						long modulesMillis, 
+						long mainMenuMillis, 
+						long totalMillis, 
+						long retainedBytes) throws IOException {
+		LOG.info(() -> format("%d modules, %d contributions: contributions %d ms, modules %d ms, main menu %d ms, total %d ms, retained heap %d KiB",
+							  modules,
+							  contributions,
+							  contributionsMillis,
+							  modulesMillis,
+							  mainMenuMillis,
+							  totalMillis,
+							  retainedBytes / 1024));
+		String report = System.getProperty("scaling.report");
+		if(report == null) {
+			return;
+		}
+		Path file = Paths.get(report);
+		if(Files.notExists(file)) {
+			Files.createDirectories(file.toAbsolutePath().getParent());
+			Files.write(file, 
+						format("modules,contributions,contributions_ms,modules_ms,main_menu_ms,total_ms,retained_bytes%n").getBytes(UTF_8));
+		}
+		Files.write(file, 
+					format("%d,%d,%d,%d,%d,%d,%d%n",
+						   modules,
+						   contributions,
+						   contributionsMillis,
+						   modulesMillis,
+						   mainMenuMillis,
+						   totalMillis,
+						   retainedBytes).getBytes(UTF_8),
+					CREATE,
+					APPEND);
+	}
+	
+	private static long millis(long nanos) {
+		return NANOSECONDS.toMillis(nanos);
+	}
+	
+	private static long usedHeap() throws InterruptedException {
+		Runtime runtime = Runtime.getRuntime();
+		// Run the garbage collector repeatedly to get a stable reading of the retained heap.
+		for(int i=0; i < 3; i++) {
+			System.gc();
+			Thread.sleep(50);
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+	
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.unmodifiableList;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates synthetic module descriptors, <code>Contribution</code> YAML files and a main menu.
+ * <p>
+ * Every module consists of {@value #MENUS} menus with {@value #ITEMS} items each.
+ * Every contribution extends one to three module menus with new items and 
+ * every fourth contribution adds a new menu to a module.
+ * An extension is placed after or before a built-in or a previously contributed item or menu,
+ * such that the extension points form after and before chains as found in larger add-on setups.
+ * Every tenth contribution adds a new module to the main menu, placed after a random module or a previously added module.
+ * Menus, items and main menu items are protected by random scopes.
+ * </p>
+ * <p>
+ * The generator uses a fixed seed, i.e. the same configuration always produces the same files.
+ * The generator keeps track of the number of items per module and the number of main menu items
+ * to verify that no contributed item got lost.
+ * </p>
+ */
+final class SyntheticContributions {
+
+	static final int MENUS = 4;
+	static final int ITEMS = 5;
+	
+	private static final String[] SCOPES = {"ivt","ivt.read","ivt.element","adm","adm.read","dns","topology"};
+	private static final long SEED = 4711L;
+	
+	/**
+	 * Generates the specified number of modules and contributions in the specified directory.
+	 * @param dir the target directory
+	 * @param modules the number of modules
+	 * @param contributions the number of contributions
+	 * @return the generated fixture
+	 * @throws IOException if a file cannot be written
+	 */
+	static SyntheticContributions generate(Path dir, int modules, int contributions) throws IOException {
+		SyntheticContributions fixture = new SyntheticContributions(dir);
+		fixture.generateModules(modules);
+		fixture.generateContributions(contributions);
+		fixture.generateMainMenu();
+		return fixture;
+	}
+	
+	private final Random random = new Random(SEED);
+	private final Path modulesDir;
+	private final Path contribDir;
+	private final Path mainMenuFile;
+	private final List<URL> moduleDescriptors = new ArrayList<>();
+	// Menu names by module and item names by module menu, in order of their creation.
+	private final Map<String,List<String>> menus = new HashMap<>();
+	private final Map<String,List<String>> items = new HashMap<>();
+	private final List<String> mainMenu = new ArrayList<>();
+	private int contributedItems;
+	
+	private SyntheticContributions(Path dir) throws IOException {
+		this.modulesDir = Files.createDirectories(dir.resolve("modules"));
+		this.contribDir = Files.createDirectories(dir.resolve("contrib"));
+		this.mainMenuFile = dir.resolve("main-menu.yaml");
+	}
+	
+	private void generateModules(int count) throws IOException {
+		for(int i=0; i < count; i++) {
+			String module = "module-"+i;
+			StringBuilder yaml = new StringBuilder();
+			yaml.append(format("module: %s%n",module));
+			yaml.append(format("menus:%n"));
+			for(int m=0; m < MENUS; m++) {
+				String menu = "menu-"+m;
+				menus.computeIfAbsent(module, k -> new ArrayList<>()).add(menu);
+				yaml.append(format("- menu: %s%n",menu));
+				yaml.append(format("  label: %s%n",menu));
+				yaml.append(format("  scopesAllowed: %s%n", scopes()));
+				yaml.append(format("  items:%n"));
+				for(int k=0; k < ITEMS; k++) {
+					String item = "item-"+k;
+					items.computeIfAbsent(key(module,menu), x -> new ArrayList<>()).add(item);
+					yaml.append(format("  - item: %s%n",item));
+					yaml.append(format("    label: %s%n",item));
+					yaml.append(format("    view: %s-%s.html%n",menu,item));
+					yaml.append(format("    scopesAllowed: %s%n", scopes()));
+				}
+			}
+			Path file = modulesDir.resolve(module+".yaml");
+			Files.write(file, yaml.toString().getBytes(UTF_8));
+			moduleDescriptors.add(file.toUri().toURL());
+			mainMenu.add(module);
+		}
+	}
+	
+	private void generateContributions(int count) throws IOException {
+		for(int j=0; j < count; j++) {
+			String name = "contrib-"+j;
+			StringBuilder yaml = new StringBuilder();
+			yaml.append(format("name: %s%n",name));
+			yaml.append(format("provider: leitstand.io%n"));
+			yaml.append(format("controller: controller.js%n"));
+			yaml.append(format("extensions:%n"));
+			if(j % 10 == 0) {
+				appendMainMenuExtension(yaml, name);
+			}
+			int extensions = 1 + random.nextInt(3);
+			for(int e=0; e < extensions; e++) {
+				appendItemsExtension(yaml, name, e);
+			}
+			if(j % 4 == 0) {
+				appendMenuExtension(yaml, name);
+			}
+			Files.write(contribDir.resolve(name+".yaml"), yaml.toString().getBytes(UTF_8));
+		}
+	}
+	
+	private void appendMainMenuExtension(StringBuilder yaml, String name) {
+		String anchor = pick(mainMenu);
+		String module = name+"-module";
+		yaml.append(format("- extend:%n"));
+		yaml.append(format("    after: %s%n",anchor));
+		yaml.append(format("  mainMenu:%n"));
+		yaml.append(format("    module: %s%n",module));
+		yaml.append(format("    label: %s%n",module));
+		yaml.append(format("    title: Synthetic add-on %s%n",name));
+		yaml.append(format("    scopesAllowed: %s%n",scopes()));
+		mainMenu.add(module);
+	}
+	
+	private void appendItemsExtension(StringBuilder yaml, String name, int extension) {
+		String module = pick(moduleNames());
+		String menu = pick(menus.get(module));
+		List<String> menuItems = items.get(key(module,menu));
+		yaml.append(format("- extend:%n"));
+		yaml.append(format("    module: %s%n",module));
+		yaml.append(format("    menu: %s%n",menu));
+		yaml.append(format("    %s: %s%n",position(),pick(menuItems)));
+		yaml.append(format("  items:%n"));
+		int count = 1 + random.nextInt(3);
+		for(int k=0; k < count; k++) {
+			String item = format("%s-%d-item-%d",name,extension,k);
+			yaml.append(format("  - item: %s%n",item));
+			yaml.append(format("    label: %s%n",item));
+			yaml.append(format("    view: %s.html%n",item));
+			yaml.append(format("    scopesAllowed: %s%n",scopes()));
+		}
+		// Register the items after all items of the extension have been generated 
+		// to let subsequent contributions refer to the contributed items.
+		for(int k=0; k < count; k++) {
+			menuItems.add(format("%s-%d-item-%d",name,extension,k));
+		}
+		contributedItems += count;
+	}
+	
+	private void appendMenuExtension(StringBuilder yaml, String name) {
+		String module = pick(moduleNames());
+		List<String> moduleMenus = menus.get(module);
+		String menu = name+"-menu";
+		yaml.append(format("- extend:%n"));
+		yaml.append(format("    module: %s%n",module));
+		yaml.append(format("    %s: %s%n",position(),pick(moduleMenus)));
+		yaml.append(format("  menus:%n"));
+		yaml.append(format("  - menu: %s%n",menu));
+		yaml.append(format("    label: %s%n",menu));
+		yaml.append(format("    scopesAllowed: %s%n",scopes()));
+		yaml.append(format("    items:%n"));
+		List<String> menuItems = new ArrayList<>();
+		for(int k=0; k < 2; k++) {
+			String item = format("%s-item-%d",menu,k);
+			yaml.append(format("    - item: %s%n",item));
+			yaml.append(format("      label: %s%n",item));
+			yaml.append(format("      view: %s.html%n",item));
+			menuItems.add(item);
+		}
+		moduleMenus.add(menu);
+		items.put(key(module,menu), menuItems);
+		contributedItems += menuItems.size();
+	}
+	
+	private void generateMainMenu() throws IOException {
+		StringBuilder yaml = new StringBuilder();
+		yaml.append(format("menu:%n"));
+		for(URL descriptor : moduleDescriptors) {
+			String file = descriptor.getPath();
+			String module = file.substring(file.lastIndexOf('/')+1, file.length()-".yaml".length());
+			yaml.append(format("- module: %s%n",module));
+			yaml.append(format("  label: %s%n",module));
+			yaml.append(format("  title: Synthetic module %s%n",module));
+			yaml.append(format("  scopesAllowed: %s%n",scopes()));
+		}
+		Files.write(mainMenuFile, yaml.toString().getBytes(UTF_8));
+	}
+	
+	private List<String> moduleNames(){
+		return mainMenu.subList(0, moduleDescriptors.size());
+	}
+	
+	private String position() {
+		// Most extensions are placed after an existing item. 
+		return random.nextInt(4) == 0 ? "before" : "after";
+	}
+	
+	private String scopes() {
+		StringBuilder scopes = new StringBuilder("[");
+		int count = 1 + random.nextInt(2);
+		for(int i=0; i < count; i++) {
+			if(i > 0) {
+				scopes.append(", ");
+			}
+			scopes.append(SCOPES[random.nextInt(SCOPES.length)]);
+		}
+		return scopes.append("]").toString();
+	}
+	
+	private String pick(List<String> names) {
+		return names.get(random.nextInt(names.size()));
+	}
+	
+	private static String key(String module, String menu) {
+		return module+"/"+menu;
+	}
+	
+	/**
+	 * Returns the URLs of all generated module descriptors.
+	 * @return the URLs of all module descriptors.
+	 */
+	List<URL> getModuleDescriptors() {
+		return unmodifiableList(moduleDescriptors);
+	}
+	
+	/**
+	 * Returns the directory that contains the generated contributions.
+	 * @return the contributions directory.
+	 */
+	Path getContributionsDirectory() {
+		return contribDir;
+	}
+	
+	/**
+	 * Returns the generated main menu file.
+	 * @return the main menu file.
+	 */
+	Path getMainMenuFile() {
+		return mainMenuFile;
+	}
+	
+	/**
+	 * Returns the number of main menu items including the modules added by contributions.
+	 * @return the number of main menu items.
+	 */
+	int getMainMenuItems() {
+		return mainMenu.size();
+	}
+	
+	/**
+	 * Returns the number of menu items of all modules including all contributed menu items.
+	 * @return the number of menu items.
+	 */
+	int getMenuItems() {
+		return moduleDescriptors.size() * MENUS * ITEMS + contributedItems;
+	}
+	
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.model;
+
+import static io.leitstand.commons.model.ObjectUtil.asSet;
+import static io.leitstand.ui.service.TagInfo.newTagInfo;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.leitstand.commons.db.DatabaseService;
+import io.leitstand.ui.jsonb.JsonPayload;
+import io.leitstand.ui.service.TagInfo;
+
+public class TagCatalogTest {
+
+	private DatabaseService db;
+	private TagCatalog catalog;
+	
+	@Before
+	public void initTestEnvironment() {
+		db = mock(DatabaseService.class);
+		catalog = new TagCatalog(db, new InMemoryInvalidationChannel());
+	}
+	
+	private static TagInfo tag(String name, String color) {
+		return newTagInfo()
+			   .withName(name)
+			   .withColor(color)
+			   .build();
+	}
+	
+	@Test
+	public void read_tags_once() {
+		when(db.executeQuery(any(), any())).thenReturn(asList(tag("a","red")));
+		
+		JsonPayload payload = catalog.getTagsPayload();
+		
+		assertSame(payload, catalog.getTagsPayload());
+		assertEquals(1, catalog.getTags().size());
+		verify(db,times(1)).executeQuery(any(), any());
+	}
+	
+	@Test
+	public void change_entity_tag_when_tags_were_modified() {
+		when(db.executeQuery(any(), any())).thenReturn(asList(tag("a","red")))
+										   .thenReturn(asList(tag("a","green")));
+		long version = catalog.getVersion();
+		String etag = catalog.getTagsPayload().getEtag();
+		
+		catalog.onTagChanged(new TagChangedEvent(asSet("a")));
+		
+		assertNotEquals(version, catalog.getVersion());
+		assertNotEquals(etag, catalog.getTagsPayload().getEtag());
+		verify(db,times(2)).executeQuery(any(), any());
+	}
+	
+	@Test
+	public void keep_entity_tag_when_tags_were_not_modified() {
+		when(db.executeQuery(any(), any())).thenReturn(asList(tag("a","red")))
+		   								   .thenReturn(asList(tag("a","red")));
+		String etag = catalog.getTagsPayload().getEtag();
+		
+		catalog.evictKeys(asSet("a"));
+		
+		assertEquals(etag, catalog.getTagsPayload().getEtag());
+	}
+	
+}
@@ -4,6 +4,11 @@ import static io.leitstand.testing.ut.LeitstandCoreMatchers.isEmptySet;
 import static io.leitstand.testing.ut.LeitstandCoreMatchers.reason;
 import static io.leitstand.ui.service.ReasonCode.LUI0010I_TAG_NOT_FOUND;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import javax.enterprise.event.Event;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -22,8 +27,20 @@ public class TagServiceIT extends LeitstandIT{
 	private TagService service;
 	
 	@Before
+	@SuppressWarnings("unchecked")
 	public void createTagService() {
-		service = new DefaultTagService(getDatabase());
+		InvalidationChannel channel = new InMemoryInvalidationChannel();
+		TagCatalog catalog = new TagCatalog(getDatabase(), channel);
+		Event<TagChangedEvent> changes = mock(Event.class);
+		// No transaction observers in this environment. Drop the catalog immediately.
+		doAnswer(invocation -> {
+			catalog.evict();
+			return null;
+		}).when(changes).fire(any(TagChangedEvent.class));
+		service = new DefaultTagService(getDatabase(),
+										channel,
+										catalog,
+										changes);
 	}
 	
 	@Test
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.rs;
+
+import static io.leitstand.commons.model.ObjectUtil.asSet;
+import static io.leitstand.ui.model.InvalidationChannel.TAGS;
+import static io.leitstand.ui.service.DictionaryId.randomDictionaryId;
+import static io.leitstand.ui.service.DictionaryName.dictionaryName;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseBroadcaster;
+import javax.ws.rs.sse.SseEventSink;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.leitstand.ui.model.DictionaryChangedEvent;
+import io.leitstand.ui.model.InMemoryInvalidationChannel;
+import io.leitstand.ui.model.InvalidationChannel;
+import io.leitstand.ui.model.TagChangedEvent;
+
+public class ChangeFeedTest {
+
+	private InvalidationChannel channel;
+	private ChangeFeed feed;
+	private Sse sse;
+	
+	@Before
+	public void initTestEnvironment() {
+		channel = new InMemoryInvalidationChannel();
+		feed = new ChangeFeed(channel);
+		feed.subscribe();
+		sse = mock(Sse.class, RETURNS_DEEP_STUBS);
+	}
+	
+	@Test
+	public void ignore_changes_when_no_client_is_connected() {
+		feed.onTagChanged(new TagChangedEvent(asSet("tag")));
+		
+		verifyZeroInteractions(sse);
+	}
+	
+	@Test
+	public void push_local_tag_changes() {
+		SseEventSink sink = mock(SseEventSink.class);
+		feed.register(sse, sink);
+		SseBroadcaster broadcaster = sse.newBroadcaster();
+		
+		feed.onTagChanged(new TagChangedEvent(asSet("tag")));
+		
+		verify(broadcaster).register(sink);
+		verify(sse.newEventBuilder()).name(TAGS);
+		verify(broadcaster).broadcast(any(OutboundSseEvent.class));
+	}
+	
+	@Test
+	public void push_local_dictionary_changes() {
+		feed.register(sse, mock(SseEventSink.class));
+		SseBroadcaster broadcaster = sse.newBroadcaster();
+		
+		feed.onDictionaryChanged(new DictionaryChangedEvent(randomDictionaryId(), 
+															dictionaryName("dictionary")));
+		
+		verify(broadcaster).broadcast(any(OutboundSseEvent.class));
+	}
+	
+	@Test
+	public void push_remote_tag_changes() {
+		feed.register(sse, mock(SseEventSink.class));
+		SseBroadcaster broadcaster = sse.newBroadcaster();
+		
+		channel.publish(TAGS, asSet("tag"));
+		
+		verify(broadcaster).broadcast(any(OutboundSseEvent.class));
+	}
+	
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2020 RtBrick Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.leitstand.ui.rs;
+
+import static io.leitstand.testing.ut.LeitstandCoreMatchers.reason;
+import static io.leitstand.ui.service.DictionaryEntry.newDictionaryEntry;
+import static io.leitstand.ui.service.DictionaryId.randomDictionaryId;
+import static io.leitstand.ui.service.DictionaryInfo.newDictionaryInfo;
+import static io.leitstand.ui.service.DictionaryName.dictionaryName;
+import static io.leitstand.ui.service.ReasonCode.LUI0008E_INVALID_DICTIONARY_IMPORT;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.mockito.ArgumentCaptor;
+
+import io.leitstand.commons.UnprocessableEntityException;
+import io.leitstand.ui.service.DictionaryEntry;
+import io.leitstand.ui.service.DictionaryId;
+import io.leitstand.ui.service.DictionaryService;
+import io.leitstand.ui.service.DictionarySettings;
+
+public class DictionaryImportReaderTest {
+	
+	private static final DictionaryId DICTIONARY_ID = randomDictionaryId();
+
+	@Rule
+	public ExpectedException exception = ExpectedException.none();
+	
+	private DictionaryService service;
+	private DictionaryImportReader reader;
+	
+	@Before
+	public void initTestEnvironment() {
+		service = mock(DictionaryService.class);
+		reader = new DictionaryImportReader(service, 2);
+	}
+	
+	private static ByteArrayInputStream ndjson(String... lines) {
+		return new ByteArrayInputStream(String.join("\n", lines).getBytes(UTF_8));
+	}
+	
+	private static DictionaryEntry entry(String value) {
+		return newDictionaryEntry()
+			   .withValue(value)
+			   .withLabel("Option "+value)
+			   .build();
+	}
+	
+	@Test
+	public void import_dictionary_entries_in_chunks() throws IOException {
+		reader.read(ndjson("{\"dictionary_id\":\""+DICTIONARY_ID+"\",\"dictionary_name\":\"dictionary\"}",
+						   "{\"value\":\"a\",\"label\":\"Option a\"}",
+						   "{\"value\":\"b\",\"label\":\"Option b\"}",
+						   "",
+						   "{\"value\":\"c\",\"label\":\"Option c\"}"));
+		
+		ArgumentCaptor<DictionarySettings> first = ArgumentCaptor.forClass(DictionarySettings.class);
+		verify(service).importDictionary(first.capture());
+		assertEquals(DICTIONARY_ID, first.getValue().getDictionaryId());
+		assertEquals(2, first.getValue().getEntries().size());
+		verify(service).importDictionaryEntries(DICTIONARY_ID, asList(entry("c")));
+		assertEquals(1, reader.getDictionaries());
+		assertEquals(3, reader.getEntries());
+	}
+	
+	@Test
+	public void import_dictionary_without_entries() throws IOException {
+		reader.read(ndjson("{\"dictionary_id\":\""+DICTIONARY_ID+"\",\"dictionary_name\":\"dictionary\"}"));
+		
+		ArgumentCaptor<DictionarySettings> dict = ArgumentCaptor.forClass(DictionarySettings.class);
+		verify(service).importDictionary(dict.capture());
+		assertEquals(0, dict.getValue().getEntries().size());
+		verify(service,never()).importDictionaryEntries(any(DictionaryId.class), any());
+	}
+	
+	@Test
+	public void reject_entry_without_dictionary() throws IOException {
+		exception.expect(UnprocessableEntityException.class);
+		exception.expect(reason(LUI0008E_INVALID_DICTIONARY_IMPORT));
+		
+		reader.read(ndjson("{\"value\":\"a\"}"));
+	}
+	
+	@Test
+	public void reject_malformed_line() throws IOException {
+		exception.expect(UnprocessableEntityException.class);
+		exception.expect(reason(LUI0008E_INVALID_DICTIONARY_IMPORT));
+		
+		reader.read(ndjson("{\"dictionary_id\":\""+DICTIONARY_ID+"\",\"dictionary_name\":\"dictionary\"}",
+						   "{\"value\":"));
+	}
+	
+	@Test
+	public void reject_malformed_line_before_any_dictionary_is_imported() throws IOException {
+		try {
+			reader.read(ndjson("{\"dictionary_id\":\""+DICTIONARY_ID+"\",\"dictionary_name\":\"dictionary\"}",
+							   "{\"value\":\"a\",\"label\":\"Option a\"}",
+							   "{\"value\":\"b\",\"label\":\"Option b\"}",
+							   "{\"value\":\"c\",\"label\":\"Option c\"}",
+							   "{\"value\":"));
+			fail("UnprocessableEntityException expected");
+		} catch (UnprocessableEntityException e) {
+			assertThat(e, reason(LUI0008E_INVALID_DICTIONARY_IMPORT));
+		}
+		verify(service,never()).importDictionary(any(DictionarySettings.class));
+		verify(service,never()).importDictionaryEntries(any(DictionaryId.class), any());
+	}
+	
+	@Test
+	public void export_dictionaries_in_import_format() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		DictionaryExportWriter writer = new DictionaryExportWriter(out);
+		writer.dictionary(newDictionaryInfo()
+						  .withDictionaryId(DICTIONARY_ID)
+						  .withDictionaryName(dictionaryName("dictionary"))
+						  .build());
+		writer.entry(entry("a"));
+		writer.flush();
+		
+		reader.read(new ByteArrayInputStream(out.toByteArray()));
+		
+		ArgumentCaptor<DictionarySettings> dict = ArgumentCaptor.forClass(DictionarySettings.class);
+		verify(service).importDictionary(dict.capture());
+		assertEquals(DICTIONARY_ID, dict.getValue().getDictionaryId());
+		assertEquals(entry("a"), dict.getValue().getEntries().first());
+	}
+	
+}
@@ -5,11 +5,23 @@ package io.leitstand.ui.rs;
 
 import static io.leitstand.commons.rs.ReasonCode.VAL0003E_IMMUTABLE_ATTRIBUTE;
 import static io.leitstand.testing.ut.LeitstandCoreMatchers.reason;
+import static io.leitstand.ui.service.DictionaryEntry.newDictionaryEntry;
 import static io.leitstand.ui.service.DictionaryId.randomDictionaryId;
 import static io.leitstand.ui.service.DictionarySettings.newDictionarySettings;
+import static io.leitstand.ui.service.DictionaryVersion.newDictionaryVersion;
+import static javax.ws.rs.core.Response.notModified;
+import static javax.ws.rs.core.Response.status;
+import static javax.ws.rs.core.Response.Status.PRECONDITION_FAILED;
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Date;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 
 import org.junit.Rule;
@@ -22,6 +34,7 @@ import org.mockito.runners.MockitoJUnitRunner;
 
 import io.leitstand.commons.UnprocessableEntityException;
 import io.leitstand.commons.messages.Messages;
+import io.leitstand.ui.service.DictionaryEntry;
 import io.leitstand.ui.service.DictionaryId;
 import io.leitstand.ui.service.DictionaryName;
 import io.leitstand.ui.service.DictionaryService;
@@ -42,6 +55,9 @@ public class DictionaryResourceTest {
 	@Mock
 	private Messages messages;
 	
+	@Mock
+	private Request request;
+	
 	@InjectMocks
 	private DictionaryResource resource = new DictionaryResource();
 	
@@ -113,5 +129,124 @@ public class DictionaryResourceTest {
 		
 	}
 	
+	@Test
+	public void send_dictionary_with_entity_tag() {
+		DictionarySettings dict = newDictionarySettings()
+								  .withDictionaryId(DICTIONARY_ID)
+								  .withDictionaryName(DICTIONARY_NAME)
+								  .build();
+		when(service.getDictionaryVersion(DICTIONARY_NAME)).thenReturn(newDictionaryVersion()
+																	   .withDictionaryId(DICTIONARY_ID)
+																	   .withModCount(3)
+																	   .withDateModified(new Date())
+																	   .build());
+		when(service.getDictionary(DICTIONARY_NAME)).thenReturn(dict);
+		
+		Response response = resource.getDictionary(request, DICTIONARY_NAME);
+		
+		assertEquals(200,response.getStatus());
+		assertEquals(new EntityTag(DICTIONARY_ID+"-3"),response.getEntityTag());
+		assertEquals(dict,response.getEntity());
+	}
+	
+	@Test
+	public void send_entity_tag_of_returned_dictionary_if_dictionary_was_modified_after_version_was_read() {
+		DictionarySettings dict = newDictionarySettings()
+								  .withDictionaryId(DICTIONARY_ID)
+								  .withDictionaryName(DICTIONARY_NAME)
+								  .withVersion(newDictionaryVersion()
+										  	   .withDictionaryId(DICTIONARY_ID)
+										  	   .withModCount(4)
+										  	   .build())
+								  .build();
+		when(service.getDictionaryVersion(DICTIONARY_ID)).thenReturn(newDictionaryVersion()
+																	 .withDictionaryId(DICTIONARY_ID)
+																	 .withModCount(3)
+																	 .build());
+		when(service.getDictionary(DICTIONARY_ID)).thenReturn(dict);
+		
+		Response response = resource.getDictionary(request, DICTIONARY_ID);
+		
+		assertEquals(200,response.getStatus());
+		assertEquals(new EntityTag(DICTIONARY_ID+"-4"),response.getEntityTag());
+		assertEquals(dict,response.getEntity());
+	}
+	
+	@Test
+	public void send_not_modified_without_reading_dictionary_if_entity_tag_matches() {
+		EntityTag etag = new EntityTag(DICTIONARY_ID+"-3");
+		when(service.getDictionaryVersion(DICTIONARY_ID)).thenReturn(newDictionaryVersion()
+																	 .withDictionaryId(DICTIONARY_ID)
+																	 .withModCount(3)
+																	 .build());
+		when(request.evaluatePreconditions(etag)).thenReturn(notModified(etag));
+		
+		Response response = resource.getDictionary(request, DICTIONARY_ID);
+		
+		assertEquals(304,response.getStatus());
+		verify(service,never()).getDictionary(any(DictionaryId.class));
+	}
+	
+	@Test
+	public void store_entry_in_expected_version_if_entity_tag_matches() {
+		DictionaryEntry entry = newDictionaryEntry()
+								.withValue("a")
+								.withLabel("Option A")
+								.build();
+		EntityTag etag = new EntityTag(DICTIONARY_ID+"-3");
+		when(service.getDictionaryVersion(DICTIONARY_ID)).thenReturn(newDictionaryVersion()
+																	 .withDictionaryId(DICTIONARY_ID)
+																	 .withModCount(3)
+																	 .build());
+		
+		Response response = resource.storeDictionaryEntry(request, etag.toString(), DICTIONARY_ID, "a", entry);
+		
+		assertEquals(200,response.getStatus());
+		verify(service).storeDictionaryEntry(DICTIONARY_ID, 3, entry);
+	}
+	
+	@Test
+	public void store_entry_regardless_of_version_without_if_match_header() {
+		DictionaryEntry entry = newDictionaryEntry()
+								.withValue("a")
+								.withLabel("Option A")
+								.build();
+		when(service.getDictionaryVersion(DICTIONARY_NAME)).thenReturn(newDictionaryVersion()
+																	   .withDictionaryId(DICTIONARY_ID)
+																	   .withModCount(3)
+																	   .build());
+		
+		Response response = resource.storeDictionaryEntry(request, null, DICTIONARY_NAME, "a", entry);
+		
+		assertEquals(200,response.getStatus());
+		verify(service).storeDictionaryEntry(DICTIONARY_ID, null, entry);
+		verify(request,never()).evaluatePreconditions(any(EntityTag.class));
+	}
+	
+	@Test
+	public void send_precondition_failed_without_removing_entry_if_entity_tag_does_not_match() {
+		EntityTag etag = new EntityTag(DICTIONARY_ID+"-3");
+		when(service.getDictionaryVersion(DICTIONARY_ID)).thenReturn(newDictionaryVersion()
+																	 .withDictionaryId(DICTIONARY_ID)
+																	 .withModCount(3)
+																	 .build());
+		when(request.evaluatePreconditions(etag)).thenReturn(status(PRECONDITION_FAILED));
+		
+		Response response = resource.removeDictionaryEntry(request, "\""+DICTIONARY_ID+"-2\"", DICTIONARY_ID, "a");
+		
+		assertEquals(412,response.getStatus());
+		verify(service,never()).removeDictionaryEntry(any(DictionaryId.class), any(Integer.class), any(String.class));
+	}
+	
+	@Test
+	public void report_conflict_when_attempting_to_modify_entry_value() {
+		exception.expect(UnprocessableEntityException.class);
+		exception.expect(reason(VAL0003E_IMMUTABLE_ATTRIBUTE));
+		
+		DictionaryEntry entry = newDictionaryEntry()
+								.withValue("b")
+								.build();
+		resource.storeDictionaryEntry(request, null, DICTIONARY_ID, "a", entry);
+	}
 	
 }
@@ -1,42 +1,111 @@
 package io.leitstand.ui.rs;
 
+import static io.leitstand.ui.jsonb.JsonPayload.jsonPayload;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static javax.ws.rs.core.HttpHeaders.CACHE_CONTROL;
+import static javax.ws.rs.core.HttpHeaders.CONTENT_ENCODING;
+import static javax.ws.rs.core.HttpHeaders.VARY;
+import static javax.ws.rs.core.Response.notModified;
 import static javax.ws.rs.core.Response.Status.NOT_FOUND;
+import static javax.ws.rs.core.Response.Status.NOT_MODIFIED;
 import static javax.ws.rs.core.Response.Status.OK;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
-import static org.mockito.Mockito.mock;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.when;
 
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
-import io.leitstand.ui.model.ModuleDescriptor;
+import io.leitstand.security.auth.UserContext;
+import io.leitstand.ui.jsonb.JsonPayload;
 import io.leitstand.ui.model.ModuleDescriptorService;
 
 @RunWith(MockitoJUnitRunner.class)
 public class ModuleDescriptorResourceTest {
 
-    
+    private static final JsonPayload DESCRIPTOR = jsonPayload("{\"module\":\"module\"}".getBytes(UTF_8));
+
     @Mock
     private ModuleDescriptorService descriptors;
-    
+
+    @Mock
+    private Request request;
+
+    @Mock
+    private UserContext user;
+
     @InjectMocks
     private ModuleDescriptorResource resource = new ModuleDescriptorResource();
-    
+
     @Test
     public void return_not_found_if_module_descriptor_does_not_exist() {
-        assertThat(resource.getModuleDescription("unknown").getStatus(),is(NOT_FOUND.getStatusCode()));
+        assertThat(resource.getModuleDescription(request,null,"unknown").getStatus(),is(NOT_FOUND.getStatusCode()));
     }
 
     @Test
     public void return_success_if_module_descriptor_exists() {
-        ModuleDescriptor descriptor = mock(ModuleDescriptor.class);
-        when(descriptors.getModuleDescriptor("module")).thenReturn(descriptor);
-        assertThat(resource.getModuleDescription("module").getStatus(),is(OK.getStatusCode()));
+        when(descriptors.getModuleDescriptorPayload(eq("module"),any(Predicate.class))).thenReturn(DESCRIPTOR);
+        Response response = resource.getModuleDescription(request,null,"module");
+        assertThat(response.getStatus(),is(OK.getStatusCode()));
+        assertThat(response.getEntityTag(),is(new EntityTag(DESCRIPTOR.getEtag())));
+    }
+
+    @Test
+    public void return_gzip_encoded_module_descriptor_if_accepted() {
+        StringBuilder json = new StringBuilder("[");
+        for(int i=0; i < 100; i++) {
+            json.append("{\"module\":\"module\"},");
+        }
+        json.append("{}]");
+        JsonPayload descriptor = jsonPayload(json.toString().getBytes(UTF_8));
+        when(descriptors.getModuleDescriptorPayload(eq("module"),any(Predicate.class))).thenReturn(descriptor);
+        Response response = resource.getModuleDescription(request,"gzip, deflate","module");
+        assertThat(response.getStatus(),is(OK.getStatusCode()));
+        assertThat(response.getHeaderString(CONTENT_ENCODING),is("gzip"));
+        assertThat(response.getHeaderString(VARY),is("Accept-Encoding, Authorization, Cookie"));
+        assertThat(response.getHeaderString(CACHE_CONTROL),is("private"));
+        assertThat(response.getEntityTag(),is(new EntityTag(descriptor.getEtag()+"-gzip")));
+    }
+
+    @Test
+    public void expand_wildcard_to_all_modules() {
+        SortedSet<String> names = new TreeSet<>(asList("a","b"));
+        when(descriptors.getModuleNames()).thenReturn(names);
+        when(descriptors.getModuleDescriptorsPayload(eq(names),any(Predicate.class))).thenReturn(DESCRIPTOR);
+        Response response = resource.getModuleDescriptions(request,null,asList("*"));
+        assertThat(response.getStatus(),is(OK.getStatusCode()));
+        assertThat(response.getEntityTag(),is(new EntityTag(DESCRIPTOR.getEtag())));
+    }
+
+    @Test
+    public void return_requested_modules() {
+        when(descriptors.getModuleDescriptorsPayload(eq(asList("a","b")),any(Predicate.class))).thenReturn(DESCRIPTOR);
+        Response response = resource.getModuleDescriptions(request,null,asList("a","b"));
+        assertThat(response.getStatus(),is(OK.getStatusCode()));
+        assertThat(response.getEntityTag(),is(new EntityTag(DESCRIPTOR.getEtag())));
+        assertThat(response.getHeaderString(CACHE_CONTROL),is("private"));
+    }
+
+    @Test
+    public void return_not_modified_if_module_descriptor_etag_matches() {
+        EntityTag etag = new EntityTag(DESCRIPTOR.getEtag());
+        when(descriptors.getModuleDescriptorPayload(eq("module"),any(Predicate.class))).thenReturn(DESCRIPTOR);
+        when(request.evaluatePreconditions(etag)).thenReturn(notModified(etag));
+        assertThat(resource.getModuleDescription(request,null,"module").getStatus(),is(NOT_MODIFIED.getStatusCode()));
     }
 
-    
 }
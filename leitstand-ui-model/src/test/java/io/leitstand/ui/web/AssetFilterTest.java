@@ -0,0 +1,110 @@
+package io.leitstand.ui.web;
+
+import static io.leitstand.ui.web.AssetFilter.IMMUTABLE;
+import static io.leitstand.ui.web.AssetFilter.REVALIDATE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static javax.servlet.http.HttpServletResponse.SC_NOT_MODIFIED;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.TreeSet;
+
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AssetFilterTest {
+
+    @Mock
+    private FilterConfig config;
+
+    @Mock
+    private ServletContext context;
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private FilterChain chain;
+
+    private AssetFilter filter = new AssetFilter();
+
+    private String hash;
+
+    @Before
+    public void initFilter() throws IOException {
+        when(config.getServletContext()).thenReturn(context);
+        when(context.getResourcePaths("/ui/")).thenReturn(new TreeSet<>(asList("/ui/js/")));
+        when(context.getResourcePaths("/ui/js/")).thenReturn(new TreeSet<>(asList("/ui/js/ui.js")));
+        when(context.getResourceAsStream("/ui/js/ui.js")).thenReturn(new ByteArrayInputStream("ui".getBytes(UTF_8)));
+        filter.init(config);
+        hash = AssetManifest.hash(new ByteArrayInputStream("ui".getBytes(UTF_8)));
+
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getContextPath()).thenReturn("");
+    }
+
+    @Test
+    public void cache_fingerprinted_resource_for_a_year() throws IOException, ServletException {
+        when(request.getRequestURI()).thenReturn("/ui/js/ui.js");
+        when(request.getParameter("v")).thenReturn(hash);
+
+        filter.doFilter(request, response, chain);
+
+        verify(response).setHeader("Cache-Control", IMMUTABLE);
+        verify(response).setHeader("ETag", "\""+hash+"\"");
+        verify(chain).doFilter(request, response);
+    }
+
+    @Test
+    public void revalidate_resource_with_outdated_fingerprint() throws IOException, ServletException {
+        when(request.getRequestURI()).thenReturn("/ui/js/ui.js");
+        when(request.getParameter("v")).thenReturn("outdated");
+
+        filter.doFilter(request, response, chain);
+
+        verify(response).setHeader("Cache-Control", REVALIDATE);
+        verify(chain).doFilter(request, response);
+    }
+
+    @Test
+    public void send_not_modified_if_etag_matches() throws IOException, ServletException {
+        when(request.getRequestURI()).thenReturn("/ui/js/ui.js");
+        when(request.getHeader("If-None-Match")).thenReturn("\""+hash+"\"");
+
+        filter.doFilter(request, response, chain);
+
+        verify(response).setHeader("Cache-Control", REVALIDATE);
+        verify(response).setStatus(SC_NOT_MODIFIED);
+        verify(chain, never()).doFilter(request, response);
+    }
+
+    @Test
+    public void pass_unknown_resources() throws IOException, ServletException {
+        when(request.getRequestURI()).thenReturn("/ui/views/inventory/elements.html");
+
+        filter.doFilter(request, response, chain);
+
+        verify(response, never()).setHeader(anyString(), anyString());
+        verify(chain).doFilter(request, response);
+    }
+
+}
@@ -0,0 +1,160 @@
+package io.leitstand.ui.web;
+
+import static io.leitstand.ui.jsonb.JsonPayload.jsonPayload;
+import static io.leitstand.ui.web.LeitstandPage.PRIVATE_REVALIDATE;
+import static io.leitstand.ui.web.LeitstandPage.fingerprintAssets;
+import static io.leitstand.ui.web.LeitstandPage.moduleName;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import io.leitstand.security.auth.UserContext;
+import io.leitstand.ui.model.MainMenuService;
+import io.leitstand.ui.model.ModuleDescriptorService;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LeitstandPageTest {
+
+    private static final String TEMPLATE = "<html><head><title>Leitstand</title></head><body></body></html>";
+
+    @Mock
+    private MainMenuService menu;
+
+    @Mock
+    private ModuleDescriptorService modules;
+
+    @Mock
+    private UserContext user;
+
+    @Mock
+    private ServletConfig config;
+
+    @Mock
+    private ServletContext context;
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @InjectMocks
+    private LeitstandPage page = new LeitstandPage();
+
+    private ByteArrayOutputStream html;
+
+    @Before
+    public void initPage() throws ServletException, IOException {
+        when(config.getServletContext()).thenReturn(context);
+        when(context.getResourceAsStream("/leitstand.html")).thenReturn(new ByteArrayInputStream(TEMPLATE.getBytes(UTF_8)));
+        page.init(config);
+
+        html = new ByteArrayOutputStream();
+        when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+
+            @Override
+            public void write(int b) throws IOException {
+                html.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+                // Not needed
+            }
+        });
+        when(menu.getMainMenuPayload()).thenReturn(jsonPayload("[{\"module\":\"inventory\"}]".getBytes(UTF_8)));
+    }
+
+    @Test
+    public void read_module_name_from_view_path() {
+        assertThat(moduleName("/inventory/elements.html"),is("inventory"));
+        assertThat(moduleName("/inventory"),is("inventory"));
+        assertThat(moduleName("/"),is(nullValue()));
+        assertThat(moduleName(null),is(nullValue()));
+    }
+
+    @Test
+    public void inline_main_menu_and_module_descriptor() throws IOException {
+        when(request.getPathInfo()).thenReturn("/inventory/elements.html");
+        when(modules.getModuleDescriptorPayload(eq("inventory"),any(Predicate.class)))
+        .thenReturn(jsonPayload("{\"module\":\"inventory\",\"label\":\"</script>\"}".getBytes(UTF_8)));
+
+        page.doGet(request, response);
+
+        assertThat(html.toString("UTF-8"),
+                   is("<html><head><title>Leitstand</title>"+
+                      "<script type=\"application/json\" id=\"leitstand-main-menu\">[{\"module\":\"inventory\"}]</script>\n"+
+                      "<script type=\"application/json\" id=\"leitstand-module\">{\"module\":\"inventory\",\"label\":\"\\u003c/script>\"}</script>\n"+
+                      "<script type=\"application/json\" id=\"leitstand-assets\">{}</script>\n"+
+                      "</head><body></body></html>"));
+        verify(response).setHeader("Cache-Control", PRIVATE_REVALIDATE);
+    }
+
+    @Test
+    public void fingerprint_stylesheets_and_classic_scripts() throws IOException {
+        when(context.getResourcePaths("/ui/")).thenReturn(new TreeSet<>(asList("/ui/css/","/ui/js/")));
+        when(context.getResourcePaths("/ui/css/")).thenReturn(new TreeSet<>(asList("/ui/css/leitstand.css")));
+        when(context.getResourcePaths("/ui/js/")).thenReturn(new TreeSet<>(asList("/ui/js/mustache.js","/ui/js/ui.js")));
+        when(context.getResourceAsStream("/ui/css/leitstand.css")).thenReturn(new ByteArrayInputStream("css".getBytes(UTF_8)));
+        when(context.getResourceAsStream("/ui/js/mustache.js")).thenReturn(new ByteArrayInputStream("mustache".getBytes(UTF_8)));
+        when(context.getResourceAsStream("/ui/js/ui.js")).thenReturn(new ByteArrayInputStream("ui".getBytes(UTF_8)));
+        AssetManifest manifest = new AssetManifest(context);
+
+        String html = fingerprintAssets("<link rel=\"stylesheet\" href=\"/ui/css/leitstand.css\" type=\"text/css\">"+
+                                        "<script src=\"/ui/js/mustache.js\"></script>"+
+                                        "<script src=\"/ui/js/ui.js\" type=\"module\"></script>"+
+                                        "<script src=\"/ui/js/unknown.js\"></script>",
+                                        manifest);
+
+        assertThat(html,is("<link rel=\"stylesheet\" href=\"/ui/css/leitstand.css?v="+manifest.getHash("/ui/css/leitstand.css")+"\" type=\"text/css\">"+
+                           "<script src=\"/ui/js/mustache.js?v="+manifest.getHash("/ui/js/mustache.js")+"\"></script>"+
+                           "<script src=\"/ui/js/ui.js\" type=\"module\"></script>"+
+                           "<script src=\"/ui/js/unknown.js\"></script>"));
+    }
+
+    @Test
+    public void inline_main_menu_only_for_unknown_module() throws IOException {
+        when(request.getPathInfo()).thenReturn("/unknown/view.html");
+
+        page.doGet(request, response);
+
+        assertThat(html.toString("UTF-8"),
+                   is("<html><head><title>Leitstand</title>"+
+                      "<script type=\"application/json\" id=\"leitstand-main-menu\">[{\"module\":\"inventory\"}]</script>\n"+
+                      "<script type=\"application/json\" id=\"leitstand-assets\">{}</script>\n"+
+                      "</head><body></body></html>"));
+    }
+
+}
@@ -829,5 +829,124 @@ export class Json extends Resource  {
 	
 }
 
+/**
+ * Reads a JSON document inlined in the page by the server and removes it from the page.
+ * The server inlines JSON documents in <code>&lt;script type="application/json"&gt;</code> elements
+ * to save requests when the page gets loaded.
+ * @param {String} id the ID of the script element
+ * @returns {Object} the inlined JSON document or <code>null</code> if the document does not exist.
+ */
+export function takeInlinedJson(id){
+	const script = document.getElementById(id);
+	if(!script){
+		return null;
+	}
+	script.remove();
+	return JSON.parse(script.textContent);
+}
+
+// Content hashes of all static UI resources, inlined by the Leitstand page.
+let assets = null;
+
+/**
+ * Returns the fingerprinted URL of a static UI resource.
+ * A fingerprinted URL contains the content hash of the resource and can be cached by the browser forever.
+ * Returns the path unchanged if the content hash of the resource is unknown.
+ * <p>
+ * JavaScript modules shall not be fingerprinted, because a module imported by two different URLs is instantiated twice.
+ * </p>
+ * @param {String} path the resource path
+ * @returns {String} the fingerprinted resource URL
+ */
+export function asset(path){
+	if(assets == null){
+		assets = takeInlinedJson('leitstand-assets') || {};
+	}
+	const hash = assets[path];
+	return hash ? `${path}?v=${hash}` : path;
+}
 
  
+
+/**
+ * Client of the server-sent events change feed.
+ * <p>
+ * The change feed notifies about modified tags, dictionaries and modules.
+ * Every notification is named after the modified entity type and conveys the keys of the modified entities.
+ * An empty key array means that all entities of the given type might have been modified.
+ * </p>
+ * <p>
+ * The feed connects on the first subscription. 
+ * All subscribers are also notified with an empty key array whenever the feed (re-)connects, 
+ * because notifications might have been missed while the feed was disconnected.
+ * Caches shall fall back to polling while the feed is not connected.
+ * </p>
+ */
+export class ChangeFeed {
+	
+	/**
+	 * Creates a change feed client.
+	 * @param {String} uri the change feed URI
+	 */
+	constructor(uri){
+		this._uri = uri;
+		this._subscribers = {};
+		this._source = null;
+	}
+	
+	/**
+	 * Subscribes to notifications about modified entities of the specified type.
+	 * @param {String} type the entity type, i.e. <code>tags</code>, <code>dictionaries</code> or <code>modules</code>
+	 * @param {Function} subscriber the callback to process the array of modified entity keys
+	 * @returns a reference to this feed
+	 */
+	subscribe(type, subscriber){
+		let subscribers = this._subscribers[type];
+		if(!subscribers){
+			subscribers = this._subscribers[type] = [];
+			if(this._source){
+				this._source.addEventListener(type, evt => this._notify(type, JSON.parse(evt.data)));
+			}
+		}
+		subscribers.push(subscriber);
+		this._connect();
+		return this;
+	}
+	
+	/**
+	 * Returns whether the feed is connected.
+	 * @returns {boolean} <code>true</code> if the feed is connected and pushes notifications.
+	 */
+	get connected(){
+		return !!this._source && this._source.readyState == EventSource.OPEN;
+	}
+	
+	_connect(){
+		if(this._source || typeof EventSource === 'undefined'){
+			return;
+		}
+		this._source = new EventSource(this._uri);
+		this._source.addEventListener('open', () => {
+			// Notifications might have been missed while the feed was disconnected.
+			Object.keys(this._subscribers).forEach(type => this._notify(type, []));
+		});
+		Object.keys(this._subscribers).forEach(type => {
+			this._source.addEventListener(type, evt => this._notify(type, JSON.parse(evt.data)));
+		});
+	}
+	
+	_notify(type, keys){
+		(this._subscribers[type] || []).forEach(subscriber => {
+			try {
+				subscriber(keys);
+			} catch (e) {
+				console.error(e);
+			}
+		});
+	}
+}
+
+/**
+ * The change feed of the Leitstand UI.
+ */
+export const CHANGES = new ChangeFeed('/api/v1/ui/changes');
@@ -75,7 +75,7 @@
 
 import {UserContext,Location,router} from './ui-core.js';
 import {Modules} from './ui-modules.js';
-import {Json} from './client.js';
+import {Json,CHANGES,takeInlinedJson} from './client.js';
 import {Element} from './ui-dom.js';
 
 /**
@@ -1338,6 +1338,74 @@ class Textarea extends InputControl {
 	}
 }
 
+/**
+ * Loads the dictionaries of all select boxes rendered in the same tick with a single request.
+ * <p>
+ * The first lookup schedules the request and all lookups issued until the request is sent are added to the same batch.
+ * A dictionary can be referenced by its ID or its name.
+ * </p>
+ */
+class Dictionaries {
+	
+	constructor(){
+		this._batch = null;
+		// Loaded dictionaries by ID and name along with the time when the dictionary expires. 
+		// Cached dictionaries are used until they expire unless the change feed is connected.
+		this._cache = new Map();
+		CHANGES.subscribe('dictionaries', keys => {
+			if(keys.length == 0){
+				this._cache.clear();
+				return;
+			}
+			keys.forEach(key => {
+				const cached = this._cache.get(key);
+				if(cached){
+					this._cache.delete(cached.dict.dictionary_id);
+					this._cache.delete(cached.dict.dictionary_name);
+				}
+			});
+		});
+	}
+	
+	/**
+	 * Loads the specified dictionary.
+	 * @param {String} dictionary the dictionary ID or name
+	 * @returns {Promise} a promise to process the dictionary. The promise is rejected if the dictionary does not exist.
+	 */
+	dictionary(dictionary){
+		const cached = this._cache.get(dictionary);
+		if(cached && (CHANGES.connected || cached.expires > Date.now())){
+			return Promise.resolve(cached.dict);
+		}
+		if(!this._batch){
+			const batch = {'dictionaries':new Set()};
+			batch.loaded = new Promise((resolve,reject) => {
+				setTimeout(() => {
+					// Close the batch and load all requested dictionaries.
+					this._batch = null;
+					const query = [...batch.dictionaries].map(d => `dictionary=${encodeURIComponent(d)}`).join('&');
+					new Json(`/api/v1/ui/dictionarys/_bulk?${query}`).load().then(resolve).catch(reject);
+				});
+			});
+			this._batch = batch;
+		}
+		this._batch.dictionaries.add(dictionary);
+		return this._batch.loaded.then(dictionaries => {
+			const dict = dictionaries.find(d => d.dictionary_id == dictionary || d.dictionary_name == dictionary);
+			if(!dict){
+				throw new Error(`Dictionary ${dictionary} does not exist`);
+			}
+			// Poll the dictionary every 5 seconds while the change feed is not connected.
+			const cached = {'dict':dict, 'expires':Date.now() + 5000};
+			this._cache.set(dict.dictionary_id, cached);
+			this._cache.set(dict.dictionary_name, cached);
+			return dict;
+		});
+	}
+}
+
+const DICTIONARIES = new Dictionaries();
+
 /**
  * Select box UI component.
  * <p>
@@ -1364,6 +1432,10 @@ class Textarea extends InputControl {
  * <ui-select name="element_role" options="element_role_list">
  *   <ui-note>The element role in the network</ui-note>
  * </ui-select>
+ * @example <caption>Select Box with Type-Ahead Search in a Large Dictionary</caption>
+ * <ui-select name="site" dictionary="sites" typeahead limit="20">
+ *   <ui-note>Type the site name or site code to search the matching sites.</ui-note>
+ * </ui-select>
  */
 export class Select extends InputControl {
 
@@ -1384,9 +1456,8 @@ export class Select extends InputControl {
 		
 		const dictionary = this.getAttribute('dictionary');
 		if(dictionary){
-			// Lookup dictionary values.
-			const resource = new Json(`/api/v1/ui/dictionarys/${dictionary}`)
-			return resource.load().then(d => d.entries).catch(e => defaultOptions());
+			// Lookup dictionary values. Lookups of all select boxes rendered in the same tick are sent in one request.
+			return DICTIONARIES.dictionary(dictionary).then(d => d.entries).catch(e => defaultOptions());
 		}
 		
 		const binding = this.getAttribute('options');
@@ -1436,10 +1507,71 @@ export class Select extends InputControl {
 		return null;
 	}
 	
+	/**
+	 * Renders an input field that searches the dictionary entries while the user is typing.
+	 * <p>
+	 * The matching entries are offered as suggestions. 
+	 * Only the first entries matching the typed label or value prefix are loaded,
+	 * which is limited to 20 entries unless the <code>limit</code> attribute specifies a different limit.
+	 * </p>
+	 */
+	renderTypeAhead(){
+		const label = this.label;
+		const name = this.name;
+		const note = this.note;
+		const dictionary = encodeURIComponent(this.getAttribute('dictionary'));
+		const limit = this.getAttribute('limit') || 20;
+		this.innerHTML=html `<div class="form-group">
+							   <div class="label">
+							     <label for="${name}">${label}</label>
+							   </div>
+							   <div class="input">
+							     <input id="${name}" 
+							            type="text" ${this.readonly} ${this.disabled}
+							            class="form-control" 
+							            name="${name}" 
+							            value="$${this.value}" 
+							            placeholder="$${this.placeholder}"
+							            list="${name}-entries"
+							            autocomplete="off">
+							     <datalist id="${name}-entries"></datalist>
+							   </div>
+							   ${note ? `<p class="note">${note}</p>` : ''}
+							 </div>`;
+		const input = this.querySelector('input');
+		const suggestions = this.querySelector('datalist');
+		let timer = null;
+		let latest = 0;
+		input.addEventListener('input',() => {
+			// Wait until the user stops typing.
+			clearTimeout(timer);
+			timer = setTimeout(() => {
+				const query = ++latest;
+				new Json(`/api/v1/ui/dictionarys/${dictionary}/entries?q=${encodeURIComponent(input.value)}&limit=${limit}`)
+					.load()
+					.then(page => {
+						if(query != latest){
+							// Discard outdated suggestions.
+							return;
+						}
+						suggestions.innerHTML = page.entries.map(entry => html `<option value="$${entry.value}">$${entry.label}</option>`)
+															.reduce((a,b) => a+b,'');
+					});
+			},200);
+		});
+		this.addEventListener('change',(evt) => {
+			this.viewModel.setProperty(this.binding,evt.target.value);
+		});
+	}
+	
 	/**
 	 * Renders the select box DOM.
 	 */
 	renderDom(){
+		if(this.getAttribute('dictionary') && this.isFlagSet('typeahead')){
+			this.renderTypeAhead();
+			return;
+		}
 		const label = this.label;
 		const name = this.name;
 		const note = this.note;
@@ -2042,9 +2174,11 @@ class MainMenu extends HTMLElement {
 					 `;
 		};
 		
-		const loader = new Json('/api/v1/ui/modules');
+		// Use the main menu inlined in the Leitstand page, if present.
+		const inlined = takeInlinedJson('leitstand-main-menu');
+		const loader = inlined ? Promise.resolve(inlined) : new Json('/api/v1/ui/modules').load();
 		
-		loader.load()
+		loader
 			  .then((menu) => {
 				  this.innerHTML = render(menu);
 				 	const header = this.querySelector("header");
@@ -2828,15 +2962,20 @@ class Tags extends Json {
 		this._tags = {};
 		this._dateRead = 0;	
 		this._load = null;
+		// Reload the tags when the change feed reports modified tags.
+		CHANGES.subscribe('tags', () => {this._load = null});
 	}
 	
 	tags() {
-		if (this._dateRead < Date.now()) {
+		// Poll the tags every 5 seconds while the change feed is not connected.
+		if (!this._load || (!CHANGES.connected && this._dateRead < Date.now())) {
 			this._dateRead = Date.now() + 5000;
 			this._load = this.json('/api/v1/ui/tags')
 					    	 .GET()
 			   	   	   	  	 .then(tags => {
-									tags.forEach((t) => {this._tags[t.tag]=t.color});
+									const colors = {};
+									tags.forEach((t) => {colors[t.tag]=t.color});
+									this._tags = colors;
 									return this;
 							}	
 						);
@@ -112,8 +112,17 @@ export const router = {
  */
 export class UserContext {
 
+	/**
+	 * Initializes the user context after a successful login.
+	 * Dispatches a <code>UILogin</code> event and flags the login for the next page,
+	 * since the login page redirects to the requested view.
+	 * @param user the profile of the authenticated user
+	 */
 	static init(user){
-		return new UserContext(user);
+		const context = new UserContext(user);
+		window.sessionStorage.setItem("login","true");
+		window.dispatchEvent(new CustomEvent('UILogin',{'detail':user}));
+		return context;
 	}
 	
 	/**
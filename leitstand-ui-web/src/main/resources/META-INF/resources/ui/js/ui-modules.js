@@ -13,13 +13,71 @@
  * License for the specific language governing permissions and limitations under
  * the License.
  */
-import {Resource,Json,merge} from './client.js';
+import {Resource,Json,merge,CHANGES,takeInlinedJson,asset} from './client.js';
 import {router,Location,UserContext} from './ui-core.js';
 import {JSONPath} from './ext/jsonpath-plus.min.js';
 
 // Leitstand modules
 const modules = {};
 
+// Prefetched module descriptors of modules that have not been selected yet.
+let descriptors = {};
+
+// The Leitstand page inlines the descriptor of the requested module.
+const inlined = takeInlinedJson('leitstand-module');
+if(inlined){
+	descriptors[inlined.module] = inlined;
+}
+
+// Drop rebuilt modules. A dropped module is loaded again when it gets selected the next time.
+CHANGES.subscribe('modules', names => {
+	if(names.length == 0){
+		// Keep all modules when the feed (re-)connects. Modules change on add-on installation only.
+		return;
+	}
+	names.forEach(name => {
+		delete modules[name];
+		delete descriptors[name];
+	});
+});
+
+/**
+ * Prefetches the descriptors of all modules the user can access in a single request.
+ * A prefetched descriptor saves the descriptor round trip when the module gets selected the first time.
+ * Module controllers and templates are still loaded on demand.
+ */
+function prefetchModuleDescriptors(){
+	const loader = new Json('/api/v1/ui/modules/_batch?module=*');
+	loader.load()
+		  .then(batch => {
+			  for(const name in batch){
+				  if(!modules[name]){
+					  descriptors[name] = batch[name];
+				  }
+			  }
+		  })
+		  .catch(e => console.debug(`Cannot prefetch module descriptors. Reason: ${e}`));
+}
+
+/**
+ * Warms the descriptor cache when the browser is idle to not delay the first view.
+ */
+function schedulePrefetch(){
+	if(window.requestIdleCallback){
+		window.requestIdleCallback(prefetchModuleDescriptors,{timeout:10000});
+	} else {
+		window.setTimeout(prefetchModuleDescriptors,2000);
+	}
+}
+
+// Prefetch the module descriptors after a successful login.
+// The login page redirects to the requested view, hence the first page after the login prefetches the descriptors.
+window.addEventListener('UILogin',schedulePrefetch);
+if(window.sessionStorage.getItem('login')){
+	window.sessionStorage.removeItem('login');
+	schedulePrefetch();
+}
+
 /**
  * Leitstand UI module descriptor.
  * <p>
@@ -123,13 +181,15 @@ export class Modules {
 			return Promise.resolve(module);
 		}
 
-		// Load the module descriptor
+		// Load the module descriptor unless it has been prefetched
 		// then create a module object
 		// then load all dependencies
 		// then cache the initialized module
 		// then return the initialized module
-		const loader = new Json(`/api/v1/ui/modules/${name}`);
-		return loader.load()
+		const prefetched = descriptors[name];
+		delete descriptors[name];
+		const descriptor = prefetched ? Promise.resolve(prefetched) : new Json(`/api/v1/ui/modules/${name}`).load();
+		return descriptor
 		             .then((descriptor) => { return new Module(descriptor)})
 		             .then((module) => {
 		            	 return module.load()
@@ -362,7 +422,7 @@ export class Module {
 			// Load the module controller
 			const moduleController = await import(`/ui/modules/${location.module}/${this._descriptor.controller||'controller.js'}`);
 			this._menu = moduleController.menu;
-			const templateLoader = new Html(`/ui/modules/${this._descriptor.module}/${this._descriptor.template}`);
+			const templateLoader = new Html(asset(`/ui/modules/${this._descriptor.module}/${this._descriptor.template}`));
 			this._moduleTemplate = await templateLoader.load();
 			return this;
 		} catch (e){
@@ -427,7 +487,7 @@ export class Module {
 		if(view){
 			this.select(location);
 			if(!view.viewTemplate){
-		    	const template = new Html(`/ui/modules/${location.module}/${location.view}`);
+		    	const template = new Html(asset(`/ui/modules/${location.module}/${location.view}`));
 		    	return template.load()
 						   	   .then(template => {
 						   		   	 	view.viewTemplate = template;
@@ -439,7 +499,7 @@ export class Module {
 		// Lazy load view
 		this.loadApplication(location)
 		    .then(view => {
-		    	const template = new Html(`/ui/modules/${location.module}/${location.view}`);
+		    	const template = new Html(asset(`/ui/modules/${location.module}/${location.view}`));
 		    	return template.load()
 						   	   .then(template => {
 						   		   		this.select(location);
@@ -469,7 +529,7 @@ export class Module {
 			// Lazy load view
 			this.loadApplication(location)
 			    .then(view => {
-			    	const template = new Html(`/ui/modules/${location.module}/${location.view}`);
+			    	const template = new Html(asset(`/ui/modules/${location.module}/${location.view}`));
 			    	template.onNotFound(()=>{
 			    		rejected(location);
 			    	});